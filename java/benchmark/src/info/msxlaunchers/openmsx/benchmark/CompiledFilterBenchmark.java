@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.benchmark;
+
+import info.msxlaunchers.openmsx.launcher.data.filter.CompiledFilter;
+import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterFactory;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterParameter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterType;
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filtering a game list with a set of 6 filters over 4 types.
+ * The <code>perGameFilter</code> benchmark reproduces how games were filtered before filter sets were compiled
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CompiledFilterBenchmark
+{
+	private static final String[] COMPANIES = { "Konami", "Compile", "ASCII", "Hudson Soft", "T&E Soft" };
+
+	@Param( { "50000" } )
+	private int gameCount;
+
+	private List<Game> games;
+	private Map<String,RepositoryGame> repositoryInfoMap;
+	private Set<Filter> filters;
+
+	@Setup( Level.Trial )
+	public void createGames()
+	{
+		Random random = new Random( gameCount );
+		games = new ArrayList<>( gameCount );
+		repositoryInfoMap = new HashMap<>();
+
+		for( int index = 0; index < gameCount; index++ )
+		{
+			String sha1Code = String.format( "%040x", index );
+			Game.GameParam gameParam = Game.name( "game" + index ).sha1Code( sha1Code ).size( 8 << random.nextInt( 8 ) )
+					.isMSX( random.nextBoolean() ).isMSX2( random.nextBoolean() );
+			games.add( random.nextBoolean() ? gameParam.romA( "game.rom" ).build() : gameParam.diskA( "game.dsk" ).build() );
+
+			//most, but not all, games are known to the repository
+			if( random.nextInt( 10 ) > 0 )
+			{
+				repositoryInfoMap.put( sha1Code, RepositoryGame.title( "game" + index ).system( "MSX" )
+						.company( COMPANIES[random.nextInt( COMPANIES.length )] ).year( Integer.toString( 1983 + random.nextInt( 15 ) ) )
+						.country( "Japan" ).build() );
+			}
+		}
+
+		filters = new HashSet<>();
+		filters.add( FilterFactory.createFilter( FilterType.SIZE, "16", null, FilterParameter.EQUAL_OR_LESS ) );
+		filters.add( FilterFactory.createFilter( FilterType.SIZE, "128", "512", FilterParameter.BETWEEN_INCLUSIVE ) );
+		filters.add( FilterFactory.createFilter( FilterType.MEDIUM, "ROM", null, null ) );
+		filters.add( FilterFactory.createFilter( FilterType.MEDIUM, "DISK", null, null ) );
+		filters.add( FilterFactory.createFilter( FilterType.GENERATION, "MSX2", null, null ) );
+		filters.add( FilterFactory.createFilter( FilterType.YEAR, "1985", null, FilterParameter.GREATER ) );
+	}
+
+	@Benchmark
+	public Set<Game> perGameFilter()
+	{
+		Set<Game> filteredGames = new HashSet<>();
+
+		games.stream().filter( game -> !isFiltered( game ) ).forEach( filteredGames::add );
+
+		return filteredGames;
+	}
+
+	@Benchmark
+	public Set<Game> compiledFilter()
+	{
+		return CompiledFilter.compile( filters ).apply( games, game -> repositoryInfoMap.get( game.getSha1Code() ) );
+	}
+
+	private boolean isFiltered( Game game )
+	{
+		Map<String,Boolean> filtersByType = new HashMap<>();
+
+		for( Filter filter: filters )
+		{
+			String type = filter.getClass().getSimpleName();
+			Boolean existingFilterValue = filtersByType.get( type );
+			if( existingFilterValue == null )
+			{
+				filtersByType.put( type, true );
+				existingFilterValue = true;
+			}
+
+			filtersByType.put( type, existingFilterValue && filter.isFiltered( game, repositoryInfoMap.get( game.getSha1Code() ) ) );
+		}
+
+		//check which filter types have true
+		return filtersByType.values().stream().anyMatch( v -> v );
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.benchmark;
+
+import info.msxlaunchers.openmsx.common.HashCodes;
+import info.msxlaunchers.openmsx.common.HashUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures hashing throughput for media files ranging from small ROMs to laserdisc videos.
+ * The <code>streamSHA1</code> benchmark reproduces how files were hashed before the channel based implementation
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class HashUtilsBenchmark
+{
+	//8 KB ROM, 128 KB MegaROM, 720 KB disk, 32 MB harddisk, 700 MB laserdisc
+	@Param( { "8192", "131072", "737280", "33554432", "734003200" } )
+	private long fileSize;
+
+	private File file;
+
+	@Setup( Level.Trial )
+	public void createFile() throws IOException
+	{
+		file = File.createTempFile( "hash-benchmark", ".bin" );
+
+		Random random = new Random( fileSize );
+		byte[] chunk = new byte[0x100000];
+		try( OutputStream outputStream = Files.newOutputStream( file.toPath() ) )
+		{
+			for( long written = 0; written < fileSize; written += chunk.length )
+			{
+				random.nextBytes( chunk );
+				outputStream.write( chunk, 0, (int)Math.min( chunk.length, fileSize - written ) );
+			}
+		}
+	}
+
+	@TearDown( Level.Trial )
+	public void deleteFile()
+	{
+		file.delete();
+	}
+
+	@Benchmark
+	public String streamSHA1() throws IOException
+	{
+		try( InputStream inputStream = new BufferedInputStream( new FileInputStream( file ), HashUtils.READ_WRITE_BUFFER_SIZE ) )
+		{
+			return HashUtils.getSHA1Code( inputStream );
+		}
+	}
+
+	@Benchmark
+	public String channelSHA1()
+	{
+		return HashUtils.getSHA1Code( file );
+	}
+
+	@Benchmark
+	public String channelCRC32()
+	{
+		return HashUtils.getCRC32Code( file );
+	}
+
+	@Benchmark
+	public String[] separateSHA1MD5CRC32()
+	{
+		return new String[] { HashUtils.getSHA1Code( file ), HashUtils.getMD5Sum( file ), HashUtils.getCRC32Code( file ) };
+	}
+
+	@Benchmark
+	public HashCodes singlePassSHA1MD5CRC32()
+	{
+		return HashUtils.getHashCodes( file );
+	}
+}
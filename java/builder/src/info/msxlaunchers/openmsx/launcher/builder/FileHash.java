@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.builder;
+
+/**
+ * Holds the SHA1 code and size of a media file, or of a media entry inside a ZIP file
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class FileHash
+{
+	private final String name;
+	private final String sha1Code;
+	private final long size;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param name Name of the entry inside a ZIP file, or null for regular files
+	 * @param sha1Code SHA1 code of the content
+	 * @param size Size of the content
+	 */
+	public FileHash( String name, String sha1Code, long size )
+	{
+		this.name = name;
+		this.sha1Code = sha1Code;
+		this.size = size;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public String getSha1Code()
+	{
+		return sha1Code;
+	}
+
+	public long getSize()
+	{
+		return size;
+	}
+}
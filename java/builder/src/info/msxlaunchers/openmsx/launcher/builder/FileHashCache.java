@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.builder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Interface for a persistent cache of file hashes keyed by a file's path, size and last modified time.
+ * A file whose size and last modified time have not changed since it was hashed is not read again
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public interface FileHashCache
+{
+	/**
+	 * Returns the cached hashes of the given file if the file has not changed since they were stored
+	 * 
+	 * @param file File on disk
+	 * @return List of hashes (one per hashed ZIP entry, or one for regular files), or null if the file is not cached or has changed
+	 */
+	List<FileHash> getFileHashes( File file );
+
+	/**
+	 * Stores the hashes of the given file against the size and last modified time it had before it was read.
+	 * The hashes are not stored if the file has changed since then
+	 * 
+	 * @param file File on disk
+	 * @param length Size of the file before it was read
+	 * @param lastModified Last modified time of the file before it was read
+	 * @param fileHashes List of hashes (one per hashed ZIP entry, or one for regular files)
+	 */
+	void putFileHashes( File file, long length, long lastModified, List<FileHash> fileHashes );
+
+	/**
+	 * Writes hashes added since the last call to the cache file
+	 */
+	void save();
+}
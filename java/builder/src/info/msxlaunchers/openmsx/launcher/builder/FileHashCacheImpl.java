@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Implementation of <code>FileHashCache</code> that keeps the hashes in a binary sidecar file in the user data directory.
+ * New entries are appended to the file, and the file is rewritten when superseded entries outnumber the current ones
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+@Singleton
+final class FileHashCacheImpl implements FileHashCache
+{
+	private static final String CACHE_FILENAME = "file-hashes.dat";
+	private static final int CACHE_FILE_MAGIC = 0x4F4D4C48;
+	private static final int CACHE_FILE_VERSION = 1;
+
+	private final File cacheFile;
+
+	private Map<String,CachedFile> cachedFiles = null;
+	private final Set<String> unsavedPaths = ConcurrentHashMap.newKeySet();
+	private int storedRecords = 0;
+
+	@Inject
+	FileHashCacheImpl( @Named("UserDataDirectory") String userDataDirectory )
+	{
+		this.cacheFile = new File( userDataDirectory, CACHE_FILENAME );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.builder.FileHashCache#getFileHashes(java.io.File)
+	 */
+	@Override
+	public List<FileHash> getFileHashes( File file )
+	{
+		CachedFile cachedFile = getCachedFiles().get( getPath( file ) );
+
+		if( cachedFile != null && cachedFile.length == file.length() && cachedFile.lastModified == file.lastModified() )
+		{
+			return cachedFile.fileHashes;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.builder.FileHashCache#putFileHashes(java.io.File, long, long, java.util.List)
+	 */
+	@Override
+	public void putFileHashes( File file, long length, long lastModified, List<FileHash> fileHashes )
+	{
+		if( fileHashes.stream().anyMatch( fileHash -> fileHash.getSha1Code() == null ) )
+		{
+			//don't remember files that could not be read
+			return;
+		}
+
+		if( file.length() != length || file.lastModified() != lastModified )
+		{
+			//the file changed while it was read, e.g. it was still being copied, so the hashes may be of part of it
+			return;
+		}
+
+		String path = getPath( file );
+
+		//the size and time from before the file was read are stored, so a change made after the check above
+		//still makes the entry stale
+		getCachedFiles().put( path, new CachedFile( length, lastModified, Collections.unmodifiableList( new ArrayList<>( fileHashes ) ) ) );
+		unsavedPaths.add( path );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.builder.FileHashCache#save()
+	 */
+	@Override
+	public synchronized void save()
+	{
+		if( unsavedPaths.isEmpty() )
+		{
+			return;
+		}
+
+		Map<String,CachedFile> currentCachedFiles = getCachedFiles();
+
+		try
+		{
+			if( !cacheFile.exists() || storedRecords + unsavedPaths.size() > 2 * currentCachedFiles.size() )
+			{
+				rewriteCacheFile( currentCachedFiles );
+			}
+			else
+			{
+				appendToCacheFile( currentCachedFiles );
+			}
+		}
+		catch( IOException ioe )
+		{
+			//the cache is only an optimization - the files will be hashed again next time
+		}
+	}
+
+	private synchronized Map<String,CachedFile> getCachedFiles()
+	{
+		if( cachedFiles == null )
+		{
+			cachedFiles = new ConcurrentHashMap<>();
+			readCacheFile();
+		}
+
+		return cachedFiles;
+	}
+
+	private void readCacheFile()
+	{
+		if( !cacheFile.exists() )
+		{
+			return;
+		}
+
+		try( DataInputStream input = new DataInputStream( new BufferedInputStream( new FileInputStream( cacheFile ) ) ) )
+		{
+			if( input.readInt() != CACHE_FILE_MAGIC || input.readInt() != CACHE_FILE_VERSION )
+			{
+				return;
+			}
+
+			while( true )
+			{
+				String path = input.readUTF();
+				CachedFile cachedFile = readCachedFile( input );
+
+				cachedFiles.put( path, cachedFile );
+				storedRecords++;
+			}
+		}
+		catch( EOFException eofe )
+		{
+			//end of the cache file, or a partially written last record which is ignored
+		}
+		catch( IOException ioe )
+		{
+			//keep whatever was read so far
+		}
+	}
+
+	private CachedFile readCachedFile( DataInputStream input ) throws IOException
+	{
+		long length = input.readLong();
+		long lastModified = input.readLong();
+		int count = input.readShort();
+
+		List<FileHash> fileHashes = new ArrayList<>( count );
+		for( int index = 0; index < count; index++ )
+		{
+			String name = input.readBoolean() ? input.readUTF() : null;
+			String sha1Code = input.readUTF();
+			long size = input.readLong();
+
+			fileHashes.add( new FileHash( name, sha1Code, size ) );
+		}
+
+		return new CachedFile( length, lastModified, Collections.unmodifiableList( fileHashes ) );
+	}
+
+	private void rewriteCacheFile( Map<String,CachedFile> currentCachedFiles ) throws IOException
+	{
+		File tmpFile = new File( cacheFile.getParentFile(), CACHE_FILENAME + ".tmp" );
+
+		try( DataOutputStream output = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmpFile ) ) ) )
+		{
+			output.writeInt( CACHE_FILE_MAGIC );
+			output.writeInt( CACHE_FILE_VERSION );
+
+			for( Map.Entry<String,CachedFile> entry: currentCachedFiles.entrySet() )
+			{
+				writeCachedFile( output, entry.getKey(), entry.getValue() );
+			}
+		}
+
+		if( cacheFile.exists() && !cacheFile.delete() )
+		{
+			throw new IOException( "Cannot replace " + cacheFile );
+		}
+		if( !tmpFile.renameTo( cacheFile ) )
+		{
+			throw new IOException( "Cannot rename " + tmpFile );
+		}
+
+		storedRecords = currentCachedFiles.size();
+		unsavedPaths.clear();
+	}
+
+	private void appendToCacheFile( Map<String,CachedFile> currentCachedFiles ) throws IOException
+	{
+		try( DataOutputStream output = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( cacheFile, true ) ) ) )
+		{
+			for( String path: unsavedPaths )
+			{
+				writeCachedFile( output, path, currentCachedFiles.get( path ) );
+				unsavedPaths.remove( path );
+				storedRecords++;
+			}
+		}
+	}
+
+	private void writeCachedFile( DataOutputStream output, String path, CachedFile cachedFile ) throws IOException
+	{
+		output.writeUTF( path );
+		output.writeLong( cachedFile.length );
+		output.writeLong( cachedFile.lastModified );
+		output.writeShort( cachedFile.fileHashes.size() );
+
+		for( FileHash fileHash: cachedFile.fileHashes )
+		{
+			output.writeBoolean( fileHash.getName() != null );
+			if( fileHash.getName() != null )
+			{
+				output.writeUTF( fileHash.getName() );
+			}
+			output.writeUTF( fileHash.getSha1Code() );
+			output.writeLong( fileHash.getSize() );
+		}
+	}
+
+	private String getPath( File file )
+	{
+		try
+		{
+			return file.getCanonicalPath();
+		}
+		catch( IOException ioe )
+		{
+			return file.getAbsolutePath();
+		}
+	}
+
+	private static final class CachedFile
+	{
+		private final long length;
+		private final long lastModified;
+		private final List<FileHash> fileHashes;
+
+		CachedFile( long length, long lastModified, List<FileHash> fileHashes )
+		{
+			this.length = length;
+			this.lastModified = lastModified;
+			this.fileHashes = fileHashes;
+		}
+	}
+}
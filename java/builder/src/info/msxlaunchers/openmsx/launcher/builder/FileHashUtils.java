@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.builder;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import info.msxlaunchers.openmsx.common.HashUtils;
+
+/**
+ * Utility class that contains static methods to calculate hashes of files inside ZIP files
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class FileHashUtils
+{
+	private static final int ZIP_READ_BUFFER_SIZE = 0x10000;
+
+	private FileHashUtils()
+	{
+	}
+
+	/**
+	 * Returns the hash of the first file in the given ZIP file, which is the file openMSX uses when given the ZIP file.
+	 * The ZIP file is read sequentially without parsing its central directory
+	 * 
+	 * @param zipFile ZIP file
+	 * @return Hash of the first file in the ZIP file, or null if the ZIP file is invalid or contains no files
+	 * @throws NullPointerException if zipFile is null
+	 */
+	public static FileHash getZipFileHash( File zipFile )
+	{
+		Objects.requireNonNull( zipFile );
+
+		try( ZipInputStream zipInputStream = new ZipInputStream( new BufferedInputStream( new FileInputStream( zipFile ), ZIP_READ_BUFFER_SIZE ) ) )
+		{
+			ZipEntry zipEntry;
+			while( (zipEntry = zipInputStream.getNextEntry()) != null )
+			{
+				if( !zipEntry.isDirectory() )
+				{
+					String sha1Code = HashUtils.getSHA1Code( zipInputStream );
+
+					//the entry size is only guaranteed to be known once its data has been read
+					return new FileHash( zipEntry.getName(), sha1Code, zipEntry.getSize() );
+				}
+			}
+		}
+		catch( IOException ioe )
+		{
+			//invalid or truncated ZIP file - skip it
+		}
+
+		return null;
+	}
+}
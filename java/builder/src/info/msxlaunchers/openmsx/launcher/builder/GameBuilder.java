@@ -16,14 +16,12 @@
 package info.msxlaunchers.openmsx.launcher.builder;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
-import java.util.zip.ZipFile;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import info.msxlaunchers.openmsx.common.ExternalLinksUtils;
 import info.msxlaunchers.openmsx.common.FileTypeUtils;
@@ -35,6 +33,8 @@ import info.msxlaunchers.openmsx.launcher.data.game.constants.FDDMode;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.InputDevice;
 
+import com.google.inject.Inject;
+
 /**
  * Factory/Builder class to create Game object with extra data given different arguments
  * 
@@ -44,6 +44,17 @@ import info.msxlaunchers.openmsx.launcher.data.game.constants.InputDevice;
  */
 public class GameBuilder
 {
+	private final FileHashCache fileHashCache;
+
+	//files currently being hashed - callers asking for the same file wait for that result instead of hashing it again
+	private final Map<String,CompletableFuture<FileHash>> fileHashesInProgress = new ConcurrentHashMap<>();
+
+	@Inject
+	public GameBuilder( FileHashCache fileHashCache )
+	{
+		this.fileHashCache = Objects.requireNonNull( fileHashCache );
+	}
+
 	/*
 	 * Create and return a Game object given data entered by the user (e.g. in the Add/Edit screen)
 	 * 
@@ -87,6 +98,9 @@ public class GameBuilder
 		if( notScript )
 		{
 			fileSha1CodeAndSize = getFileSha1CodeAndSize( romA, romB, diskA, diskB, tape, harddisk, laserdisc );
+
+			//a single game entered by the user - keep its hash right away. Imports and scans save once when done
+			fileHashCache.save();
 		}
 		else
 		{
@@ -362,31 +376,11 @@ public class GameBuilder
 			File file = new File( mainFile );
 			if( file.exists() )
 			{
-				if( FileTypeUtils.isZIP( file ) )
-				{
-					try( ZipFile zip = new ZipFile( file ) )
-					{
-						ZipEntry firstZipEntry = zip.entries().nextElement();
-
-						try( InputStream inputStream = zip.getInputStream( firstZipEntry ) )
-						{
-							sha1Code = HashUtils.getSHA1Code( inputStream );
-							fileSize = firstZipEntry.getSize();
-						}
-					}
-					catch( ZipException e )
-					{
-						//invalid ZIP file - skip and return null
-					}
-					catch( IOException e )
-					{
-						//shouldn't happen here
-					}
-				}
-				else
+				FileHash fileHash = getFileHash( file );
+				if( fileHash != null )
 				{
-					fileSize = file.length();
-					sha1Code = HashUtils.getSHA1Code( file );
+					sha1Code = fileHash.getSha1Code();
+					fileSize = fileHash.getSize();
 				}
 			}
 
@@ -401,6 +395,72 @@ public class GameBuilder
 		return fileSha1CodeAndSize;
 	}
 
+	private FileHash getFileHash( File file )
+	{
+		FileHash cachedFileHash = getCachedFileHash( file );
+		if( cachedFileHash != null )
+		{
+			return cachedFileHash;
+		}
+
+		String path = file.getAbsolutePath();
+		CompletableFuture<FileHash> fileHashInProgress = new CompletableFuture<>();
+		CompletableFuture<FileHash> otherFileHashInProgress = fileHashesInProgress.putIfAbsent( path, fileHashInProgress );
+		if( otherFileHashInProgress != null )
+		{
+			return otherFileHashInProgress.join();
+		}
+
+		FileHash fileHash = null;
+		try
+		{
+			//another caller may have hashed the file and removed its hash in progress since the cache was checked
+			fileHash = getCachedFileHash( file );
+			if( fileHash == null )
+			{
+				fileHash = hashFile( file );
+			}
+		}
+		finally
+		{
+			fileHashInProgress.complete( fileHash );
+			fileHashesInProgress.remove( path );
+		}
+
+		return fileHash;
+	}
+
+	private FileHash getCachedFileHash( File file )
+	{
+		List<FileHash> cachedFileHashes = fileHashCache.getFileHashes( file );
+
+		return cachedFileHashes == null || cachedFileHashes.isEmpty() ? null : cachedFileHashes.get( 0 );
+	}
+
+	private FileHash hashFile( File file )
+	{
+		//the file is stamped before it is read so that a file that changes while it is read is not cached as unchanged
+		long length = file.length();
+		long lastModified = file.lastModified();
+
+		FileHash fileHash;
+		if( FileTypeUtils.isZIP( file ) )
+		{
+			fileHash = FileHashUtils.getZipFileHash( file );
+		}
+		else
+		{
+			fileHash = new FileHash( null, HashUtils.getSHA1Code( file ), length );
+		}
+
+		if( fileHash != null && fileHash.getSha1Code() != null )
+		{
+			fileHashCache.putFileHashes( file, length, lastModified, Collections.singletonList( fileHash ) );
+		}
+
+		return fileHash;
+	}
+
 	private Map<String,ExtraData> initIfNull( Map<String,ExtraData> extraDataMap )
 	{
 		if( extraDataMap == null )
@@ -28,5 +28,6 @@ public class GameBuilderModule extends AbstractModule
 	protected void configure()
 	{
 		bind( GameBuilder.class );
+		bind( FileHashCache.class ).to( FileHashCacheImpl.class );
 	}
 }
\ No newline at end of file
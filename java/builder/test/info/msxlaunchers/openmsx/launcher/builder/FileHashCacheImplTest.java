@@ -0,0 +1,138 @@
+package info.msxlaunchers.openmsx.launcher.builder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FileHashCacheImplTest
+{
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	@Test
+	public void test_GivenNonCachedFile_WhenGetFileHashes_ThenReturnNull() throws IOException
+	{
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+
+		assertNull( fileHashCache.getFileHashes( createFile( "file.rom", "data" ) ) );
+	}
+
+	@Test
+	public void test_GivenCachedFile_WhenGetFileHashes_ThenReturnCachedHashes() throws IOException
+	{
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+		File file = createFile( "file.rom", "data" );
+
+		fileHashCache.putFileHashes( file, file.length(), file.lastModified(), Collections.singletonList( new FileHash( null, "sha1", 100 ) ) );
+
+		List<FileHash> fileHashes = fileHashCache.getFileHashes( file );
+		assertEquals( 1, fileHashes.size() );
+		assertNull( fileHashes.get( 0 ).getName() );
+		assertEquals( "sha1", fileHashes.get( 0 ).getSha1Code() );
+		assertEquals( 100, fileHashes.get( 0 ).getSize() );
+	}
+
+	@Test
+	public void test_GivenCachedFileThatChanged_WhenGetFileHashes_ThenReturnNull() throws IOException
+	{
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+		File file = createFile( "file.rom", "data" );
+
+		fileHashCache.putFileHashes( file, file.length(), file.lastModified(), Collections.singletonList( new FileHash( null, "sha1", 100 ) ) );
+		createFile( "file.rom", "different data" );
+
+		assertNull( fileHashCache.getFileHashes( file ) );
+	}
+
+	@Test
+	public void test_GivenFileChangedWhileRead_WhenPutFileHashes_ThenFileIsNotCached() throws IOException
+	{
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+		File file = createFile( "file.rom", "partial" );
+		long length = file.length();
+		long lastModified = file.lastModified();
+
+		//the file was still being written when it was read
+		createFile( "file.rom", "partial data" );
+		fileHashCache.putFileHashes( file, length, lastModified, Collections.singletonList( new FileHash( null, "sha1", length ) ) );
+
+		assertNull( fileHashCache.getFileHashes( file ) );
+	}
+
+	@Test
+	public void test_GivenUnreadableFileHash_WhenPutFileHashes_ThenFileIsNotCached() throws IOException
+	{
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+		File file = createFile( "file.rom", "data" );
+
+		fileHashCache.putFileHashes( file, file.length(), file.lastModified(), Collections.singletonList( new FileHash( null, null, 0 ) ) );
+
+		assertNull( fileHashCache.getFileHashes( file ) );
+	}
+
+	@Test
+	public void test_GivenSavedCache_WhenReadByNewInstance_ThenReturnCachedHashes() throws IOException
+	{
+		File file1 = createFile( "file1.rom", "data1" );
+		File file2 = createFile( "file2.zip", "data2" );
+
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+		fileHashCache.putFileHashes( file1, file1.length(), file1.lastModified(), Collections.singletonList( new FileHash( null, "sha1", 100 ) ) );
+		fileHashCache.save();
+
+		//second save appends to the existing file
+		fileHashCache.putFileHashes( file2, file2.length(), file2.lastModified(), Arrays.asList( new FileHash( "disk1.dsk", "sha2", 200 ), new FileHash( "disk2.dsk", "sha3", 300 ) ) );
+		fileHashCache.save();
+
+		FileHashCacheImpl newFileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+
+		assertEquals( "sha1", newFileHashCache.getFileHashes( file1 ).get( 0 ).getSha1Code() );
+
+		List<FileHash> fileHashes = newFileHashCache.getFileHashes( file2 );
+		assertEquals( 2, fileHashes.size() );
+		assertEquals( "disk1.dsk", fileHashes.get( 0 ).getName() );
+		assertEquals( "sha2", fileHashes.get( 0 ).getSha1Code() );
+		assertEquals( 200, fileHashes.get( 0 ).getSize() );
+		assertEquals( "disk2.dsk", fileHashes.get( 1 ).getName() );
+		assertEquals( "sha3", fileHashes.get( 1 ).getSha1Code() );
+		assertEquals( 300, fileHashes.get( 1 ).getSize() );
+	}
+
+	@Test
+	public void test_GivenFileHashedManyTimes_WhenSave_ThenLatestHashIsKept() throws IOException
+	{
+		File file = createFile( "file.rom", "data" );
+
+		FileHashCacheImpl fileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+		for( int index = 0; index < 10; index++ )
+		{
+			fileHashCache.putFileHashes( file, file.length(), file.lastModified(), Collections.singletonList( new FileHash( null, "sha" + index, index ) ) );
+			fileHashCache.save();
+		}
+
+		FileHashCacheImpl newFileHashCache = new FileHashCacheImpl( tmpFolder.getRoot().toString() );
+
+		assertEquals( "sha9", newFileHashCache.getFileHashes( file ).get( 0 ).getSha1Code() );
+	}
+
+	private File createFile( String name, String content ) throws IOException
+	{
+		File file = new File( tmpFolder.getRoot(), name );
+		try( PrintWriter writer = new PrintWriter( file ) )
+		{
+			writer.print( content );
+		}
+
+		return file;
+	}
+}
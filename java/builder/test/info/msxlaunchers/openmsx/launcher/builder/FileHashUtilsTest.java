@@ -0,0 +1,93 @@
+package info.msxlaunchers.openmsx.launcher.builder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import info.msxlaunchers.openmsx.common.HashUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FileHashUtilsTest
+{
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	@Test( expected = NullPointerException.class )
+	public void test_GivenNullFile_WhenGetZipFileHashes_ThenThrowNullPointerException()
+	{
+		FileHashUtils.getZipFileHash( null );
+	}
+
+	@Test
+	public void test_GivenZipFileWithManyEntries_WhenGetZipFileHash_ThenReturnFirstEntry() throws IOException
+	{
+		File zipFile = tmpFolder.newFile( "game.zip" );
+		try( ZipOutputStream zipOutputStream = new ZipOutputStream( new FileOutputStream( zipFile ) ) )
+		{
+			zipOutputStream.putNextEntry( new ZipEntry( "docs/" ) );
+			zipOutputStream.closeEntry();
+			addEntry( zipOutputStream, "disk1.dsk", "disk1 data" );
+			addEntry( zipOutputStream, "disk2.dsk", "disk2 more data" );
+		}
+
+		assertFileHash( FileHashUtils.getZipFileHash( zipFile ), "disk1.dsk", "disk1 data" );
+	}
+
+	@Test
+	public void test_GivenEmptyZipFile_WhenGetZipFileHash_ThenReturnNull() throws IOException
+	{
+		File zipFile = tmpFolder.newFile( "empty.zip" );
+		try( ZipOutputStream zipOutputStream = new ZipOutputStream( new FileOutputStream( zipFile ) ) )
+		{
+			zipOutputStream.putNextEntry( new ZipEntry( "docs/" ) );
+			zipOutputStream.closeEntry();
+		}
+
+		assertNull( FileHashUtils.getZipFileHash( zipFile ) );
+	}
+
+	@Test
+	public void test_GivenInvalidZipFile_WhenGetZipFileHashes_ThenReturnNull() throws IOException
+	{
+		File zipFile = tmpFolder.newFile( "invalid.zip" );
+		try( PrintWriter writer = new PrintWriter( zipFile ) )
+		{
+			writer.println( "not a zip file" );
+		}
+
+		assertNull( FileHashUtils.getZipFileHash( zipFile ) );
+	}
+
+	@Test
+	public void test_GivenNonExistentFile_WhenGetZipFileHashes_ThenReturnNull()
+	{
+		assertNull( FileHashUtils.getZipFileHash( new File( tmpFolder.getRoot(), "missing.zip" ) ) );
+	}
+
+	private void addEntry( ZipOutputStream zipOutputStream, String name, String content ) throws IOException
+	{
+		zipOutputStream.putNextEntry( new ZipEntry( name ) );
+		zipOutputStream.write( content.getBytes( StandardCharsets.UTF_8 ) );
+		zipOutputStream.closeEntry();
+	}
+
+	private void assertFileHash( FileHash fileHash, String name, String content )
+	{
+		byte[] data = content.getBytes( StandardCharsets.UTF_8 );
+
+		assertEquals( name, fileHash.getName() );
+		assertEquals( HashUtils.getSHA1Code( new ByteArrayInputStream( data ) ), fileHash.getSha1Code() );
+		assertEquals( data.length, fileHash.getSize() );
+	}
+}
@@ -8,8 +8,13 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -22,16 +27,28 @@ import info.msxlaunchers.openmsx.launcher.data.game.constants.FDDMode;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.InputDevice;
 
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith( MockitoJUnitRunner.class )
 public class GameBuilderTest
@@ -39,10 +56,25 @@ public class GameBuilderTest
 	@Rule
 	public final TemporaryFolder tmpFolder = new TemporaryFolder();
 
+	@Mock FileHashCache fileHashCache;
+
+	@Before
+	public void setup()
+	{
+		//by default nothing is cached
+		lenient().when( fileHashCache.getFileHashes( any( File.class ) ) ).thenReturn( null );
+	}
+
+	@Test( expected = NullPointerException.class )
+	public void test_GivenNullFileHashCache_WhenCallingConstructor_ThenThrowNullPointerException()
+	{
+		new GameBuilder( null );
+	}
+
 	@Test
 	public void test_GivenNullGameFields_WhenCallingCreateGameObjectForDataEnteredByUser_ThenGameShouldBeNull()
 	{
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		Game game = gameBuilder.createGameObjectForDataEnteredByUser( null, null, null, null, null, null, null, null, null, null, null, null, null, false, null, false, null );
 
@@ -52,7 +84,7 @@ public class GameBuilderTest
 	@Test
 	public void test_GivenNullGameFields_WhenCallingCreateGameObjectForImportedData_ThenGameShouldBeNull()
 	{
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		Game game = gameBuilder.createGameObjectForImportedData( null, null, null, null, null, null, null, null, null, null, null );
 
@@ -62,7 +94,7 @@ public class GameBuilderTest
 	@Test
 	public void test_GivenNullGameFields_WhenCallingCreateGameObjectForScannedFiles_ThenGameShouldBeNull()
 	{
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		Game game = gameBuilder.createGameObjectForScannedFiles( null, null, null, null, null, null, null, null, null, 0, null );
 
@@ -72,7 +104,7 @@ public class GameBuilderTest
 	@Test( expected = NullPointerException.class )
 	public void test_GivenNullGameObject_WhenCallingCreateGameObjectFromGameAndUpdateExtraData_ThenThrowNullPointerException()
 	{
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		gameBuilder.createGameObjectFromGameAndUpdateExtraData( null, null );
 	}
@@ -97,7 +129,7 @@ public class GameBuilderTest
 		String name = "name";
 		String info = "info";
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game game = gameBuilder.createGameObjectForDataEnteredByUser( name, info, null, tmpFile.getAbsolutePath(), null, null, null, null, null, null, null, null, null, true, null, true, extraDataMap );
 
 		//now check all game fields
@@ -161,7 +193,7 @@ public class GameBuilderTest
 		String name = "name";
 		String info = "info";
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game game = gameBuilder.createGameObjectForDataEnteredByUser( name, info, null, tmpZipFile.getAbsolutePath(), null, null, null, null, null, null, null, null, null, false, null, false, extraDataMap );
 
 		//now check all game fields
@@ -204,7 +236,7 @@ public class GameBuilderTest
 	@Test
 	public void test_GivenScriptAndNoExtraData_WhenCallingCreateGameObjectForDataEnteredByUser_ThenGameExtraFieldsShouldNotBeSet()
 	{
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		String name = "name";
 		String info = "info";
@@ -272,7 +304,7 @@ public class GameBuilderTest
 		String info = "info";
 		String machine = "msx2+";
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game game = gameBuilder.createGameObjectForImportedData( name, info, machine, tmpFile.getAbsolutePath(), null, null, null, null, null, null, extraDataMap );
 
 		//now check all game fields
@@ -321,7 +353,7 @@ public class GameBuilderTest
 		String machine = "msx2+";
 		String rom = "rom";
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game game = gameBuilder.createGameObjectForImportedData( name, info, machine, rom, null, null, null, null, null, null, extraDataMap );
 
 		assertNull( game );
@@ -335,7 +367,7 @@ public class GameBuilderTest
 		Map<String,ExtraData> extraDataMap = new HashMap<String,ExtraData>();
 		extraDataMap.put( "123456", extraData );
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		String name = "name";
 		String machine = "machine";
@@ -404,7 +436,7 @@ public class GameBuilderTest
 		Map<String,ExtraData> extraDataMap = new HashMap<String,ExtraData>();
 		extraDataMap.put( sha1Code, extraData );
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game newGame = gameBuilder.createGameObjectFromGameAndUpdateExtraData( game, extraDataMap );
 
 		assertEquals( name, newGame.getName() );
@@ -459,7 +491,7 @@ public class GameBuilderTest
 				.isMSX2( true ).isMSX2Plus( true ).isPCM( true ).isMoonsound( true )
 				.sha1Code( sha1Code ).size( tmpFile.length() ).build();
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game newGame = gameBuilder.createGameObjectFromGameAndUpdateExtraData( game, null );
 
 		assertEquals( name, newGame.getName() );
@@ -514,7 +546,7 @@ public class GameBuilderTest
 				.isMSX2( true ).isMSX2Plus( true ).isPCM( true ).isMoonsound( true )
 				.sha1Code( sha1Code ).size( tmpFile.length() ).build();
 
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 		Game newGame = gameBuilder.createGameObjectFromGameAndUpdateExtraData( game, null );
 
 		assertEquals( name, newGame.getName() );
@@ -553,7 +585,7 @@ public class GameBuilderTest
 	@Test
 	public void test_GivenManyGameObjects_WhenCallingIsNotScript_ThenReturnTrueWhenScriptOnly() throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, SecurityException, NoSuchMethodException
 	{
-		GameBuilder gameBuilder = new GameBuilder();
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
 
 		Method method = GameBuilder.class.getDeclaredMethod( "isNotScript", String.class, String.class, String.class, String.class, String.class, String.class, String.class, String.class );
 		method.setAccessible( true );
@@ -590,4 +622,97 @@ public class GameBuilderTest
 		out.close();
 		in.close();
 	}
+
+	@Test
+	public void test_GivenCachedFileHash_WhenCallingCreateGameObjectForDataEnteredByUser_ThenFileIsNotHashedAgain() throws IOException
+	{
+		File tmpFile = tmpFolder.newFile( "cachedrom.rom" );
+		PrintWriter writer = new PrintWriter( tmpFile );
+		writer.println( "romdata" );
+		writer.close();
+
+		when( fileHashCache.getFileHashes( tmpFile ) ).thenReturn( Collections.singletonList( new FileHash( null, "cachedSha1", 1234 ) ) );
+
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
+		Game game = gameBuilder.createGameObjectForDataEnteredByUser( "name", null, "machine", tmpFile.getAbsolutePath(), null, null, null, null, null, null, null, null, null, false, null, false, null );
+
+		assertEquals( "cachedSha1", game.getSha1Code() );
+		assertEquals( 1234, game.getSize() );
+		verify( fileHashCache, never() ).putFileHashes( any( File.class ), anyLong(), anyLong(), anyList() );
+	}
+
+	@Test
+	public void test_GivenNonCachedFile_WhenCallingCreateGameObjectForDataEnteredByUser_ThenFileHashIsCached() throws IOException
+	{
+		File tmpFile = tmpFolder.newFile( "newrom.rom" );
+		PrintWriter writer = new PrintWriter( tmpFile );
+		writer.println( "romdata" );
+		writer.close();
+		String sha1Code = HashUtils.getSHA1Code( tmpFile );
+
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
+		Game game = gameBuilder.createGameObjectForDataEnteredByUser( "name", null, "machine", tmpFile.getAbsolutePath(), null, null, null, null, null, null, null, null, null, false, null, false, null );
+
+		assertEquals( sha1Code, game.getSha1Code() );
+		verify( fileHashCache ).putFileHashes( any( File.class ), anyLong(), anyLong(), anyList() );
+		verify( fileHashCache ).save();
+	}
+
+	@Test
+	public void test_GivenNonCachedFile_WhenCallingCreateGameObjectForImportedData_ThenFileHashIsCachedButNotSaved() throws IOException
+	{
+		File tmpFile = tmpFolder.newFile( "importedrom.rom" );
+		PrintWriter writer = new PrintWriter( tmpFile );
+		writer.println( "romdata" );
+		writer.close();
+
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
+		gameBuilder.createGameObjectForImportedData( "name", null, "machine", tmpFile.getAbsolutePath(), null, null, null, null, null, null, null );
+
+		verify( fileHashCache ).putFileHashes( any( File.class ), anyLong(), anyLong(), anyList() );
+		verify( fileHashCache, never() ).save();
+	}
+
+	@Test
+	public void test_GivenTwoCallersForSameFile_WhenSecondStartsHashingAfterFirstFinished_ThenFileIsHashedOnce() throws IOException, InterruptedException
+	{
+		File tmpFile = tmpFolder.newFile( "sharedrom.rom" );
+		PrintWriter writer = new PrintWriter( tmpFile );
+		writer.println( "romdata" );
+		writer.close();
+		String sha1Code = HashUtils.getSHA1Code( tmpFile );
+
+		AtomicReference<List<FileHash>> cachedFileHashes = new AtomicReference<>();
+		AtomicBoolean secondCallerMissedCache = new AtomicBoolean();
+		CountDownLatch firstCallerDone = new CountDownLatch( 1 );
+
+		//the second caller misses the cache but only goes on once the first caller has hashed the file and finished
+		when( fileHashCache.getFileHashes( tmpFile ) ).thenAnswer( invocation -> {
+			if( Thread.currentThread().getName().equals( "second caller" ) && secondCallerMissedCache.compareAndSet( false, true ) )
+			{
+				firstCallerDone.await();
+				return null;
+			}
+			return cachedFileHashes.get();
+		} );
+		doAnswer( invocation -> {
+			cachedFileHashes.set( invocation.getArgument( 3 ) );
+			return null;
+		} ).when( fileHashCache ).putFileHashes( eq( tmpFile ), anyLong(), anyLong(), anyList() );
+
+		GameBuilder gameBuilder = new GameBuilder( fileHashCache );
+
+		AtomicReference<Game> secondGame = new AtomicReference<>();
+		Thread secondCaller = new Thread( () -> secondGame.set( gameBuilder.createGameObjectForDataEnteredByUser( "name2", null, "machine",
+				tmpFile.getAbsolutePath(), null, null, null, null, null, null, null, null, null, false, null, false, null ) ), "second caller" );
+		secondCaller.start();
+
+		Game firstGame = gameBuilder.createGameObjectForDataEnteredByUser( "name1", null, "machine", tmpFile.getAbsolutePath(), null, null, null, null, null, null, null, null, null, false, null, false, null );
+		firstCallerDone.countDown();
+		secondCaller.join();
+
+		assertEquals( sha1Code, firstGame.getSha1Code() );
+		assertEquals( sha1Code, secondGame.get().getSha1Code() );
+		verify( fileHashCache, times( 1 ) ).putFileHashes( eq( tmpFile ), anyLong(), anyLong(), anyList() );
+	}
 }
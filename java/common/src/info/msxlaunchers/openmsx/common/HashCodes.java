@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.common;
+
+/**
+ * Holds the SHA1, MD5 and CRC32 codes of a file calculated in a single pass
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ */
+public final class HashCodes
+{
+	private final String sha1Code;
+	private final String md5Sum;
+	private final String crc32Code;
+
+	HashCodes( String sha1Code, String md5Sum, String crc32Code )
+	{
+		this.sha1Code = sha1Code;
+		this.md5Sum = md5Sum;
+		this.crc32Code = crc32Code;
+	}
+
+	public String getSha1Code()
+	{
+		return sha1Code;
+	}
+
+	public String getMD5Sum()
+	{
+		return md5Sum;
+	}
+
+	public String getCRC32Code()
+	{
+		return crc32Code;
+	}
+}
@@ -15,14 +15,17 @@
  */
 package info.msxlaunchers.openmsx.common;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.zip.CRC32;
 
 /**
@@ -37,6 +40,16 @@ public final class HashUtils
 
 	private static final String SHA1 = "SHA1";
 	private static final String MD5 = "MD5";
+	private static final int CHANNEL_BUFFER_SIZE = 0x40000;
+	private static final int STREAM_BUFFER_SIZE = 0x10000;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	//digests and buffers are reused by each thread to avoid allocating them for every file
+	private static final ThreadLocal<MessageDigest> SHA1_DIGEST = ThreadLocal.withInitial( () -> getMessageDigest( SHA1 ) );
+	private static final ThreadLocal<MessageDigest> MD5_DIGEST = ThreadLocal.withInitial( () -> getMessageDigest( MD5 ) );
+	private static final ThreadLocal<ByteBuffer> CHANNEL_BUFFER = ThreadLocal.withInitial( () -> ByteBuffer.allocateDirect( CHANNEL_BUFFER_SIZE ) );
+	private static final ThreadLocal<byte[]> STREAM_BUFFER = ThreadLocal.withInitial( () -> new byte[STREAM_BUFFER_SIZE] );
+
 	/**
 	 * Returns SHA1 code of data coming from given stream
 	 * 
@@ -48,25 +61,46 @@ public final class HashUtils
 	{
 		Objects.requireNonNull( inputStream );
 
-		return getHash( inputStream, SHA1 );
+		MessageDigest md = SHA1_DIGEST.get();
+		md.reset();
+
+		byte[] dataBytes = STREAM_BUFFER.get();
+		int nread = 0;
+
+		try
+		{
+			while( (nread = inputStream.read( dataBytes )) != -1 )
+			{
+				md.update( dataBytes, 0, nread );
+			}
+		}
+		catch ( IOException e )
+		{
+			return null;
+		}
+
+		return toHexString( md.digest() );
 	}
 
 	/**
 	 * Returns SHA1 code of the given file
 	 * 
 	 * @param file File
-	 * @return SHA1 code of the file, or null if a FileNotFoundException is thrown when converting the given file to a file input stream
+	 * @return SHA1 code of the file, or null if the file cannot be read
 	 * @throws NullPointerException if file is null
 	 */
 	public static String getSHA1Code( File file )
 	{
 		Objects.requireNonNull( file );
 
-		try( BufferedInputStream fis = new BufferedInputStream( new FileInputStream( file ), READ_WRITE_BUFFER_SIZE ) )
+		MessageDigest md = SHA1_DIGEST.get();
+		md.reset();
+
+		if( readFile( file, md::update ) )
 		{
-			return getSHA1Code( fis );
+			return toHexString( md.digest() );
 		}
-		catch( IOException ioe )
+		else
 		{
 			return null;
 		}
@@ -76,18 +110,21 @@ public final class HashUtils
 	 * Returns MD5 sum of the given file
 	 * 
 	 * @param file File
-	 * @return MD5 sum of the file, or null if the file is not found
+	 * @return MD5 sum of the file, or null if the file cannot be read
 	 * @throws NullPointerException if file is null
 	 */
 	public static String getMD5Sum( File file )
 	{
 		Objects.requireNonNull( file );
 
-		try( BufferedInputStream fis = new BufferedInputStream( new FileInputStream( file ), READ_WRITE_BUFFER_SIZE ) )
+		MessageDigest md = MD5_DIGEST.get();
+		md.reset();
+
+		if( readFile( file, md::update ) )
 		{
-			return getHash( fis, MD5 );
+			return toHexString( md.digest() );
 		}
-		catch( IOException ioe )
+		else
 		{
 			return null;
 		}
@@ -97,67 +134,105 @@ public final class HashUtils
 	 * Returns CRC32 code of the given file
 	 * 
 	 * @param file File
-	 * @return CRC32 code of the file, or null if the file is not found
+	 * @return CRC32 code of the file, or null if the file cannot be read
 	 * @throws NullPointerException if file is null
 	 */
 	public static String getCRC32Code( File file )
 	{
-		try( InputStream inputStream = new BufferedInputStream( new FileInputStream( file ), READ_WRITE_BUFFER_SIZE ) )
-		{
-			CRC32 crc = new CRC32();
+		Objects.requireNonNull( file );
 
-			int count;
-			while( (count = inputStream.read()) != -1 )
-			{
-				crc.update( count );
-			}
+		CRC32 crc = new CRC32();
 
+		if( readFile( file, crc::update ) )
+		{
 			return Long.toHexString( crc.getValue() );
 		}
-		catch( IOException ioe )
+		else
 		{
 			return null;
 		}
 	}
 
-	private static String getHash( InputStream inputStream, String algorithm )
+	/**
+	 * Returns SHA1 code, MD5 sum and CRC32 code of the given file, reading the file only once
+	 * 
+	 * @param file File
+	 * @return HashCodes containing the three codes, or null if the file cannot be read
+	 * @throws NullPointerException if file is null
+	 */
+	public static HashCodes getHashCodes( File file )
 	{
-		MessageDigest md = null;
-		try
+		Objects.requireNonNull( file );
+
+		MessageDigest sha1 = SHA1_DIGEST.get();
+		sha1.reset();
+		MessageDigest md5 = MD5_DIGEST.get();
+		md5.reset();
+		CRC32 crc = new CRC32();
+
+		if( readFile( file, sha1::update, md5::update, crc::update ) )
 		{
-			md = MessageDigest.getInstance( algorithm );
+			return new HashCodes( toHexString( sha1.digest() ), toHexString( md5.digest() ), Long.toHexString( crc.getValue() ) );
 		}
-		catch( NoSuchAlgorithmException e )
+		else
 		{
-			//This should not happen
-			throw new RuntimeException( e );
+			return null;
 		}
+	}
 
-		byte[] dataBytes = new byte[0x10000];
-		 
-		int nread = 0; 
-		 
-		try
+	@SafeVarargs
+	private static boolean readFile( File file, Consumer<ByteBuffer>... consumers )
+	{
+		ByteBuffer buffer = CHANNEL_BUFFER.get();
+
+		try( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
 		{
-			while( (nread = inputStream.read( dataBytes )) != -1 )
+			buffer.clear();
+
+			while( channel.read( buffer ) != -1 )
 			{
-				md.update( dataBytes, 0, nread );
+				buffer.flip();
+				for( Consumer<ByteBuffer> consumer: consumers )
+				{
+					//each consumer reads up to the limit so rewind to the same data for the next one
+					buffer.mark();
+					consumer.accept( buffer );
+					buffer.reset();
+				}
+				buffer.clear();
 			}
+
+			return true;
 		}
-		catch ( IOException e )
+		catch( IOException | InvalidPathException e )
 		{
-			return null;
+			return false;
 		}
+	}
 
-		byte[] mdbytes = md.digest();
+	private static MessageDigest getMessageDigest( String algorithm )
+	{
+		try
+		{
+			return MessageDigest.getInstance( algorithm );
+		}
+		catch( NoSuchAlgorithmException e )
+		{
+			//This should not happen
+			throw new RuntimeException( e );
+		}
+	}
 
-		//convert the byte to hex format
-		StringBuilder sb = new StringBuilder();
-		for( int i = 0; i < mdbytes.length; i++ )
+	private static String toHexString( byte[] bytes )
+	{
+		char[] hex = new char[bytes.length * 2];
+
+		for( int i = 0; i < bytes.length; i++ )
 		{
-			sb.append( Integer.toString( (mdbytes[i] & 0xff) + 0x100, 16).substring( 1 ) );
+			hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+			hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
 		}
-		
-		return sb.toString();
+
+		return new String( hex );
 	}
-}
\ No newline at end of file
+}
@@ -2,12 +2,17 @@ package info.msxlaunchers.openmsx.common;
 
 import info.msxlaunchers.openmsx.common.HashUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
@@ -18,6 +23,9 @@ import static org.mockito.Mockito.mock;
 
 public class HashUtilsTest
 {
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
 	@Test
 	public void test_whenInstantiateClass_thenGetAnInstance()
 	{
@@ -105,4 +113,56 @@ public class HashUtilsTest
 	{
 		assertNull( HashUtils.getCRC32Code( new File( "/no_file" ) ) );
 	}
+
+	@Test
+	public void testGetHashCodesForValidFile()
+	{
+		String validFile = getClass().getResource( "files/valid.rom" ).getFile();
+		HashCodes hashCodes = HashUtils.getHashCodes( new File( validFile ) );
+		assertEquals( "f236345f43828597739f4a326318b6a3876ff73f", hashCodes.getSha1Code() );
+		assertEquals( "cf623b0847e0dc101cb183d7ade3cb27", hashCodes.getMD5Sum() );
+		assertEquals( "b1ace0a0", hashCodes.getCRC32Code() );
+
+		String emptyFile = getClass().getResource( "files/empty.rom" ).getFile();
+		HashCodes emptyHashCodes = HashUtils.getHashCodes( new File( emptyFile ) );
+		assertEquals( "da39a3ee5e6b4b0d3255bfef95601890afd80709", emptyHashCodes.getSha1Code() );
+		assertEquals( "d41d8cd98f00b204e9800998ecf8427e", emptyHashCodes.getMD5Sum() );
+		assertEquals( "0", emptyHashCodes.getCRC32Code() );
+	}
+
+	@Test( expected = NullPointerException.class )
+	public void testGetHashCodesForNullFile()
+	{
+		HashUtils.getHashCodes( (File)null );
+	}
+
+	@Test
+	public void testGetHashCodesForNonExistentFile()
+	{
+		assertNull( HashUtils.getHashCodes( new File( "/no_file" ) ) );
+	}
+
+	@Test
+	public void testHashCodesForFileLargerThanReadBuffer() throws IOException
+	{
+		File largeFile = tmpFolder.newFile( "large.rom" );
+		byte[] data = new byte[3000000];
+		for( int i = 0; i < data.length; i++ )
+		{
+			data[i] = (byte)(i * 31 + i / 7);
+		}
+		Files.write( largeFile.toPath(), data );
+
+		String expectedSha1Code = HashUtils.getSHA1Code( new ByteArrayInputStream( data ) );
+		CRC32 crc = new CRC32();
+		crc.update( data );
+
+		HashCodes hashCodes = HashUtils.getHashCodes( largeFile );
+
+		assertEquals( expectedSha1Code, HashUtils.getSHA1Code( largeFile ) );
+		assertEquals( expectedSha1Code, hashCodes.getSha1Code() );
+		assertEquals( HashUtils.getMD5Sum( largeFile ), hashCodes.getMD5Sum() );
+		assertEquals( Long.toHexString( crc.getValue() ), hashCodes.getCRC32Code() );
+		assertEquals( hashCodes.getCRC32Code(), HashUtils.getCRC32Code( largeFile ) );
+	}
 }
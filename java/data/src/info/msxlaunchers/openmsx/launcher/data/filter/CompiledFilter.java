@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.data.filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import info.msxlaunchers.openmsx.common.Utils;
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+/**
+ * Set of filters compiled into a single predicate.
+ * Filters of the same type are combined so that a game is filtered by that type only if all of them filter it,
+ * and a game is filtered by the set if any type filters it. Grouping is done once at compile time, and
+ * size and year filters are reduced to inclusive ranges that are checked with primitive comparisons
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class CompiledFilter
+{
+	//game collections at least this big are filtered in parallel
+	static final int PARALLEL_THRESHOLD = 20000;
+
+	private final long[] sizeLowerBounds;
+	private final long[] sizeUpperBounds;
+	private final long[] yearLowerBounds;
+	private final long[] yearUpperBounds;
+	private final Filter[][] filterGroups;
+
+	private CompiledFilter( List<RangeFilter> sizeFilters, List<RangeFilter> yearFilters, List<Filter[]> filterGroups )
+	{
+		this.sizeLowerBounds = getLowerBounds( sizeFilters );
+		this.sizeUpperBounds = getUpperBounds( sizeFilters );
+		this.yearLowerBounds = getLowerBounds( yearFilters );
+		this.yearUpperBounds = getUpperBounds( yearFilters );
+		this.filterGroups = filterGroups.toArray( new Filter[filterGroups.size()][] );
+	}
+
+	/**
+	 * Compiles the given set of filters
+	 * 
+	 * @param filters Set of filters. Cannot be null
+	 * @return <code>CompiledFilter</code> that is equivalent to the given filters
+	 */
+	public static CompiledFilter compile( Set<Filter> filters )
+	{
+		Objects.requireNonNull( filters );
+
+		//filters are grouped by their class, which has a one to one relationship with their type
+		Map<Class<?>,List<Filter>> filtersByClass = new LinkedHashMap<>();
+		for( Filter filter: filters )
+		{
+			filtersByClass.computeIfAbsent( filter.getClass(), k -> new ArrayList<>() ).add( filter );
+		}
+
+		List<RangeFilter> sizeFilters = null;
+		List<RangeFilter> yearFilters = null;
+		List<Filter[]> filterGroups = new ArrayList<>();
+		for( Map.Entry<Class<?>,List<Filter>> entry: filtersByClass.entrySet() )
+		{
+			if( entry.getKey() == SizeFilter.class )
+			{
+				sizeFilters = toRangeFilters( entry.getValue() );
+			}
+			else if( entry.getKey() == YearFilter.class )
+			{
+				yearFilters = toRangeFilters( entry.getValue() );
+			}
+			else
+			{
+				filterGroups.add( entry.getValue().toArray( new Filter[entry.getValue().size()] ) );
+			}
+		}
+
+		return new CompiledFilter( sizeFilters, yearFilters, filterGroups );
+	}
+
+	/**
+	 * Returns whether the given game is filtered by the compiled filters
+	 * 
+	 * @param game Game object - cannot be null
+	 * @param repositoryGame Repository Game object - can be null
+	 * @return true if the given game is to be filtered
+	 */
+	public boolean isFiltered( Game game, RepositoryGame repositoryGame )
+	{
+		Objects.requireNonNull( game );
+
+		if( sizeLowerBounds != null && !isInRanges( game.getSize(), sizeLowerBounds, sizeUpperBounds ) )
+		{
+			return true;
+		}
+
+		for( Filter[] filterGroup: filterGroups )
+		{
+			if( isFilteredByAll( filterGroup, game, repositoryGame ) )
+			{
+				return true;
+			}
+		}
+
+		return yearLowerBounds != null && ( repositoryGame == null ||
+				!isInRanges( Utils.getNumber( repositoryGame.getYear() ), yearLowerBounds, yearUpperBounds ) );
+	}
+
+	/**
+	 * Returns the games that are not filtered by the compiled filters. Large collections are filtered in parallel
+	 * 
+	 * @param games Collection of games - cannot be null
+	 * @param repositoryGameGetter Function that returns the repository game of a game, or null if there is none. Called once per game
+	 * @return Set of games that are not filtered
+	 */
+	public Set<Game> apply( Collection<Game> games, Function<Game,RepositoryGame> repositoryGameGetter )
+	{
+		Objects.requireNonNull( games );
+		Objects.requireNonNull( repositoryGameGetter );
+
+		Stream<Game> stream = games.size() < PARALLEL_THRESHOLD ? games.stream() : games.parallelStream();
+
+		return stream.filter( game -> !isFiltered( game, repositoryGameGetter.apply( game ) ) ).collect( Collectors.toSet() );
+	}
+
+	private static List<RangeFilter> toRangeFilters( List<Filter> filters )
+	{
+		return filters.stream().map( RangeFilter.class::cast ).collect( Collectors.toList() );
+	}
+
+	private static long[] getLowerBounds( List<RangeFilter> filters )
+	{
+		return filters == null ? null : filters.stream().mapToLong( RangeFilter::getLowerBound ).toArray();
+	}
+
+	private static long[] getUpperBounds( List<RangeFilter> filters )
+	{
+		return filters == null ? null : filters.stream().mapToLong( RangeFilter::getUpperBound ).toArray();
+	}
+
+	private static boolean isInRanges( long value, long[] lowerBounds, long[] upperBounds )
+	{
+		for( int ix = 0; ix < lowerBounds.length; ix++ )
+		{
+			if( value >= lowerBounds[ix] && value <= upperBounds[ix] )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isFilteredByAll( Filter[] filterGroup, Game game, RepositoryGame repositoryGame )
+	{
+		for( Filter filter: filterGroup )
+		{
+			if( !filter.isFiltered( game, repositoryGame ) )
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
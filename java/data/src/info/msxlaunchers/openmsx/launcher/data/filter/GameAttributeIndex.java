@@ -0,0 +1,266 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.data.filter;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import info.msxlaunchers.openmsx.common.Utils;
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.MSXGeneration;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Sound;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.VideoSource;
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+/**
+ * Columnar index over the filterable attributes of a collection of games. Every generation, sound chip, medium,
+ * genre, company and country value has a bitmap of the games that have it, and sizes and years are kept in primitive
+ * columns. A set of filters is resolved with bitmap operations: bitmaps of filters of the same type are combined with OR
+ * and different types are combined with AND, the same way <code>CompiledFilter</code> combines them
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class GameAttributeIndex
+{
+	private static final BitSet EMPTY_BITMAP = new BitSet();
+
+	private final Collection<Game> indexedGames;
+	private final Game[] games;
+	private final Map<MSXGeneration,BitSet> generations = new EnumMap<>( MSXGeneration.class );
+	private final Map<Sound,BitSet> sounds = new EnumMap<>( Sound.class );
+	private final Map<Medium,BitSet> mediums = new EnumMap<>( Medium.class );
+	private final Map<Genre,BitSet> genres = new EnumMap<>( Genre.class );
+	private final Map<String,BitSet> companies = new HashMap<>();
+	private final Map<String,BitSet> countries = new HashMap<>();
+	private final BitSet gfx9000 = new BitSet();
+	private final BitSet inRepository = new BitSet();
+	private final long[] sizes;
+	private final int[] years;
+
+	private GameAttributeIndex( Collection<Game> indexedGames )
+	{
+		this.indexedGames = indexedGames;
+		this.games = indexedGames.toArray( new Game[indexedGames.size()] );
+		this.sizes = new long[games.length];
+		this.years = new int[games.length];
+	}
+
+	/**
+	 * Builds an index over the given games
+	 * 
+	 * @param games Collection of games - cannot be null
+	 * @param repositoryGameGetter Function that returns the repository game of a game, or null if there is none. Called once per game
+	 * @return Index of the given games
+	 */
+	public static GameAttributeIndex build( Collection<Game> games, Function<Game,RepositoryGame> repositoryGameGetter )
+	{
+		Objects.requireNonNull( games );
+		Objects.requireNonNull( repositoryGameGetter );
+
+		GameAttributeIndex index = new GameAttributeIndex( games );
+
+		for( int ix = 0; ix < index.games.length; ix++ )
+		{
+			index.add( ix, index.games[ix], repositoryGameGetter.apply( index.games[ix] ) );
+		}
+
+		return index;
+	}
+
+	/**
+	 * @return Collection of games that the index was built from
+	 */
+	public Collection<Game> getIndexedGames()
+	{
+		return indexedGames;
+	}
+
+	/**
+	 * Returns the indexed games that are not filtered by the given filters
+	 * 
+	 * @param filters Set of filters - cannot be null
+	 * @return Set of games that pass the filters
+	 */
+	public Set<Game> apply( Set<Filter> filters )
+	{
+		Objects.requireNonNull( filters );
+
+		Map<FilterType,BitSet> passingGamesByType = new EnumMap<>( FilterType.class );
+		for( Filter filter: filters )
+		{
+			passingGamesByType.computeIfAbsent( FilterFactory.getFilterType( filter ), k -> new BitSet() ).or( getPassingGames( filter ) );
+		}
+
+		BitSet passingGames = new BitSet();
+		passingGames.set( 0, games.length );
+		passingGamesByType.values().forEach( passingGames::and );
+
+		Set<Game> result = new HashSet<>();
+		for( int ix = passingGames.nextSetBit( 0 ); ix >= 0; ix = passingGames.nextSetBit( ix + 1 ) )
+		{
+			result.add( games[ix] );
+		}
+
+		return result;
+	}
+
+	private void add( int ix, Game game, RepositoryGame repositoryGame )
+	{
+		setIf( generations, MSXGeneration.MSX, ix, game.isMSX() );
+		setIf( generations, MSXGeneration.MSX2, ix, game.isMSX2() );
+		setIf( generations, MSXGeneration.MSX2Plus, ix, game.isMSX2Plus() );
+		setIf( generations, MSXGeneration.TURBO_R, ix, game.isTurboR() );
+
+		setIf( sounds, Sound.PSG, ix, game.isPSG() );
+		setIf( sounds, Sound.SCC, ix, game.isSCC() );
+		setIf( sounds, Sound.SCC_I, ix, game.isSCCI() );
+		setIf( sounds, Sound.PCM, ix, game.isPCM() );
+		setIf( sounds, Sound.MSX_MUSIC, ix, game.isMSXMUSIC() );
+		setIf( sounds, Sound.MSX_AUDIO, ix, game.isMSXAUDIO() );
+		setIf( sounds, Sound.MOONSOUND, ix, game.isMoonsound() );
+		setIf( sounds, Sound.MIDI, ix, game.isMIDI() );
+
+		//a game can satisfy more than one medium predicate so they're indexed separately
+		setIf( mediums, Medium.ROM, ix, game.isROM() );
+		setIf( mediums, Medium.DISK, ix, game.isDisk() );
+		setIf( mediums, Medium.TAPE, ix, game.isTape() );
+		setIf( mediums, Medium.HARDDISK, ix, game.isHarddisk() );
+		setIf( mediums, Medium.LASERDISC, ix, game.isLaserdisc() );
+		setIf( mediums, Medium.SCRIPT, ix, game.isScript() );
+
+		setIf( genres, game.getGenre1(), ix, game.getGenre1() != null );
+		setIf( genres, game.getGenre2(), ix, game.getGenre2() != null );
+
+		gfx9000.set( ix, game.isConnectGFX9000() );
+		sizes[ix] = game.getSize();
+
+		if( repositoryGame != null )
+		{
+			inRepository.set( ix );
+			setIf( companies, repositoryGame.getCompany(), ix, repositoryGame.getCompany() != null );
+			setIf( countries, repositoryGame.getCountry(), ix, repositoryGame.getCountry() != null );
+			years[ix] = Utils.getNumber( repositoryGame.getYear() );
+		}
+	}
+
+	private static <K> void setIf( Map<K,BitSet> bitmaps, K key, int ix, boolean condition )
+	{
+		if( condition )
+		{
+			bitmaps.computeIfAbsent( key, k -> new BitSet() ).set( ix );
+		}
+	}
+
+	private BitSet getPassingGames( Filter filter )
+	{
+		BitSet passingGames;
+
+		switch( FilterFactory.getFilterType( filter ) )
+		{
+			case GENERATION:
+				passingGames = getBitmap( generations, MSXGeneration.valueOf( getValue( filter ) ) );
+				break;
+			case SOUND:
+				passingGames = getBitmap( sounds, Sound.valueOf( getValue( filter ) ) );
+				break;
+			case MEDIUM:
+				passingGames = getBitmap( mediums, Medium.valueOf( getValue( filter ) ) );
+				break;
+			case GENRE:
+				passingGames = getBitmap( genres, Genre.valueOf( getValue( filter ) ) );
+				break;
+			case COMPANY:
+				passingGames = getBitmap( companies, getValue( filter ) );
+				break;
+			case COUNTRY:
+				passingGames = getBitmap( countries, getValue( filter ) );
+				break;
+			case VIDEO_SOURCE:
+				passingGames = (BitSet)gfx9000.clone();
+				if( VideoSource.valueOf( getValue( filter ) ) == VideoSource.MSX )
+				{
+					passingGames.flip( 0, games.length );
+				}
+				break;
+			case SIZE:
+				passingGames = getInRange( sizes, (RangeFilter)filter );
+				break;
+			case YEAR:
+				passingGames = getInRange( years, (RangeFilter)filter );
+				break;
+			default:
+				throw new RuntimeException( "Update index if FilterType contains an extra type" );
+		}
+
+		return passingGames;
+	}
+
+	private static <K> BitSet getBitmap( Map<K,BitSet> bitmaps, K key )
+	{
+		return bitmaps.getOrDefault( key, EMPTY_BITMAP );
+	}
+
+	private static BitSet getInRange( long[] values, RangeFilter filter )
+	{
+		long lowerBound = filter.getLowerBound();
+		long upperBound = filter.getUpperBound();
+		BitSet passingGames = new BitSet( values.length );
+
+		for( int ix = 0; ix < values.length; ix++ )
+		{
+			if( values[ix] >= lowerBound && values[ix] <= upperBound )
+			{
+				passingGames.set( ix );
+			}
+		}
+
+		return passingGames;
+	}
+
+	private BitSet getInRange( int[] values, RangeFilter filter )
+	{
+		long lowerBound = filter.getLowerBound();
+		long upperBound = filter.getUpperBound();
+		BitSet passingGames = new BitSet( values.length );
+
+		//games without repository data never pass year filters
+		for( int ix = inRepository.nextSetBit( 0 ); ix >= 0; ix = inRepository.nextSetBit( ix + 1 ) )
+		{
+			if( values[ix] >= lowerBound && values[ix] <= upperBound )
+			{
+				passingGames.set( ix );
+			}
+		}
+
+		return passingGames;
+	}
+
+	private static String getValue( Filter filter )
+	{
+		return FilterFactory.getAnnotatedFieldValue( filter, Value1Field.class );
+	}
+}
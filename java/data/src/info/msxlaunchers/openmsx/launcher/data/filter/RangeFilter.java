@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.data.filter;
+
+/**
+ * Filter on a numeric value whose condition can be expressed as an inclusive range.
+ * Allows the condition to be evaluated with primitive comparisons or translated to other forms such as SQL
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public interface RangeFilter extends Filter
+{
+	/**
+	 * @return Lowest value that passes the filter
+	 */
+	long getLowerBound();
+
+	/**
+	 * @return Highest value that passes the filter. If lower than the lower bound then no value passes
+	 */
+	long getUpperBound();
+
+	/**
+	 * Returns the lowest value that passes a filter with the given parameter and values
+	 * 
+	 * @param filterParameter <code>FilterParameter</code> of the filter
+	 * @param value1 First value of the filter
+	 * @param value2 Second value of the filter
+	 * @return Inclusive lower bound
+	 */
+	static long getLowerBound( FilterParameter filterParameter, long value1, long value2 )
+	{
+		long lowerBound;
+
+		switch( filterParameter )
+		{
+			case EQUAL:
+			case EQUAL_OR_GREATER:
+			case BETWEEN_INCLUSIVE:
+				lowerBound = value1;
+				break;
+			case GREATER:
+				//filter values are parsed as ints so this cannot overflow
+				lowerBound = value1 + 1;
+				break;
+			default:
+				lowerBound = Long.MIN_VALUE;
+				break;
+		}
+
+		return lowerBound;
+	}
+
+	/**
+	 * Returns the highest value that passes a filter with the given parameter and values
+	 * 
+	 * @param filterParameter <code>FilterParameter</code> of the filter
+	 * @param value1 First value of the filter
+	 * @param value2 Second value of the filter
+	 * @return Inclusive upper bound
+	 */
+	static long getUpperBound( FilterParameter filterParameter, long value1, long value2 )
+	{
+		long upperBound;
+
+		switch( filterParameter )
+		{
+			case EQUAL:
+			case EQUAL_OR_LESS:
+				upperBound = value1;
+				break;
+			case LESS:
+				//filter values are parsed as ints so this cannot overflow
+				upperBound = value1 - 1;
+				break;
+			case BETWEEN_INCLUSIVE:
+				upperBound = value2;
+				break;
+			default:
+				upperBound = Long.MAX_VALUE;
+				break;
+		}
+
+		return upperBound;
+	}
+}
@@ -28,7 +28,7 @@ import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
  *
  */
 @FilterDescriptor( type = FilterType.SIZE )
-final class SizeFilter implements Filter
+final class SizeFilter implements RangeFilter
 {
 	@Value1Field
 	private final long size1;
@@ -110,4 +110,16 @@ final class SizeFilter implements Filter
 
 		return filtered;
 	}
+
+	@Override
+	public long getLowerBound()
+	{
+		return RangeFilter.getLowerBound( filterParameter, size1, size2 );
+	}
+
+	@Override
+	public long getUpperBound()
+	{
+		return RangeFilter.getUpperBound( filterParameter, size1, size2 );
+	}
 }
@@ -29,7 +29,7 @@ import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
  *
  */
 @FilterDescriptor( type = FilterType.YEAR )
-final class YearFilter implements Filter
+final class YearFilter implements RangeFilter
 {
 	@Value1Field
 	private final int year1;
@@ -119,4 +119,16 @@ final class YearFilter implements Filter
 
 		return filtered;
 	}
+
+	@Override
+	public long getLowerBound()
+	{
+		return RangeFilter.getLowerBound( filterParameter, year1, year2 );
+	}
+
+	@Override
+	public long getUpperBound()
+	{
+		return RangeFilter.getUpperBound( filterParameter, year1, year2 );
+	}
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.data.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+
+/**
+ * Lightweight view of a game that holds only the fields needed to list it: name, SHA1 code, size and medium, and to find
+ * its screenshots: MSX Generations ID and screenshot suffix
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class GameSummary
+{
+	private final String name;
+	private final String sha1Code;
+	private final long size;
+	private final Medium medium;
+	private final int msxGenID;
+	private final String screenshotSuffix;
+
+	public GameSummary( String name, String sha1Code, long size, Medium medium, int msxGenID, String screenshotSuffix )
+	{
+		if( name == null )
+		{
+			throw new IllegalArgumentException( "Name is null" );
+		}
+
+		this.name = name;
+		this.sha1Code = sha1Code;
+		this.size = size;
+		this.medium = medium;
+		this.msxGenID = msxGenID;
+		this.screenshotSuffix = screenshotSuffix;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public String getSha1Code()
+	{
+		return sha1Code;
+	}
+
+	public long getSize()
+	{
+		return size;
+	}
+
+	public Medium getMedium()
+	{
+		return medium;
+	}
+
+	public int getMsxGenID()
+	{
+		return msxGenID;
+	}
+
+	public String getScreenshotSuffix()
+	{
+		return screenshotSuffix;
+	}
+
+	/**
+	 * Returns summary of the given game
+	 * 
+	 * @param game Game object. Cannot be null
+	 * @return GameSummary containing the name, SHA1 code, size, medium, MSX Generations ID and screenshot suffix of the given game
+	 */
+	public static GameSummary of( Game game )
+	{
+		return new GameSummary( game.getName(), game.getSha1Code(), game.getSize(), getMedium( game ), game.getMsxGenID(), game.getScreenshotSuffix() );
+	}
+
+	/**
+	 * Returns the medium of the given game. ROM takes precedence over disk, then tape, hard disk, laserdisc and script
+	 * 
+	 * @param game Game object. Cannot be null
+	 * @return Medium of the game or null if game has no media
+	 */
+	public static Medium getMedium( Game game )
+	{
+		Medium medium = null;
+
+		if( game.isROM() )
+		{
+			medium = Medium.ROM;
+		}
+		else if( game.isDisk() )
+		{
+			medium = Medium.DISK;
+		}
+		else if( game.isHarddisk() )
+		{
+			medium = Medium.HARDDISK;
+		}
+		else if( game.isTape() )
+		{
+			medium = Medium.TAPE;
+		}
+		else if( game.isLaserdisc() )
+		{
+			medium = Medium.LASERDISC;
+		}
+		else if( game.isScript() )
+		{
+			medium = Medium.SCRIPT;
+		}
+
+		return medium;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return name.hashCode();
+	}
+
+	@Override
+	public boolean equals( Object obj )
+	{
+		if( this == obj )
+		{
+			return true;
+		}
+		if( obj == null )
+		{
+			return false;
+		}
+		if( getClass() != obj.getClass() )
+		{
+			return false;
+		}
+
+		//same as Game, summaries are identified by name within a database
+		return name.equals( ((GameSummary)obj).name );
+	}
+
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+}
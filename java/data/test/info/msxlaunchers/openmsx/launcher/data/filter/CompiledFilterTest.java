@@ -0,0 +1,180 @@
+package info.msxlaunchers.openmsx.launcher.data.filter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.MSXGeneration;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledFilterTest
+{
+	private static final FilterParameter[] PARAMETERS = FilterParameter.values();
+	private static final String[] COMPANIES = { "Konami", "Compile", "ASCII" };
+
+	@Test( expected = NullPointerException.class )
+	public void testCompileNullFilters()
+	{
+		CompiledFilter.compile( null );
+	}
+
+	@Test( expected = NullPointerException.class )
+	public void testIsFilteredNullGame()
+	{
+		CompiledFilter.compile( Collections.emptySet() ).isFiltered( null, null );
+	}
+
+	@Test
+	public void testEmptyFiltersDoNotFilter()
+	{
+		CompiledFilter compiledFilter = CompiledFilter.compile( Collections.emptySet() );
+
+		assertFalse( compiledFilter.isFiltered( Game.name( "name" ).build(), null ) );
+	}
+
+	@Test
+	public void testSameTypeFiltersAreCombinedWithOr()
+	{
+		Set<Filter> filters = new HashSet<>( Arrays.asList( new SizeFilter( 16, 0, FilterParameter.EQUAL ),
+				new SizeFilter( 64, 128, FilterParameter.BETWEEN_INCLUSIVE ) ) );
+		CompiledFilter compiledFilter = CompiledFilter.compile( filters );
+
+		assertFalse( compiledFilter.isFiltered( Game.name( "name" ).size( 16 ).build(), null ) );
+		assertFalse( compiledFilter.isFiltered( Game.name( "name" ).size( 100 ).build(), null ) );
+		assertTrue( compiledFilter.isFiltered( Game.name( "name" ).size( 32 ).build(), null ) );
+	}
+
+	@Test
+	public void testDifferentTypeFiltersAreCombinedWithAnd()
+	{
+		RepositoryGame repositoryGame = RepositoryGame.title( "title" ).system( "MSX" ).company( "Konami" ).year( "1986" ).country( "Japan" ).build();
+		Set<Filter> filters = new HashSet<>( Arrays.asList( new YearFilter( 1985, 0, FilterParameter.GREATER ),
+				new CompanyFilter( "Konami" ) ) );
+		CompiledFilter compiledFilter = CompiledFilter.compile( filters );
+
+		assertFalse( compiledFilter.isFiltered( Game.name( "name" ).build(), repositoryGame ) );
+		assertTrue( compiledFilter.isFiltered( Game.name( "name" ).build(), null ) );
+		assertTrue( compiledFilter.isFiltered( Game.name( "name" ).build(),
+				RepositoryGame.title( "title" ).system( "MSX" ).company( "Konami" ).year( "1985" ).country( "Japan" ).build() ) );
+	}
+
+	@Test
+	public void testIsFilteredMatchesFilters()
+	{
+		Random random = new Random( 0 );
+
+		for( int run = 0; run < 500; run++ )
+		{
+			Set<Filter> filters = getRandomFilters( random );
+			CompiledFilter compiledFilter = CompiledFilter.compile( filters );
+
+			for( int ix = 0; ix < 50; ix++ )
+			{
+				Game game = getRandomGame( random, ix );
+				RepositoryGame repositoryGame = getRandomRepositoryGame( random );
+
+				assertEquals( isFilteredByTypes( filters, game, repositoryGame ), compiledFilter.isFiltered( game, repositoryGame ) );
+			}
+		}
+	}
+
+	@Test
+	public void testApplyInParallel()
+	{
+		Random random = new Random( 1 );
+		Set<Game> games = new HashSet<>();
+		Map<Game,RepositoryGame> repositoryGames = new HashMap<>();
+		for( int ix = 0; ix < CompiledFilter.PARALLEL_THRESHOLD + 100; ix++ )
+		{
+			Game game = getRandomGame( random, ix );
+			games.add( game );
+			repositoryGames.put( game, getRandomRepositoryGame( random ) );
+		}
+		Set<Filter> filters = new HashSet<>( Arrays.asList( new SizeFilter( 64, 0, FilterParameter.EQUAL_OR_GREATER ),
+				new CompanyFilter( "Konami" ), new CompanyFilter( "Compile" ) ) );
+
+		Set<Game> expected = games.stream().filter( game -> !isFilteredByTypes( filters, game, repositoryGames.get( game ) ) ).collect( Collectors.toSet() );
+
+		assertEquals( expected, CompiledFilter.compile( filters ).apply( games, repositoryGames::get ) );
+	}
+
+	//reference implementation - filters of the same type are combined with AND and the game is filtered if any type filters it
+	private static boolean isFilteredByTypes( Set<Filter> filters, Game game, RepositoryGame repositoryGame )
+	{
+		Map<FilterType,Boolean> filtersByType = new HashMap<>();
+
+		for( Filter filter: filters )
+		{
+			filtersByType.merge( FilterFactory.getFilterType( filter ), filter.isFiltered( game, repositoryGame ), Boolean::logicalAnd );
+		}
+
+		return filtersByType.containsValue( true );
+	}
+
+	private static Set<Filter> getRandomFilters( Random random )
+	{
+		Set<Filter> filters = new HashSet<>();
+
+		for( int ix = random.nextInt( 6 ); ix > 0; ix-- )
+		{
+			FilterParameter parameter = PARAMETERS[random.nextInt( PARAMETERS.length )];
+			int value1 = random.nextInt( 8 ) * 16;
+			int value2 = value1 + random.nextInt( 4 ) * 16;
+
+			switch( random.nextInt( 5 ) )
+			{
+				case 0:
+					filters.add( new SizeFilter( value1, value2, parameter ) );
+					break;
+				case 1:
+					filters.add( new YearFilter( 1983 + value1 / 16, 1983 + value2 / 16, parameter ) );
+					break;
+				case 2:
+					filters.add( new CompanyFilter( COMPANIES[random.nextInt( COMPANIES.length )] ) );
+					break;
+				case 3:
+					filters.add( new MediumFilter( random.nextBoolean() ? Medium.ROM : Medium.DISK ) );
+					break;
+				default:
+					filters.add( new GenerationFilter( random.nextBoolean() ? MSXGeneration.MSX : MSXGeneration.MSX2 ) );
+					break;
+			}
+		}
+
+		return filters;
+	}
+
+	private static Game getRandomGame( Random random, int index )
+	{
+		Game.GameParam game = Game.name( "game" + index ).size( random.nextInt( 9 ) * 16 ).isMSX( random.nextBoolean() ).isMSX2( random.nextBoolean() );
+
+		return random.nextBoolean() ? game.romA( "game.rom" ).build() : game.diskA( "game.dsk" ).build();
+	}
+
+	private static RepositoryGame getRandomRepositoryGame( Random random )
+	{
+		if( random.nextInt( 5 ) == 0 )
+		{
+			return null;
+		}
+		else
+		{
+			String year = random.nextInt( 10 ) == 0 ? "198x" : String.valueOf( 1983 + random.nextInt( 9 ) );
+
+			return RepositoryGame.title( "title" ).system( "MSX" ).company( COMPANIES[random.nextInt( COMPANIES.length )] ).year( year ).country( "Japan" ).build();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package info.msxlaunchers.openmsx.launcher.data.filter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.MSXGeneration;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Sound;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.VideoSource;
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GameAttributeIndexTest
+{
+	private static final FilterParameter[] PARAMETERS = FilterParameter.values();
+	private static final String[] COMPANIES = { "Konami", "Compile", "ASCII" };
+	private static final String[] COUNTRIES = { "Japan", "Netherlands", "Spain" };
+	private static final Genre[] GENRES = { Genre.ACTION, Genre.PUZZLE, Genre.RPG, Genre.UNKNOWN };
+
+	@Test( expected = NullPointerException.class )
+	public void testBuildNullGames()
+	{
+		GameAttributeIndex.build( null, game -> null );
+	}
+
+	@Test( expected = NullPointerException.class )
+	public void testApplyNullFilters()
+	{
+		GameAttributeIndex.build( Collections.emptySet(), game -> null ).apply( null );
+	}
+
+	@Test
+	public void testGetIndexedGames()
+	{
+		Set<Game> games = Collections.singleton( Game.name( "name" ).build() );
+
+		assertSame( games, GameAttributeIndex.build( games, game -> null ).getIndexedGames() );
+	}
+
+	@Test
+	public void testApplyEmptyFiltersReturnsAllGames()
+	{
+		Set<Game> games = new HashSet<>();
+		games.add( Game.name( "name1" ).build() );
+		games.add( Game.name( "name2" ).build() );
+
+		assertEquals( games, GameAttributeIndex.build( games, game -> null ).apply( Collections.emptySet() ) );
+	}
+
+	@Test
+	public void testApplyUnknownValueReturnsNoGames()
+	{
+		Set<Game> games = Collections.singleton( Game.name( "name" ).romA( "romA" ).build() );
+		GameAttributeIndex index = GameAttributeIndex.build( games, game -> null );
+
+		assertTrue( index.apply( Collections.singleton( new CompanyFilter( "Konami" ) ) ).isEmpty() );
+		assertTrue( index.apply( Collections.singleton( new MediumFilter( Medium.DISK ) ) ).isEmpty() );
+	}
+
+	@Test
+	public void testApplyMatchesCompiledFilter()
+	{
+		Random random = new Random( 0 );
+		Set<Game> games = new HashSet<>();
+		Map<Game,RepositoryGame> repositoryGames = new HashMap<>();
+		for( int ix = 0; ix < 500; ix++ )
+		{
+			Game game = getRandomGame( random, ix );
+			games.add( game );
+			repositoryGames.put( game, getRandomRepositoryGame( random ) );
+		}
+
+		GameAttributeIndex index = GameAttributeIndex.build( games, repositoryGames::get );
+
+		for( int run = 0; run < 500; run++ )
+		{
+			Set<Filter> filters = getRandomFilters( random );
+
+			assertEquals( CompiledFilter.compile( filters ).apply( games, repositoryGames::get ), index.apply( filters ) );
+		}
+	}
+
+	private static Set<Filter> getRandomFilters( Random random )
+	{
+		Set<Filter> filters = new HashSet<>();
+
+		for( int ix = random.nextInt( 5 ); ix > 0; ix-- )
+		{
+			FilterParameter parameter = PARAMETERS[random.nextInt( PARAMETERS.length )];
+			int value1 = random.nextInt( 8 ) * 16;
+			int value2 = value1 + random.nextInt( 4 ) * 16;
+
+			switch( random.nextInt( 9 ) )
+			{
+				case 0:
+					filters.add( new SizeFilter( value1, value2, parameter ) );
+					break;
+				case 1:
+					filters.add( new YearFilter( 1983 + value1 / 16, 1983 + value2 / 16, parameter ) );
+					break;
+				case 2:
+					filters.add( new CompanyFilter( COMPANIES[random.nextInt( COMPANIES.length )] ) );
+					break;
+				case 3:
+					filters.add( new CountryFilter( COUNTRIES[random.nextInt( COUNTRIES.length )] ) );
+					break;
+				case 4:
+					filters.add( new MediumFilter( Medium.values()[random.nextInt( Medium.values().length )] ) );
+					break;
+				case 5:
+					filters.add( new GenerationFilter( MSXGeneration.values()[random.nextInt( MSXGeneration.values().length )] ) );
+					break;
+				case 6:
+					filters.add( new SoundFilter( Sound.values()[random.nextInt( 3 )] ) );
+					break;
+				case 7:
+					filters.add( new GenreFilter( GENRES[random.nextInt( GENRES.length )] ) );
+					break;
+				default:
+					filters.add( new VideoSourceFilter( random.nextBoolean() ? VideoSource.MSX : VideoSource.GFX9000 ) );
+					break;
+			}
+		}
+
+		return filters;
+	}
+
+	private static Game getRandomGame( Random random, int index )
+	{
+		Game.GameParam game = Game.name( "game" + index ).size( random.nextInt( 9 ) * 16 )
+				.isMSX( random.nextBoolean() ).isMSX2( random.nextBoolean() ).isTurboR( random.nextInt( 4 ) == 0 )
+				.isPSG( random.nextBoolean() ).isSCC( random.nextBoolean() ).isSCCI( random.nextInt( 4 ) == 0 )
+				.genre1( random.nextBoolean() ? GENRES[random.nextInt( GENRES.length )] : null )
+				.genre2( random.nextBoolean() ? GENRES[random.nextInt( GENRES.length )] : null )
+				.connectGFX9000( random.nextInt( 4 ) == 0 );
+
+		//combine media to cover games that satisfy more than one medium predicate
+		game.romA( random.nextInt( 3 ) == 0 ? "game.rom" : null );
+		game.diskA( random.nextInt( 3 ) == 0 ? "game.dsk" : null );
+		game.tape( random.nextInt( 3 ) == 0 ? "game.cas" : null );
+		game.harddisk( random.nextInt( 4 ) == 0 ? "game.hdd" : null );
+		game.laserdisc( random.nextInt( 4 ) == 0 ? "game.ogv" : null );
+		game.tclScript( random.nextInt( 4 ) == 0 ? "game.tcl" : null );
+
+		return game.build();
+	}
+
+	private static RepositoryGame getRandomRepositoryGame( Random random )
+	{
+		if( random.nextInt( 5 ) == 0 )
+		{
+			return null;
+		}
+		else
+		{
+			String year = random.nextInt( 10 ) == 0 ? "198x" : String.valueOf( 1983 + random.nextInt( 9 ) );
+
+			return RepositoryGame.title( "title" ).system( "MSX" ).company( COMPANIES[random.nextInt( COMPANIES.length )] )
+					.year( year ).country( COUNTRIES[random.nextInt( COUNTRIES.length )] ).build();
+		}
+	}
+}
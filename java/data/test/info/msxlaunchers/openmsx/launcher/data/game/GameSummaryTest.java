@@ -0,0 +1,56 @@
+package info.msxlaunchers.openmsx.launcher.data.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class GameSummaryTest
+{
+	@Test( expected = IllegalArgumentException.class )
+	public void testConstructorNameNull()
+	{
+		new GameSummary( null, "sha1", 1, Medium.ROM, 0, null );
+	}
+
+	@Test
+	public void testOf()
+	{
+		Game game = Game.name( "name" ).romA( "romA" ).sha1Code( "sha1" ).size( 123 ).info( "info" ).msxGenID( 456 ).screenshotSuffix( "-en" ).build();
+
+		GameSummary summary = GameSummary.of( game );
+
+		assertEquals( "name", summary.getName() );
+		assertEquals( "sha1", summary.getSha1Code() );
+		assertEquals( 123, summary.getSize() );
+		assertEquals( Medium.ROM, summary.getMedium() );
+		assertEquals( 456, summary.getMsxGenID() );
+		assertEquals( "-en", summary.getScreenshotSuffix() );
+	}
+
+	@Test
+	public void testGetMedium()
+	{
+		assertEquals( Medium.ROM, GameSummary.getMedium( Game.name( "n" ).romA( "a" ).diskA( "d" ).build() ) );
+		assertEquals( Medium.DISK, GameSummary.getMedium( Game.name( "n" ).diskA( "d" ).tape( "t" ).build() ) );
+		assertEquals( Medium.TAPE, GameSummary.getMedium( Game.name( "n" ).tape( "t" ).harddisk( "h" ).build() ) );
+		assertEquals( Medium.HARDDISK, GameSummary.getMedium( Game.name( "n" ).harddisk( "h" ).laserdisc( "l" ).build() ) );
+		assertEquals( Medium.LASERDISC, GameSummary.getMedium( Game.name( "n" ).laserdisc( "l" ).tclScript( "s" ).build() ) );
+		assertEquals( Medium.SCRIPT, GameSummary.getMedium( Game.name( "n" ).tclScript( "s" ).build() ) );
+		assertNull( GameSummary.getMedium( Game.name( "n" ).build() ) );
+	}
+
+	@Test
+	public void testEqualityAndHashcode()
+	{
+		GameSummary summary1a = new GameSummary( "name1", "sha1", 1, Medium.ROM, 0, null );
+		GameSummary summary1b = new GameSummary( "name1", "sha1", 1, Medium.ROM, 0, null );
+		GameSummary summary2 = new GameSummary( "name2", "sha1", 1, Medium.ROM, 0, null );
+
+		assertEquals( summary1a, summary1b );
+		assertEquals( summary1a.hashCode(), summary1b.hashCode() );
+		assertNotEquals( summary1a, summary2 );
+	}
+}
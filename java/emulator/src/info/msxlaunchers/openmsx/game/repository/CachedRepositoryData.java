@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Implementation of <code>RepositoryData</code> that keeps one snapshot of the repository info for the whole application.
+ * The snapshot is replaced when any of the XML files is added, removed or modified
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+@Singleton
+final class CachedRepositoryData implements RepositoryData
+{
+	private final RepositoryData repositoryData;
+	private final Set<XMLFileGetter> xmlFileGetters;
+
+	private volatile Snapshot snapshot = null;
+
+	@Inject
+	CachedRepositoryData( @Named("XMLRepositoryData") RepositoryData repositoryData, Set<XMLFileGetter> xmlFileGetters )
+	{
+		this.repositoryData = Objects.requireNonNull( repositoryData );
+		this.xmlFileGetters = Objects.requireNonNull( xmlFileGetters );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.game.repository.RepositoryData#getRepositoryInfo()
+	 */
+	@Override
+	public Map<String,RepositoryGame> getRepositoryInfo() throws IOException
+	{
+		return getSnapshot().repositoryInfo;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.game.repository.RepositoryData#getDumpCodes(java.lang.String)
+	 */
+	@Override
+	public Set<String> getDumpCodes( String code ) throws IOException
+	{
+		Objects.requireNonNull( code );
+
+		if( getSnapshot().repositoryInfo == null )
+		{
+			return Collections.emptySet();
+		}
+
+		return repositoryData.getDumpCodes( code );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.game.repository.RepositoryData#getGameInfo(java.lang.String)
+	 */
+	@Override
+	public RepositoryGame getGameInfo( String code ) throws IOException
+	{
+		Objects.requireNonNull( code );
+
+		if( getSnapshot().repositoryInfo == null )
+		{
+			return null;
+		}
+
+		return repositoryData.getGameInfo( code );
+	}
+
+	private Snapshot getSnapshot() throws IOException
+	{
+		List<String> fileStamps = getFileStamps();
+		Snapshot currentSnapshot = snapshot;
+
+		if( currentSnapshot == null || !currentSnapshot.fileStamps.equals( fileStamps ) )
+		{
+			currentSnapshot = reload( fileStamps );
+		}
+
+		return currentSnapshot;
+	}
+
+	private synchronized Snapshot reload( List<String> fileStamps ) throws IOException
+	{
+		//another thread may have reloaded the same files while this one was waiting
+		if( snapshot != null && snapshot.fileStamps.equals( fileStamps ) )
+		{
+			return snapshot;
+		}
+
+		Map<String,RepositoryGame> repositoryInfo = repositoryData.getRepositoryInfo();
+
+		Snapshot newSnapshot = new Snapshot( fileStamps, repositoryInfo == null ? null : Collections.unmodifiableMap( repositoryInfo ) );
+		snapshot = newSnapshot;
+
+		return newSnapshot;
+	}
+
+	private List<String> getFileStamps() throws IOException
+	{
+		List<String> fileStamps = new ArrayList<>( xmlFileGetters.size() );
+
+		for( XMLFileGetter xmlFileGetter: xmlFileGetters )
+		{
+			File xmlFile = xmlFileGetter.get();
+
+			if( xmlFile != null && xmlFile.exists() )
+			{
+				fileStamps.add( xmlFile.getAbsolutePath() + ':' + xmlFile.length() + ':' + xmlFile.lastModified() );
+			}
+		}
+
+		return fileStamps;
+	}
+
+	private static final class Snapshot
+	{
+		private final List<String> fileStamps;
+		private final Map<String,RepositoryGame> repositoryInfo;
+
+		Snapshot( List<String> fileStamps, Map<String,RepositoryGame> repositoryInfo )
+		{
+			this.fileStamps = fileStamps;
+			this.repositoryInfo = repositoryInfo;
+		}
+	}
+}
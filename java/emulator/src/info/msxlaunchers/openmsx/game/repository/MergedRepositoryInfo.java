@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Unmodifiable Map view over the repository info of several XML files, without copying their entries. Like
+ * <code>Map.putAll</code> in order, a hash code in a later Map hides the same hash code in an earlier one
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class MergedRepositoryInfo extends AbstractMap<String,RepositoryGame>
+{
+	private final List<Map<String,RepositoryGame>> repositoryInfos;
+	private final int size;
+
+	MergedRepositoryInfo( List<Map<String,RepositoryGame>> repositoryInfos )
+	{
+		this.repositoryInfos = Collections.unmodifiableList( new ArrayList<>( repositoryInfos ) );
+
+		int count = 0;
+		for( int index = 0; index < repositoryInfos.size(); index++ )
+		{
+			for( String code: repositoryInfos.get( index ).keySet() )
+			{
+				if( !isHidden( code, index ) )
+				{
+					count++;
+				}
+			}
+		}
+		this.size = count;
+	}
+
+	@Override
+	public RepositoryGame get( Object key )
+	{
+		for( int index = repositoryInfos.size() - 1; index >= 0; index-- )
+		{
+			RepositoryGame repositoryGame = repositoryInfos.get( index ).get( key );
+
+			if( repositoryGame != null )
+			{
+				return repositoryGame;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean containsKey( Object key )
+	{
+		return get( key ) != null;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public Set<Map.Entry<String,RepositoryGame>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<String,RepositoryGame>>()
+		{
+			@Override
+			public Iterator<Map.Entry<String,RepositoryGame>> iterator()
+			{
+				return IntStream.range( 0, repositoryInfos.size() ).boxed()
+						.flatMap( index -> repositoryInfos.get( index ).entrySet().stream().filter( entry -> !isHidden( entry.getKey(), index ) ) )
+						.map( entry -> (Map.Entry<String,RepositoryGame>)new AbstractMap.SimpleImmutableEntry<>( entry ) )
+						.iterator();
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+
+	private boolean isHidden( String code, int index )
+	{
+		for( int laterIndex = index + 1; laterIndex < repositoryInfos.size(); laterIndex++ )
+		{
+			if( repositoryInfos.get( laterIndex ).containsKey( code ) )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -19,6 +19,7 @@ import info.msxlaunchers.openmsx.game.repository.processor.XMLProcessorModule;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Names;
 
 /**
  * @since v1.0
@@ -30,7 +31,8 @@ public class RepositoryDataModule extends AbstractModule
 	@Override 
 	protected void configure()
 	{
-		bind( RepositoryData.class ).to( XMLRepositoryData.class );
+		bind( RepositoryData.class ).to( CachedRepositoryData.class );
+		bind( RepositoryData.class ).annotatedWith( Names.named( "XMLRepositoryData" ) ).to( XMLRepositoryData.class );
 
 		install( new XMLProcessorModule() );
 
@@ -20,8 +20,9 @@ import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -53,7 +54,7 @@ final class XMLRepositoryData implements RepositoryData
 	@Override
 	public Map<String, RepositoryGame> getRepositoryInfo() throws IOException
 	{
-		Map<String, RepositoryGame> repositoryInfo = null;
+		List<Map<String,RepositoryGame>> repositoryInfos = new ArrayList<>();
 
 		for( XMLFileGetter xmlFileGetter: xmlFileGetters )
 		{
@@ -61,15 +62,23 @@ final class XMLRepositoryData implements RepositoryData
 
 			if( xmlFile != null && xmlFile.exists() )
 			{
-				if( repositoryInfo == null )
-				{
-					repositoryInfo = new HashMap<>();
-				}
-				repositoryInfo.putAll( xmlProcessor.getRepositoryInfo( xmlFile ) );
+				repositoryInfos.add( xmlProcessor.getRepositoryInfo( xmlFile ) );
 			}
 		}
 
-		return repositoryInfo;
+		if( repositoryInfos.isEmpty() )
+		{
+			return null;
+		}
+		else if( repositoryInfos.size() == 1 )
+		{
+			return repositoryInfos.get( 0 );
+		}
+		else
+		{
+			//the XML processor's maps are already compact and unmodifiable, so present them as one instead of copying
+			return new MergedRepositoryInfo( repositoryInfos );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed capacity open addressing table of hash codes. SHA1 codes are stored as 20 bytes each in a single array,
+ * and any other code is kept as a string on the side. Codes are compared case-insensitively
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class HashCodeTable
+{
+	private static final int SHA1_LENGTH = 20;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final int capacity;
+	private final byte[] sha1Codes;
+	private final int[] slots;
+	private final int mask;
+	private final Map<String,Integer> otherCodeEntries = new HashMap<>();
+	private final Map<Integer,String> otherCodes = new HashMap<>();
+
+	private int size = 0;
+
+	HashCodeTable( int capacity )
+	{
+		int slotCount = Integer.highestOneBit( Math.max( capacity, 1 ) * 2 - 1 ) * 2;
+
+		this.capacity = capacity;
+		this.sha1Codes = new byte[capacity * SHA1_LENGTH];
+		this.slots = new int[slotCount];
+		this.mask = slotCount - 1;
+	}
+
+	int capacity()
+	{
+		return capacity;
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Adds a code that is not in the table yet
+	 * 
+	 * @param code Hash code
+	 * @return Entry number of the added code
+	 */
+	int add( String code )
+	{
+		int entry = size++;
+		byte[] sha1Code = toSha1Code( code );
+
+		if( sha1Code == null )
+		{
+			String lowerCaseCode = code.toLowerCase();
+			otherCodeEntries.put( lowerCaseCode, entry );
+			otherCodes.put( entry, lowerCaseCode );
+		}
+		else
+		{
+			System.arraycopy( sha1Code, 0, sha1Codes, entry * SHA1_LENGTH, SHA1_LENGTH );
+
+			int slot = getHash( sha1Code, 0 ) & mask;
+			while( slots[slot] != 0 )
+			{
+				slot = (slot + 1) & mask;
+			}
+			//slots hold entry + 1 so that zero means empty
+			slots[slot] = entry + 1;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * @param code Hash code
+	 * @return Entry number of the given code or -1 if it's not in the table
+	 */
+	int indexOf( String code )
+	{
+		byte[] sha1Code = toSha1Code( code );
+
+		if( sha1Code == null )
+		{
+			Integer entry = otherCodeEntries.get( code.toLowerCase() );
+			return entry == null ? -1 : entry;
+		}
+
+		for( int slot = getHash( sha1Code, 0 ) & mask; slots[slot] != 0; slot = (slot + 1) & mask )
+		{
+			int entry = slots[slot] - 1;
+
+			if( isSha1CodeAt( sha1Code, entry ) )
+			{
+				return entry;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @param entry Entry number
+	 * @return Lower case hash code of the given entry
+	 */
+	String getCode( int entry )
+	{
+		String otherCode = otherCodes.get( entry );
+
+		if( otherCode != null )
+		{
+			return otherCode;
+		}
+
+		char[] code = new char[SHA1_LENGTH * 2];
+		int offset = entry * SHA1_LENGTH;
+		for( int index = 0; index < SHA1_LENGTH; index++ )
+		{
+			int value = sha1Codes[offset + index] & 0xFF;
+			code[index * 2] = HEX_DIGITS[value >>> 4];
+			code[index * 2 + 1] = HEX_DIGITS[value & 0x0F];
+		}
+
+		return new String( code );
+	}
+
+	private boolean isSha1CodeAt( byte[] sha1Code, int entry )
+	{
+		int offset = entry * SHA1_LENGTH;
+		for( int index = 0; index < SHA1_LENGTH; index++ )
+		{
+			if( sha1Codes[offset + index] != sha1Code[index] )
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static int getHash( byte[] bytes, int offset )
+	{
+		//SHA1 codes are already evenly distributed so their first four bytes make a good hash
+		return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+	}
+
+	private static byte[] toSha1Code( String code )
+	{
+		if( code.length() != SHA1_LENGTH * 2 )
+		{
+			return null;
+		}
+
+		byte[] sha1Code = new byte[SHA1_LENGTH];
+		for( int index = 0; index < SHA1_LENGTH; index++ )
+		{
+			int high = Character.digit( code.charAt( index * 2 ), 16 );
+			int low = Character.digit( code.charAt( index * 2 + 1 ), 16 );
+
+			if( high < 0 || low < 0 )
+			{
+				return null;
+			}
+
+			sha1Code[index] = (byte)((high << 4) | low);
+		}
+
+		return sha1Code;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+/**
+ * Implementation of <code>XMLProcessor</code> that answers from a compiled <code>RepositoryIndex</code> of each XML file.
+ * The index is kept in the user data directory and is only rebuilt when the size or modification time of the XML file changes
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+@Singleton
+final class IndexedXMLProcessor implements XMLProcessor
+{
+	private static final String INDEX_FILE_EXTENSION = ".idx";
+
+	private final String userDataDirectory;
+	private final Map<String,RepositoryIndex> repositoryIndexes = new ConcurrentHashMap<>();
+
+	@Inject
+	IndexedXMLProcessor( @Named("UserDataDirectory") String userDataDirectory )
+	{
+		this.userDataDirectory = Objects.requireNonNull( userDataDirectory );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.game.repository.processor.XMLProcessor#getRepositoryInfo(java.io.File)
+	 */
+	@Override
+	public Map<String,RepositoryGame> getRepositoryInfo( File xmlFile ) throws IOException
+	{
+		return getRepositoryIndex( xmlFile ).getRepositoryInfo();
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.game.repository.processor.XMLProcessor#getDumpCodes(java.io.File, java.lang.String)
+	 */
+	@Override
+	public Set<String> getDumpCodes( File xmlFile, String code ) throws IOException
+	{
+		return getRepositoryIndex( xmlFile ).getDumpCodes( code );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.game.repository.processor.XMLProcessor#getGameInfo(java.io.File, java.lang.String)
+	 */
+	@Override
+	public RepositoryGame getGameInfo( File xmlFile, String code ) throws IOException
+	{
+		return getRepositoryIndex( xmlFile ).getGameInfo( code );
+	}
+
+	private synchronized RepositoryIndex getRepositoryIndex( File xmlFile ) throws IOException
+	{
+		if( !xmlFile.isFile() )
+		{
+			throw new FileNotFoundException( xmlFile.toString() );
+		}
+
+		String path = getPath( xmlFile );
+		long length = xmlFile.length();
+		long lastModified = xmlFile.lastModified();
+
+		RepositoryIndex repositoryIndex = repositoryIndexes.get( path );
+
+		if( repositoryIndex == null || !repositoryIndex.isStampedWith( path, length, lastModified ) )
+		{
+			File indexFile = new File( userDataDirectory, xmlFile.getName() + INDEX_FILE_EXTENSION );
+
+			repositoryIndex = readRepositoryIndex( indexFile );
+
+			if( repositoryIndex == null || !repositoryIndex.isStampedWith( path, length, lastModified ) )
+			{
+				RepositoryIndexParseHandler handler = new RepositoryIndexParseHandler( path, length, lastModified );
+
+				SAXXMLProcessor.parse( xmlFile, handler );
+
+				repositoryIndex = handler.getRepositoryIndex();
+				writeRepositoryIndex( repositoryIndex, indexFile );
+			}
+
+			repositoryIndexes.put( path, repositoryIndex );
+		}
+
+		return repositoryIndex;
+	}
+
+	private RepositoryIndex readRepositoryIndex( File indexFile )
+	{
+		if( !indexFile.exists() )
+		{
+			return null;
+		}
+
+		try
+		{
+			return RepositoryIndex.read( indexFile );
+		}
+		catch( IOException ioe )
+		{
+			//a missing or damaged index is rebuilt from the XML file
+			return null;
+		}
+	}
+
+	private void writeRepositoryIndex( RepositoryIndex repositoryIndex, File indexFile )
+	{
+		try
+		{
+			repositoryIndex.write( indexFile );
+		}
+		catch( IOException ioe )
+		{
+			//the index is only an optimization - it will be rebuilt next time the launcher starts
+		}
+	}
+
+	private String getPath( File file )
+	{
+		try
+		{
+			return file.getCanonicalPath();
+		}
+		catch( IOException ioe )
+		{
+			return file.getAbsolutePath();
+		}
+	}
+}
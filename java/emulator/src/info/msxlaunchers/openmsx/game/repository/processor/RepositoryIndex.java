@@ -0,0 +1,359 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled form of a repository XML file. Text values are stored once in a string table and games and dumps refer
+ * to them by index. Hash codes are kept in a <code>HashCodeTable</code> so that lookups don't need a full parse of
+ * the XML file. The index is stamped with the path, size and modification time of the XML file it was built from
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class RepositoryIndex
+{
+	private static final int INDEX_FILE_MAGIC = 0x4F4D4C58;
+	private static final int INDEX_FILE_VERSION = 2;
+
+	static final int NO_VALUE = -1;
+
+	//software fields in the order title, system, company, year, country
+	static final int SOFTWARE_FIELDS = 5;
+	//dump fields in the order original text, mapper, start, remark
+	static final int DUMP_FIELDS = 4;
+
+	private final String sourcePath;
+	private final long sourceLength;
+	private final long sourceLastModified;
+
+	private final String[] strings;
+	private final int[] softwareFields;
+	private final int[] dumpSoftware;
+	private final boolean[] dumpOriginal;
+	private final int[] dumpFields;
+
+	//per hash code: the software and dump of its first occurrence, and the software of its last occurrence
+	private final HashCodeTable hashCodes;
+	private final int[] entrySoftware;
+	private final int[] entryDump;
+	private final int[] entryLastSoftware;
+
+	//hash code entries of each software, in document order
+	private final int[] softwareHashOffsets;
+	private final int[] softwareHashes;
+
+	private volatile Map<String,RepositoryGame> repositoryInfo = null;
+
+	private RepositoryIndex( String sourcePath, long sourceLength, long sourceLastModified, String[] strings, int[] softwareFields,
+			int[] dumpSoftware, boolean[] dumpOriginal, int[] dumpFields, HashCodeTable hashCodes, int[] entrySoftware, int[] entryDump,
+			int[] entryLastSoftware, int[] softwareHashOffsets, int[] softwareHashes )
+	{
+		this.sourcePath = sourcePath;
+		this.sourceLength = sourceLength;
+		this.sourceLastModified = sourceLastModified;
+		this.strings = strings;
+		this.softwareFields = softwareFields;
+		this.dumpSoftware = dumpSoftware;
+		this.dumpOriginal = dumpOriginal;
+		this.dumpFields = dumpFields;
+		this.hashCodes = hashCodes;
+		this.entrySoftware = entrySoftware;
+		this.entryDump = entryDump;
+		this.entryLastSoftware = entryLastSoftware;
+		this.softwareHashOffsets = softwareHashOffsets;
+		this.softwareHashes = softwareHashes;
+	}
+
+	/**
+	 * Builds an index from the hash codes of a repository XML file in document order
+	 */
+	static RepositoryIndex create( String sourcePath, long sourceLength, long sourceLastModified, String[] strings, int[] softwareFields,
+			int[] dumpSoftware, boolean[] dumpOriginal, int[] dumpFields, List<String> hashCodeList, int[] hashSoftware, int[] hashDumps )
+	{
+		int softwareCount = softwareFields.length / SOFTWARE_FIELDS;
+		HashCodeTable hashCodes = new HashCodeTable( hashCodeList.size() );
+		int[] hashEntries = new int[hashCodeList.size()];
+		int[] entrySoftware = new int[hashCodeList.size()];
+		int[] entryDump = new int[hashCodeList.size()];
+		int[] entryLastSoftware = new int[hashCodeList.size()];
+		int[] softwareHashOffsets = new int[softwareCount + 1];
+
+		for( int hash = 0; hash < hashEntries.length; hash++ )
+		{
+			int entry = hashCodes.indexOf( hashCodeList.get( hash ) );
+
+			if( entry < 0 )
+			{
+				//a repeated hash code keeps the software and dump of its first occurrence like the XML parser does
+				entry = hashCodes.add( hashCodeList.get( hash ) );
+				entrySoftware[entry] = hashSoftware[hash];
+				entryDump[entry] = hashDumps[hash];
+			}
+			entryLastSoftware[entry] = hashSoftware[hash];
+			hashEntries[hash] = entry;
+
+			if( hashSoftware[hash] < softwareCount )
+			{
+				softwareHashOffsets[hashSoftware[hash] + 1]++;
+			}
+		}
+
+		for( int software = 0; software < softwareCount; software++ )
+		{
+			softwareHashOffsets[software + 1] += softwareHashOffsets[software];
+		}
+
+		int[] softwareHashes = new int[softwareHashOffsets[softwareCount]];
+		int[] softwareHashCounts = new int[softwareCount];
+		for( int hash = 0; hash < hashEntries.length; hash++ )
+		{
+			int software = hashSoftware[hash];
+
+			if( software < softwareCount )
+			{
+				softwareHashes[softwareHashOffsets[software] + softwareHashCounts[software]++] = hashEntries[hash];
+			}
+		}
+
+		int entryCount = hashCodes.size();
+
+		return new RepositoryIndex( sourcePath, sourceLength, sourceLastModified, strings, softwareFields, dumpSoftware, dumpOriginal,
+				dumpFields, hashCodes, Arrays.copyOf( entrySoftware, entryCount ), Arrays.copyOf( entryDump, entryCount ),
+				Arrays.copyOf( entryLastSoftware, entryCount ), softwareHashOffsets, softwareHashes );
+	}
+
+	boolean isStampedWith( String path, long length, long lastModified )
+	{
+		return sourceLength == length && sourceLastModified == lastModified && sourcePath.equals( path );
+	}
+
+	Map<String,RepositoryGame> getRepositoryInfo()
+	{
+		Map<String,RepositoryGame> currentRepositoryInfo = repositoryInfo;
+
+		if( currentRepositoryInfo == null )
+		{
+			//one game object per software, shared by all of its hash codes
+			RepositoryGame[] softwareGames = new RepositoryGame[softwareFields.length / SOFTWARE_FIELDS];
+			for( int software = 0; software < softwareGames.length; software++ )
+			{
+				softwareGames[software] = buildRepositoryGame( software, NO_VALUE );
+			}
+
+			currentRepositoryInfo = new RepositoryInfoMap( hashCodes, entryLastSoftware, softwareGames );
+			repositoryInfo = currentRepositoryInfo;
+		}
+
+		return currentRepositoryInfo;
+	}
+
+	Set<String> getDumpCodes( String code )
+	{
+		int entry = hashCodes.indexOf( code );
+
+		if( entry < 0 || entrySoftware[entry] >= softwareHashOffsets.length - 1 )
+		{
+			return Collections.emptySet();
+		}
+
+		int software = entrySoftware[entry];
+		Set<String> dumpCodes = new HashSet<>();
+		for( int index = softwareHashOffsets[software]; index < softwareHashOffsets[software + 1]; index++ )
+		{
+			dumpCodes.add( hashCodes.getCode( softwareHashes[index] ) );
+		}
+
+		return Collections.unmodifiableSet( dumpCodes );
+	}
+
+	RepositoryGame getGameInfo( String code )
+	{
+		int entry = hashCodes.indexOf( code );
+
+		if( entry < 0 || entryDump[entry] == NO_VALUE )
+		{
+			return null;
+		}
+
+		int dump = entryDump[entry];
+
+		return buildRepositoryGame( dumpSoftware[dump], dump );
+	}
+
+	static RepositoryIndex read( File indexFile ) throws IOException
+	{
+		try( DataInputStream input = new DataInputStream( new BufferedInputStream( new FileInputStream( indexFile ), 65536 ) ) )
+		{
+			if( input.readInt() != INDEX_FILE_MAGIC || input.readInt() != INDEX_FILE_VERSION )
+			{
+				return null;
+			}
+
+			String sourcePath = input.readUTF();
+			long sourceLength = input.readLong();
+			long sourceLastModified = input.readLong();
+
+			String[] strings = new String[input.readInt()];
+			for( int index = 0; index < strings.length; index++ )
+			{
+				strings[index] = input.readUTF();
+			}
+
+			int[] softwareFields = readInts( input );
+			int[] dumpSoftware = readInts( input );
+			boolean[] dumpOriginal = new boolean[dumpSoftware.length];
+			for( int index = 0; index < dumpOriginal.length; index++ )
+			{
+				dumpOriginal[index] = input.readBoolean();
+			}
+			int[] dumpFields = readInts( input );
+
+			HashCodeTable hashCodes = new HashCodeTable( input.readInt() );
+			for( int entry = 0; entry < hashCodes.capacity(); entry++ )
+			{
+				hashCodes.add( input.readUTF() );
+			}
+
+			int[] entrySoftware = readInts( input );
+			int[] entryDump = readInts( input );
+			int[] entryLastSoftware = readInts( input );
+			int[] softwareHashOffsets = readInts( input );
+			int[] softwareHashes = readInts( input );
+
+			return new RepositoryIndex( sourcePath, sourceLength, sourceLastModified, strings, softwareFields, dumpSoftware,
+					dumpOriginal, dumpFields, hashCodes, entrySoftware, entryDump, entryLastSoftware, softwareHashOffsets, softwareHashes );
+		}
+	}
+
+	void write( File indexFile ) throws IOException
+	{
+		File tmpFile = new File( indexFile.getParentFile(), indexFile.getName() + ".tmp" );
+
+		try( DataOutputStream output = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmpFile ), 65536 ) ) )
+		{
+			output.writeInt( INDEX_FILE_MAGIC );
+			output.writeInt( INDEX_FILE_VERSION );
+
+			output.writeUTF( sourcePath );
+			output.writeLong( sourceLength );
+			output.writeLong( sourceLastModified );
+
+			output.writeInt( strings.length );
+			for( String string: strings )
+			{
+				output.writeUTF( string );
+			}
+
+			writeInts( output, softwareFields );
+			writeInts( output, dumpSoftware );
+			for( boolean original: dumpOriginal )
+			{
+				output.writeBoolean( original );
+			}
+			writeInts( output, dumpFields );
+
+			output.writeInt( hashCodes.size() );
+			for( int entry = 0; entry < hashCodes.size(); entry++ )
+			{
+				output.writeUTF( hashCodes.getCode( entry ) );
+			}
+
+			writeInts( output, entrySoftware );
+			writeInts( output, entryDump );
+			writeInts( output, entryLastSoftware );
+			writeInts( output, softwareHashOffsets );
+			writeInts( output, softwareHashes );
+		}
+
+		if( indexFile.exists() && !indexFile.delete() )
+		{
+			throw new IOException( "Cannot replace " + indexFile );
+		}
+		if( !tmpFile.renameTo( indexFile ) )
+		{
+			throw new IOException( "Cannot rename " + tmpFile );
+		}
+	}
+
+	private RepositoryGame buildRepositoryGame( int software, int dump )
+	{
+		int offset = software * SOFTWARE_FIELDS;
+		String title = getString( softwareFields[offset] );
+		String system = getString( softwareFields[offset + 1] );
+		String company = getString( softwareFields[offset + 2] );
+		String year = getString( softwareFields[offset + 3] );
+		String country = getString( softwareFields[offset + 4] );
+
+		if( title == null || system == null || company == null || year == null || country == null )
+		{
+			return null;
+		}
+
+		RepositoryGame.RepositoryGameParam param = RepositoryGame.title( title ).system( system ).company( company ).year( year ).country( country );
+
+		if( dump != NO_VALUE )
+		{
+			offset = dump * DUMP_FIELDS;
+			param.isOriginal( dumpOriginal[dump] ).originalText( getString( dumpFields[offset] ) ).mapper( getString( dumpFields[offset + 1] ) )
+					.start( getString( dumpFields[offset + 2] ) ).remark( getString( dumpFields[offset + 3] ) );
+		}
+
+		return param.build();
+	}
+
+	private String getString( int index )
+	{
+		return index == NO_VALUE ? null : strings[index];
+	}
+
+	private static int[] readInts( DataInputStream input ) throws IOException
+	{
+		int[] values = new int[input.readInt()];
+		for( int index = 0; index < values.length; index++ )
+		{
+			values[index] = input.readInt();
+		}
+
+		return values;
+	}
+
+	private static void writeInts( DataOutputStream output, int[] values ) throws IOException
+	{
+		output.writeInt( values.length );
+		for( int value: values )
+		{
+			output.writeInt( value );
+		}
+	}
+}
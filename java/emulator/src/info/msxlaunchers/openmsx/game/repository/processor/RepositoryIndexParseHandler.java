@@ -0,0 +1,228 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * Parse handler that reads a whole repository XML file into a <code>RepositoryIndex</code>
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class RepositoryIndexParseHandler extends ParseHandler
+{
+	private final String sourcePath;
+	private final long sourceLength;
+	private final long sourceLastModified;
+
+	private final Map<String,Integer> stringIndexes = new HashMap<>();
+	private final List<String> strings = new ArrayList<>();
+	private final List<Integer> softwareFields = new ArrayList<>();
+	private final List<Integer> dumpSoftware = new ArrayList<>();
+	private final List<Boolean> dumpOriginal = new ArrayList<>();
+	private final List<Integer> dumpFields = new ArrayList<>();
+	private final List<String> hashCodes = new ArrayList<>();
+	private final List<Integer> hashSoftware = new ArrayList<>();
+	private final List<Integer> hashDumps = new ArrayList<>();
+
+	private int title;
+	private int system;
+	private int company;
+	private int year;
+	private int country;
+	private boolean original;
+	private int originalString;
+	private int mapper;
+	private int start;
+	private int remark;
+
+	private int firstHashOfDump = 0;
+
+	RepositoryIndexParseHandler( String sourcePath, long sourceLength, long sourceLastModified )
+	{
+		this.sourcePath = sourcePath;
+		this.sourceLength = sourceLength;
+		this.sourceLastModified = sourceLastModified;
+
+		resetSoftwareFields();
+		resetDumpFields();
+	}
+
+	RepositoryIndex getRepositoryIndex()
+	{
+		return RepositoryIndex.create( sourcePath, sourceLength, sourceLastModified, strings.toArray( new String[strings.size()] ),
+				toArray( softwareFields ), toArray( dumpSoftware ), toBooleanArray( dumpOriginal ), toArray( dumpFields ),
+				hashCodes, toArray( hashSoftware ), toArray( hashDumps ) );
+	}
+
+	@Override
+	public void startElement( String uri, String localName, String qName, Attributes attributes )
+			throws SAXException
+	{
+		super.startElement( uri, localName, qName, attributes );
+
+		if( qName.equalsIgnoreCase( "software" ) )
+		{
+			resetSoftwareFields();
+		}
+		else if( qName.equalsIgnoreCase( "original" ) )
+		{
+			original = "true".equals( attributes.getValue( "value" ) );
+		}
+	}
+
+	@Override
+	public void endElement( String uri, String localName, String qName )
+			throws SAXException
+	{
+		String tempText = getNodeText();
+
+		if( qName.equalsIgnoreCase( "title" ) )
+		{
+			title = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "system" ) )
+		{
+			system = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "company" ) )
+		{
+			company = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "year" ) )
+		{
+			year = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "country" ) )
+		{
+			country = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "original" ) )
+		{
+			originalString = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "type" ) || qName.equalsIgnoreCase( "boot" ) )
+		{
+			mapper = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "start" ) )
+		{
+			start = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "text" ) )
+		{
+			remark = getStringIndex( tempText );
+		}
+		else if( qName.equalsIgnoreCase( "hash" ) )
+		{
+			hashCodes.add( tempText );
+			//the software is added to the index when it ends, which is after all of its hash codes
+			hashSoftware.add( softwareFields.size() / RepositoryIndex.SOFTWARE_FIELDS );
+			hashDumps.add( RepositoryIndex.NO_VALUE );
+		}
+		else if( qName.equalsIgnoreCase( "dump" ) )
+		{
+			addDump();
+		}
+		else if( qName.equalsIgnoreCase( "software" ) )
+		{
+			softwareFields.add( title );
+			softwareFields.add( system );
+			softwareFields.add( company );
+			softwareFields.add( year );
+			softwareFields.add( country );
+		}
+
+		resetNodeTextHolder();
+	}
+
+	private void addDump()
+	{
+		int dump = dumpSoftware.size();
+
+		for( int hash = firstHashOfDump; hash < hashDumps.size(); hash++ )
+		{
+			hashDumps.set( hash, dump );
+		}
+		firstHashOfDump = hashDumps.size();
+
+		dumpSoftware.add( softwareFields.size() / RepositoryIndex.SOFTWARE_FIELDS );
+		dumpOriginal.add( original );
+		dumpFields.add( originalString );
+		dumpFields.add( mapper );
+		dumpFields.add( start );
+		dumpFields.add( remark );
+
+		resetDumpFields();
+	}
+
+	private void resetSoftwareFields()
+	{
+		title = RepositoryIndex.NO_VALUE;
+		system = RepositoryIndex.NO_VALUE;
+		company = RepositoryIndex.NO_VALUE;
+		year = RepositoryIndex.NO_VALUE;
+		country = RepositoryIndex.NO_VALUE;
+	}
+
+	private void resetDumpFields()
+	{
+		original = false;
+		originalString = RepositoryIndex.NO_VALUE;
+		mapper = RepositoryIndex.NO_VALUE;
+		start = RepositoryIndex.NO_VALUE;
+		remark = RepositoryIndex.NO_VALUE;
+	}
+
+	private int getStringIndex( String string )
+	{
+		Integer index = stringIndexes.get( string );
+
+		if( index == null )
+		{
+			//only keep one copy of repeated values such as company names, years and mappers
+			index = strings.size();
+			strings.add( string );
+			stringIndexes.put( string, index );
+		}
+
+		return index;
+	}
+
+	private static int[] toArray( List<Integer> values )
+	{
+		return values.stream().mapToInt( Integer::intValue ).toArray();
+	}
+
+	private static boolean[] toBooleanArray( List<Boolean> values )
+	{
+		boolean[] array = new boolean[values.size()];
+		for( int index = 0; index < array.length; index++ )
+		{
+			array[index] = values.get( index );
+		}
+
+		return array;
+	}
+}
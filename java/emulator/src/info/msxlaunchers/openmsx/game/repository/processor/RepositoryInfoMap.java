@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unmodifiable Map view of the hash codes of a <code>RepositoryIndex</code>. Keys are looked up in the index's
+ * <code>HashCodeTable</code> and all hash codes of the same software share one <code>RepositoryGame</code> object
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class RepositoryInfoMap extends AbstractMap<String,RepositoryGame>
+{
+	private final HashCodeTable hashCodes;
+	private final int[] entrySoftware;
+	private final RepositoryGame[] softwareGames;
+	private final int size;
+
+	RepositoryInfoMap( HashCodeTable hashCodes, int[] entrySoftware, RepositoryGame[] softwareGames )
+	{
+		this.hashCodes = hashCodes;
+		this.entrySoftware = entrySoftware;
+		this.softwareGames = softwareGames;
+
+		int count = 0;
+		for( int entry = 0; entry < entrySoftware.length; entry++ )
+		{
+			if( getGame( entry ) != null )
+			{
+				count++;
+			}
+		}
+		this.size = count;
+	}
+
+	@Override
+	public RepositoryGame get( Object key )
+	{
+		if( !(key instanceof String) )
+		{
+			return null;
+		}
+
+		int entry = hashCodes.indexOf( (String)key );
+
+		return entry < 0 ? null : getGame( entry );
+	}
+
+	@Override
+	public boolean containsKey( Object key )
+	{
+		return get( key ) != null;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public Set<Map.Entry<String,RepositoryGame>> entrySet()
+	{
+		return new AbstractSet<Map.Entry<String,RepositoryGame>>()
+		{
+			@Override
+			public Iterator<Map.Entry<String,RepositoryGame>> iterator()
+			{
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+
+	private RepositoryGame getGame( int entry )
+	{
+		int software = entrySoftware[entry];
+
+		return software < softwareGames.length ? softwareGames[software] : null;
+	}
+
+	private final class EntryIterator implements Iterator<Map.Entry<String,RepositoryGame>>
+	{
+		private int nextEntry = findEntry( 0 );
+
+		@Override
+		public boolean hasNext()
+		{
+			return nextEntry < entrySoftware.length;
+		}
+
+		@Override
+		public Map.Entry<String,RepositoryGame> next()
+		{
+			if( !hasNext() )
+			{
+				throw new NoSuchElementException();
+			}
+
+			int entry = nextEntry;
+			nextEntry = findEntry( entry + 1 );
+
+			return new AbstractMap.SimpleImmutableEntry<>( hashCodes.getCode( entry ), getGame( entry ) );
+		}
+
+		private int findEntry( int entry )
+		{
+			while( entry < entrySoftware.length && getGame( entry ) == null )
+			{
+				entry++;
+			}
+
+			return entry;
+		}
+	}
+}
@@ -84,7 +84,7 @@ final class SAXXMLProcessor implements XMLProcessor
 		return handler.getGameInfo();
 	}
 
-	private static void parse( File xmlFile, DefaultHandler handler ) throws IOException
+	static void parse( File xmlFile, DefaultHandler handler ) throws IOException
 	{
 		SAXParserFactory spfac = SAXParserFactory.newInstance();
 		try
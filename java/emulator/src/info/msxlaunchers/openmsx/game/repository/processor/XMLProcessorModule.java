@@ -27,6 +27,6 @@ public class XMLProcessorModule extends AbstractModule
 	@Override 
 	protected void configure()
 	{
-		bind( XMLProcessor.class ).to( SAXXMLProcessor.class );
+		bind( XMLProcessor.class ).to( IndexedXMLProcessor.class );
 	}
 }
\ No newline at end of file
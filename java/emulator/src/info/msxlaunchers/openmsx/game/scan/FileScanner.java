@@ -20,6 +20,9 @@ import info.msxlaunchers.openmsx.common.FileUtils;
 import info.msxlaunchers.openmsx.common.HashUtils;
 import info.msxlaunchers.openmsx.common.Nullable;
 import info.msxlaunchers.openmsx.game.repository.RepositoryData;
+import info.msxlaunchers.openmsx.launcher.builder.FileHash;
+import info.msxlaunchers.openmsx.launcher.builder.FileHashCache;
+import info.msxlaunchers.openmsx.launcher.builder.FileHashUtils;
 import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
@@ -27,16 +30,20 @@ import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
 import info.msxlaunchers.openmsx.launcher.extra.ExtraDataGetter;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister;
+import info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
@@ -53,14 +60,16 @@ final class FileScanner implements Scanner
 	private final GamePersister gamePersister;
 	private final RepositoryData repositoryData;
 
-	private boolean interrupted;
+	private volatile boolean interrupted;
 
-	private Set<Game> processedGames = null;
+	private GameWriter gameWriter = null;
 	private Set<String> processedGameNames = null;
 	private Set<String> processedGameSha1Codes = null;
+	private final Map<String,String> unsavedGameSha1Codes = new HashMap<>();
 	private Map<String,RepositoryGame> sha1ToRepositoryGameMap = null;
 	private final GameBuilder gameBuilder;
 	private final ExtraDataGetter extraDataGetter;
+	private final FileHashCache fileHashCache;
 	private final String baseDirectory;
 
 	private boolean traverseSubDirectories;
@@ -78,12 +87,13 @@ final class FileScanner implements Scanner
 
 	@Inject
 	FileScanner( GamePersister gamePersister, RepositoryData repositoryData, GameBuilder gameBuilder, ExtraDataGetter extraDataGetter,
-			@Nullable @Named("BaseDirectory") String baseDirectory )
+			FileHashCache fileHashCache, @Nullable @Named("BaseDirectory") String baseDirectory )
 	{
 		this.gamePersister = Objects.requireNonNull( gamePersister );
 		this.repositoryData = Objects.requireNonNull( repositoryData );
 		this.gameBuilder = Objects.requireNonNull( gameBuilder );
 		this.extraDataGetter = Objects.requireNonNull( extraDataGetter );
+		this.fileHashCache = Objects.requireNonNull( fileHashCache );
 		this.baseDirectory = baseDirectory;
 
 		//the following flag can be set from a different thread to stop
@@ -120,7 +130,6 @@ final class FileScanner implements Scanner
 
 		this.extraDataMap = extraDataGetter.getExtraData();
 
-		processedGames = new HashSet<>();
 		processedGameNames = new HashSet<>();
 		processedGameSha1Codes = new HashSet<>();
 
@@ -156,28 +165,42 @@ final class FileScanner implements Scanner
 			sha1ToRepositoryGameMap = repositoryData.getRepositoryInfo();
 		}
 
-		//start the scanning
-		int totalFound = 0;
-		for( String path: paths )
+		//start the scanning. Directory listing and hashing are spread across the pool, but the found files
+		//are processed in traversal order on this thread so that duplicate detection and name collisions
+		//give the same result as a sequential scan. Each file is processed as soon as it and the ones before
+		//it are hashed, and games are saved in chunks while scanning so that they are not all held in memory
+		//and the saved ones, along with the hashes of their files, are kept if the scan does not complete.
+		//Tasks are only joined by this thread, so the pool runs them in the order they are forked
+		ForkJoinPool scanPool = new ForkJoinPool( Runtime.getRuntime().availableProcessors(), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true );
+		try( GameWriter gameWriter = gamePersister.openGameWriter( database, GameWriter.DEFAULT_CHUNK_SIZE, savedGamesCount -> onChunkSaved() ) )
 		{
-			if( interrupted )
+			this.gameWriter = gameWriter;
+
+			for( String path: paths )
 			{
-				break;
+				if( interrupted )
+				{
+					break;
+				}
+
+				TraverseTask traverseTask = new TraverseTask( new File( path ), getAbsolutePath( path, baseDirectory ), true );
+				scanPool.execute( traverseTask );
+
+				processTraversedFiles( traverseTask );
 			}
 
-			totalFound += traverse( new File( path ), getAbsolutePath( path, baseDirectory ), true );
-		}
+			//the last chunk is committed before counting so that its duplicates are not counted as found
+			gameWriter.flush();
 
-		try
-		{
-			gamePersister.saveGames( processedGames, database );
+			return gameWriter.getWrittenGamesCount();
 		}
-		catch( GamePersistenceException gpe )
+		finally
 		{
-			//TODO: what to do? just skip for now
+			this.gameWriter = null;
+			unsavedGameSha1Codes.clear();
+			scanPool.shutdownNow();
+			fileHashCache.save();
 		}
-
-		return totalFound;
 	}
 
 	/* (non-Javadoc)
@@ -188,28 +211,27 @@ final class FileScanner implements Scanner
 		interrupted = true;
 	}
 
-	private int traverse( File relativePath, File absolutePath, boolean firstCall )
+	private void processTraversedFiles( TraverseTask traverseTask ) throws GamePersistenceException
 	{
-		int totalFound = 0;
-
-		if( absolutePath.isFile() )
+		for( ScannedFile scannedFile: traverseTask.join() )
 		{
-			totalFound += processFile( absolutePath, relativePath.getParentFile() );
+			if( interrupted )
+			{
+				return;
+			}
+
+			processPotentialGame( scannedFile.file, scannedFile.fileNameToUse, scannedFile.fileSize, scannedFile.sha1Code );
 		}
-		else if ( traverseSubDirectories || firstCall )
-		{
-			File[] fileList = absolutePath.listFiles();
 
-			if( fileList != null )
+		for( TraverseTask subTask: traverseTask.getSubTasks() )
+		{
+			if( interrupted )
 			{
-				for( File file: fileList )
-				{
-					totalFound += traverse( new File( relativePath, file.getName() ), file, false );
-				}
+				return;
 			}
-		}
 
-		return totalFound;
+			processTraversedFiles( subTask );
+		}
 	}
 
 	private File getAbsolutePath( String relativePath, String baseDirectory )
@@ -229,36 +251,63 @@ final class FileScanner implements Scanner
 		return new File( relativePath, file.getName() ).getAbsolutePath();
 	}
 
-	private int processFile( File file, File relativePath )
+	private List<ScannedFile> hashFile( File file, File relativePath )
 	{
-		int added = 0;
+		boolean isZIP = FileTypeUtils.isZIP( file );
 
-		if( FileTypeUtils.isROM( file ) ||
-				FileTypeUtils.isDisk( file ) ||
-				FileTypeUtils.isTape( file ) ||
-				FileTypeUtils.isHarddisk( file ) ||
-				FileTypeUtils.isLaserdisc( file ) )
+		if( !isZIP && !isSearchedMedia( file ) )
 		{
-			String sha1Code = HashUtils.getSHA1Code( file );
-			added = processPotentialGame( file, getRealFullFilePath( file, relativePath ), file.length(), sha1Code );
+			return Collections.emptyList();
 		}
-		else if( FileTypeUtils.isZIP( file ) )
+
+		//files that have not changed since they were last hashed are not read again
+		List<FileHash> fileHashes = fileHashCache.getFileHashes( file );
+		if( fileHashes == null )
 		{
-			added = processZipFile( file, relativePath );
+			//the file is stamped before it is read so that a file that changes while it is read is not cached as unchanged
+			long length = file.length();
+			long lastModified = file.lastModified();
+
+			if( isZIP )
+			{
+				//openMSX only uses the first file in a ZIP file, so that is the only potential game in it
+				FileHash fileHash = FileHashUtils.getZipFileHash( file );
+				fileHashes = fileHash == null ? Collections.emptyList() : Collections.singletonList( fileHash );
+			}
+			else
+			{
+				fileHashes = Collections.singletonList( new FileHash( null, HashUtils.getSHA1Code( file ), length ) );
+			}
+
+			fileHashCache.putFileHashes( file, length, lastModified, fileHashes );
 		}
 
-		return added;
+		if( fileHashes.isEmpty() )
+		{
+			return Collections.emptyList();
+		}
+
+		FileHash fileHash = fileHashes.get( 0 );
+		File mediaFile = fileHash.getName() == null ? file : new File( fileHash.getName() );
+
+		return Collections.singletonList( new ScannedFile( mediaFile, getRealFullFilePath( file, relativePath ), fileHash.getSize(), fileHash.getSha1Code() ) );
 	}
 
-	private int processPotentialGame( File file, String fileNameToUse, long fileSize, String sha1Code )
-    {
-		int added = 0;
+	private boolean isSearchedMedia( File file )
+	{
+		return (searchROM && FileTypeUtils.isROM( file )) ||
+				(searchDisk && (FileTypeUtils.isDisk( file ) || FileTypeUtils.isHarddisk( file ))) ||
+				(searchTape && FileTypeUtils.isTape( file )) ||
+				(searchLaserdisc && FileTypeUtils.isLaserdisc( file ));
+	}
 
+	private void processPotentialGame( File file, String fileNameToUse, long fileSize, String sha1Code ) throws GamePersistenceException
+    {
 		if( file != null )
 		{
 			if( searchROM && FileTypeUtils.isROM( file ) )
 			{
-				added = addToProcessedGames( getGameName( file, sha1Code ),
+				addToProcessedGames( getGameName( file, sha1Code ),
 						fileNameToUse,
 						null,
 						null,
@@ -275,7 +324,7 @@ final class FileScanner implements Scanner
 				//it's ok, we'll leave this logic the way it is. Later in this method we'll check for harddisks
 				if( fileSize <= FileTypeUtils.MAX_DISK_FILE_SIZE )
 				{
-					added = addToProcessedGames( getGameName( file, sha1Code ),
+					addToProcessedGames( getGameName( file, sha1Code ),
 							null,
 							fileNameToUse,
 							null,
@@ -287,7 +336,7 @@ final class FileScanner implements Scanner
 				}
 				else
 				{
-					added = addToProcessedGames( getGameName( file, sha1Code ),
+					addToProcessedGames( getGameName( file, sha1Code ),
 							null,
 							null,
 							fileNameToUse,
@@ -300,7 +349,7 @@ final class FileScanner implements Scanner
 			}
 			else if( searchTape && FileTypeUtils.isTape( file ) )
 			{
-				added = addToProcessedGames( getGameName( file, sha1Code ),
+				addToProcessedGames( getGameName( file, sha1Code ),
 						null,
 						null,
 						null,
@@ -313,7 +362,7 @@ final class FileScanner implements Scanner
 			else if( searchDisk && FileTypeUtils.isHarddisk( file ) )
 			{
 				//we're combining disks and harddisks in the searchDisk flag
-				added = addToProcessedGames( getGameName( file, sha1Code ),
+				addToProcessedGames( getGameName( file, sha1Code ),
 						null,
 						null,
 						fileNameToUse,
@@ -325,7 +374,7 @@ final class FileScanner implements Scanner
 			}
 			else if( searchLaserdisc && FileTypeUtils.isLaserdisc( file ) )
 			{
-				added = addToProcessedGames( getGameName( file, sha1Code ),
+				addToProcessedGames( getGameName( file, sha1Code ),
 						null,
 						null,
 						null,
@@ -336,37 +385,9 @@ final class FileScanner implements Scanner
 						fileSize );
 			}
 		}
-
-		return added;
     }
 
-	private int processZipFile( File zipFile, File relativePath )
-	{
-		int added = 0;
-
-		try( ZipFile zip = new ZipFile( zipFile ) )
-		{
-			ZipEntry firstZipEntry = zip.entries().nextElement();
-
-			try( InputStream inputStream = zip.getInputStream( firstZipEntry ) )
-			{
-				String sha1Code = HashUtils.getSHA1Code( inputStream );
-
-				added = processPotentialGame( new File( firstZipEntry.getName() ),
-					getRealFullFilePath( zipFile, relativePath ),
-					firstZipEntry.getSize(),
-					sha1Code );
-			}
-		}
-		catch( IOException e )
-		{
-			//invalid ZIP file - skip and return null
-		}
-
-		return added;
-	}
-
-	private int addToProcessedGames( String name,
+	private void addToProcessedGames( String name,
 										String rom,
 										String disk,
 										String harddisk,
@@ -374,10 +395,8 @@ final class FileScanner implements Scanner
 										String tape,
 										String laserdisc,
 										String sha1Code,
-										long fileSize )
+										long fileSize ) throws GamePersistenceException
 	{
-		int added = 0;
-
 		if( !processedGameSha1Codes.contains( sha1Code ) )
 		{
 			String adjustedName = adjustedNameIfNecessary( name );
@@ -386,16 +405,30 @@ final class FileScanner implements Scanner
 
 			if( game != null )
 			{
-				processedGames.add( game );
+				gameWriter.write( game );
 	
 				processedGameNames.add( adjustedName );
 				processedGameSha1Codes.add( sha1Code );
-				
-				added = 1;
+				unsavedGameSha1Codes.put( adjustedName, sha1Code );
 			}
 		}
+	}
+
+	private void onChunkSaved()
+	{
+		//a game skipped by the writer because its name was taken in the meantime is not saved, so another file with
+		//the same content can still be added. The name stays taken so that later games are given different ones
+		Set<String> duplicateGames = gameWriter.getDuplicateGames();
+		unsavedGameSha1Codes.forEach( ( name, sha1Code ) -> {
+			if( duplicateGames.contains( name ) )
+			{
+				processedGameSha1Codes.remove( sha1Code );
+			}
+		} );
+		unsavedGameSha1Codes.clear();
 
-		return added;
+		//the hashes of the files scanned so far are kept with the games saved from them
+		fileHashCache.save();
 	}
 
 	private String adjustedNameIfNecessary( String name )
@@ -438,4 +471,83 @@ final class FileScanner implements Scanner
 
 		return name;
 	}
+
+	/**
+	 * Fork/join task that hashes a file or lists a directory, forking one subtask per entry so that
+	 * idle workers can steal sub-directories and large files from busy ones.
+	 * A directory task completes as soon as its subtasks are forked, so the scan thread can join them in
+	 * listing order and process each file while the rest of the tree is still being traversed
+	 */
+	private final class TraverseTask extends RecursiveTask<List<ScannedFile>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final File relativePath;
+		private final File absolutePath;
+		private final boolean firstCall;
+
+		//set before this task completes, so it is visible to the thread that joined it
+		private List<TraverseTask> subTasks = Collections.emptyList();
+
+		TraverseTask( File relativePath, File absolutePath, boolean firstCall )
+		{
+			this.relativePath = relativePath;
+			this.absolutePath = absolutePath;
+			this.firstCall = firstCall;
+		}
+
+		List<TraverseTask> getSubTasks()
+		{
+			return subTasks;
+		}
+
+		@Override
+		protected List<ScannedFile> compute()
+		{
+			if( interrupted )
+			{
+				return Collections.emptyList();
+			}
+
+			if( absolutePath.isFile() )
+			{
+				return hashFile( absolutePath, relativePath.getParentFile() );
+			}
+			else if( traverseSubDirectories || firstCall )
+			{
+				File[] fileList = absolutePath.listFiles();
+
+				if( fileList != null )
+				{
+					List<TraverseTask> listedTasks = new ArrayList<>( fileList.length );
+					for( File file: fileList )
+					{
+						TraverseTask subTask = new TraverseTask( new File( relativePath, file.getName() ), file, false );
+						subTask.fork();
+						listedTasks.add( subTask );
+					}
+
+					subTasks = listedTasks;
+				}
+			}
+
+			return Collections.emptyList();
+		}
+	}
+
+	private static final class ScannedFile
+	{
+		private final File file;
+		private final String fileNameToUse;
+		private final long fileSize;
+		private final String sha1Code;
+
+		ScannedFile( File file, String fileNameToUse, long fileSize, String sha1Code )
+		{
+			this.file = file;
+			this.fileNameToUse = fileNameToUse;
+			this.fileSize = fileSize;
+			this.sha1Code = sha1Code;
+		}
+	}
 }
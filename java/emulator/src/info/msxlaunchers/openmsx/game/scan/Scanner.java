@@ -29,7 +29,7 @@ import java.io.IOException;
 public interface Scanner
 {
 	/**
-	 * Scans for games supported by openMSX and returns number of found games
+	 * Scans for games supported by openMSX, saves them in the given database and returns the number of saved games
 	 * 
 	 * @param paths Array of paths to scan
 	 * @param traverseSubDirectories If true, traverse sub-directories
@@ -43,7 +43,7 @@ public interface Scanner
 	 * @param searchLaserdisc If true, search for files with laserdisc extensions
 	 * @param getNameFromOpenMSXDatabase If true, game name will be obtained from openMSX software database, otherwise use filename as game name
 	 * @param backupDatabase If true, backup existing database
-	 * @return Number of found games
+	 * @return Number of games saved in the database. Games whose names were taken when they were saved are not counted
 	 * @throws GameWithNullNameException
 	 * @throws DatabaseMaxBackupReachedException
 	 * @throws DatabaseAlreadyExistsException
@@ -0,0 +1,136 @@
+package info.msxlaunchers.openmsx.game.repository;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith( MockitoJUnitRunner.class )
+public class CachedRepositoryDataTest
+{
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	@Mock RepositoryData repositoryData;
+	@Mock XMLFileGetter xmlFileGetter;
+
+	@Test( expected = NullPointerException.class )
+	public void testForNullConditionsConstructorArg1()
+	{
+		new CachedRepositoryData( null, Collections.emptySet() );
+	}
+
+	@Test( expected = NullPointerException.class )
+	public void testForNullConditionsConstructorArg2()
+	{
+		new CachedRepositoryData( repositoryData, null );
+	}
+
+	@Test
+	public void givenNoXMLFiles_whenGetRepositoryInfo_thenReturnNull() throws IOException
+	{
+		Mockito.when( repositoryData.getRepositoryInfo() ).thenReturn( null );
+
+		CachedRepositoryData cachedRepositoryData = new CachedRepositoryData( repositoryData, Collections.singleton( xmlFileGetter ) );
+
+		Assert.assertNull( cachedRepositoryData.getRepositoryInfo() );
+		Assert.assertTrue( cachedRepositoryData.getDumpCodes( "code" ).isEmpty() );
+		Assert.assertNull( cachedRepositoryData.getGameInfo( "code" ) );
+
+		Mockito.verify( repositoryData, Mockito.never() ).getDumpCodes( "code" );
+		Mockito.verify( repositoryData, Mockito.never() ).getGameInfo( "code" );
+	}
+
+	@Test
+	public void givenUnchangedXMLFile_whenGetRepositoryInfoTwice_thenLoadOnceAndReturnSameMap() throws IOException
+	{
+		File xmlFile = createXMLFile( "data" );
+		Mockito.when( xmlFileGetter.get() ).thenReturn( xmlFile );
+		Mockito.when( repositoryData.getRepositoryInfo() ).thenReturn( createRepositoryInfo( "title" ) );
+
+		CachedRepositoryData cachedRepositoryData = new CachedRepositoryData( repositoryData, Collections.singleton( xmlFileGetter ) );
+
+		Map<String,RepositoryGame> repositoryInfo = cachedRepositoryData.getRepositoryInfo();
+
+		Assert.assertSame( repositoryInfo, cachedRepositoryData.getRepositoryInfo() );
+		Assert.assertEquals( "title", repositoryInfo.get( "code" ).getTitle() );
+		Mockito.verify( repositoryData, Mockito.times( 1 ) ).getRepositoryInfo();
+	}
+
+	@Test( expected = UnsupportedOperationException.class )
+	public void givenXMLFile_whenGetRepositoryInfo_thenReturnUnmodifiableMap() throws IOException
+	{
+		File xmlFile = createXMLFile( "data" );
+		Mockito.when( xmlFileGetter.get() ).thenReturn( xmlFile );
+		Mockito.when( repositoryData.getRepositoryInfo() ).thenReturn( createRepositoryInfo( "title" ) );
+
+		CachedRepositoryData cachedRepositoryData = new CachedRepositoryData( repositoryData, Collections.singleton( xmlFileGetter ) );
+
+		cachedRepositoryData.getRepositoryInfo().clear();
+	}
+
+	@Test
+	public void givenChangedXMLFile_whenGetRepositoryInfo_thenReload() throws IOException
+	{
+		File xmlFile = createXMLFile( "data" );
+		Mockito.when( xmlFileGetter.get() ).thenReturn( xmlFile );
+		Mockito.when( repositoryData.getRepositoryInfo() ).thenReturn( createRepositoryInfo( "title1" ), createRepositoryInfo( "title2" ) );
+
+		CachedRepositoryData cachedRepositoryData = new CachedRepositoryData( repositoryData, Collections.singleton( xmlFileGetter ) );
+
+		Assert.assertEquals( "title1", cachedRepositoryData.getRepositoryInfo().get( "code" ).getTitle() );
+
+		createXMLFile( "changed data" );
+
+		Assert.assertEquals( "title2", cachedRepositoryData.getRepositoryInfo().get( "code" ).getTitle() );
+		Mockito.verify( repositoryData, Mockito.times( 2 ) ).getRepositoryInfo();
+	}
+
+	@Test
+	public void givenXMLFile_whenGetDumpCodesAndGameInfo_thenDelegate() throws IOException
+	{
+		File xmlFile = createXMLFile( "data" );
+		Mockito.when( xmlFileGetter.get() ).thenReturn( xmlFile );
+		Map<String,RepositoryGame> repositoryInfo = createRepositoryInfo( "title" );
+		Mockito.when( repositoryData.getRepositoryInfo() ).thenReturn( repositoryInfo );
+		Set<String> dumpCodes = Collections.singleton( "code" );
+		Mockito.when( repositoryData.getDumpCodes( "code" ) ).thenReturn( dumpCodes );
+		Mockito.when( repositoryData.getGameInfo( "code" ) ).thenReturn( repositoryInfo.get( "code" ) );
+
+		CachedRepositoryData cachedRepositoryData = new CachedRepositoryData( repositoryData, Collections.singleton( xmlFileGetter ) );
+
+		Assert.assertSame( dumpCodes, cachedRepositoryData.getDumpCodes( "code" ) );
+		Assert.assertSame( repositoryInfo.get( "code" ), cachedRepositoryData.getGameInfo( "code" ) );
+		Mockito.verify( repositoryData, Mockito.times( 1 ) ).getRepositoryInfo();
+	}
+
+	private File createXMLFile( String content ) throws IOException
+	{
+		File xmlFile = new File( tmpFolder.getRoot(), "softwaredb.xml" );
+		Files.write( xmlFile.toPath(), content.getBytes() );
+
+		return xmlFile;
+	}
+
+	private Map<String,RepositoryGame> createRepositoryInfo( String title )
+	{
+		Map<String,RepositoryGame> repositoryInfo = new HashMap<>();
+		repositoryInfo.put( "code", RepositoryGame.title( title ).system( "MSX" ).company( "company" ).year( "year" ).country( "country" ).build() );
+
+		return repositoryInfo;
+	}
+}
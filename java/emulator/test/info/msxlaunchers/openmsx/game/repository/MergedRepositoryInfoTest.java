@@ -0,0 +1,54 @@
+package info.msxlaunchers.openmsx.game.repository;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MergedRepositoryInfoTest
+{
+	private final RepositoryGame game1 = createRepositoryGame( "title1" );
+	private final RepositoryGame game2 = createRepositoryGame( "title2" );
+	private final RepositoryGame game3 = createRepositoryGame( "title3" );
+
+	@Test
+	public void test_GivenTwoMaps_WhenMerged_ThenSameAsPutAllInOrder()
+	{
+		Map<String,RepositoryGame> repositoryInfo1 = new HashMap<>();
+		repositoryInfo1.put( "code1", game1 );
+		repositoryInfo1.put( "code2", game2 );
+		Map<String,RepositoryGame> repositoryInfo2 = new HashMap<>();
+		repositoryInfo2.put( "code2", game3 );
+		repositoryInfo2.put( "code3", game3 );
+
+		Map<String,RepositoryGame> expected = new HashMap<>( repositoryInfo1 );
+		expected.putAll( repositoryInfo2 );
+
+		MergedRepositoryInfo mergedRepositoryInfo = new MergedRepositoryInfo( Arrays.asList( repositoryInfo1, repositoryInfo2 ) );
+
+		assertEquals( 3, mergedRepositoryInfo.size() );
+		assertEquals( 3, mergedRepositoryInfo.entrySet().size() );
+		assertEquals( expected, mergedRepositoryInfo );
+		assertEquals( expected, new HashMap<>( mergedRepositoryInfo ) );
+		assertSame( game3, mergedRepositoryInfo.get( "code2" ) );
+		assertNull( mergedRepositoryInfo.get( "code4" ) );
+	}
+
+	@Test( expected = UnsupportedOperationException.class )
+	public void test_GivenMergedMap_WhenPut_ThenThrowException()
+	{
+		new MergedRepositoryInfo( Arrays.asList( new HashMap<>(), new HashMap<>() ) ).put( "code", game1 );
+	}
+
+	private static RepositoryGame createRepositoryGame( String title )
+	{
+		return RepositoryGame.title( title ).system( "MSX" ).company( "company" ).year( "year" ).country( "country" ).build();
+	}
+}
@@ -0,0 +1,66 @@
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HashCodeTableTest
+{
+	private static final String SHA1_CODE1 = "9bca89c71c033bb9a85ee30cf75960ec839c0462";
+	private static final String SHA1_CODE2 = "46f3954d7f92f5d00f45b82fdde543c28a4b53c9";
+
+	@Test
+	public void test_GivenAddedSha1Codes_WhenIndexOf_ThenReturnTheirEntries()
+	{
+		HashCodeTable hashCodeTable = new HashCodeTable( 2 );
+
+		assertEquals( 0, hashCodeTable.add( SHA1_CODE1 ) );
+		assertEquals( 1, hashCodeTable.add( SHA1_CODE2 ) );
+
+		assertEquals( 2, hashCodeTable.size() );
+		assertEquals( 0, hashCodeTable.indexOf( SHA1_CODE1 ) );
+		assertEquals( 1, hashCodeTable.indexOf( SHA1_CODE2 ) );
+		assertEquals( SHA1_CODE1, hashCodeTable.getCode( 0 ) );
+		assertEquals( SHA1_CODE2, hashCodeTable.getCode( 1 ) );
+	}
+
+	@Test
+	public void test_GivenUpperCaseSha1Code_WhenIndexOf_ThenReturnSameEntryAsLowerCase()
+	{
+		HashCodeTable hashCodeTable = new HashCodeTable( 1 );
+
+		hashCodeTable.add( SHA1_CODE1.toUpperCase() );
+
+		assertEquals( 0, hashCodeTable.indexOf( SHA1_CODE1 ) );
+		assertEquals( SHA1_CODE1, hashCodeTable.getCode( 0 ) );
+	}
+
+	@Test
+	public void test_GivenCodesThatAreNotSha1_WhenIndexOf_ThenReturnTheirEntries()
+	{
+		HashCodeTable hashCodeTable = new HashCodeTable( 3 );
+
+		hashCodeTable.add( "short-code" );
+		hashCodeTable.add( SHA1_CODE1 );
+		hashCodeTable.add( "zzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzz" );
+
+		assertEquals( 0, hashCodeTable.indexOf( "SHORT-CODE" ) );
+		assertEquals( 1, hashCodeTable.indexOf( SHA1_CODE1 ) );
+		assertEquals( 2, hashCodeTable.indexOf( "zzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzz" ) );
+		assertEquals( "short-code", hashCodeTable.getCode( 0 ) );
+	}
+
+	@Test
+	public void test_GivenFullTableWithCollidingCodes_WhenIndexOfMissingCode_ThenReturnMinusOne()
+	{
+		HashCodeTable hashCodeTable = new HashCodeTable( 3 );
+
+		//same first four bytes so that they all land in the same slot
+		hashCodeTable.add( "0000000000000000000000000000000000000001" );
+		hashCodeTable.add( "0000000000000000000000000000000000000002" );
+		hashCodeTable.add( "0000000000000000000000000000000000000003" );
+
+		assertEquals( 2, hashCodeTable.indexOf( "0000000000000000000000000000000000000003" ) );
+		assertEquals( -1, hashCodeTable.indexOf( "0000000000000000000000000000000000000004" ) );
+	}
+}
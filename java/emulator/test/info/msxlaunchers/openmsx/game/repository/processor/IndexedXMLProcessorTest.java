@@ -0,0 +1,174 @@
+package info.msxlaunchers.openmsx.game.repository.processor;
+
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedXMLProcessorTest
+{
+	@Rule
+	public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	private final File softwareXML = new File( getClass().getResource( "softwaredb.xml" ).getFile() );
+
+	@Test( expected = NullPointerException.class )
+	public void testForNullConditionsConstructorArg()
+	{
+		new IndexedXMLProcessor( null );
+	}
+
+	@Test
+	public void test_GivenXMLFile_WhenGetRepositoryInfo_ThenReturnSameInfoAsXMLParser() throws IOException
+	{
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+		Map<String,RepositoryGame> expectedRepositoryInfo = new SAXXMLProcessor().getRepositoryInfo( softwareXML );
+
+		Map<String,RepositoryGame> repositoryInfo = indexedXMLProcessor.getRepositoryInfo( softwareXML );
+
+		assertTrue( repositoryInfo.size() > 0 );
+		assertEquals( expectedRepositoryInfo, repositoryInfo );
+	}
+
+	@Test
+	public void test_GivenXMLFile_WhenGetRepositoryInfo_ThenDumpsOfSameSoftwareShareOneGame() throws IOException
+	{
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+
+		Map<String,RepositoryGame> repositoryInfo = indexedXMLProcessor.getRepositoryInfo( softwareXML );
+
+		//F16 Fighting Falcon has two dumps
+		RepositoryGame repositoryGame = repositoryInfo.get( "5c7a13b64b48065231f05c35b4c8b209534f3a8b" );
+		assertEquals( "F16 Fighting Falcon", repositoryGame.getTitle() );
+		assertSame( repositoryGame, repositoryInfo.get( "b11b93add30086ce00d2126252893700ca6fd82b" ) );
+		assertSame( repositoryGame, repositoryInfo.get( "B11B93ADD30086CE00D2126252893700CA6FD82B" ) );
+		assertNull( repositoryInfo.get( "0000000000000000000000000000000000000000" ) );
+	}
+
+	@Test
+	public void test_GivenXMLFile_WhenGetDumpCodesAndGameInfo_ThenReturnSameAsXMLParserForEveryCode() throws IOException
+	{
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+		SAXXMLProcessor saxXMLProcessor = new SAXXMLProcessor();
+
+		for( String code: saxXMLProcessor.getRepositoryInfo( softwareXML ).keySet() )
+		{
+			assertEquals( saxXMLProcessor.getDumpCodes( softwareXML, code ), indexedXMLProcessor.getDumpCodes( softwareXML, code ) );
+			assertSameGameInfo( saxXMLProcessor.getGameInfo( softwareXML, code ), indexedXMLProcessor.getGameInfo( softwareXML, code ) );
+		}
+	}
+
+	@Test
+	public void test_GivenXMLFile_WhenGetGameInfo_ThenReturnDumpSpecificInfo() throws IOException
+	{
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+
+		//Game: Hose Diogo Martinez: The Bussas Quest
+		RepositoryGame repositoryGame = indexedXMLProcessor.getGameInfo( softwareXML, "21E44CC5957B65B24C34D2C42B39879CACD82FF9" );
+
+		assertEquals( "Hose Diogo Martinez: The Bussas Quest", repositoryGame.getTitle() );
+		assertEquals( "Muffie", repositoryGame.getCompany() );
+		assertEquals( "2009", repositoryGame.getYear() );
+		assertEquals( "BR", repositoryGame.getCountry() );
+		assertTrue( repositoryGame.isOriginal() );
+		assertEquals( "Author", repositoryGame.getOriginalText() );
+		assertEquals( "Normal", repositoryGame.getMapper() );
+		assertEquals( "0x8000", repositoryGame.getStart() );
+		assertEquals( "MSX-DEV08", repositoryGame.getRemark() );
+	}
+
+	@Test
+	public void test_GivenNonExistentCode_WhenGetDumpCodesAndGameInfo_ThenReturnEmptyAndNull() throws IOException
+	{
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+
+		assertTrue( indexedXMLProcessor.getDumpCodes( softwareXML, "non-existent-code" ).isEmpty() );
+		assertNull( indexedXMLProcessor.getGameInfo( softwareXML, "non-existent-code" ) );
+	}
+
+	@Test( expected = IOException.class )
+	public void test_GivenNonExistentXMLFile_WhenGetRepositoryInfo_ThenThrowIOException() throws IOException
+	{
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+
+		indexedXMLProcessor.getRepositoryInfo( new File( "/non existent/softwaredb.xml" ) );
+	}
+
+	@Test
+	public void test_GivenXMLFile_WhenGetRepositoryInfo_ThenIndexFileIsWrittenAndReadByNewInstance() throws IOException
+	{
+		File xmlFile = copySoftwareXML();
+		new IndexedXMLProcessor( tmpFolder.getRoot().toString() ).getRepositoryInfo( xmlFile );
+
+		File indexFile = new File( tmpFolder.getRoot(), "softwaredb.xml.idx" );
+		assertTrue( indexFile.exists() );
+
+		RepositoryIndex repositoryIndex = RepositoryIndex.read( indexFile );
+		assertTrue( repositoryIndex.isStampedWith( xmlFile.getCanonicalPath(), xmlFile.length(), xmlFile.lastModified() ) );
+
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+		assertEquals( "Final Justice", indexedXMLProcessor.getGameInfo( xmlFile, "9bca89c71c033bb9a85ee30cf75960ec839c0462" ).getTitle() );
+		assertEquals( 4, indexedXMLProcessor.getDumpCodes( xmlFile, "9bca89c71c033bb9a85ee30cf75960ec839c0462" ).size() );
+	}
+
+	@Test
+	public void test_GivenChangedXMLFile_WhenGetGameInfo_ThenIndexIsRebuilt() throws IOException
+	{
+		File xmlFile = copySoftwareXML();
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+
+		assertEquals( "Final Justice", indexedXMLProcessor.getGameInfo( xmlFile, "9bca89c71c033bb9a85ee30cf75960ec839c0462" ).getTitle() );
+
+		String xml = new String( Files.readAllBytes( xmlFile.toPath() ), "UTF-8" );
+		Files.write( xmlFile.toPath(), xml.replace( "Final Justice", "Final Justice Changed" ).getBytes( "UTF-8" ) );
+
+		assertEquals( "Final Justice Changed", indexedXMLProcessor.getGameInfo( xmlFile, "9bca89c71c033bb9a85ee30cf75960ec839c0462" ).getTitle() );
+		assertEquals( "Final Justice Changed", new IndexedXMLProcessor( tmpFolder.getRoot().toString() )
+				.getGameInfo( xmlFile, "9bca89c71c033bb9a85ee30cf75960ec839c0462" ).getTitle() );
+	}
+
+	@Test
+	public void test_GivenDamagedIndexFile_WhenGetRepositoryInfo_ThenIndexIsRebuilt() throws IOException
+	{
+		File xmlFile = copySoftwareXML();
+		File indexFile = new File( tmpFolder.getRoot(), "softwaredb.xml.idx" );
+		Files.write( indexFile.toPath(), new byte[] {1, 2, 3} );
+
+		IndexedXMLProcessor indexedXMLProcessor = new IndexedXMLProcessor( tmpFolder.getRoot().toString() );
+
+		assertFalse( indexedXMLProcessor.getRepositoryInfo( xmlFile ).isEmpty() );
+		assertTrue( indexFile.length() > 3 );
+	}
+
+	private File copySoftwareXML() throws IOException
+	{
+		File xmlDirectory = tmpFolder.newFolder( "share" );
+		File xmlFile = new File( xmlDirectory, "softwaredb.xml" );
+		Files.copy( softwareXML.toPath(), xmlFile.toPath() );
+		Files.copy( new File( softwareXML.getParentFile(), "softwaredb1.dtd" ).toPath(), new File( xmlDirectory, "softwaredb1.dtd" ).toPath() );
+
+		return xmlFile;
+	}
+
+	private void assertSameGameInfo( RepositoryGame expected, RepositoryGame actual )
+	{
+		assertEquals( expected, actual );
+		assertEquals( expected.isOriginal(), actual.isOriginal() );
+		assertEquals( expected.getOriginalText(), actual.getOriginalText() );
+		assertEquals( expected.getMapper(), actual.getMapper() );
+		assertEquals( expected.getStart(), actual.getStart() );
+		assertEquals( expected.getRemark(), actual.getRemark() );
+	}
+}
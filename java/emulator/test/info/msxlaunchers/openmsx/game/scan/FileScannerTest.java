@@ -2,30 +2,51 @@ package info.msxlaunchers.openmsx.game.scan;
 
 import info.msxlaunchers.openmsx.game.repository.RepositoryData;
 import info.msxlaunchers.openmsx.game.scan.FileScanner;
+import info.msxlaunchers.openmsx.launcher.builder.FileHash;
+import info.msxlaunchers.openmsx.launcher.builder.FileHashCache;
 import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
 import info.msxlaunchers.openmsx.launcher.extra.ExtraDataGetter;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceExceptionIssue;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister;
+import info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter;
 
 import java.io.File;
 import java.io.IOException;
-
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,35 +62,61 @@ public class FileScannerTest
 	@Mock RepositoryData repositoryData;
 	@Mock GameBuilder gameBuilder;
 	@Mock ExtraDataGetter extraDataGetter;
+	@Mock FileHashCache fileHashCache;
+	@Mock GameWriter gameWriter;
+
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	private final AtomicInteger writtenGamesCount = new AtomicInteger();
+
+	@Before
+	public void setup() throws GamePersistenceException
+	{
+		//by default nothing is cached
+		lenient().when( fileHashCache.getFileHashes( any( File.class ) ) ).thenReturn( null );
+		lenient().when( gamePersister.openGameWriter( anyString(), anyInt(), any( IntConsumer.class ) ) ).thenReturn( gameWriter );
+
+		//by default every written game is saved
+		lenient().doAnswer( invocation -> writtenGamesCount.incrementAndGet() ).when( gameWriter ).write( any( Game.class ) );
+		lenient().when( gameWriter.getWrittenGamesCount() ).thenAnswer( invocation -> writtenGamesCount.get() );
+		lenient().when( gameWriter.getDuplicateGames() ).thenReturn( Collections.emptySet() );
+	}
 
 	@Test( expected = NullPointerException.class )
 	public void testForNullConditionsConstructorArg1() throws IOException
 	{
-		new FileScanner( null, repositoryData, gameBuilder, extraDataGetter, null );
+		new FileScanner( null, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 	}
 
 	@Test( expected = NullPointerException.class )
 	public void testForNullConditionsConstructorArg2() throws IOException
 	{
-		new FileScanner( gamePersister, null, gameBuilder, extraDataGetter, null );
+		new FileScanner( gamePersister, null, gameBuilder, extraDataGetter, fileHashCache, null );
 	}
 
 	@Test( expected = NullPointerException.class )
 	public void testForNullConditionsConstructorArg3() throws IOException
 	{
-		new FileScanner( gamePersister, repositoryData, null, extraDataGetter, null );
+		new FileScanner( gamePersister, repositoryData, null, extraDataGetter, fileHashCache, null );
 	}
 
 	@Test( expected = NullPointerException.class )
 	public void testForNullConditionsConstructorArg4() throws IOException
 	{
-		new FileScanner( gamePersister, repositoryData, gameBuilder, null, null );
+		new FileScanner( gamePersister, repositoryData, gameBuilder, null, fileHashCache, null );
+	}
+
+	@Test( expected = NullPointerException.class )
+	public void testForNullConditionsConstructorArg5() throws IOException
+	{
+		new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null, null );
 	}
 
 	@Test( expected = GamePersistenceException.class )
 	public void testForBackupNonExistentDatabase() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		doThrow( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, database ) ).when( gamePersister ).backupDatabase( database );
 
@@ -89,7 +136,7 @@ public class FileScannerTest
 	@Test( expected = GamePersistenceException.class )
 	public void testForOverwriteNonExistentDatabase() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		doThrow( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, database ) ).when( gamePersister ).recreateDatabase( database );
 
@@ -109,7 +156,7 @@ public class FileScannerTest
 	@Test
 	public void testNewDatabaseOptionOn() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set newDatabase to true
 		//setting the append flag to true is irrelevant in this case
@@ -122,7 +169,7 @@ public class FileScannerTest
 	@Test
 	public void testNewDatabaseOptionOff() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set newDatabase to false
 		//setting the append flag to true is irrelevant in this case
@@ -135,7 +182,7 @@ public class FileScannerTest
 	@Test
 	public void testBackupDatabaseOptionOn() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set backup to true
 		//newDatabase must be false
@@ -148,7 +195,7 @@ public class FileScannerTest
 	@Test
 	public void testBackupDatabaseOptionOff() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set backup to false
 		//newDatabase must be false
@@ -161,7 +208,7 @@ public class FileScannerTest
 	@Test
 	public void testAppendToDatabaseOptionOn() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set append to true
 		//newDatabase must be false
@@ -174,7 +221,7 @@ public class FileScannerTest
 	@Test
 	public void testAppendToDatabaseOptionOff() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set append to false
 		//newDatabase must be false
@@ -187,7 +234,7 @@ public class FileScannerTest
 	@Test
 	public void testGetNameFromOpenMSXDatabaseOptionOn() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set getNameFromOpenMSXDatabase to true
 		scanner.scan( paths, true, database, false, true, "machine", true, true, true, true, true, true );
@@ -199,7 +246,7 @@ public class FileScannerTest
 	@Test
 	public void testGetNameFromOpenMSXDatabaseOptionOff() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		//set getNameFromOpenMSXDatabase to false
 		scanner.scan( paths, true, database, false, false, "machine", true, true, true, true, false, false );
@@ -211,7 +258,7 @@ public class FileScannerTest
 	@Test
 	public void testSearchForRomsOnly() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
@@ -227,7 +274,7 @@ public class FileScannerTest
 	@Test
 	public void testSearchForDisksOnly() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), isNull(), isNull(), anyString(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
@@ -243,7 +290,7 @@ public class FileScannerTest
 	@Test
 	public void testSearchForTapesOnly() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), isNull(), isNull(), isNull(), anyString(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
@@ -259,7 +306,7 @@ public class FileScannerTest
 	@Test
 	public void testSearchForLaserdiscsOnly() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyString(), anyLong(), anyMap() ) )
@@ -275,7 +322,7 @@ public class FileScannerTest
 	@Test
 	public void testSearchForAllMediaWithTraverseOptionOn() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
@@ -312,7 +359,7 @@ public class FileScannerTest
 			tmpPath = tmpPath.getParentFile();
 		}
 
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, base.toString() );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, base.toString() );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
@@ -336,7 +383,7 @@ public class FileScannerTest
 	@Test
 	public void testSearchForAllMediaWithTraverseOptionOff() throws GamePersistenceException, IOException
 	{
-		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, null );
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
 
 		when( gameBuilder
 				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
@@ -357,4 +404,289 @@ public class FileScannerTest
 		//there are 10 total in the test directories
 		assertEquals( 10, found );
 	}
+
+	@Test
+	public void testCachedFileHashesAreUsedInsteadOfHashingFiles() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		when( fileHashCache.getFileHashes( any( File.class ) ) ).thenReturn( Collections.singletonList( new FileHash( null, "cachedSha1", 1234 ) ) );
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), eq( "cachedSha1" ), eq( 1234L ), anyMap() ) )
+				.thenReturn( Game.name("romName").build() );
+
+		//all 4 ROMs have the same cached sha1 code so only the first one is added
+		int found = scanner.scan( paths, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		assertEquals( 1, found );
+		verify( fileHashCache, never() ).putFileHashes( any( File.class ), anyLong(), anyLong(), anyList() );
+		verify( fileHashCache ).save();
+	}
+
+	@Test
+	public void testFoundGamesAreWrittenWhileScanning() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		Game game = Game.name("romName").build();
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenReturn( game );
+
+		int found = scanner.scan( paths, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		verify( gamePersister ).openGameWriter( eq( database ), eq( GameWriter.DEFAULT_CHUNK_SIZE ), any( IntConsumer.class ) );
+		verify( gameWriter, times( found ) ).write( game );
+		verify( gameWriter ).close();
+		verify( gamePersister, never() ).saveGames( any(), anyString() );
+	}
+
+	@Test
+	public void testGamesSkippedByWriterAreNotCounted() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenReturn( Game.name("romName").build() );
+		when( gameWriter.getWrittenGamesCount() ).thenReturn( 3 );
+
+		int found = scanner.scan( paths, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		//4 ROMs were written but the writer reported that it saved 3
+		assertEquals( 3, found );
+		verify( gameWriter, times( 4 ) ).write( any( Game.class ) );
+		verify( gameWriter ).flush();
+	}
+
+	@Test( expected = GamePersistenceException.class )
+	public void testWriterErrorStopsScan() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenReturn( Game.name("romName").build() );
+		doThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) ).when( gameWriter ).write( any( Game.class ) );
+
+		try
+		{
+			scanner.scan( paths, true, database, false, false, "machine", true, false, false, false, false, false );
+		}
+		catch( GamePersistenceException gpe )
+		{
+			assertEquals( GamePersistenceExceptionIssue.IO, gpe.getIssue() );
+			verify( gameWriter ).write( any( Game.class ) );
+			verify( gameWriter ).close();
+			verify( fileHashCache ).save();
+			throw gpe;
+		}
+	}
+
+	@Test
+	public void testFileHashesAreSavedWithEachSavedChunk() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenReturn( Game.name("romName").build() );
+
+		//a writer that commits a chunk after every game
+		when( gamePersister.openGameWriter( anyString(), anyInt(), any( IntConsumer.class ) ) ).thenAnswer( invocation -> {
+			IntConsumer progressListener = invocation.getArgument( 2 );
+			doAnswer( writeInvocation -> {
+				progressListener.accept( writtenGamesCount.incrementAndGet() );
+				return null;
+			} ).when( gameWriter ).write( any( Game.class ) );
+			return gameWriter;
+		} );
+
+		int found = scanner.scan( paths, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		//once per chunk and once when the scan ends
+		assertEquals( 4, found );
+		verify( fileHashCache, times( found + 1 ) ).save();
+	}
+
+	@Test
+	public void testNewFileHashesAreAddedToCache() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		scanner.scan( new String[] { path2 }, false, database, false, false, "machine", true, false, false, false, false, false );
+
+		//dir2 contains one ROM and two ZIP files whose content is only known after opening them
+		verify( fileHashCache, times( 3 ) ).putFileHashes( any( File.class ), anyLong(), anyLong(), anyList() );
+		verify( fileHashCache ).save();
+	}
+
+	@Test
+	public void testSearchForDisksInMultiEntryZipFile() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), isNull(), isNull(), anyString(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenReturn( Game.name("diskName").build() );
+
+		String multiZipPath = getClass().getResource( "multizip" ).getFile();
+		int found = scanner.scan( new String[] { multiZipPath }, false, database, false, false, "machine", false, true, false, false, false, false );
+
+		//openMSX only uses the first file in a ZIP file. disks.zip starts with a disk, readme-first.zip starts with a text file
+		assertEquals( 1, found );
+		String diskZipPath = new File( multiZipPath, "disks.zip" ).getAbsolutePath();
+		verify( gameBuilder ).createGameObjectForScannedFiles( eq( "disk1" ), anyString(), isNull(), isNull(), eq( diskZipPath ), isNull(), isNull(), isNull(), anyString(), eq( 13L ), anyMap() );
+		verify( gameBuilder, never() ).createGameObjectForScannedFiles( eq( "disk2" ), anyString(), any(), any(), any(), any(), any(), any(), anyString(), anyLong(), anyMap() );
+	}
+
+	@Test
+	public void testNestedDirectoriesAreProcessedInSequentialOrder() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		File root = createNestedDirectories( false );
+		List<String> scannedRoms = new ArrayList<>();
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenAnswer( invocation -> {
+					scannedRoms.add( invocation.getArgument( 2 ) );
+					return Game.name( invocation.getArgument( 0 ) ).build();
+				} );
+
+		int found = scanner.scan( new String[] { root.getAbsolutePath() }, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		//the tree is traversed on a pool but the games come out in the order of a sequential depth-first scan
+		List<String> expectedRoms = new ArrayList<>();
+		listSequentially( root, expectedRoms );
+
+		assertEquals( expectedRoms.size(), found );
+		assertEquals( expectedRoms, scannedRoms );
+	}
+
+	@Test
+	public void testNameCollisionsInNestedDirectoriesAreSuffixedInSequentialOrder() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		File root = createNestedDirectories( true );
+		List<String> scannedRoms = new ArrayList<>();
+		List<String> scannedNames = new ArrayList<>();
+		when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenAnswer( invocation -> {
+					scannedNames.add( invocation.getArgument( 0 ) );
+					scannedRoms.add( invocation.getArgument( 2 ) );
+					return Game.name( invocation.getArgument( 0 ) ).build();
+				} );
+
+		scanner.scan( new String[] { root.getAbsolutePath() }, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		//every directory has a different game.rom, and each one is given the next suffix in the order of a sequential scan
+		List<String> expectedRoms = new ArrayList<>();
+		listSequentially( root, expectedRoms );
+
+		int collisions = 0;
+		for( String expectedRom: expectedRoms )
+		{
+			if( new File( expectedRom ).getName().equals( "game.rom" ) )
+			{
+				String expectedName = collisions == 0 ? "game" : "game__" + collisions;
+				assertEquals( expectedName, scannedNames.get( scannedRoms.indexOf( expectedRom ) ) );
+				collisions++;
+			}
+		}
+
+		assertEquals( expectedRoms, scannedRoms );
+		assertTrue( collisions > 2 );
+	}
+
+	@Test
+	public void testInterruptStopsScanDuringTraversal() throws GamePersistenceException, IOException
+	{
+		FileScanner scanner = new FileScanner( gamePersister, repositoryData, gameBuilder, extraDataGetter, fileHashCache, null );
+
+		File root = createNestedDirectories( false );
+		List<String> expectedRoms = new ArrayList<>();
+		listSequentially( root, expectedRoms );
+
+		//depending on timing no game may be reached before the interrupt
+		lenient().when( gameBuilder
+				.createGameObjectForScannedFiles( anyString(), anyString(), anyString(), isNull(), isNull(), isNull(), isNull(), isNull(), anyString(), anyLong(), anyMap() ) )
+				.thenReturn( Game.name("romName").build() );
+
+		//interrupt while the pool is still hashing the files of the tree
+		AtomicInteger hashedFiles = new AtomicInteger();
+		when( fileHashCache.getFileHashes( any( File.class ) ) ).thenAnswer( invocation -> {
+			if( hashedFiles.incrementAndGet() == 10 )
+			{
+				scanner.interrupt();
+			}
+			return null;
+		} );
+
+		int found = scanner.scan( new String[] { root.getAbsolutePath() }, true, database, false, false, "machine", true, false, false, false, false, false );
+
+		//the files not yet reached are neither hashed nor written, and what was written is still saved
+		assertTrue( hashedFiles.get() < expectedRoms.size() );
+		assertTrue( found < 10 );
+		verify( gameWriter ).flush();
+		verify( gameWriter ).close();
+		verify( fileHashCache ).save();
+	}
+
+	private File createNestedDirectories( boolean withCollidingNames ) throws IOException
+	{
+		File root = tmpFolder.newFolder( "nested" );
+
+		createNestedDirectories( root, 3, withCollidingNames );
+
+		return root;
+	}
+
+	private void createNestedDirectories( File directory, int depth, boolean withCollidingNames ) throws IOException
+	{
+		//each file has different content so that none of them is skipped as a duplicate
+		for( int index = 1; index <= 3; index++ )
+		{
+			writeFile( new File( directory, directory.getName() + "-rom" + index + ".rom" ) );
+		}
+
+		if( withCollidingNames )
+		{
+			writeFile( new File( directory, "game.rom" ) );
+		}
+
+		if( depth > 0 )
+		{
+			for( int index = 1; index <= 3; index++ )
+			{
+				File subDirectory = new File( directory, directory.getName() + "-dir" + index );
+				subDirectory.mkdir();
+
+				createNestedDirectories( subDirectory, depth - 1, withCollidingNames );
+			}
+		}
+	}
+
+	private void writeFile( File file ) throws IOException
+	{
+		Files.write( file.toPath(), file.getAbsolutePath().getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	private void listSequentially( File directory, List<String> files )
+	{
+		//the order in which a single-threaded depth-first scan visits the files
+		for( File file: directory.listFiles() )
+		{
+			if( file.isFile() )
+			{
+				files.add( file.getAbsolutePath() );
+			}
+			else
+			{
+				listSequentially( file, files );
+			}
+		}
+	}
 }
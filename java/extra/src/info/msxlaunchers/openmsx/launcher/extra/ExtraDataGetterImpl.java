@@ -47,14 +47,15 @@ final class ExtraDataGetterImpl implements ExtraDataGetter
 	private final String extraDataDirectory;
 
 	private static final String EXTRA_DATA_FILENAME = "extra-data.dat";
-	private static final String COMMENT_START = "--";
 	private static final char GENERATION_MSX_ID_START = '#';
 	private static final char COMMA = ',';
 	private static final char PIPE = '|';
 	private static final String VERSION_COMMENT = "-- Version ";
 
-	private static String cachedExtraDataFileHash = null;
-	private static Map<String,ExtraData> cachedExtraDataMap = null;
+	//characters taken by each SHA1 code in the file, including its separator
+	private static final int SHA1_CODE_ENTRY_LENGTH = 41;
+
+	private static volatile CachedExtraData cachedExtraData = null;
 
 	@Inject
 	ExtraDataGetterImpl( @Named("LauncherDataDirectory") String extraDataDirectory )
@@ -68,7 +69,17 @@ final class ExtraDataGetterImpl implements ExtraDataGetter
 	@Override
 	public Map<String,ExtraData> getExtraData() throws IOException
 	{
-		File extraDataFile = new File( extraDataDirectory, EXTRA_DATA_FILENAME );
+		File extraDataFile = new File( extraDataDirectory, EXTRA_DATA_FILENAME ).getAbsoluteFile();
+		long length = extraDataFile.length();
+		long lastModified = extraDataFile.lastModified();
+		CachedExtraData cached = cachedExtraData;
+
+		//the file is only hashed when its size or modification time changed
+		if( cached != null && cached.isForFile( extraDataFile, length, lastModified ) )
+		{
+			return cached.extraDataMap;
+		}
+
 		String extraDataFileHash = HashUtils.getSHA1Code( extraDataFile );
 
 		if( extraDataFileHash == null )
@@ -77,75 +88,49 @@ final class ExtraDataGetterImpl implements ExtraDataGetter
 			LauncherLogger.logException( this, ioe );
 			throw ioe;
 		}
-		else if( !extraDataFileHash.equals( cachedExtraDataFileHash ) )
+
+		Map<String,ExtraData> extraDataMap;
+		if( cached != null && extraDataFileHash.equals( cached.extraDataFileHash ) )
 		{
-			cachedExtraDataFileHash = extraDataFileHash;
-			cachedExtraDataMap = readExtraDataFileAndGetMap( extraDataFile );
+			extraDataMap = cached.extraDataMap;
 		}
+		else
+		{
+			extraDataMap = readExtraDataFileAndGetMap( extraDataFile );
+		}
+
+		cachedExtraData = new CachedExtraData( extraDataFile, length, lastModified, extraDataFileHash, extraDataMap );
 
-		return cachedExtraDataMap;
+		return extraDataMap;
 	}
 
 	private Map<String,ExtraData> readExtraDataFileAndGetMap( File extraDataFile ) throws IOException
 	{
-		Map<String,ExtraData> extraDataMap = null;
+		Map<String,ExtraData> extraDataMap = new HashMap<>( (int)(extraDataFile.length() / SHA1_CODE_ENTRY_LENGTH / 0.75f) + 1 );
+
 		try( BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( extraDataFile ), "UTF-8" ) ) )
 		{
-		    extraDataMap = new HashMap<>();
-		    String text = null;
-		    boolean done = false;
+			String text;
 
-		    while ( !done )
-		    {
-		    	text = reader.readLine();
-		    	if( text == null )
-		    	{
-		    		done = true;
-		    	}
-		    	else
-		    	{
-		    		//skip lines that start with -- as they are comments
-		    		if( !text.startsWith( COMMENT_START ) )
-		    		{
-		    			if( text.charAt( 0 ) == GENERATION_MSX_ID_START )
-		    			{
-		    				//then this is the start of generation MSX Id
-		    				int generationMSXId = Utils.getNumber( text.substring( 1 ) );
-		    				
-		    				//now read the next line
-		    				text = reader.readLine();
-		    				if( text == null )
-		    				{
-		    					//this shouldn't happen but we'll check it
-		    					done = false;
-		    				}
-		    				else
-		    				{
-		    					String[] values = splitGenerationsSoundChipsGenres( text );
-
-		    					ExtraData extraData = new ExtraData( generationMSXId,
-		    							Utils.getNumber( values[0] ),
-		    							Utils.getNumber( values[1] ),
-		    							Utils.getNumber( values[2] ),
-		    							Utils.getNumber( values[3] ),
-		    							values[4] );
-
-		    					//now process the sha1 codes
-			    				text = reader.readLine();
-			    				if( text == null )
-			    				{
-			    					done = true;
-			    				}
-			    				else
-			    				{
-			    					processSha1Codes( extraDataMap, extraData, text );
-			    				}
-		    				}
-		    			}
-		    		}
-		    	}
-		    }
+			while( (text = reader.readLine()) != null )
+			{
+				//each entry is a line with the generation MSX Id, a line with the generations, sound chips, genres and
+				//screenshot suffix and a line with the sha1 codes. Comments start with -- and are skipped
+				if( !text.isEmpty() && text.charAt( 0 ) == GENERATION_MSX_ID_START )
+				{
+					int generationMSXId = Utils.getNumber( text.substring( 1 ) );
+
+					String values = reader.readLine();
+					String sha1Codes = values == null ? null : reader.readLine();
+
+					if( sha1Codes != null )
+					{
+						processSha1Codes( extraDataMap, getExtraData( generationMSXId, values ), sha1Codes );
+					}
+				}
+			}
 		}
+
 		return Collections.unmodifiableMap( extraDataMap );
 	}
 
@@ -207,57 +192,47 @@ final class ExtraDataGetterImpl implements ExtraDataGetter
 		return version;
 	}
 
-	private String[] splitGenerationsSoundChipsGenres( String line )
+	//values are generations,soundChips,genre1|genre2,suffix where the genres and the suffix are optional
+	private ExtraData getExtraData( int generationMSXId, String line )
 	{
-		String[] values = new String[5];
+		int generations = 0;
+		int soundChips = 0;
+		int genre1 = 0;
+		int genre2 = 0;
+		String suffix = null;
 
 		int indexFirstComma = line.indexOf( COMMA );
 		if( indexFirstComma > -1 )
 		{
-			values[0] = line.substring( 0, indexFirstComma );
+			generations = Utils.getNumber( line.substring( 0, indexFirstComma ) );
 
 			int indexSecondComma = line.indexOf( COMMA, indexFirstComma + 1 );
 			if( indexSecondComma > -1 )
 			{
-				values[1] = line.substring( indexFirstComma + 1, indexSecondComma );
+				soundChips = Utils.getNumber( line.substring( indexFirstComma + 1, indexSecondComma ) );
 
 				int indexThirdComma = line.indexOf( COMMA, indexSecondComma + 1 );
-				String[] genres;
-				if( indexThirdComma > -1 )
+				int genresEnd = indexThirdComma > -1 ? indexThirdComma : line.length();
+				int indexPipe = line.indexOf( PIPE, indexSecondComma + 1 );
+
+				if( indexPipe > -1 && indexPipe < genresEnd )
 				{
-					genres = splitGenres( line.substring( indexSecondComma + 1, indexThirdComma ) );
-					values[2] = genres[0];
-					values[3] = genres[1];
-					values[4] = line.substring( indexThirdComma + 1 );
+					genre1 = Utils.getNumber( line.substring( indexSecondComma + 1, indexPipe ) );
+					genre2 = Utils.getNumber( line.substring( indexPipe + 1, genresEnd ) );
 				}
 				else
 				{
-					genres = splitGenres( line.substring( indexSecondComma + 1 ) );
-					values[2] = genres[0];
-					values[3] = genres[1];
+					genre1 = Utils.getNumber( line.substring( indexSecondComma + 1, genresEnd ) );
 				}
-			}
-		}
-
-		return values;
-	}
 
-	private String[] splitGenres( String text )
-	{
-		String[] genres = new String[2];
-
-		int indexPipe = text.indexOf( PIPE );
-		if( indexPipe > -1 )
-		{
-			genres[0] = text.substring( 0, indexPipe );
-			genres[1] = text.substring( indexPipe + 1 );
-		}
-		else
-		{
-			genres[0] = text;
+				if( indexThirdComma > -1 )
+				{
+					suffix = line.substring( indexThirdComma + 1 );
+				}
+			}
 		}
 
-		return genres;
+		return new ExtraData( generationMSXId, generations, soundChips, genre1, genre2, suffix );
 	}
 
 	private void processSha1Codes( Map<String,ExtraData> extraDataMap, ExtraData extraData, String line )
@@ -280,4 +255,27 @@ final class ExtraDataGetterImpl implements ExtraDataGetter
 			}
 		}
 	}
+
+	private static final class CachedExtraData
+	{
+		private final File extraDataFile;
+		private final long length;
+		private final long lastModified;
+		private final String extraDataFileHash;
+		private final Map<String,ExtraData> extraDataMap;
+
+		CachedExtraData( File extraDataFile, long length, long lastModified, String extraDataFileHash, Map<String,ExtraData> extraDataMap )
+		{
+			this.extraDataFile = extraDataFile;
+			this.length = length;
+			this.lastModified = lastModified;
+			this.extraDataFileHash = extraDataFileHash;
+			this.extraDataMap = extraDataMap;
+		}
+
+		boolean isForFile( File file, long fileLength, long fileLastModified )
+		{
+			return extraDataFile.equals( file ) && length == fileLength && lastModified == fileLastModified;
+		}
+	}
 }
@@ -6,17 +6,25 @@ import info.msxlaunchers.openmsx.launcher.extra.ExtraDataGetterImpl;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Map;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ExtraDataGetterTest
 {
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder();
+
 	private String extraDataWorkingDirectory = new File( System.getProperty( "user.dir" ), "sampleWorkingExtraDataFile" ).getAbsolutePath();
 
 	@Test
@@ -120,6 +128,45 @@ public class ExtraDataGetterTest
 		extraDataMap.put( "c81e6b8949b5d57ad6b527b418cd2cd8d2c37bcf", extraData );
 	}
 
+	@Test
+	public void testUnchangedExtraDataFileIsNotReadAgain() throws IOException
+	{
+		File extraDataFile = copyExtraDataFile();
+		ExtraDataGetterImpl extraDataGetter = new ExtraDataGetterImpl( extraDataFile.getParent() );
+
+		Map<String,ExtraData> extraDataMap = extraDataGetter.getExtraData();
+
+		assertSame( extraDataMap, extraDataGetter.getExtraData() );
+
+		//same contents with a new modification time
+		assertTrue( extraDataFile.setLastModified( extraDataFile.lastModified() - 10000 ) );
+
+		assertSame( extraDataMap, extraDataGetter.getExtraData() );
+	}
+
+	@Test
+	public void testChangedExtraDataFileIsReadAgain() throws IOException
+	{
+		File extraDataFile = copyExtraDataFile();
+		ExtraDataGetterImpl extraDataGetter = new ExtraDataGetterImpl( extraDataFile.getParent() );
+
+		assertEquals( 2, extraDataGetter.getExtraData().get( "c81e6b8949b5d57ad6b527b418cd2cd8d2c37bcf" ).getMSXGenerationsID() );
+
+		long lastModified = extraDataFile.lastModified();
+		Files.write( extraDataFile.toPath(), "#3\n2,0,5|6,-jp\nc81e6b8949b5d57ad6b527b418cd2cd8d2c37bcf\n".getBytes( StandardCharsets.UTF_8 ) );
+		assertTrue( extraDataFile.setLastModified( lastModified + 10000 ) );
+
+		Map<String,ExtraData> extraDataMap = extraDataGetter.getExtraData();
+
+		assertEquals( 1, extraDataMap.size() );
+		ExtraData extraData = extraDataMap.get( "c81e6b8949b5d57ad6b527b418cd2cd8d2c37bcf" );
+		assertEquals( 3, extraData.getMSXGenerationsID() );
+		assertTrue( extraData.isMSX2() );
+		assertEquals( 5, extraData.getGenre1() );
+		assertEquals( 6, extraData.getGenre2() );
+		assertEquals( "-jp", extraData.getSuffix() );
+	}
+
 	@Test
 	public void testGetExtraDataFileVersion() throws FileNotFoundException, IOException
 	{
@@ -153,4 +200,13 @@ public class ExtraDataGetterTest
 
 		extraDataGetter.getExtraDataFileVersion();
 	}
+
+	private File copyExtraDataFile() throws IOException
+	{
+		File extraDataFile = new File( tmpFolder.newFolder(), "extra-data.dat" );
+
+		Files.copy( new File( extraDataWorkingDirectory, "extra-data.dat" ).toPath(), extraDataFile.toPath() );
+
+		return extraDataFile;
+	}
 }
@@ -18,6 +18,7 @@ package info.msxlaunchers.openmsx.launcher.importer;
 import info.msxlaunchers.openmsx.common.ActionDecider;
 import info.msxlaunchers.openmsx.common.FileUtils;
 import info.msxlaunchers.openmsx.common.Utils;
+import info.msxlaunchers.openmsx.launcher.builder.FileHashCache;
 import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
@@ -31,11 +32,15 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
@@ -49,10 +54,14 @@ import com.google.inject.assistedinject.Assisted;
  */
 final class BlueMSXLauncherDatabaseImporter implements DatabaseImporter
 {
+	//the database being saved and the next one, whose games are built in the meantime
+	private static final int DATABASES_IN_PROGRESS = 2;
+
 	private final String machine;
 	private final GameBuilder gameBuilder;
 	private final GamePersister gamePersister;
 	private final ExtraDataGetter extraDataGetter;
+	private final FileHashCache fileHashCache;
 
 	private Map<String,ExtraData> extraDataMap;
 
@@ -60,12 +69,14 @@ final class BlueMSXLauncherDatabaseImporter implements DatabaseImporter
 	BlueMSXLauncherDatabaseImporter( @Assisted String machine,
 			GameBuilder gameBuilder,
 			GamePersister gamePersister,
-			ExtraDataGetter extraDataGetter )
+			ExtraDataGetter extraDataGetter,
+			FileHashCache fileHashCache )
 	{
 		this.machine = Objects.requireNonNull( machine );
 		this.gameBuilder = Objects.requireNonNull( gameBuilder );
 		this.gamePersister = Objects.requireNonNull( gamePersister );
 		this.extraDataGetter = Objects.requireNonNull( extraDataGetter );
+		this.fileHashCache = Objects.requireNonNull( fileHashCache );
 	}
 
 	/* (non-Javadoc)
@@ -79,6 +90,11 @@ final class BlueMSXLauncherDatabaseImporter implements DatabaseImporter
 		Set<String> importedDatabases = new HashSet<String>();
 		Set<String> currentOpenMSXLauncherDatabases = gamePersister.getDatabases();
 
+		//first decide which databases to import. This prompts the user, so it stays on the calling thread.
+		//Databases to replace are only deleted when their games are about to be saved, so that they are kept
+		//if their import file cannot be read or the import stops before reaching them
+		List<File> databasesToImport = new ArrayList<>();
+		Set<String> databasesToReplace = new HashSet<>();
 		for ( File database: databases )
 		{
 			String databaseName = FileUtils.getFileNameWithoutExtension( database );
@@ -92,17 +108,9 @@ final class BlueMSXLauncherDatabaseImporter implements DatabaseImporter
 
 				if( actionDecider.isYes() || actionDecider.isYesAll() )
 				{
-					//then this is the replace case - delete the current database
-					try
-					{
-						gamePersister.deleteDatabase( databaseName );
-					}
-					catch( GamePersistenceException gpe )
-					{
-						//this shouldn't happen
-					}
-
-					migrateDatabaseToOpenMSX( importedDatabases, database, databaseName );
+					//then this is the replace case
+					databasesToReplace.add( databaseName );
+					databasesToImport.add( database );
 				}
 				else if( actionDecider.isNo() || actionDecider.isNoAll() )
 				{
@@ -120,80 +128,167 @@ final class BlueMSXLauncherDatabaseImporter implements DatabaseImporter
 			}
 			else
 			{
-				migrateDatabaseToOpenMSX( importedDatabases, database, databaseName );
+				databasesToImport.add( database );
 			}
 		}
 
+		//then build the games on a pool, one database ahead: the lines of the next database are hashed while the
+		//games of the current one are saved, and no more than that is held in memory. A file referenced from several
+		//databases is hashed once - GameBuilder shares hashes in progress and remembers finished ones in its cache
+		ForkJoinPool importPool = new ForkJoinPool();
+		try
+		{
+			List<DatabaseGameTasks> gameTasksPerDatabase = new ArrayList<>( databasesToImport.size() );
+
+			for( int index = 0; index < databasesToImport.size(); index++ )
+			{
+				while( gameTasksPerDatabase.size() < Math.min( index + DATABASES_IN_PROGRESS, databasesToImport.size() ) )
+				{
+					gameTasksPerDatabase.add( submitGameTasks( importPool, databasesToImport.get( gameTasksPerDatabase.size() ) ) );
+				}
+
+				//release the games of this database once it is saved
+				DatabaseGameTasks databaseGameTasks = gameTasksPerDatabase.set( index, null );
+
+				//a database that could not be read stops the import here, after the ones before it were saved
+				if( databaseGameTasks.readException != null )
+				{
+					throw databaseGameTasks.readException;
+				}
+
+				if( databaseGameTasks.gameTasks != null )
+				{
+					String databaseName = FileUtils.getFileNameWithoutExtension( databasesToImport.get( index ) );
+					Set<Game> games = getGames( databaseGameTasks.gameTasks );
+
+					if( databasesToReplace.contains( databaseName ) )
+					{
+						deleteDatabase( databaseName );
+					}
+
+					if( saveGames( games, databaseName ) )
+					{
+						importedDatabases.add( databaseName );
+					}
+				}
+			}
+		}
+		finally
+		{
+			importPool.shutdownNow();
+			fileHashCache.save();
+		}
+
 		return Collections.unmodifiableSet( importedDatabases );
 	}
 
-	private void migrateDatabaseToOpenMSX( Set<String> importedDatabases, File database, String databaseName ) throws IOException
+	private DatabaseGameTasks submitGameTasks( ForkJoinPool importPool, File database )
 	{
-		Set<Game> games = new HashSet<Game>();
+		List<ForkJoinTask<Game>> gameTasks = new ArrayList<>();
 		String line;
-		boolean srcDatabaseFound;
-		String importedDatabaseName = null;
 
 		try( BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( database ), "UTF-8" ) ) )
 		{
-			srcDatabaseFound = true;
 			while( (line = reader.readLine()) != null )
 			{
 				if( !Utils.isEmpty( line ) )
 				{
-					String parts[] = line.split( "\\|" );
-	
-					String name = getElementFromDatabaseRowArray( parts, 0 );
-					String info = getElementFromDatabaseRowArray( parts, 6 );
-					String romA = getElementFromDatabaseRowArray( parts, 1 );
-					String romB = getElementFromDatabaseRowArray( parts, 2 );
-					String extensionRom = getExtensionRom( getElementFromDatabaseRowArray( parts, 13 ) );
-					String diskA = getElementFromDatabaseRowArray( parts, 3 );
-					String diskB = getElementFromDatabaseRowArray( parts, 4 );
-					String tape = getElementFromDatabaseRowArray( parts, 11 );
-					String harddisk = getElementFromDatabaseRowArray( parts, 15 );
-	
-					Game game = gameBuilder.createGameObjectForImportedData( name, info, machine, romA, romB, extensionRom, diskA, diskB, tape, harddisk, extraDataMap );
-	
-					if( game != null )
-					{
-						games.add( game );
-					}
+					String databaseLine = line;
+					gameTasks.add( importPool.submit( () -> createGame( databaseLine ) ) );
 				}
 			}
 		}
 		catch( FileNotFoundException fnfe )
 		{
 			//this shouldn't happen unless the database was deleted just before calling this method - skip
-			srcDatabaseFound = false;
+			cancel( gameTasks );
+			return new DatabaseGameTasks( null, null );
+		}
+		catch( IOException ioe )
+		{
+			//kept with this database and only thrown when the import reaches it
+			cancel( gameTasks );
+			return new DatabaseGameTasks( null, ioe );
 		}
 
-		//now save these games
-		if( srcDatabaseFound )
+		return new DatabaseGameTasks( gameTasks, null );
+	}
+
+	private void cancel( List<ForkJoinTask<Game>> gameTasks )
+	{
+		for( ForkJoinTask<Game> gameTask: gameTasks )
 		{
-			try
-			{
-				gamePersister.createDatabase( databaseName );
-			}
-			catch( GamePersistenceException gpe )
-			{
-				//this shouldn't happen
-			}
+			gameTask.cancel( false );
+		}
+	}
 
-			try
-			{
-				gamePersister.saveGames( games, databaseName );
-				importedDatabaseName = databaseName;
-			}
-			catch( GamePersistenceException gpe )
+	private Game createGame( String line )
+	{
+		String parts[] = line.split( "\\|" );
+
+		String name = getElementFromDatabaseRowArray( parts, 0 );
+		String info = getElementFromDatabaseRowArray( parts, 6 );
+		String romA = getElementFromDatabaseRowArray( parts, 1 );
+		String romB = getElementFromDatabaseRowArray( parts, 2 );
+		String extensionRom = getExtensionRom( getElementFromDatabaseRowArray( parts, 13 ) );
+		String diskA = getElementFromDatabaseRowArray( parts, 3 );
+		String diskB = getElementFromDatabaseRowArray( parts, 4 );
+		String tape = getElementFromDatabaseRowArray( parts, 11 );
+		String harddisk = getElementFromDatabaseRowArray( parts, 15 );
+
+		return gameBuilder.createGameObjectForImportedData( name, info, machine, romA, romB, extensionRom, diskA, diskB, tape, harddisk, extraDataMap );
+	}
+
+	private Set<Game> getGames( List<ForkJoinTask<Game>> gameTasks )
+	{
+		Set<Game> games = new HashSet<Game>();
+
+		for( ForkJoinTask<Game> gameTask: gameTasks )
+		{
+			Game game = gameTask.join();
+
+			if( game != null )
 			{
-				//this shouldn't happen
+				games.add( game );
 			}
 		}
 
-		if( importedDatabaseName != null )
+		return games;
+	}
+
+	private void deleteDatabase( String databaseName )
+	{
+		try
 		{
-			importedDatabases.add( importedDatabaseName );
+			gamePersister.deleteDatabase( databaseName );
+		}
+		catch( GamePersistenceException gpe )
+		{
+			//this shouldn't happen
+		}
+	}
+
+	private boolean saveGames( Set<Game> games, String databaseName )
+	{
+		try
+		{
+			gamePersister.createDatabase( databaseName );
+		}
+		catch( GamePersistenceException gpe )
+		{
+			//this shouldn't happen
+		}
+
+		//the games are inserted in batches by the persister
+		try
+		{
+			gamePersister.saveGames( games, databaseName );
+			return true;
+		}
+		catch( GamePersistenceException gpe )
+		{
+			//this shouldn't happen
+			return false;
 		}
 	}
 
@@ -238,4 +333,16 @@ final class BlueMSXLauncherDatabaseImporter implements DatabaseImporter
 
 		return openMSXExtensionRom;
 	}
+
+	private static final class DatabaseGameTasks
+	{
+		private final List<ForkJoinTask<Game>> gameTasks;
+		private final IOException readException;
+
+		DatabaseGameTasks( List<ForkJoinTask<Game>> gameTasks, IOException readException )
+		{
+			this.gameTasks = gameTasks;
+			this.readException = readException;
+		}
+	}
 }
@@ -2,8 +2,10 @@ package info.msxlaunchers.openmsx.launcher.importer;
 
 import info.msxlaunchers.openmsx.common.ActionDecider;
 import info.msxlaunchers.openmsx.common.FileUtils;
+import info.msxlaunchers.openmsx.launcher.builder.FileHashCache;
 import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
 import info.msxlaunchers.openmsx.launcher.extra.ExtraDataGetter;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister;
@@ -13,24 +15,33 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -43,6 +54,7 @@ public class BlueMSXLauncherDatabaseImporterTest
 	@Mock GameBuilder gameBuilder;
 	@Mock ActionDecider actionDecider;
 	@Mock ExtraDataGetter extraDataGetter;
+	@Mock FileHashCache fileHashCache;
 
 	@Rule
 	public final TemporaryFolder tmpFolder = new TemporaryFolder();
@@ -50,7 +62,7 @@ public class BlueMSXLauncherDatabaseImporterTest
 	@Test( expected = UnsupportedOperationException.class )
 	public void test_WhenImportDatabases_ThenReturnedSetShouldBeUnmodifiable() throws IOException
 	{
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		File[] database = new File[1];
 		database[0] = new File( "dir" );
@@ -71,7 +83,7 @@ public class BlueMSXLauncherDatabaseImporterTest
 		when( actionDecider.isYes() ).thenReturn( false );
 		when( actionDecider.isNo() ).thenReturn( true );
 
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		File[] database = new File[1];
 		database[0] = new File( "C:\\dir\\existing.db" );
@@ -90,16 +102,37 @@ public class BlueMSXLauncherDatabaseImporterTest
 		when( gamePersister.getDatabases() ).thenReturn( existingDatabase );
 		when( actionDecider.isYes() ).thenReturn( true );
 
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		File[] database = new File[1];
-		database[0] = new File( "C:\\dir\\existing.db" );
+		database[0] = tmpFolder.newFile( "existing.db" );
 
 		importer.importDatabases( database, actionDecider );
 
 		verify( gamePersister, times( 1 ) ).deleteDatabase( "existing" );
 	}
 
+	@Test
+	public void test_GivenConflictAndUnreadableDatabase_WhenImportDatabasesAndUserDecidesYes_thenExistingDatabaseIsKept() throws IOException, GamePersistenceException
+	{
+		Set<String> existingDatabase = new HashSet<String>();
+		existingDatabase.add( "existing" );
+
+		when( gamePersister.getDatabases() ).thenReturn( existingDatabase );
+		when( actionDecider.isYes() ).thenReturn( true );
+
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
+
+		File[] database = new File[1];
+		database[0] = new File( tmpFolder.getRoot(), "existing.db" );
+
+		Set<String> importedDatabases = importer.importDatabases( database, actionDecider );
+
+		assertEquals( Collections.emptySet(), importedDatabases );
+		verify( gamePersister, never() ).deleteDatabase( anyString() );
+		verify( gamePersister, never() ).createDatabase( anyString() );
+	}
+
 	@Test
 	public void test_GivenConflict_WhenImportDatabasesAndUserDecidesYesToAll_thenAllExistingDatabasesAreDeleted() throws IOException, GamePersistenceException
 	{
@@ -110,11 +143,11 @@ public class BlueMSXLauncherDatabaseImporterTest
 		when( gamePersister.getDatabases() ).thenReturn( existingDatabases );
 		when( actionDecider.isYesAll() ).thenReturn( true );
 
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		File[] databases = new File[2];
-		databases[0] = new File( "C:\\dir\\existing1.db" );
-		databases[1] = new File( "C:\\dir\\existing2.db" );
+		databases[0] = tmpFolder.newFile( "existing1.db" );
+		databases[1] = tmpFolder.newFile( "existing2.db" );
 
 		importer.importDatabases( databases, actionDecider );
 
@@ -133,7 +166,7 @@ public class BlueMSXLauncherDatabaseImporterTest
 		when( gamePersister.getDatabases() ).thenReturn( existingDatabases );
 		when( actionDecider.isNoAll() ).thenReturn( true );
 
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		File[] databases = new File[2];
 		databases[0] = new File( "C:\\dir\\existing1.db" );
@@ -156,11 +189,11 @@ public class BlueMSXLauncherDatabaseImporterTest
 		when( actionDecider.isYes() ).thenReturn( true ).thenReturn( false );
 		when( actionDecider.isNo() ).thenReturn( true ); //isNo() will only be called if isYes() and iYesAll() are false
 
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "machine", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		File[] databases = new File[2];
-		databases[0] = new File( "C:\\dir\\existing1.db" );
-		databases[1] = new File( "C:\\dir\\existing2.db" );
+		databases[0] = tmpFolder.newFile( "existing1.db" );
+		databases[1] = tmpFolder.newFile( "existing2.db" );
 
 		importer.importDatabases( databases, actionDecider );
 
@@ -206,7 +239,7 @@ public class BlueMSXLauncherDatabaseImporterTest
 
 		when( extraDataGetter.getExtraData() ).thenReturn( extraDataMap );
 
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( machine, gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( machine, gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		importer.importDatabases( databases, actionDecider );
 
@@ -237,11 +270,93 @@ public class BlueMSXLauncherDatabaseImporterTest
 		verify( gamePersister, never() ).saveGames( anySet(), eq( FileUtils.getFileNameWithoutExtension( databases[2] ) ) );
 	}
 
+	@Test
+	public void test_GivenConflictAndSeveralDatabases_WhenImportDatabases_ThenUserIsPromptedOnCallingThreadAndGamesAreSavedPerDatabase()
+			throws IOException, GamePersistenceException
+	{
+		File[] databases = new File[2];
+		databases[0] = tmpFolder.newFile( "existing.db" );
+		databases[1] = tmpFolder.newFile( "new.db" );
+
+		PrintWriter writer = new PrintWriter( databases[0] );
+		writer.println( "game1|C:\\shared.rom||||MSX||||||||||||||||||||||||0|0|0|" );
+		writer.println( "game2|C:\\game2.rom||||MSX||||||||||||||||||||||||0|0|0|" );
+		writer.close();
+
+		writer = new PrintWriter( databases[1] );
+		writer.println( "game3|C:\\shared.rom||||MSX||||||||||||||||||||||||0|0|0|" );
+		writer.close();
+
+		Set<String> existingDatabase = new HashSet<String>();
+		existingDatabase.add( "existing" );
+
+		Thread callingThread = Thread.currentThread();
+		Set<Thread> promptingThreads = new HashSet<Thread>();
+
+		when( gamePersister.getDatabases() ).thenReturn( existingDatabase );
+		when( actionDecider.isYes() ).thenReturn( true );
+		doAnswer( invocation -> promptingThreads.add( Thread.currentThread() ) ).when( actionDecider ).promptForAction( "existing" );
+		when( gameBuilder.createGameObjectForImportedData( anyString(), any(), any(), anyString(), any(), any(), any(), any(), any(), any(), any() ) )
+				.thenAnswer( invocation -> Game.name( invocation.getArgument( 0 ) ).machine( "MSX" ).romA( invocation.getArgument( 3 ) ).build() );
+
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "MSX", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
+
+		Set<String> importedDatabases = importer.importDatabases( databases, actionDecider );
+
+		assertEquals( Collections.singleton( callingThread ), promptingThreads );
+		assertEquals( new HashSet<String>( Arrays.asList( "existing", "new" ) ), importedDatabases );
+
+		InOrder inOrder = inOrder( gamePersister );
+		inOrder.verify( gamePersister ).deleteDatabase( "existing" );
+		inOrder.verify( gamePersister ).createDatabase( "existing" );
+		inOrder.verify( gamePersister ).saveGames( new HashSet<Game>( Arrays.asList( Game.name( "game1" ).machine( "MSX" ).romA( "C:\\shared.rom" ).build(),
+				Game.name( "game2" ).machine( "MSX" ).romA( "C:\\game2.rom" ).build() ) ), "existing" );
+		inOrder.verify( gamePersister ).createDatabase( "new" );
+		inOrder.verify( gamePersister ).saveGames( Collections.singleton( Game.name( "game3" ).machine( "MSX" ).romA( "C:\\shared.rom" ).build() ), "new" );
+	}
+
+	@Test
+	public void test_GivenSeveralDatabases_WhenImportDatabases_ThenGamesOfOnlyOneDatabaseAheadAreBuiltAndHashesAreSavedOnce()
+			throws IOException, GamePersistenceException
+	{
+		File[] databases = new File[3];
+		for( int index = 0; index < databases.length; index++ )
+		{
+			databases[index] = tmpFolder.newFile( "database" + (index + 1) + ".db" );
+
+			PrintWriter writer = new PrintWriter( databases[index] );
+			writer.println( "game" + (index + 1) + "|C:\\game" + (index + 1) + ".rom||||MSX||||||||||||||||||||||||0|0|0|" );
+			writer.close();
+		}
+
+		List<String> builtGames = new CopyOnWriteArrayList<String>();
+		List<String> builtGamesWhenFirstDatabaseSaved = new ArrayList<String>();
+
+		when( gamePersister.getDatabases() ).thenReturn( Collections.emptySet() );
+		when( gameBuilder.createGameObjectForImportedData( anyString(), any(), any(), anyString(), any(), any(), any(), any(), any(), any(), any() ) )
+				.thenAnswer( invocation -> {
+					builtGames.add( invocation.getArgument( 0 ) );
+					return Game.name( invocation.getArgument( 0 ) ).machine( "MSX" ).romA( invocation.getArgument( 3 ) ).build();
+				} );
+		doAnswer( invocation -> builtGamesWhenFirstDatabaseSaved.addAll( builtGames ) ).when( gamePersister ).saveGames( anySet(), eq( "database1" ) );
+
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "MSX", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
+
+		Set<String> importedDatabases = importer.importDatabases( databases, actionDecider );
+
+		assertEquals( new HashSet<String>( Arrays.asList( "database1", "database2", "database3" ) ), importedDatabases );
+		assertFalse( builtGamesWhenFirstDatabaseSaved.contains( "game3" ) );
+
+		InOrder inOrder = inOrder( gamePersister, fileHashCache );
+		inOrder.verify( gamePersister ).saveGames( anySet(), eq( "database3" ) );
+		inOrder.verify( fileHashCache, times( 1 ) ).save();
+	}
+
 	//The following test is for a private method. I use reflection to get it and call it
 	@Test
 	public void test_GivenBlueMSXLauncherExtensionRom_WhenGetExtensionRom_ThenReturnCorrespomdingOpenMSXExtensionRom() throws IllegalArgumentException, IllegalAccessException, InvocationTargetException, SecurityException, NoSuchMethodException
 	{
-		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "MSX1", gameBuilder, gamePersister, extraDataGetter );
+		BlueMSXLauncherDatabaseImporter importer = new BlueMSXLauncherDatabaseImporter( "MSX1", gameBuilder, gamePersister, extraDataGetter, fileHashCache );
 
 		Method method = BlueMSXLauncherDatabaseImporter.class.getDeclaredMethod( "getExtensionRom", String.class );
 		method.setAccessible( true );
@@ -20,6 +20,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 
+import info.msxlaunchers.openmsx.common.HashCodes;
 import info.msxlaunchers.openmsx.common.HashUtils;
 import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 
@@ -186,24 +187,16 @@ final class IPSPatcher extends AbstractPatcher
 		if( skipCheckcum == false && checksum != null )
 		{
 			String trimmedChecksum = checksum.trim();
-			String sha1Code = HashUtils.getSHA1Code( fileToPatch.toFile() );
-	
-			//first do the SHA1 check
-			if( !sha1Code.equalsIgnoreCase( trimmedChecksum ) )
-			{
-				//do the additional MD5 check
-				String md5Sum = HashUtils.getMD5Sum( fileToPatch.toFile() );
-	
-				if( !md5Sum.equalsIgnoreCase( trimmedChecksum ) )
-				{
-					//at last do the additional CRC32 check
-					String crc32Code = HashUtils.getCRC32Code( fileToPatch.toFile() );
 
-					if( !crc32Code.equalsIgnoreCase( trimmedChecksum ) )
-					{
-						throw new PatchException( PatchExceptionIssue.SOURCE_FILE_CHECKSUM_NOT_MATCH );
-					}
-				}
+			//the checksum can be any of SHA1, MD5 or CRC32 so get all of them in a single read of the file
+			HashCodes hashCodes = HashUtils.getHashCodes( fileToPatch.toFile() );
+
+			if( hashCodes == null ||
+					(!hashCodes.getSha1Code().equalsIgnoreCase( trimmedChecksum ) &&
+					!hashCodes.getMD5Sum().equalsIgnoreCase( trimmedChecksum ) &&
+					!hashCodes.getCRC32Code().equalsIgnoreCase( trimmedChecksum )) )
+			{
+				throw new PatchException( PatchExceptionIssue.SOURCE_FILE_CHECKSUM_NOT_MATCH );
 			}
 		}
 	}
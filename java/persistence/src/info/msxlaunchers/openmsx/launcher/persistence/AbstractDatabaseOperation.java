@@ -16,7 +16,6 @@
 package info.msxlaunchers.openmsx.launcher.persistence;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -33,6 +32,8 @@ abstract class AbstractDatabaseOperation<E> implements DatabaseAction<E>
 {
 	private static final String GET_DATABASE_ID_BY_NAME_STATEMENT = "SELECT ID FROM database WHERE name=?";
 
+	private String databaseFullPath = null;
+
 	/* (non-Javadoc)
 	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.DatabaseAction#execute(java.lang.String)
 	 */
@@ -41,10 +42,13 @@ abstract class AbstractDatabaseOperation<E> implements DatabaseAction<E>
 	{
 		DatabaseResponse<E> response = null;
 
-		String dbURL = "jdbc:derby:" + databaseFullPath;
+		this.databaseFullPath = databaseFullPath;
 
-		try( Connection connection = DriverManager.getConnection( dbURL ) )
+		Connection connection = null;
+		try
 		{
+			connection = DatabaseConnectionPool.getConnection( databaseFullPath );
+
 			try
 			{
 				response = executeOperation( connection );
@@ -59,6 +63,13 @@ abstract class AbstractDatabaseOperation<E> implements DatabaseAction<E>
     	{
     		//TODO What to do?
     	}
+		finally
+		{
+			if( connection != null )
+			{
+				DatabaseConnectionPool.releaseConnection( databaseFullPath, connection );
+			}
+		}
 
 		return response;
 	}
@@ -74,6 +85,13 @@ abstract class AbstractDatabaseOperation<E> implements DatabaseAction<E>
 
 	protected long getDatabaseId( Connection connection, String database )
 	{
+		Long cachedId = databaseFullPath == null ? null : DatabaseConnectionPool.getDatabaseId( databaseFullPath, database );
+
+		if( cachedId != null )
+		{
+			return cachedId;
+		}
+
 		long id = 0;
 
 		try( PreparedStatement statement = connection.prepareStatement( GET_DATABASE_ID_BY_NAME_STATEMENT ) )
@@ -86,6 +104,11 @@ abstract class AbstractDatabaseOperation<E> implements DatabaseAction<E>
 	
 				id = result.getLong( "ID" );
 			}
+
+			if( databaseFullPath != null )
+			{
+				DatabaseConnectionPool.putDatabaseId( databaseFullPath, database, id );
+			}
 		}
 		catch( SQLException se )
 		{
@@ -95,6 +118,20 @@ abstract class AbstractDatabaseOperation<E> implements DatabaseAction<E>
 		return id;
 	}
 
+	/**
+	 * Makes the next <code>getDatabaseId</code> call for the given database read its ID from the database table.
+	 * This must be called by actions that delete or rename game databases
+	 * 
+	 * @param database Name of the game database
+	 */
+	protected void forgetDatabaseId( String database )
+	{
+		if( databaseFullPath != null )
+		{
+			DatabaseConnectionPool.removeDatabaseId( databaseFullPath, database );
+		}
+	}
+
 	protected void throwEncapsulatingException( Exception ex ) throws LauncherPersistenceException
 	{
 		throw new LauncherPersistenceException( ex );
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of connections to the embedded database. Connections are kept open between database actions, and each
+ * pooled connection keeps the statements prepared on it so that running the same SQL again doesn't prepare it again.
+ * The pool also remembers the IDs of the game databases by name
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class DatabaseConnectionPool
+{
+	private static final int MAXIMUM_IDLE_CONNECTIONS = 4;
+	private static final int MAXIMUM_CACHED_STATEMENTS = 64;
+
+	private static final Map<String,Deque<Connection>> idleConnections = new HashMap<>();
+	private static final Map<String,Map<String,Long>> databaseIds = new ConcurrentHashMap<>();
+
+	private DatabaseConnectionPool() {}
+
+	/**
+	 * Clears the remembered game database IDs of the given embedded database. This must be called if the database table
+	 * was modified outside of the persistence actions
+	 * 
+	 * @param databaseFullPath Full path to the embedded application database
+	 */
+	public static void clearDatabaseIds( String databaseFullPath )
+	{
+		databaseIds.remove( databaseFullPath );
+	}
+
+	/**
+	 * Closes all idle connections and forgets all remembered game database IDs
+	 */
+	public static synchronized void closeAll()
+	{
+		for( Deque<Connection> connections: idleConnections.values() )
+		{
+			connections.forEach( DatabaseConnectionPool::closeQuietly );
+		}
+		idleConnections.clear();
+		databaseIds.clear();
+	}
+
+	static Connection getConnection( String databaseFullPath ) throws SQLException
+	{
+		synchronized( DatabaseConnectionPool.class )
+		{
+			Deque<Connection> connections = idleConnections.get( databaseFullPath );
+
+			while( connections != null && !connections.isEmpty() )
+			{
+				Connection connection = connections.pop();
+
+				//the database may have been shut down since the connection was returned
+				if( !connection.isClosed() )
+				{
+					return connection;
+				}
+			}
+		}
+
+		Connection connection = DriverManager.getConnection( "jdbc:derby:" + databaseFullPath );
+
+		return (Connection)Proxy.newProxyInstance( DatabaseConnectionPool.class.getClassLoader(), new Class<?>[] {Connection.class},
+				new PooledConnectionHandler( connection ) );
+	}
+
+	static void releaseConnection( String databaseFullPath, Connection connection )
+	{
+		try
+		{
+			if( !connection.getAutoCommit() )
+			{
+				//roll back anything the action left uncommitted, and leave the connection as a new one would be
+				connection.rollback();
+				connection.setAutoCommit( true );
+			}
+		}
+		catch( SQLException se )
+		{
+			closeQuietly( connection );
+			return;
+		}
+
+		synchronized( DatabaseConnectionPool.class )
+		{
+			Deque<Connection> connections = idleConnections.computeIfAbsent( databaseFullPath, key -> new ArrayDeque<>() );
+
+			if( connections.size() < MAXIMUM_IDLE_CONNECTIONS )
+			{
+				connections.push( connection );
+				return;
+			}
+		}
+
+		closeQuietly( connection );
+	}
+
+	static Long getDatabaseId( String databaseFullPath, String database )
+	{
+		Map<String,Long> ids = databaseIds.get( databaseFullPath );
+
+		return ids == null ? null : ids.get( database );
+	}
+
+	static void putDatabaseId( String databaseFullPath, String database, long id )
+	{
+		databaseIds.computeIfAbsent( databaseFullPath, key -> new ConcurrentHashMap<>() ).put( database, id );
+	}
+
+	static void removeDatabaseId( String databaseFullPath, String database )
+	{
+		Map<String,Long> ids = databaseIds.get( databaseFullPath );
+
+		if( ids != null )
+		{
+			ids.remove( database );
+		}
+	}
+
+	private static void closeQuietly( Connection connection )
+	{
+		try
+		{
+			((PooledConnectionHandler)Proxy.getInvocationHandler( connection )).closeConnection();
+		}
+		catch( SQLException se )
+		{
+			//the connection is discarded anyway
+		}
+	}
+
+	private static Object invoke( Object target, Method method, Object[] args ) throws Throwable
+	{
+		try
+		{
+			return method.invoke( target, args );
+		}
+		catch( InvocationTargetException ite )
+		{
+			throw ite.getCause();
+		}
+	}
+
+	/**
+	 * Handler of pooled connections. Closing is left to the pool, and statements prepared with only an SQL string are
+	 * cached by that string
+	 */
+	private static final class PooledConnectionHandler implements InvocationHandler
+	{
+		private final Connection connection;
+		private final Map<String,CachedStatementHandler> statements = new LinkedHashMap<String,CachedStatementHandler>( 16, 0.75f, true )
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<String,CachedStatementHandler> eldest )
+			{
+				if( size() > MAXIMUM_CACHED_STATEMENTS && !eldest.getValue().inUse )
+				{
+					eldest.getValue().closeStatement();
+					return true;
+				}
+
+				return false;
+			}
+		};
+
+		PooledConnectionHandler( Connection connection )
+		{
+			this.connection = connection;
+		}
+
+		@Override
+		public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable
+		{
+			if( method.getName().equals( "close" ) )
+			{
+				//the pool decides when connections are closed
+				return null;
+			}
+			else if( method.getName().equals( "prepareStatement" ) && args.length == 1 )
+			{
+				return prepareStatement( (String)args[0] );
+			}
+			else
+			{
+				return DatabaseConnectionPool.invoke( connection, method, args );
+			}
+		}
+
+		void closeConnection() throws SQLException
+		{
+			statements.values().forEach( CachedStatementHandler::closeStatement );
+			statements.clear();
+			connection.close();
+		}
+
+		private PreparedStatement prepareStatement( String sql ) throws SQLException
+		{
+			CachedStatementHandler handler = statements.get( sql );
+
+			if( handler == null )
+			{
+				handler = new CachedStatementHandler( connection.prepareStatement( sql ) );
+				statements.put( sql, handler );
+			}
+			else if( handler.inUse )
+			{
+				//the same SQL is already open in this action, so give out a statement of its own
+				return connection.prepareStatement( sql );
+			}
+
+			handler.inUse = true;
+
+			return handler.proxy;
+		}
+	}
+
+	/**
+	 * Handler of cached statements. Closing the statement only makes it available again
+	 */
+	private static final class CachedStatementHandler implements InvocationHandler
+	{
+		private final PreparedStatement statement;
+		private final PreparedStatement proxy;
+		private boolean inUse = false;
+
+		CachedStatementHandler( PreparedStatement statement )
+		{
+			this.statement = statement;
+			this.proxy = (PreparedStatement)Proxy.newProxyInstance( DatabaseConnectionPool.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class}, this );
+		}
+
+		@Override
+		public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable
+		{
+			if( method.getName().equals( "close" ) )
+			{
+				if( inUse )
+				{
+					try
+					{
+						statement.clearParameters();
+						statement.clearBatch();
+						statement.setMaxRows( 0 );
+					}
+					finally
+					{
+						inUse = false;
+					}
+				}
+				return null;
+			}
+			else if( method.getName().equals( "isClosed" ) )
+			{
+				return !inUse;
+			}
+			else
+			{
+				return DatabaseConnectionPool.invoke( statement, method, args );
+			}
+		}
+
+		void closeStatement()
+		{
+			try
+			{
+				statement.close();
+			}
+			catch( SQLException se )
+			{
+				//the statement is discarded anyway
+			}
+		}
+	}
+}
@@ -18,6 +18,7 @@ package info.msxlaunchers.openmsx.launcher.persistence;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -31,6 +32,7 @@ import info.msxlaunchers.openmsx.launcher.persistence.filter.FilterPersister;
 import info.msxlaunchers.openmsx.launcher.persistence.game.DerbyLogSuppressor;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister;
 import info.msxlaunchers.openmsx.launcher.persistence.search.GameFinder;
+import info.msxlaunchers.openmsx.launcher.persistence.search.GameSearchIndexRegistry;
 import info.msxlaunchers.openmsx.launcher.persistence.settings.SettingsPersister;
 
 /**
@@ -63,18 +65,42 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 	private static final String CREATE_GAME_TABLE_STATEMENT = "CREATE TABLE game" + GAME_TABLE_DEF;
 	private static final String ADD_FOREIGN_KEY_TO_GAME_TABLE = "ALTER TABLE game ADD CONSTRAINT DATABASE_GAME_FK Foreign Key (IDDB) REFERENCES database (ID) ON DELETE CASCADE";
 	private static final String ADD_UNIQUE_CONSTRAINT_TO_GAME_TABLE = "ALTER TABLE game ADD CONSTRAINT UNIQUE_GAMENAME UNIQUE(name,IDDB)";
-	private static final String CREATE_GAME_BACKUP_TABLE_STATEMENT = "CREATE TABLE game_backup" + GAME_TABLE_DEF;
-	private static final String ADD_FOREIGN_KEY_TO_GAME_BACKUP_TABLE = "ALTER TABLE game_backup ADD CONSTRAINT DATABASE_BAK_FK Foreign Key (IDDB) REFERENCES database_backup (ID) ON DELETE CASCADE";
+	private static final String CREATE_GAME_SIZE_INDEX = "CREATE INDEX GAME_SIZE_IDX ON game (IDDB, size)";
+	private static final String CREATE_GAME_SHA1_INDEX = "CREATE INDEX GAME_SHA1_IDX ON game (sha1)";
+	private static final String CREATE_GAME_MSX_GENID_INDEX = "CREATE INDEX GAME_MSX_GENID_IDX ON game (msx_genid)";
+	private static final String CREATE_GAME_BACKUP_ROW_TABLE_STATEMENT = "CREATE TABLE game_backup_row (hash VARCHAR(40) not null," +
+			"name VARCHAR(128) not null, info VARCHAR(512), machine VARCHAR(64) not null," +
+			"romA VARCHAR(512), extension_rom VARCHAR(20), romB VARCHAR(512)," +
+			"diskA VARCHAR(512), diskB VARCHAR(512), tape VARCHAR(512), harddisk VARCHAR(512), laserdisc VARCHAR(512), tcl_script VARCHAR(512)," +
+			"msx BOOLEAN default false, msx2 BOOLEAN default false, msx2plus BOOLEAN default false, turbo_r BOOLEAN default false," +
+			"psg BOOLEAN default false, scc BOOLEAN default false, scc_i BOOLEAN default false, pcm BOOLEAN default false," +
+			"msx_music BOOLEAN default false, msx_audio BOOLEAN default false, moonsound BOOLEAN default false, midi BOOLEAN default false," +
+			"genre1 INTEGER, genre2 INTEGER, msx_genid INTEGER, screenshot_suffix VARCHAR(10), sha1 VARCHAR(40), size BIGINT," +
+			"fdd_mode SMALLINT, tcl_script_override BOOLEAN default true, input_device SMALLINT, connect_gfx9000 BOOLEAN default false," +
+			"primary key (hash))";
+	private static final String CREATE_GAME_BACKUP_ENTRY_TABLE_STATEMENT = "CREATE TABLE game_backup_entry (IDBACKUP BIGINT not null, hash VARCHAR(40) not null," +
+			"primary key (IDBACKUP, hash))";
+	private static final String ADD_BACKUP_FOREIGN_KEY_TO_GAME_BACKUP_ENTRY_TABLE = "ALTER TABLE game_backup_entry ADD CONSTRAINT DATABASE_BAK_ENTRY_FK Foreign Key (IDBACKUP) REFERENCES database_backup (ID) ON DELETE CASCADE";
+	private static final String ADD_ROW_FOREIGN_KEY_TO_GAME_BACKUP_ENTRY_TABLE = "ALTER TABLE game_backup_entry ADD CONSTRAINT GAME_BAK_ROW_FK Foreign Key (hash) REFERENCES game_backup_row (hash)";
 	private static final String CREATE_FAVORITE_TABLE_STATEMENT = "CREATE TABLE favorite (ID BIGINT not null generated always as identity, IDGAME BIGINT not null unique, primary key (ID))";
 	private static final String ADD_FOREIGN_KEY_TO_FAVORITE_TABLE = "ALTER TABLE favorite ADD CONSTRAINT GAME_FK Foreign Key (IDGAME) REFERENCES game (ID) ON DELETE CASCADE";
+	private static final String CREATE_EXTRA_DATA_TABLE_STATEMENT = "CREATE TABLE extra_data (sha1 VARCHAR(40) not null," +
+			"msx BOOLEAN not null, msx2 BOOLEAN not null, msx2plus BOOLEAN not null, turbo_r BOOLEAN not null," +
+			"psg BOOLEAN not null, scc BOOLEAN not null, scc_i BOOLEAN not null, pcm BOOLEAN not null," +
+			"msx_music BOOLEAN not null, msx_audio BOOLEAN not null, moonsound BOOLEAN not null, midi BOOLEAN not null," +
+			"genre1 INTEGER not null, genre2 INTEGER not null, msx_genid INTEGER not null, screenshot_suffix VARCHAR(10), primary key (sha1))";
 
 	//upgrade statements
 	private static final String ADD_INPUT_DEVICE_COLUMN_TO_GAME = "ALTER TABLE game ADD COLUMN input_device SMALLINT";
 	private static final String ADD_INPUT_DEVICE_COLUMN_TO_GAME_BACKUP = "ALTER TABLE game_backup ADD COLUMN input_device SMALLINT";
 	private static final String ADD_CONNECT_GFX9000_COLUMN_TO_GAME = "ALTER TABLE game ADD COLUMN connect_gfx9000 BOOLEAN default false";
 	private static final String ADD_CONNECT_GFX9000_COLUMN_TO_GAME_BACKUP = "ALTER TABLE game_backup ADD COLUMN connect_gfx9000 BOOLEAN default false";
+	private static final String GET_LEGACY_BACKED_UP_GAMES_STATEMENT = "SELECT IDDB, " + GameBackupRowWriter.GAME_COLUMNS + " FROM game_backup";
+	private static final String DROP_LEGACY_GAME_BACKUP_TABLE = "DROP TABLE game_backup";
 
 	private static final String COLUMN_ALREADY_EXISTS_ERROR_CODE = "X0Y32";
+	private static final String INDEX_ALREADY_EXISTS_ERROR_CODE = "X0Y32";
+	private static final String TABLE_ALREADY_EXISTS_ERROR_CODE = "X0Y32";
 
 	private final GamePersister gamePersister;
 	private final FavoritePersister favoritePersister;
@@ -136,6 +162,21 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 
 					//second case to deal with is TCLScriptOverride column in Games table (new in v1.11)
 					addConnectGFX9000ColumnIfNecessary( connection );
+
+					//third case to deal with is the index used by size filters (new in v1.14)
+					addGameSizeIndexIfNecessary( connection );
+
+					//fourth case to deal with is the staging table for extra data updates (new in v1.14)
+					addExtraDataTableIfNecessary( connection );
+
+					//fifth case to deal with is the index used to join games to the extra data staging table (new in v1.14)
+					addGameSha1IndexIfNecessary( connection );
+
+					//sixth case to deal with is the index used to find games by MSX Generations ID (new in v1.14)
+					addGameMsxGenIdIndexIfNecessary( connection );
+
+					//seventh case to deal with is the deduplicated backup tables that replace game_backup (new in v1.14)
+					addGameBackupRowTablesIfNecessary( connection );
 				}
 			}
 			catch( SQLException se )
@@ -148,6 +189,9 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
     	{
     		//TODO What to do?
     	}
+
+		//read the games to search in the background so that the first search doesn't wait for them
+		GameSearchIndexRegistry.build( databaseFullPath );
 	}
 
 	/* (non-Javadoc)
@@ -156,6 +200,8 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 	@Override
 	public void shutdown() throws LauncherPersistenceException
 	{
+		DatabaseConnectionPool.closeAll();
+
 		String dbURL = "jdbc:derby:;shutdown=true";
 
 		try( Connection connection = DriverManager.getConnection( dbURL ) )
@@ -217,8 +263,9 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 		createDatabaseTable( connection );
 		createGameTable( connection );
 		createDatabaseBackupTable( connection );
-		createGameBackupTable( connection );
+		createGameBackupRowTables( connection );
 		createFavoriteTable( connection );
+		createExtraDataTable( connection );
 	}
 
 	private void createDatabaseTable( Connection connection ) throws SQLException
@@ -236,6 +283,9 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 			statement.execute( CREATE_GAME_TABLE_STATEMENT );
 			statement.execute( ADD_FOREIGN_KEY_TO_GAME_TABLE );
 			statement.execute( ADD_UNIQUE_CONSTRAINT_TO_GAME_TABLE );
+			statement.execute( CREATE_GAME_SIZE_INDEX );
+			statement.execute( CREATE_GAME_SHA1_INDEX );
+			statement.execute( CREATE_GAME_MSX_GENID_INDEX );
 		}
 	}
 
@@ -248,12 +298,14 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 		}
 	}
 
-	private void createGameBackupTable( Connection connection ) throws SQLException
+	private void createGameBackupRowTables( Connection connection ) throws SQLException
 	{
 		try( Statement statement = connection.createStatement() )
 		{
-			statement.execute( CREATE_GAME_BACKUP_TABLE_STATEMENT );
-			statement.execute( ADD_FOREIGN_KEY_TO_GAME_BACKUP_TABLE );
+			statement.execute( CREATE_GAME_BACKUP_ROW_TABLE_STATEMENT );
+			statement.execute( CREATE_GAME_BACKUP_ENTRY_TABLE_STATEMENT );
+			statement.execute( ADD_BACKUP_FOREIGN_KEY_TO_GAME_BACKUP_ENTRY_TABLE );
+			statement.execute( ADD_ROW_FOREIGN_KEY_TO_GAME_BACKUP_ENTRY_TABLE );
 		}
 	}
 
@@ -266,6 +318,14 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 		}
 	}
 
+	private void createExtraDataTable( Connection connection ) throws SQLException
+	{
+		try( Statement statement = connection.createStatement() )
+		{
+			statement.execute( CREATE_EXTRA_DATA_TABLE_STATEMENT );
+		}
+	}
+
 	private void addInputDeviceColumnIfNecessary( Connection connection ) throws SQLException
 	{
 		try( Statement statement = connection.createStatement() )
@@ -303,4 +363,142 @@ final class EmbeddedDatabaseLauncherPersistence implements LauncherPersistence
 			}
 		}
 	}
+
+	private void addGameSizeIndexIfNecessary( Connection connection ) throws SQLException
+	{
+		try( Statement statement = connection.createStatement() )
+		{
+			statement.execute( CREATE_GAME_SIZE_INDEX );
+		}
+		catch( SQLException se )
+		{
+			if( !se.getSQLState().equals( INDEX_ALREADY_EXISTS_ERROR_CODE ) )
+			{
+				//if we get an exception other than 'index already exists' then rethrow it
+				LauncherLogger.logException( this, se );
+
+				throw se;
+			}
+		}
+	}
+
+	private void addGameSha1IndexIfNecessary( Connection connection ) throws SQLException
+	{
+		try( Statement statement = connection.createStatement() )
+		{
+			statement.execute( CREATE_GAME_SHA1_INDEX );
+		}
+		catch( SQLException se )
+		{
+			if( !se.getSQLState().equals( INDEX_ALREADY_EXISTS_ERROR_CODE ) )
+			{
+				//if we get an exception other than 'index already exists' then rethrow it
+				LauncherLogger.logException( this, se );
+
+				throw se;
+			}
+		}
+	}
+
+	private void addGameMsxGenIdIndexIfNecessary( Connection connection ) throws SQLException
+	{
+		try( Statement statement = connection.createStatement() )
+		{
+			statement.execute( CREATE_GAME_MSX_GENID_INDEX );
+		}
+		catch( SQLException se )
+		{
+			if( !se.getSQLState().equals( INDEX_ALREADY_EXISTS_ERROR_CODE ) )
+			{
+				//if we get an exception other than 'index already exists' then rethrow it
+				LauncherLogger.logException( this, se );
+
+				throw se;
+			}
+		}
+	}
+
+	private void addGameBackupRowTablesIfNecessary( Connection connection ) throws SQLException
+	{
+		//the tables are created and the existing backups are moved in one transaction so that a failed upgrade is retried as a whole
+		connection.setAutoCommit( false );
+
+		try
+		{
+			if( createGameBackupRowTablesIfNecessary( connection ) )
+			{
+				moveLegacyBackedUpGames( connection );
+			}
+
+			connection.commit();
+		}
+		catch( SQLException se )
+		{
+			connection.rollback();
+			throw se;
+		}
+		finally
+		{
+			connection.setAutoCommit( true );
+		}
+	}
+
+	private boolean createGameBackupRowTablesIfNecessary( Connection connection ) throws SQLException
+	{
+		try
+		{
+			createGameBackupRowTables( connection );
+
+			return true;
+		}
+		catch( SQLException se )
+		{
+			if( !se.getSQLState().equals( TABLE_ALREADY_EXISTS_ERROR_CODE ) )
+			{
+				//if we get an exception other than 'table already exists' then rethrow it
+				LauncherLogger.logException( this, se );
+
+				throw se;
+			}
+
+			return false;
+		}
+	}
+
+	private void moveLegacyBackedUpGames( Connection connection ) throws SQLException
+	{
+		try( Statement statement = connection.createStatement();
+				ResultSet backedUpGames = statement.executeQuery( GET_LEGACY_BACKED_UP_GAMES_STATEMENT );
+				GameBackupRowWriter backupRowWriter = new GameBackupRowWriter( connection ) )
+		{
+			while( backedUpGames.next() )
+			{
+				//the IDDB column of the legacy table is the ID of the backup
+				backupRowWriter.add( backedUpGames.getLong( 1 ), backedUpGames, 2 );
+			}
+		}
+
+		try( Statement statement = connection.createStatement() )
+		{
+			statement.execute( DROP_LEGACY_GAME_BACKUP_TABLE );
+		}
+	}
+
+	private void addExtraDataTableIfNecessary( Connection connection ) throws SQLException
+	{
+		try( Statement statement = connection.createStatement() )
+		{
+			statement.execute( CREATE_EXTRA_DATA_TABLE_STATEMENT );
+		}
+		catch( SQLException se )
+		{
+			if( !se.getSQLState().equals( TABLE_ALREADY_EXISTS_ERROR_CODE ) )
+			{
+				//if we get an exception other than 'table already exists' then rethrow it
+				LauncherLogger.logException( this, se );
+
+				throw se;
+			}
+		}
+	}
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence;
+
+import info.msxlaunchers.openmsx.common.HashUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class that writes backed up games to the content addressed backup tables. Each distinct game row is stored once in
+ * <code>game_backup_row</code> under the SHA1 code of its content, and each backup is a list of row codes in <code>game_backup_entry</code>.
+ * Rows are written in chunks, and only the rows that are not already stored are inserted
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class GameBackupRowWriter implements AutoCloseable
+{
+	/**
+	 * Content columns of a game row, in the order they are read, hashed and stored
+	 */
+	public static final String GAME_COLUMNS = "name, info, machine, romA, extension_rom, romB, " +
+			"diskA, diskB, tape, harddisk, laserdisc, tcl_script, msx, msx2, msx2plus, turbo_r, " +
+			"psg, scc, scc_i, pcm, msx_music, msx_audio, moonsound, midi, genre1, genre2, msx_genid, screenshot_suffix, sha1, size, " +
+			"fdd_mode, tcl_script_override, input_device, connect_gfx9000";
+
+	private static final int[] GAME_COLUMN_TYPES = {
+			Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+			Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+			Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN,
+			Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN, Types.BOOLEAN,
+			Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.BIGINT,
+			Types.SMALLINT, Types.BOOLEAN, Types.SMALLINT, Types.BOOLEAN };
+
+	private static final String INSERT_ROW_STATEMENT = "INSERT INTO game_backup_row (hash, " + GAME_COLUMNS + ") VALUES (?" +
+			String.join( "", Collections.nCopies( GAME_COLUMN_TYPES.length, ", ?" ) ) + ")";
+	private static final String INSERT_ENTRY_STATEMENT = "INSERT INTO game_backup_entry (IDBACKUP, hash) VALUES (?, ?)";
+	private static final String GET_STORED_ROWS_STATEMENT = "SELECT hash FROM game_backup_row WHERE hash IN (%s)";
+	private static final String DELETE_UNREFERENCED_ROWS_STATEMENT = "DELETE FROM game_backup_row WHERE NOT EXISTS " +
+			"(SELECT 1 FROM game_backup_entry e WHERE e.hash = game_backup_row.hash)";
+	private static final int CHUNK_SIZE = 500;
+
+	private final Connection connection;
+	private final PreparedStatement insertRowStatement;
+	private final PreparedStatement insertEntryStatement;
+	private final List<BackupRow> pendingRows = new ArrayList<>( CHUNK_SIZE );
+
+	/**
+	 * Creates a writer that uses the given connection and its current transaction
+	 * 
+	 * @param connection Connection to the launcher database
+	 * @throws SQLException
+	 */
+	public GameBackupRowWriter( Connection connection ) throws SQLException
+	{
+		this.connection = connection;
+		this.insertRowStatement = connection.prepareStatement( INSERT_ROW_STATEMENT );
+		this.insertEntryStatement = connection.prepareStatement( INSERT_ENTRY_STATEMENT );
+	}
+
+	/**
+	 * Adds the game at the current position of the given result set to the given backup
+	 * 
+	 * @param backupId ID of the backup in database_backup table
+	 * @param game Result set positioned on a game row that contains <code>GAME_COLUMNS</code> in order
+	 * @param firstColumn Index of the first of <code>GAME_COLUMNS</code> in the result set
+	 * @throws SQLException
+	 */
+	public void add( long backupId, ResultSet game, int firstColumn ) throws SQLException
+	{
+		Object[] values = new Object[GAME_COLUMN_TYPES.length];
+
+		for( int index = 0; index < values.length; index++ )
+		{
+			values[index] = game.getObject( firstColumn + index );
+		}
+
+		pendingRows.add( new BackupRow( backupId, getHash( values ), values ) );
+
+		if( pendingRows.size() >= CHUNK_SIZE )
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the added games that are not written yet
+	 * 
+	 * @throws SQLException
+	 */
+	public void flush() throws SQLException
+	{
+		if( pendingRows.isEmpty() )
+		{
+			return;
+		}
+
+		//rows that are already stored by this or other backups are only referenced
+		Set<String> storedHashes = getStoredHashes();
+
+		for( BackupRow row: pendingRows )
+		{
+			if( storedHashes.add( row.hash ) )
+			{
+				insertRowStatement.setString( 1, row.hash );
+				for( int index = 0; index < row.values.length; index++ )
+				{
+					if( row.values[index] == null )
+					{
+						insertRowStatement.setNull( index + 2, GAME_COLUMN_TYPES[index] );
+					}
+					else
+					{
+						insertRowStatement.setObject( index + 2, row.values[index], GAME_COLUMN_TYPES[index] );
+					}
+				}
+				insertRowStatement.addBatch();
+			}
+
+			insertEntryStatement.setLong( 1, row.backupId );
+			insertEntryStatement.setString( 2, row.hash );
+			insertEntryStatement.addBatch();
+		}
+
+		pendingRows.clear();
+
+		insertRowStatement.executeBatch();
+		insertEntryStatement.executeBatch();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close() throws SQLException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			insertRowStatement.close();
+			insertEntryStatement.close();
+		}
+	}
+
+	/**
+	 * Deletes the stored rows that are not part of any backup anymore. This must be called after deleting backups
+	 * 
+	 * @param connection Connection to the launcher database
+	 * @return Number of deleted rows
+	 * @throws SQLException
+	 */
+	public static int deleteUnreferencedRows( Connection connection ) throws SQLException
+	{
+		try( PreparedStatement statement = connection.prepareStatement( DELETE_UNREFERENCED_ROWS_STATEMENT ) )
+		{
+			return statement.executeUpdate();
+		}
+	}
+
+	private Set<String> getStoredHashes() throws SQLException
+	{
+		Set<String> hashes = new HashSet<>();
+		pendingRows.forEach( row -> hashes.add( row.hash ) );
+
+		Set<String> storedHashes = new HashSet<>();
+		String placeholders = String.join( ",", Collections.nCopies( hashes.size(), "?" ) );
+
+		try( PreparedStatement statement = connection.prepareStatement( String.format( GET_STORED_ROWS_STATEMENT, placeholders ) ) )
+		{
+			int index = 1;
+			for( String hash: hashes )
+			{
+				statement.setString( index++, hash );
+			}
+
+			try( ResultSet result = statement.executeQuery() )
+			{
+				while( result.next() )
+				{
+					storedHashes.add( result.getString( 1 ) );
+				}
+			}
+		}
+
+		return storedHashes;
+	}
+
+	private static String getHash( Object[] values ) throws SQLException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try( DataOutputStream output = new DataOutputStream( bytes ) )
+		{
+			for( Object value: values )
+			{
+				//nulls are marked so that they can never collide with a value
+				if( value == null )
+				{
+					output.writeByte( 0 );
+				}
+				else
+				{
+					output.writeByte( 1 );
+					output.writeUTF( value.toString() );
+				}
+			}
+		}
+		catch( IOException ioe )
+		{
+			throw new SQLException( ioe );
+		}
+
+		return HashUtils.getSHA1Code( new ByteArrayInputStream( bytes.toByteArray() ) );
+	}
+
+	private static final class BackupRow
+	{
+		private final long backupId;
+		private final String hash;
+		private final Object[] values;
+
+		BackupRow( long backupId, String hash, Object[] values )
+		{
+			this.backupId = backupId;
+			this.hash = hash;
+			this.values = values;
+		}
+	}
+}
@@ -37,6 +37,11 @@ public abstract class TransactionalDatabaseOperation<E> extends AbstractDatabase
 	private static final String DUPLICATE_ERROR_CODE = "23505";
 	private static final int MAXIMUM_GAME_NAME_LENGTH = 128;
 
+	/**
+	 * Maximum number of statements sent to the database in one batch
+	 */
+	protected static final int MAXIMUM_BATCH_SIZE = 500;
+
 	/* (non-Javadoc)
 	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.AbstractDatabaseOperation#executeOperation(java.sql.Connection)
 	 * This implementation starts a transaction, executes the operation and commits it
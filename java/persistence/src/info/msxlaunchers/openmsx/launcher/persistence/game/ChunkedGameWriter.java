@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Implementation of <code>GameWriter</code> that saves every chunk with a <code>SaveGamesAction</code>
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class ChunkedGameWriter implements GameWriter
+{
+	private final String database;
+	private final String databaseFullPath;
+	private final int chunkSize;
+	private final IntConsumer progressListener;
+	private final Runnable chunkCommittedListener;
+	private final Consumer<List<Game>> savedGamesListener;
+
+	private final List<Game> chunk;
+	private final Set<String> duplicateGames = new LinkedHashSet<>();
+	private int writtenGamesCount = 0;
+	private boolean closed = false;
+
+	ChunkedGameWriter( String database, String databaseFullPath, int chunkSize, IntConsumer progressListener, Runnable chunkCommittedListener,
+			Consumer<List<Game>> savedGamesListener )
+	{
+		if( chunkSize < 1 )
+		{
+			throw new IllegalArgumentException( "Chunk size must be positive: " + chunkSize );
+		}
+
+		this.database = Objects.requireNonNull( database );
+		this.databaseFullPath = databaseFullPath;
+		this.chunkSize = chunkSize;
+		this.progressListener = progressListener;
+		this.chunkCommittedListener = Objects.requireNonNull( chunkCommittedListener );
+		this.savedGamesListener = Objects.requireNonNull( savedGamesListener );
+		this.chunk = new ArrayList<>( chunkSize );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter#write(info.msxlaunchers.openmsx.launcher.data.game.Game)
+	 */
+	@Override
+	public void write( Game game ) throws GamePersistenceException
+	{
+		Objects.requireNonNull( game );
+
+		if( closed )
+		{
+			throw new IllegalStateException( "Game writer is closed" );
+		}
+
+		chunk.add( game );
+
+		if( chunk.size() >= chunkSize )
+		{
+			flush();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter#flush()
+	 */
+	@Override
+	public void flush() throws GamePersistenceException
+	{
+		if( chunk.isEmpty() )
+		{
+			return;
+		}
+
+		int chunkGamesCount = chunk.size();
+		List<Game> savedGames = new ArrayList<>( chunk );
+		List<String> chunkDuplicateGames = new ArrayList<>();
+		try
+		{
+			new SaveGamesAction( chunk, database, chunkDuplicateGames ).execute( databaseFullPath );
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+		finally
+		{
+			//a failed chunk is rolled back and not retried
+			chunk.clear();
+			chunkCommittedListener.run();
+		}
+
+		writtenGamesCount += chunkGamesCount - chunkDuplicateGames.size();
+		duplicateGames.addAll( chunkDuplicateGames );
+
+		//a skipped game comes after the game with the same name, whether that one is in the chunk or not
+		List<String> skippedGames = new ArrayList<>( chunkDuplicateGames );
+		for( int index = savedGames.size() - 1; index >= 0 && !skippedGames.isEmpty(); index-- )
+		{
+			if( skippedGames.remove( savedGames.get( index ).getName() ) )
+			{
+				savedGames.remove( index );
+			}
+		}
+		savedGamesListener.accept( savedGames );
+
+		if( progressListener != null )
+		{
+			progressListener.accept( writtenGamesCount );
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter#getWrittenGamesCount()
+	 */
+	@Override
+	public int getWrittenGamesCount()
+	{
+		return writtenGamesCount;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter#getDuplicateGames()
+	 */
+	@Override
+	public Set<String> getDuplicateGames()
+	{
+		return Collections.unmodifiableSet( duplicateGames );
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter#close()
+	 */
+	@Override
+	public void close() throws GamePersistenceException
+	{
+		if( !closed )
+		{
+			closed = true;
+			flush();
+		}
+	}
+}
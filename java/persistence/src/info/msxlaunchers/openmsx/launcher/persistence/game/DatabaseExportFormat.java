@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Format of exported game databases. An export is a GZIP compressed stream that starts with a header of the format marker,
+ * the version and the name and type of each exported column. Each game follows as one row of column values, and the
+ * stream ends with an end marker and the number of exported games
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class DatabaseExportFormat
+{
+	static final int FORMAT_MARKER = 0x4F4D4C44;
+	static final int VERSION = 1;
+	static final int BUFFER_SIZE = 65536;
+	static final byte ROW_MARKER = 1;
+	static final byte END_MARKER = 0;
+
+	private DatabaseExportFormat()
+	{
+	}
+
+	/**
+	 * Writes the value of the given column of the current row
+	 * 
+	 * @param output Stream to write to
+	 * @param row Result set positioned on the row to export
+	 * @param column Index of the column in the result set
+	 * @param type JDBC type of the column
+	 * @throws SQLException
+	 * @throws IOException If the type of the column is not supported or the value cannot be written
+	 */
+	static void writeValue( DataOutputStream output, ResultSet row, int column, int type ) throws SQLException, IOException
+	{
+		switch( type )
+		{
+			case Types.VARCHAR:
+			case Types.CHAR:
+				String string = row.getString( column );
+				output.writeBoolean( string != null );
+				if( string != null )
+				{
+					output.writeUTF( string );
+				}
+				break;
+			case Types.BOOLEAN:
+				boolean bool = row.getBoolean( column );
+				output.writeBoolean( !row.wasNull() );
+				if( !row.wasNull() )
+				{
+					output.writeBoolean( bool );
+				}
+				break;
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				int integer = row.getInt( column );
+				output.writeBoolean( !row.wasNull() );
+				if( !row.wasNull() )
+				{
+					output.writeInt( integer );
+				}
+				break;
+			case Types.BIGINT:
+				long number = row.getLong( column );
+				output.writeBoolean( !row.wasNull() );
+				if( !row.wasNull() )
+				{
+					output.writeLong( number );
+				}
+				break;
+			default:
+				throw new IOException( "Unsupported column type: " + type );
+		}
+	}
+
+	/**
+	 * Reads a value written by <code>writeValue</code> and sets it as the given parameter of the statement
+	 * 
+	 * @param input Stream to read from
+	 * @param statement Statement to set the value in
+	 * @param parameter Index of the parameter in the statement
+	 * @param type JDBC type of the column
+	 * @throws SQLException
+	 * @throws IOException If the type of the column is not supported or the value cannot be read
+	 */
+	static void readValue( DataInputStream input, PreparedStatement statement, int parameter, int type ) throws SQLException, IOException
+	{
+		if( !isSupportedType( type ) )
+		{
+			throw new IOException( "Unsupported column type: " + type );
+		}
+
+		if( !input.readBoolean() )
+		{
+			statement.setNull( parameter, type );
+			return;
+		}
+
+		switch( type )
+		{
+			case Types.VARCHAR:
+			case Types.CHAR:
+				statement.setString( parameter, input.readUTF() );
+				break;
+			case Types.BOOLEAN:
+				statement.setBoolean( parameter, input.readBoolean() );
+				break;
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				statement.setInt( parameter, input.readInt() );
+				break;
+			default:
+				statement.setLong( parameter, input.readLong() );
+				break;
+		}
+	}
+
+	static boolean isSupportedType( int type )
+	{
+		return type == Types.VARCHAR || type == Types.CHAR || type == Types.BOOLEAN ||
+				type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT;
+	}
+}
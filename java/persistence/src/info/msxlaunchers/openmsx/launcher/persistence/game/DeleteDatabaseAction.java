@@ -17,6 +17,7 @@ package info.msxlaunchers.openmsx.launcher.persistence.game;
 
 import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 import info.msxlaunchers.openmsx.launcher.persistence.DefaultDatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.GameBackupRowWriter;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOperation;
 
@@ -48,6 +49,8 @@ final class DeleteDatabaseAction extends TransactionalDatabaseOperation<Boolean>
 	@Override
 	public DefaultDatabaseResponse executeTransactionalOperation( Connection connection ) throws LauncherPersistenceException
 	{
+		forgetDatabaseId( database );
+
 		try( PreparedStatement statement = connection.prepareStatement( DELETE_DATABASE_STATEMENT ) )
 		{
 			statement.setString( 1, database );
@@ -58,6 +61,9 @@ final class DeleteDatabaseAction extends TransactionalDatabaseOperation<Boolean>
 			{
 				throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, database ) );
 			}
+
+			//the backups of the database are deleted by cascade but their rows are shared so they are deleted here
+			GameBackupRowWriter.deleteUnreferencedRows( connection );
 		}
 		catch( SQLException se )
 		{
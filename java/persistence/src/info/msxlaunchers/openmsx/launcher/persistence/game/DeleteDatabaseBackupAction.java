@@ -18,6 +18,7 @@ package info.msxlaunchers.openmsx.launcher.persistence.game;
 import info.msxlaunchers.openmsx.launcher.data.backup.DatabaseBackup;
 import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 import info.msxlaunchers.openmsx.launcher.persistence.DefaultDatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.GameBackupRowWriter;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOperation;
 
@@ -58,6 +59,9 @@ final class DeleteDatabaseBackupAction extends TransactionalDatabaseOperation<Bo
 			deleteDatabaseBackupStatement.setLong( 2, databaseId );
 
 			deleteDatabaseBackupStatement.executeUpdate();
+
+			//the backup entries are deleted by cascade but the rows they referenced are shared so they are deleted here
+			GameBackupRowWriter.deleteUnreferencedRows( connection );
 		}
 		catch( SQLException se )
 		{
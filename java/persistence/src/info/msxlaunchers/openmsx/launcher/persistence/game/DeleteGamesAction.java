@@ -56,15 +56,26 @@ final class DeleteGamesAction extends TransactionalDatabaseOperation<Boolean>
 
 		try( PreparedStatement statement = connection.prepareStatement( DELETE_GAME_STATEMENT ) )
 		{
+			//large sets are sent in several batches to keep the driver's batch small
+			int batchSize = 0;
 			for( Game game: games )
 			{
 				statement.setString( 1, game.getName() );
 				statement.setLong( 2, databaseId );
 
 				statement.addBatch();
+
+				if( ++batchSize == MAXIMUM_BATCH_SIZE )
+				{
+					statement.executeBatch();
+					batchSize = 0;
+				}
 			}
 
-			statement.executeBatch();
+			if( batchSize > 0 )
+			{
+				statement.executeBatch();
+			}
 		}
 		catch( SQLException se )
 		{
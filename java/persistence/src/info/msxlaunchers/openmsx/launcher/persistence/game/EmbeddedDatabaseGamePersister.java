@@ -17,19 +17,28 @@ package info.msxlaunchers.openmsx.launcher.persistence.game;
 
 import info.msxlaunchers.openmsx.common.ActionDecider;
 import info.msxlaunchers.openmsx.common.Utils;
-import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.backup.DatabaseBackup;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
+import info.msxlaunchers.openmsx.launcher.data.filter.CompiledFilter;
+import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
+import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.GameSummary;
 import info.msxlaunchers.openmsx.launcher.data.game.RelatedGame;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.search.GameSearchIndexRegistry;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -47,14 +56,27 @@ import com.google.inject.name.Named;
 @Singleton
 final class EmbeddedDatabaseGamePersister implements GamePersister
 {
-	private final GameBuilder gameBuilder;
+	private static final int MAXIMUM_CACHED_DATABASES = 8;
+
 	private final String databaseFullPath;
 
+	//least recently used game sets, keyed by database name. Every modification removes the affected databases
+	private final Map<String,Set<Game>> cachedGames = new LinkedHashMap<String,Set<Game>>( 16, 0.75f, true )
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<String,Set<Game>> eldest )
+		{
+			return size() > MAXIMUM_CACHED_DATABASES;
+		}
+	};
+	private long cacheGeneration = 0;
+
 	@Inject
-	EmbeddedDatabaseGamePersister( @Named("EmbeddedDatabaseFullPath") String databaseFullPath, GameBuilder gameBuilder )
+	EmbeddedDatabaseGamePersister( @Named("EmbeddedDatabaseFullPath") String databaseFullPath )
 	{
 		this.databaseFullPath = databaseFullPath;
-		this.gameBuilder = gameBuilder;
 	}
 
 	/* (non-Javadoc)
@@ -76,6 +98,11 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			//a new database has no games to search
+			removeCachedGames( database );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -89,11 +116,17 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		try
 		{
 			new DeleteDatabaseAction( database ).execute( databaseFullPath );
+
+			GameSearchIndexRegistry.removeDatabase( databaseFullPath, database );
 		}
 		catch( LauncherPersistenceException lpe )
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			removeCachedGames( database );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -113,6 +146,10 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			invalidateCachedGames( oldDatabase, newDatabase );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -149,6 +186,10 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			invalidateCachedGames( backup.getDatabase() );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -230,12 +271,17 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 
 		try
 		{
-			return new UpdateGameExtraDataAction( gameBuilder, extraDataMap ).execute( databaseFullPath ).getResult();
+			return new UpdateGameExtraDataAction( extraDataMap ).execute( databaseFullPath ).getResult();
 		}
 		catch( LauncherPersistenceException lpe )
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			//game names and SHA1 codes don't change, so the search index is kept
+			removeAllCachedGames();
+		}
 	}
 
 	/* (non-Javadoc)
@@ -244,9 +290,148 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 	@Override
 	public Set<Game> getGames( String database ) throws GamePersistenceException
 	{
+		long generation;
+		synchronized( cachedGames )
+		{
+			Set<Game> games = cachedGames.get( database );
+
+			if( games != null )
+			{
+				return games;
+			}
+
+			generation = cacheGeneration;
+		}
+
+		try
+		{
+			Set<Game> games = new GetGamesAction( database ).execute( databaseFullPath ).getResult();
+
+			synchronized( cachedGames )
+			{
+				//don't cache the games if the database was modified while they were being read
+				if( generation == cacheGeneration )
+				{
+					cachedGames.put( database, games );
+				}
+			}
+
+			return games;
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#getGames(java.lang.String, java.util.Set)
+	 */
+	@Override
+	public Set<Game> getGames( String database, Set<Filter> filters ) throws GamePersistenceException
+	{
+		GameFilterTranslator filterTranslator = GameFilterTranslator.translate( filters );
+
+		Set<Game> games;
+		synchronized( cachedGames )
+		{
+			games = cachedGames.get( database );
+		}
+
+		//filter the cached games if the database was already read, otherwise let the database filter them
+		if( games != null )
+		{
+			//translated filters don't need repository data
+			return Collections.unmodifiableSet( CompiledFilter.compile( filterTranslator.getTranslatedFilters() ).apply( games, game -> null ) );
+		}
+
+		try
+		{
+			return new GetGamesAction( database, filterTranslator ).execute( databaseFullPath ).getResult();
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#getGameSummaries(java.lang.String)
+	 */
+	@Override
+	public Set<GameSummary> getGameSummaries( String database ) throws GamePersistenceException
+	{
+		Set<Game> games;
+		synchronized( cachedGames )
+		{
+			games = cachedGames.get( database );
+		}
+
+		//summarize the cached games if the database was already read, otherwise read the summaries only
+		if( games != null )
+		{
+			return Collections.unmodifiableSet( games.stream().map( GameSummary::of ).collect( Collectors.toSet() ) );
+		}
+
 		try
 		{
-			return new GetGamesAction( database ).execute( databaseFullPath ).getResult();
+			return new GetGameSummariesAction( database ).execute( databaseFullPath ).getResult();
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#getGameCount(java.lang.String)
+	 */
+	@Override
+	public int getGameCount( String database ) throws GamePersistenceException
+	{
+		Set<Game> games;
+		synchronized( cachedGames )
+		{
+			games = cachedGames.get( database );
+		}
+
+		if( games != null )
+		{
+			return games.size();
+		}
+
+		try
+		{
+			return new GetGameCountAction( database ).execute( databaseFullPath ).getResult();
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#getGame(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Game getGame( String name, String database ) throws GamePersistenceException
+	{
+		Objects.requireNonNull( name );
+
+		Set<Game> games;
+		synchronized( cachedGames )
+		{
+			games = cachedGames.get( database );
+		}
+
+		if( games != null )
+		{
+			return games.stream().filter( game -> name.equals( game.getName() ) ).findFirst().orElse( null );
+		}
+
+		try
+		{
+			return new GetGameAction( name, database ).execute( databaseFullPath ).getResult();
 		}
 		catch( LauncherPersistenceException lpe )
 		{
@@ -278,11 +463,30 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		try
 		{
 			new SaveGamesAction( games, database ).execute( databaseFullPath );
+
+			GameSearchIndexRegistry.update( databaseFullPath, database, Collections.emptySet(), games );
 		}
 		catch( LauncherPersistenceException lpe )
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			removeCachedGames( database );
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#openGameWriter(java.lang.String, int, java.util.function.IntConsumer)
+	 */
+	@Override
+	public GameWriter openGameWriter( String database, int chunkSize, IntConsumer progressListener )
+	{
+		Objects.requireNonNull( database );
+
+		//the cached games are discarded after every chunk and the saved games of every chunk are added to the search index
+		return new ChunkedGameWriter( database, databaseFullPath, chunkSize, progressListener, () -> removeCachedGames( database ),
+				savedGames -> GameSearchIndexRegistry.update( databaseFullPath, database, Collections.emptySet(), savedGames ) );
 	}
 
 	/* (non-Javadoc)
@@ -298,11 +502,17 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		try
 		{
 			new UpdateGameAction( oldGame, newGame, database ).execute( databaseFullPath );
+
+			GameSearchIndexRegistry.update( databaseFullPath, database, Collections.singleton( oldGame ), Collections.singleton( newGame ) );
 		}
 		catch( LauncherPersistenceException lpe )
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			removeCachedGames( database );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -328,11 +538,17 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		try
 		{
 			new DeleteGamesAction( games, database ).execute( databaseFullPath );
+
+			GameSearchIndexRegistry.update( databaseFullPath, database, games, Collections.emptySet() );
 		}
 		catch( LauncherPersistenceException lpe )
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			removeCachedGames( database );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -354,6 +570,10 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			invalidateCachedGames( oldDatabase, newDatabase );
+		}
 	}
 
 	/* (non-Javadoc)
@@ -372,6 +592,11 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		{
 			throw (GamePersistenceException)lpe.getException();
 		}
+		finally
+		{
+			//game names and SHA1 codes don't change, so the search index is kept
+			removeAllCachedGames();
+		}
 	}
 
 	/* (non-Javadoc)
@@ -391,4 +616,99 @@ final class EmbeddedDatabaseGamePersister implements GamePersister
 		}
 	}
 
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#getDatabaseItemsByMsxGenIds(java.util.Collection)
+	 */
+	@Override
+	public Map<Integer,DatabaseItem> getDatabaseItemsByMsxGenIds( Collection<Integer> msxGenIds ) throws GamePersistenceException
+	{
+		Objects.requireNonNull( msxGenIds );
+
+		try
+		{
+			return new GetDatabaseItemsByMsxGenIdsAction( msxGenIds ).execute( databaseFullPath ).getResult();
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#exportDatabase(java.lang.String, java.io.File)
+	 */
+	@Override
+	public int exportDatabase( String database, File file ) throws GamePersistenceException
+	{
+		Objects.requireNonNull( database );
+		Objects.requireNonNull( file );
+
+		try
+		{
+			return new ExportDatabaseAction( database, file ).execute( databaseFullPath ).getResult();
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.GamePersister#importDatabase(java.lang.String, java.io.File)
+	 */
+	@Override
+	public int importDatabase( String database, File file ) throws GamePersistenceException
+	{
+		Objects.requireNonNull( file );
+
+		if( Utils.isEmpty( database ) )
+		{
+			throw new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NULL_NAME );
+		}
+
+		try
+		{
+			return new ImportDatabaseAction( database, file ).execute( databaseFullPath ).getResult();
+		}
+		catch( LauncherPersistenceException lpe )
+		{
+			throw (GamePersistenceException)lpe.getException();
+		}
+		finally
+		{
+			invalidateCachedGames( database );
+		}
+	}
+
+	/*
+	 * Discards the cached games of the given databases and rebuilds the search index. This is for changes that cannot
+	 * be applied to the index game by game
+	 */
+	private void invalidateCachedGames( String... databases )
+	{
+		removeCachedGames( databases );
+
+		GameSearchIndexRegistry.invalidate( databaseFullPath );
+	}
+
+	private void removeCachedGames( String... databases )
+	{
+		synchronized( cachedGames )
+		{
+			for( String database: databases )
+			{
+				cachedGames.remove( database );
+			}
+			cacheGeneration++;
+		}
+	}
+
+	private void removeAllCachedGames()
+	{
+		synchronized( cachedGames )
+		{
+			cachedGames.clear();
+			cacheGeneration++;
+		}
+	}
 }
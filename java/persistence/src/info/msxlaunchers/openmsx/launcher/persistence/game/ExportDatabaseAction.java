@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
+import info.msxlaunchers.openmsx.launcher.persistence.GameBackupRowWriter;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class to export the games of a database to a file in <code>DatabaseExportFormat</code>. The games are streamed
+ * from the database cursor to the file without being loaded in memory
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class ExportDatabaseAction extends NonTransactionalDatabaseOperation<Integer>
+{
+	private static final String GET_GAMES_STATEMENT = "SELECT " + GameBackupRowWriter.GAME_COLUMNS + " FROM game WHERE IDDB=?";
+
+	private final String database;
+	private final File file;
+
+	ExportDatabaseAction( String database, File file )
+	{
+		this.database = database;
+		this.file = file;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation#executeNonTransactionalOperation(java.sql.Connection)
+	 */
+	@Override
+	public ExportDatabaseResponse executeNonTransactionalOperation( Connection connection ) throws LauncherPersistenceException
+	{
+		long databaseId = getDatabaseId( connection, database );
+
+		if( databaseId == 0 )
+		{
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, database ) );
+		}
+
+		//the games are written to a temporary file that replaces the target only when the export is complete,
+		//so a failed export does not leave a truncated file in place of an existing one
+		File tmpFile = new File( file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp" );
+		int exportedGames = 0;
+
+		try( PreparedStatement statement = connection.prepareStatement( GET_GAMES_STATEMENT ) )
+		{
+			statement.setLong( 1, databaseId );
+
+			try( ResultSet games = statement.executeQuery();
+					DataOutputStream output = new DataOutputStream( new BufferedOutputStream(
+							new GZIPOutputStream( new FileOutputStream( tmpFile ), DatabaseExportFormat.BUFFER_SIZE ), DatabaseExportFormat.BUFFER_SIZE ) ) )
+			{
+				ResultSetMetaData metaData = games.getMetaData();
+				int[] types = writeHeader( output, metaData );
+
+				while( games.next() )
+				{
+					output.writeByte( DatabaseExportFormat.ROW_MARKER );
+					for( int index = 0; index < types.length; index++ )
+					{
+						DatabaseExportFormat.writeValue( output, games, index + 1, types[index] );
+					}
+					exportedGames++;
+				}
+
+				output.writeByte( DatabaseExportFormat.END_MARKER );
+				output.writeInt( exportedGames );
+			}
+
+			Files.move( tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+		}
+		catch( SQLException | IOException e )
+		{
+			LauncherLogger.logException( this, e );
+			tmpFile.delete();
+
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		}
+
+		return new ExportDatabaseResponse( exportedGames );
+	}
+
+	private int[] writeHeader( DataOutputStream output, ResultSetMetaData metaData ) throws SQLException, IOException
+	{
+		int[] types = new int[metaData.getColumnCount()];
+
+		output.writeInt( DatabaseExportFormat.FORMAT_MARKER );
+		output.writeInt( DatabaseExportFormat.VERSION );
+		output.writeInt( types.length );
+
+		for( int index = 0; index < types.length; index++ )
+		{
+			types[index] = metaData.getColumnType( index + 1 );
+
+			output.writeUTF( metaData.getColumnName( index + 1 ) );
+			output.writeInt( types[index] );
+		}
+
+		return types;
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterFactory;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterType;
+import info.msxlaunchers.openmsx.launcher.data.filter.RangeFilter;
+import info.msxlaunchers.openmsx.launcher.data.filter.Value1Field;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.MSXGeneration;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Sound;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.VideoSource;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Translates filters that only depend on game columns into a WHERE clause for the game table.
+ * Filters of the same type are combined with OR and different types are combined with AND, the same way
+ * <code>CompiledFilter</code> combines them. A filter type is translated only if all its filters can be translated.
+ * Filters that need repository data (company, country and year) are never translated
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class GameFilterTranslator
+{
+	private static final Map<MSXGeneration,String> GENERATION_COLUMNS = new EnumMap<>( MSXGeneration.class );
+	private static final Map<Sound,String> SOUND_COLUMNS = new EnumMap<>( Sound.class );
+	private static final Map<Medium,String> MEDIUM_CONDITIONS = new EnumMap<>( Medium.class );
+
+	static
+	{
+		GENERATION_COLUMNS.put( MSXGeneration.MSX, "msx" );
+		GENERATION_COLUMNS.put( MSXGeneration.MSX2, "msx2" );
+		GENERATION_COLUMNS.put( MSXGeneration.MSX2Plus, "msx2plus" );
+		GENERATION_COLUMNS.put( MSXGeneration.TURBO_R, "turbo_r" );
+
+		SOUND_COLUMNS.put( Sound.PSG, "psg" );
+		SOUND_COLUMNS.put( Sound.SCC, "scc" );
+		SOUND_COLUMNS.put( Sound.SCC_I, "scc_i" );
+		SOUND_COLUMNS.put( Sound.PCM, "pcm" );
+		SOUND_COLUMNS.put( Sound.MSX_MUSIC, "msx_music" );
+		SOUND_COLUMNS.put( Sound.MSX_AUDIO, "msx_audio" );
+		SOUND_COLUMNS.put( Sound.MOONSOUND, "moonsound" );
+		SOUND_COLUMNS.put( Sound.MIDI, "midi" );
+
+		//each medium is the previous one negated and its own column being set, the same way Game defines them
+		MEDIUM_CONDITIONS.put( Medium.ROM, "romA IS NOT NULL" );
+		MEDIUM_CONDITIONS.put( Medium.DISK, "(romA IS NULL AND diskA IS NOT NULL)" );
+		MEDIUM_CONDITIONS.put( Medium.TAPE, getNextMediumCondition( MEDIUM_CONDITIONS.get( Medium.DISK ), "tape" ) );
+		MEDIUM_CONDITIONS.put( Medium.HARDDISK, getNextMediumCondition( MEDIUM_CONDITIONS.get( Medium.TAPE ), "harddisk" ) );
+		MEDIUM_CONDITIONS.put( Medium.LASERDISC, getNextMediumCondition( MEDIUM_CONDITIONS.get( Medium.HARDDISK ), "laserdisc" ) );
+		MEDIUM_CONDITIONS.put( Medium.SCRIPT, getNextMediumCondition( MEDIUM_CONDITIONS.get( Medium.LASERDISC ), "tcl_script" ) );
+	}
+
+	private final String whereClause;
+	private final List<Long> parameters;
+	private final Set<Filter> translatedFilters;
+
+	private GameFilterTranslator( String whereClause, List<Long> parameters, Set<Filter> translatedFilters )
+	{
+		this.whereClause = whereClause;
+		this.parameters = parameters;
+		this.translatedFilters = translatedFilters;
+	}
+
+	/**
+	 * Translates the given filters
+	 * 
+	 * @param filters Set of filters. Cannot be null
+	 * @return Translator holding the WHERE clause of the filters that could be translated
+	 */
+	static GameFilterTranslator translate( Set<Filter> filters )
+	{
+		Objects.requireNonNull( filters );
+
+		Map<FilterType,List<Filter>> filtersByType = new EnumMap<>( FilterType.class );
+		for( Filter filter: filters )
+		{
+			filtersByType.computeIfAbsent( FilterFactory.getFilterType( filter ), k -> new ArrayList<>() ).add( filter );
+		}
+
+		StringBuilder whereClause = new StringBuilder();
+		List<Long> parameters = new ArrayList<>();
+		Set<Filter> translatedFilters = new HashSet<>();
+
+		for( Map.Entry<FilterType,List<Filter>> entry: filtersByType.entrySet() )
+		{
+			StringJoiner typeCondition = new StringJoiner( " OR ", " AND (", ")" );
+			List<Long> typeParameters = new ArrayList<>();
+
+			boolean translated = true;
+			for( int ix = 0; ix < entry.getValue().size() && translated; ix++ )
+			{
+				String condition = getCondition( entry.getKey(), entry.getValue().get( ix ), typeParameters );
+
+				if( condition == null )
+				{
+					translated = false;
+				}
+				else
+				{
+					typeCondition.add( condition );
+				}
+			}
+
+			if( translated )
+			{
+				whereClause.append( typeCondition );
+				parameters.addAll( typeParameters );
+				translatedFilters.addAll( entry.getValue() );
+			}
+		}
+
+		return new GameFilterTranslator( whereClause.toString(), Collections.unmodifiableList( parameters ),
+				Collections.unmodifiableSet( translatedFilters ) );
+	}
+
+	/**
+	 * @return Conditions to append to a WHERE clause on the game table, each starting with AND. Empty if no filter could be translated
+	 */
+	String getWhereClause()
+	{
+		return whereClause;
+	}
+
+	/**
+	 * @return Filters that are part of the WHERE clause
+	 */
+	Set<Filter> getTranslatedFilters()
+	{
+		return translatedFilters;
+	}
+
+	/**
+	 * Sets the parameters of the WHERE clause on the given statement
+	 * 
+	 * @param statement Statement that contains the WHERE clause
+	 * @param firstIndex Index of the first parameter of the WHERE clause in the statement
+	 * @throws SQLException
+	 */
+	void setParameters( PreparedStatement statement, int firstIndex ) throws SQLException
+	{
+		for( int ix = 0; ix < parameters.size(); ix++ )
+		{
+			statement.setLong( firstIndex + ix, parameters.get( ix ) );
+		}
+	}
+
+	private static String getCondition( FilterType type, Filter filter, List<Long> parameters )
+	{
+		String condition = null;
+
+		switch( type )
+		{
+			case SIZE:
+				condition = getSizeCondition( (RangeFilter)filter, parameters );
+				break;
+			case GENERATION:
+				condition = GENERATION_COLUMNS.get( MSXGeneration.valueOf( getValue( filter ) ) ) + " = true";
+				break;
+			case SOUND:
+				condition = SOUND_COLUMNS.get( Sound.valueOf( getValue( filter ) ) ) + " = true";
+				break;
+			case MEDIUM:
+				condition = MEDIUM_CONDITIONS.get( Medium.valueOf( getValue( filter ) ) );
+				break;
+			case GENRE:
+				condition = getGenreCondition( Genre.valueOf( getValue( filter ) ), parameters );
+				break;
+			case VIDEO_SOURCE:
+				//the column is read as false when it is null
+				condition = VideoSource.valueOf( getValue( filter ) ) == VideoSource.GFX9000 ?
+						"connect_gfx9000 = true" : "(connect_gfx9000 = false OR connect_gfx9000 IS NULL)";
+				break;
+			default:
+				//needs repository data
+				break;
+		}
+
+		return condition;
+	}
+
+	private static String getSizeCondition( RangeFilter filter, List<Long> parameters )
+	{
+		long lowerBound = filter.getLowerBound();
+		long upperBound = filter.getUpperBound();
+
+		parameters.add( lowerBound );
+		parameters.add( upperBound );
+
+		//the column is read as 0 when it is null
+		if( lowerBound <= 0 && upperBound >= 0 )
+		{
+			return "(size BETWEEN ? AND ? OR size IS NULL)";
+		}
+		else
+		{
+			return "size BETWEEN ? AND ?";
+		}
+	}
+
+	private static String getGenreCondition( Genre genre, List<Long> parameters )
+	{
+		//unknown genre matches null and out of range values too, leave it to the caller
+		if( genre == Genre.UNKNOWN )
+		{
+			return null;
+		}
+
+		parameters.add( (long)genre.getValue() );
+		parameters.add( (long)genre.getValue() );
+
+		return "(genre1 = ? OR genre2 = ?)";
+	}
+
+	private static String getValue( Filter filter )
+	{
+		return FilterFactory.getAnnotatedFieldValue( filter, Value1Field.class );
+	}
+
+	private static String getNextMediumCondition( String previousMediumCondition, String column )
+	{
+		return "(NOT " + previousMediumCondition + " AND " + column + " IS NOT NULL)";
+	}
+}
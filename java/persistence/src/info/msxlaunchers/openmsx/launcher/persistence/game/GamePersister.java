@@ -18,12 +18,18 @@ package info.msxlaunchers.openmsx.launcher.persistence.game;
 import info.msxlaunchers.openmsx.common.ActionDecider;
 import info.msxlaunchers.openmsx.launcher.data.backup.DatabaseBackup;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
+import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
+import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.GameSummary;
 import info.msxlaunchers.openmsx.launcher.data.game.RelatedGame;
 
+import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 /**
  * Interface to provide operation on databases and game persistence
@@ -126,6 +132,50 @@ public interface GamePersister
 	 */
 	Set<Game> getGames( String database ) throws GamePersistenceException;
 
+	/**
+	 * Returns the games in a given database that pass the filters that only depend on game data, which are evaluated
+	 * by the database. Filters that need repository data are not applied so callers still have to apply them
+	 * 
+	 * @param database Name of database
+	 * @param filters Set of filters. Cannot be null
+	 * @return Unmodifiable Set containing Game objects found in the given database. If no games were found, then an empty Set is returned
+	 * @throws GamePersistenceException
+	 * @since v1.14
+	 */
+	Set<Game> getGames( String database, Set<Filter> filters ) throws GamePersistenceException;
+
+	/**
+	 * Returns summaries of all games in a given database. This is cheaper than <code>getGames</code> as only the name,
+	 * SHA1 code, size and medium of each game are read
+	 * 
+	 * @param database Name of database
+	 * @return Unmodifiable Set containing GameSummary objects found in the given database. If no games were found, then an empty Set is returned
+	 * @throws GamePersistenceException
+	 * @since v1.14
+	 */
+	Set<GameSummary> getGameSummaries( String database ) throws GamePersistenceException;
+
+	/**
+	 * Returns the number of games in a given database without reading them
+	 * 
+	 * @param database Name of database
+	 * @return Number of games in the given database
+	 * @throws GamePersistenceException
+	 * @since v1.14
+	 */
+	int getGameCount( String database ) throws GamePersistenceException;
+
+	/**
+	 * Returns a single game in a given database
+	 * 
+	 * @param name Name of game
+	 * @param database Name of database
+	 * @return Game object with the given name or null if the database does not contain it
+	 * @throws GamePersistenceException
+	 * @since v1.14
+	 */
+	Game getGame( String name, String database ) throws GamePersistenceException;
+
 	/**
 	 * Saves a game in a given database
 	 * 
@@ -144,6 +194,19 @@ public interface GamePersister
 	 */
 	void saveGames( Set<Game> games, String database ) throws GamePersistenceException;
 
+	/**
+	 * Opens a writer that saves games in a given database in chunks, each committed in its own transaction.
+	 * Unlike <code>saveGames</code>, games whose names already exist in the database are skipped instead of aborting
+	 * the operation, and the chunks committed before a failure remain in the database
+	 * 
+	 * @param database Name of database
+	 * @param chunkSize Number of games committed in one transaction. Must be positive
+	 * @param progressListener Receives the total number of saved games after every chunk. Can be null
+	 * @return GameWriter that must be closed to save the last chunk
+	 * @since v1.14
+	 */
+	GameWriter openGameWriter( String database, int chunkSize, IntConsumer progressListener );
+
 	/**
 	 * Updates a game by replacing the old one with a new one
 	 * 
@@ -203,4 +266,35 @@ public interface GamePersister
 	 * @return
 	 */
 	List<RelatedGame> getRelatedGamesWithLauncherLinks( List<RelatedGame> relatedGames )  throws GamePersistenceException;
+
+	/**
+	 * Returns the launcher games that match the given MSX Generations IDs. All IDs are resolved in as few queries as possible
+	 * 
+	 * @param msxGenIds MSX Generations IDs to look for. Cannot be null
+	 * @return Unmodifiable map of each matched ID to the database item of its game. IDs that do not match any game are not in the map
+	 * @throws GamePersistenceException
+	 */
+	Map<Integer,DatabaseItem> getDatabaseItemsByMsxGenIds( Collection<Integer> msxGenIds ) throws GamePersistenceException;
+
+	/**
+	 * Exports all games of the given database to a compressed file. The games are streamed to the file without being loaded in memory,
+	 * and their SHA1 codes and sizes are exported with them
+	 * 
+	 * @param database Database name. Cannot be null
+	 * @param file File to export to. It is overwritten if it exists. Cannot be null
+	 * @return Number of exported games
+	 * @throws GamePersistenceException
+	 */
+	int exportDatabase( String database, File file ) throws GamePersistenceException;
+
+	/**
+	 * Imports a file exported by <code>exportDatabase</code> into a new database. The file is streamed into the database
+	 * and no game file is hashed again. Nothing is imported if the file cannot be fully read
+	 * 
+	 * @param database Name of the database to create. Cannot be null
+	 * @param file File to import from. Cannot be null
+	 * @return Number of imported games
+	 * @throws GamePersistenceException
+	 */
+	int importDatabase( String database, File file ) throws GamePersistenceException;
 }
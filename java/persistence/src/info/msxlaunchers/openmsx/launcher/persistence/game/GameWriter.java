@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+
+import java.util.Set;
+
+/**
+ * Writer that saves a stream of games in a database in chunks. Each chunk is committed in its own transaction so
+ * the games do not have to be held in memory until the end of a long operation, and the committed chunks are kept
+ * if the operation does not complete. Games whose names already exist in the database are skipped and reported
+ * instead of aborting the operation
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public interface GameWriter extends AutoCloseable
+{
+	/**
+	 * Default number of games committed in one transaction
+	 */
+	int DEFAULT_CHUNK_SIZE = 500;
+
+	/**
+	 * Adds a game to the current chunk and commits the chunk if it is full
+	 * 
+	 * @param game Game object
+	 * @throws GamePersistenceException
+	 */
+	void write( Game game ) throws GamePersistenceException;
+
+	/**
+	 * Commits the games of the current chunk
+	 * 
+	 * @throws GamePersistenceException
+	 */
+	void flush() throws GamePersistenceException;
+
+	/**
+	 * Returns the number of games saved so far
+	 * 
+	 * @return Number of saved games
+	 */
+	int getWrittenGamesCount();
+
+	/**
+	 * Returns the names of the games that were not saved because the database already contains games with the same names
+	 * 
+	 * @return Unmodifiable Set containing names of duplicate games in the order they were written
+	 */
+	Set<String> getDuplicateGames();
+
+	/**
+	 * Commits the games of the current chunk. Writing games after closing the writer is not allowed
+	 * 
+	 * @throws GamePersistenceException
+	 */
+	@Override
+	void close() throws GamePersistenceException;
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
+import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class to get the launcher games that match given MSX Generations IDs. All IDs are resolved with one
+ * <code>IN</code> query per chunk of IDs instead of one query per ID
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class GetDatabaseItemsByMsxGenIdsAction extends NonTransactionalDatabaseOperation<Map<Integer,DatabaseItem>>
+{
+	private static final String GET_GAMES_BY_MSX_GENIDS_STATEMENT = "SELECT g.msx_genid, g.name, d.name FROM game g join database d on g.IDDB=d.ID " +
+			"WHERE g.msx_genid IN (%s) ORDER BY d.name, g.name";
+	private static final int MAXIMUM_IDS_PER_QUERY = 500;
+
+	private final Collection<Integer> msxGenIds;
+
+	GetDatabaseItemsByMsxGenIdsAction( Collection<Integer> msxGenIds )
+	{
+		this.msxGenIds = msxGenIds;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.NonTransactionalDatabaseOperation#executeNonTransactionalOperation(java.sql.Connection)
+	 */
+	@Override
+	public DatabaseResponse<Map<Integer,DatabaseItem>> executeNonTransactionalOperation( Connection connection ) throws LauncherPersistenceException
+	{
+		Map<Integer,DatabaseItem> databaseItems = new HashMap<>();
+		List<Integer> ids = new ArrayList<>( new LinkedHashSet<>( msxGenIds ) );
+
+		for( int index = 0; index < ids.size(); index += MAXIMUM_IDS_PER_QUERY )
+		{
+			addDatabaseItems( connection, ids.subList( index, Math.min( index + MAXIMUM_IDS_PER_QUERY, ids.size() ) ), databaseItems );
+		}
+
+		return new GetDatabaseItemsByMsxGenIdsResponse( Collections.unmodifiableMap( databaseItems ) );
+	}
+
+	private void addDatabaseItems( Connection connection, List<Integer> ids, Map<Integer,DatabaseItem> databaseItems ) throws LauncherPersistenceException
+	{
+		String placeholders = String.join( ",", Collections.nCopies( ids.size(), "?" ) );
+
+		try( PreparedStatement statement = connection.prepareStatement( String.format( GET_GAMES_BY_MSX_GENIDS_STATEMENT, placeholders ) ) )
+		{
+			for( int index = 0; index < ids.size(); index++ )
+			{
+				statement.setInt( index + 1, ids.get( index ) );
+			}
+
+			try( ResultSet result = statement.executeQuery() )
+			{
+				while( result.next() )
+				{
+					//when more than one game has the same ID, the first by database and game name is linked
+					databaseItems.putIfAbsent( result.getInt( 1 ), new DatabaseItem( result.getString( 2 ), result.getString( 3 ) ) );
+				}
+			}
+		}
+		catch( SQLException se )
+		{
+			LauncherLogger.logException( this, se );
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		}
+	}
+}
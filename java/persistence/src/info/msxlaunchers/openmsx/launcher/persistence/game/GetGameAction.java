@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
+import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Class to get a single game by name in a given database
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class GetGameAction extends NonTransactionalDatabaseOperation<Game>
+{
+	private static final String GET_GAME_STATEMENT = "SELECT * FROM game WHERE IDDB=? AND name=?";
+
+	private final String name;
+	private final String database;
+
+	GetGameAction( String name, String database )
+	{
+		this.name = name;
+		this.database = database;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.NonTransactionalDatabaseOperation#executeNonTransactionalOperation(java.sql.Connection)
+	 */
+	@Override
+	public DatabaseResponse<Game> executeNonTransactionalOperation( Connection connection ) throws LauncherPersistenceException
+	{
+		Game game = null;
+
+		long databaseId = getDatabaseId( connection, database );
+
+		try( PreparedStatement statement = connection.prepareStatement( GET_GAME_STATEMENT ) )
+		{
+			statement.setLong( 1, databaseId );
+			statement.setString( 2, name );
+
+			try( ResultSet result = statement.executeQuery() )
+			{
+				if( result.next() )
+				{
+					game = GetGamesAction.getGameFromResultSet( result );
+				}
+			}
+		}
+		catch( SQLException se )
+		{
+			//there's no valid reason for this so ignore - method will return null
+			LauncherLogger.logException( this, se );
+		}
+
+		return new GetGameResponse( game );
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
+import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Class to count the games in a given database without reading them
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class GetGameCountAction extends NonTransactionalDatabaseOperation<Integer>
+{
+	private static final String GET_GAME_COUNT_STATEMENT = "SELECT COUNT(*) FROM game WHERE IDDB=?";
+
+	private final String database;
+
+	GetGameCountAction( String database )
+	{
+		this.database = database;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.NonTransactionalDatabaseOperation#executeNonTransactionalOperation(java.sql.Connection)
+	 */
+	@Override
+	public DatabaseResponse<Integer> executeNonTransactionalOperation( Connection connection ) throws LauncherPersistenceException
+	{
+		int gameCount = 0;
+
+		long databaseId = getDatabaseId( connection, database );
+
+		try( PreparedStatement statement = connection.prepareStatement( GET_GAME_COUNT_STATEMENT ) )
+		{
+			statement.setLong( 1, databaseId );
+
+			try( ResultSet result = statement.executeQuery() )
+			{
+				result.next();
+
+				gameCount = result.getInt( 1 );
+			}
+		}
+		catch( SQLException se )
+		{
+			LauncherLogger.logException( this, se );
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		}
+
+		return new GetGameCountResponse( gameCount );
+	}
+}
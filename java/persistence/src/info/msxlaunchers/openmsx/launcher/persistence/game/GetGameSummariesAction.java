@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.data.game.GameSummary;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
+import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Class to get summaries of all games in a given database. Only the columns needed to list the games are read,
+ * and the medium is resolved by the database so the media paths are never transferred
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class GetGameSummariesAction extends NonTransactionalDatabaseOperation<Set<GameSummary>>
+{
+	//the medium precedence must match GameSummary.getMedium()
+	private static final String GET_ALL_GAME_SUMMARIES_STATEMENT = "SELECT name, sha1, size, msx_genid, screenshot_suffix, " +
+			"CASE WHEN romA IS NOT NULL THEN 0 " +
+			"WHEN diskA IS NOT NULL THEN 1 " +
+			"WHEN tape IS NOT NULL THEN 2 " +
+			"WHEN harddisk IS NOT NULL THEN 3 " +
+			"WHEN laserdisc IS NOT NULL THEN 4 " +
+			"WHEN tcl_script IS NOT NULL THEN 5 " +
+			"ELSE -1 END AS medium " +
+			"FROM game WHERE IDDB=?";
+
+	private static final Medium[] MEDIUMS = { Medium.ROM, Medium.DISK, Medium.TAPE, Medium.HARDDISK, Medium.LASERDISC, Medium.SCRIPT };
+
+	private final String database;
+
+	GetGameSummariesAction( String database )
+	{
+		this.database = database;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.NonTransactionalDatabaseOperation#executeNonTransactionalOperation(java.sql.Connection)
+	 */
+	@Override
+	public DatabaseResponse<Set<GameSummary>> executeNonTransactionalOperation( Connection connection ) throws LauncherPersistenceException
+	{
+		Set<GameSummary> gameSummaries = new HashSet<>();
+
+		long databaseId = getDatabaseId( connection, database );
+
+		try( PreparedStatement statement = connection.prepareStatement( GET_ALL_GAME_SUMMARIES_STATEMENT ) )
+		{
+			statement.setLong( 1, databaseId );
+
+			try( ResultSet result = statement.executeQuery() )
+			{
+				while( result.next() )
+				{
+					int medium = result.getInt( "medium" );
+
+					gameSummaries.add( new GameSummary( result.getString( "name" ),
+							result.getString( "sha1" ),
+							result.getLong( "size" ),
+							medium < 0 ? null : MEDIUMS[medium],
+							result.getInt( "msx_genid" ),
+							result.getString( "screenshot_suffix" ) ) );
+				}
+			}
+		}
+		catch( SQLException se )
+		{
+			//there's no valid reason for this so ignore - method will return an empty Set
+			LauncherLogger.logException( this, se );
+		}
+
+		return new GetGameSummariesResponse( Collections.unmodifiableSet( gameSummaries ) );
+	}
+}
@@ -33,7 +33,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * Class to get all games in a given database
+ * Class to get all games in a given database, optionally only the ones that pass the filters that the database can evaluate
  * 
  * @since v1.4
  * @author Sam Elsharif
@@ -44,10 +44,17 @@ final class GetGamesAction extends NonTransactionalDatabaseOperation<Set<Game>>
 	private static final String GET_ALL_GAMES_STATEMENT = "SELECT * FROM game WHERE IDDB=?";
 
 	private final String database;
+	private final GameFilterTranslator filterTranslator;
 
 	GetGamesAction( String database )
+	{
+		this( database, null );
+	}
+
+	GetGamesAction( String database, GameFilterTranslator filterTranslator )
 	{
 		this.database = database;
+		this.filterTranslator = filterTranslator;
 	}
 
 	/* (non-Javadoc)
@@ -60,9 +67,15 @@ final class GetGamesAction extends NonTransactionalDatabaseOperation<Set<Game>>
 
 		long databaseId = getDatabaseId( connection, database );
 
-		try( PreparedStatement statement = connection.prepareStatement( GET_ALL_GAMES_STATEMENT ) )
+		String query = filterTranslator == null ? GET_ALL_GAMES_STATEMENT : GET_ALL_GAMES_STATEMENT + filterTranslator.getWhereClause();
+
+		try( PreparedStatement statement = connection.prepareStatement( query ) )
 		{
 			statement.setLong( 1, databaseId );
+			if( filterTranslator != null )
+			{
+				filterTranslator.setParameters( statement, 2 );
+			}
 
 			try( ResultSet result = statement.executeQuery() )
 			{
@@ -81,7 +94,7 @@ final class GetGamesAction extends NonTransactionalDatabaseOperation<Set<Game>>
 		return new GetGamesResponse( Collections.unmodifiableSet( games ) );
 	}
 
-	private Game getGameFromResultSet( ResultSet result ) throws SQLException
+	static Game getGameFromResultSet( ResultSet result ) throws SQLException
 	{
 		return Game.name( result.getString( "name" ) )
 				.info( result.getString( "info" ) )
@@ -17,18 +17,16 @@ package info.msxlaunchers.openmsx.launcher.persistence.game;
 
 import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.RelatedGame;
-import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Class to get an updated list of related games that contain the launcher game's name and database if it exists in the launcher
@@ -39,8 +37,6 @@ import java.util.List;
  */
 final class GetRelatedGamesWithLauncherLinksAction extends NonTransactionalDatabaseOperation<List<RelatedGame>>
 {
-	private static final String GET_RELATED_GAMES_STATEMENT = "SELECT g.name, d.name FROM game g join database d on g.IDDB=d.ID WHERE g.msx_genid=?";
-
 	private final List<RelatedGame> relatedGames;
 
 	GetRelatedGamesWithLauncherLinksAction( List<RelatedGame> relatedGames )
@@ -56,32 +52,22 @@ final class GetRelatedGamesWithLauncherLinksAction extends NonTransactionalDatab
 	{
 		List<RelatedGame> updatedRelatedGames = new ArrayList<>( relatedGames.size() );
 
+		//all related games are resolved in one query instead of one per game
+		Map<Integer,DatabaseItem> databaseItems = new GetDatabaseItemsByMsxGenIdsAction( relatedGames.stream()
+				.map( RelatedGame::getMSXGenId ).collect( Collectors.toList() ) ).executeNonTransactionalOperation( connection ).getResult();
+
 		for( RelatedGame relatedGame: relatedGames )
 		{
-			try( PreparedStatement statement = connection.prepareStatement( GET_RELATED_GAMES_STATEMENT ) )
-			{
-				statement.setInt( 1, relatedGame.getMSXGenId() );
+			DatabaseItem databaseItem = databaseItems.get( relatedGame.getMSXGenId() );
 
-				try( ResultSet result = statement.executeQuery() )
-				{
-					if( result.next() )
-					{
-						DatabaseItem databaseItem = new DatabaseItem( result.getString( 1 ), result.getString( 2 ) );
-						RelatedGame updatedRelatedGame = new RelatedGame( relatedGame.getGameName(), relatedGame.getCompany(),
-								relatedGame.getYear(), relatedGame.getMSXGenId(), databaseItem );
-						updatedRelatedGames.add( updatedRelatedGame );
-					}
-					else
-					{
-						updatedRelatedGames.add( relatedGame );
-					}
-				}
-			}
-			catch( SQLException se )
+			if( databaseItem == null )
 			{
-				//No reason for this to happen but if it does return the same relatedObject
 				updatedRelatedGames.add( relatedGame );
-				LauncherLogger.logException( this, se );
+			}
+			else
+			{
+				updatedRelatedGames.add( new RelatedGame( relatedGame.getGameName(), relatedGame.getCompany(),
+						relatedGame.getYear(), relatedGame.getMSXGenId(), databaseItem ) );
 			}
 		}
 
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.game;
+
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
+import info.msxlaunchers.openmsx.launcher.persistence.GameBackupRowWriter;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOperation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Class to import games from a file in <code>DatabaseExportFormat</code> into a new database. The games are streamed
+ * from the file to the database in batches, and their stored SHA1 codes and sizes are kept so no file is hashed again
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class ImportDatabaseAction extends TransactionalDatabaseOperation<Integer>
+{
+	private static final String INSERT_GAME_STATEMENT = "INSERT INTO game (%s, IDDB) VALUES (%s?)";
+
+	//column names read from the file are only put in the insert statement if they are game content columns
+	private static final Set<String> IMPORTABLE_COLUMNS = Arrays.stream( GameBackupRowWriter.GAME_COLUMNS.split( "," ) )
+			.map( column -> column.trim().toUpperCase() )
+			.collect( Collectors.toSet() );
+
+	private final String database;
+	private final File file;
+
+	ImportDatabaseAction( String database, File file )
+	{
+		this.database = database;
+		this.file = file;
+	}
+
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOperation#executeTransactionalOperation(java.sql.Connection)
+	 */
+	@Override
+	public ImportDatabaseResponse executeTransactionalOperation( Connection connection ) throws LauncherPersistenceException
+	{
+		new CreateDatabaseAction( database ).executeTransactionalOperation( connection );
+
+		long databaseId = getDatabaseId( connection, database );
+		int importedGames = 0;
+
+		try( DataInputStream input = new DataInputStream( new BufferedInputStream(
+				new GZIPInputStream( new FileInputStream( file ), DatabaseExportFormat.BUFFER_SIZE ), DatabaseExportFormat.BUFFER_SIZE ) ) )
+		{
+			int columnCount = readHeader( input );
+			String[] columns = new String[columnCount];
+			int[] types = new int[columnCount];
+
+			readColumns( input, columns, types );
+
+			try( PreparedStatement statement = connection.prepareStatement( String.format( INSERT_GAME_STATEMENT,
+					String.join( ", ", columns ), String.join( "", Collections.nCopies( columnCount, "?, " ) ) ) ) )
+			{
+				int batchSize = 0;
+
+				while( input.readByte() == DatabaseExportFormat.ROW_MARKER )
+				{
+					for( int index = 0; index < types.length; index++ )
+					{
+						DatabaseExportFormat.readValue( input, statement, index + 1, types[index] );
+					}
+					statement.setLong( types.length + 1, databaseId );
+					statement.addBatch();
+					importedGames++;
+
+					if( ++batchSize == MAXIMUM_BATCH_SIZE )
+					{
+						statement.executeBatch();
+						batchSize = 0;
+					}
+				}
+
+				if( batchSize > 0 )
+				{
+					statement.executeBatch();
+				}
+			}
+
+			if( input.readInt() != importedGames )
+			{
+				throw new IOException( "Incomplete database export" );
+			}
+		}
+		catch( SQLException | IOException e )
+		{
+			//the created database is rolled back with the games
+			forgetDatabaseId( database );
+			LauncherLogger.logException( this, e );
+
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		}
+
+		return new ImportDatabaseResponse( importedGames );
+	}
+
+	private int readHeader( DataInputStream input ) throws IOException
+	{
+		if( input.readInt() != DatabaseExportFormat.FORMAT_MARKER || input.readInt() > DatabaseExportFormat.VERSION )
+		{
+			throw new IOException( "Not a supported database export" );
+		}
+
+		return input.readInt();
+	}
+
+	private void readColumns( DataInputStream input, String[] columns, int[] types ) throws IOException
+	{
+		for( int index = 0; index < columns.length; index++ )
+		{
+			columns[index] = input.readUTF().toUpperCase();
+			types[index] = input.readInt();
+
+			if( !IMPORTABLE_COLUMNS.contains( columns[index] ) || !DatabaseExportFormat.isSupportedType( types[index] ) )
+			{
+				throw new IOException( "Unsupported column: " + columns[index] );
+			}
+		}
+	}
+}
@@ -50,6 +50,8 @@ final class RenameDatabaseAction extends TransactionalDatabaseOperation<Boolean>
 	@Override
 	public DefaultDatabaseResponse executeTransactionalOperation( Connection connection ) throws LauncherPersistenceException
 	{
+		forgetDatabaseId( oldDatabase );
+
 		try( PreparedStatement statement = connection.prepareStatement( RENAME_DATABASE_STATEMENT ) )
 		{
 			statement.setString( 1, newDatabase );
@@ -17,6 +17,7 @@ package info.msxlaunchers.openmsx.launcher.persistence.game;
 
 import info.msxlaunchers.openmsx.launcher.data.backup.DatabaseBackup;
 import info.msxlaunchers.openmsx.launcher.persistence.DefaultDatabaseResponse;
+import info.msxlaunchers.openmsx.launcher.persistence.GameBackupRowWriter;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOperation;
 
@@ -36,16 +37,8 @@ final class RestoreDatabaseBackupAction extends TransactionalDatabaseOperation<B
 {
 	private static final String DELETE_CURRENT_GAMES_STATEMENT = "DELETE FROM game where IDDB=?";
 	private static final String GET_BACKUP_ID_STATEMENT = "SELECT ID FROM database_backup where IDDB=? and time=?";
-	private static final String RESTORE_GAMES_STATEMENT = "INSERT INTO game (name, info, machine, romA, extension_rom, romB, " +
-			"diskA, diskB, tape, harddisk, laserdisc, tcl_script, msx, msx2, msx2plus, turbo_r, " +
-			"psg, scc, scc_i, pcm, msx_music, msx_audio, moonsound, midi, genre1, genre2, msx_genid, screenshot_suffix, sha1, size, " +
-			"IDDB, fdd_mode, tcl_script_override, input_device, connect_gfx9000) " +
-			"SELECT name, info, machine, romA, extension_rom, romB, " +
-			"diskA, diskB, tape, harddisk, laserdisc, tcl_script, " +
-			"msx, msx2, msx2plus, turbo_r, " +
-			"psg, scc, scc_i, pcm, msx_music, msx_audio, moonsound, midi," +
-			"genre1, genre2, msx_genid, screenshot_suffix, sha1, size, ?, fdd_mode, tcl_script_override, input_device, connect_gfx9000 " + 
-			"FROM game_backup where IDDB=?";
+	private static final String RESTORE_GAMES_STATEMENT = "INSERT INTO game (" + GameBackupRowWriter.GAME_COLUMNS + ", IDDB) " +
+			"SELECT " + GameBackupRowWriter.GAME_COLUMNS + ", ? FROM game_backup_row r JOIN game_backup_entry e ON e.hash=r.hash WHERE e.IDBACKUP=?";
 	private static final String DELETE_BACKUP_STATEMENT = "DELETE FROM database_backup where ID=?";
 
 	private final DatabaseBackup backup;
@@ -100,6 +93,9 @@ final class RestoreDatabaseBackupAction extends TransactionalDatabaseOperation<B
 			//finally delete the backup itself since it was restored
 			deleteBackupStatement.setLong( 1, databaseBackupId );
 			deleteBackupStatement.executeUpdate();
+
+			//and the rows that no other backup holds
+			GameBackupRowWriter.deleteUnreferencedRows( connection );
 		}
 		catch( SQLException se )
 		{
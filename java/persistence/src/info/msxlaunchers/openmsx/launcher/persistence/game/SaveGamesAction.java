@@ -20,10 +20,13 @@ import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 import info.msxlaunchers.openmsx.launcher.persistence.DefaultDatabaseResponse;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Class to save given games in a given database
@@ -39,13 +42,27 @@ final class SaveGamesAction extends AbstractPersistGameAction
 			"genre1, genre2, msx_genid, screenshot_suffix, sha1, size, IDDB, fdd_mode, tcl_script_override, input_device, connect_gfx9000) " +
 			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-	private final Set<Game> games;
+	private final Collection<Game> games;
 	private final String database;
+	private final Collection<String> duplicateGames;
 
-	SaveGamesAction( Set<Game> games, String database )
+	SaveGamesAction( Collection<Game> games, String database )
+	{
+		this( games, database, null );
+	}
+
+	/**
+	 * Creates an action that skips games whose names already exist in the database instead of aborting
+	 * 
+	 * @param games Games to save
+	 * @param database Name of database
+	 * @param duplicateGames Collection that receives the names of the skipped games. If null, a duplicate game aborts the action
+	 */
+	SaveGamesAction( Collection<Game> games, String database, Collection<String> duplicateGames )
 	{
 		this.games = games;
 		this.database = database;
+		this.duplicateGames = duplicateGames;
 	}
 
 	/* (non-Javadoc)
@@ -54,41 +71,77 @@ final class SaveGamesAction extends AbstractPersistGameAction
 	@Override
 	public DefaultDatabaseResponse executeTransactionalOperation( Connection connection ) throws LauncherPersistenceException
 	{
-		String duplicateGame = null;
-
 		try( PreparedStatement statement = connection.prepareStatement( INSERT_GAME_STATEMENT ) )
 		{
 			long databaseId = getDatabaseId( connection, database );
 
+			//large sets are sent in several batches to keep the driver's batch small
+			List<Game> batch = new ArrayList<>( Math.min( games.size(), MAXIMUM_BATCH_SIZE ) );
 			for( Game game: games )
 			{
 				validateGame( game );
 
-				//potential duplicate name
-				duplicateGame = game.getName();
-
-				setGameStatementFields( statement, game, databaseId );
+				batch.add( game );
 
-				statement.addBatch();
+				if( batch.size() == MAXIMUM_BATCH_SIZE )
+				{
+					executeBatch( statement, batch, databaseId );
+					batch.clear();
+				}
 			}
 
-			statement.executeBatch();
+			executeBatch( statement, batch, databaseId );
 		}
 		catch( SQLException se )
 		{
-			if( isDuplicateError( se ) )
+			LauncherLogger.logException( this, se );
+
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		}
+
+		return new DefaultDatabaseResponse();
+	}
+
+	private void executeBatch( PreparedStatement statement, List<Game> batch, long databaseId ) throws SQLException, LauncherPersistenceException
+	{
+		int start = 0;
+
+		while( start < batch.size() )
+		{
+			for( int index = start; index < batch.size(); index++ )
 			{
-				//abort the whole operation
-				throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.GAME_ALREADY_EXISTS, duplicateGame ) );
+				setGameStatementFields( statement, batch.get( index ), databaseId );
+
+				statement.addBatch();
 			}
-			else
+
+			try
 			{
-				LauncherLogger.logException( this, se );
+				statement.executeBatch();
 
-				throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+				start = batch.size();
 			}
-		}
+			catch( BatchUpdateException bue )
+			{
+				if( !isDuplicateError( bue ) )
+				{
+					throw bue;
+				}
 
-		return new DefaultDatabaseResponse();
+				//the batch stops at the failing row and only that row is rolled back
+				String duplicateGame = batch.get( start + bue.getUpdateCounts().length ).getName();
+
+				if( duplicateGames == null )
+				{
+					//abort the whole operation
+					throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.GAME_ALREADY_EXISTS, duplicateGame ) );
+				}
+
+				duplicateGames.add( duplicateGame );
+
+				statement.clearBatch();
+				start += bue.getUpdateCounts().length + 1;
+			}
+		}
 	}
 }
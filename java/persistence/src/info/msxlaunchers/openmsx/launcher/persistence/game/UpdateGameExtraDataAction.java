@@ -15,9 +15,8 @@
  */
 package info.msxlaunchers.openmsx.launcher.persistence.game;
 
-import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
-import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
 import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOperation;
@@ -25,13 +24,11 @@ import info.msxlaunchers.openmsx.launcher.persistence.TransactionalDatabaseOpera
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 /**
- * Class to update extra data in all games in all databases
+ * Class to update extra data in all games in all databases. The extra data is first copied to the extra_data
+ * table, which is then joined with the games of all databases in a single update
  * 
  * @since v1.4
  * @author Sam Elsharif
@@ -39,16 +36,26 @@ import java.util.Set;
  */
 final class UpdateGameExtraDataAction extends TransactionalDatabaseOperation<Integer>
 {
-	private static final String UPDATE_GAME_EXTRA_FIELDS_STATEMENT = "UPDATE game SET msx=?, msx2=?, msx2plus=?, turbo_r=?, psg=?, scc=?, scc_i=?, pcm=?," +
-			"msx_music=?, msx_audio=?, moonsound=?, midi=?, genre1=?, genre2=?, msx_genid=?, screenshot_suffix=?" +
-			" WHERE name=? and IDDB=?";
+	private static final String[] FLAG_COLUMNS = { "msx", "msx2", "msx2plus", "turbo_r", "psg", "scc", "scc_i", "pcm",
+			"msx_music", "msx_audio", "moonsound", "midi" };
+	private static final String[] NUMBER_COLUMNS = { "genre1", "genre2", "msx_genid" };
+	private static final String SUFFIX_COLUMN = "screenshot_suffix";
+
+	private static final String DELETE_EXTRA_DATA_STATEMENT = "DELETE FROM extra_data";
+	private static final String INSERT_EXTRA_DATA_STATEMENT = "INSERT INTO extra_data (sha1, msx, msx2, msx2plus, turbo_r, psg, scc, scc_i, pcm," +
+			"msx_music, msx_audio, moonsound, midi, genre1, genre2, msx_genid, screenshot_suffix) " +
+			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	//games with extra data get the values of their SHA1 code's row
+	private static final String MERGE_EXTRA_DATA_STATEMENT = "MERGE INTO game g USING extra_data e ON g.sha1 = e.sha1" +
+			" WHEN MATCHED AND (" + getChangedCondition() + ") THEN UPDATE SET " + getSetClause();
+	//games without extra data get the default values
+	private static final String CLEAR_EXTRA_DATA_STATEMENT = "UPDATE game SET " + getClearClause() +
+			" WHERE (" + getNonDefaultCondition() + ") AND NOT EXISTS (SELECT 1 FROM extra_data e WHERE e.sha1 = game.sha1)";
 
-	private final GameBuilder gameBuilder;
 	private final Map<String,ExtraData> extraDataMap;
 
-	UpdateGameExtraDataAction( GameBuilder gameBuilder, Map<String,ExtraData> extraDataMap )
+	UpdateGameExtraDataAction( Map<String,ExtraData> extraDataMap )
 	{
-		this.gameBuilder = gameBuilder;
 		this.extraDataMap = extraDataMap;
 	}
 
@@ -58,87 +65,150 @@ final class UpdateGameExtraDataAction extends TransactionalDatabaseOperation<Int
 	@Override
 	public UpdateGameExtraDataResponse executeTransactionalOperation( Connection connection ) throws LauncherPersistenceException
 	{
-		Set<String> databases = new GetDatabasesAction().executeNonTransactionalOperation( connection ).getResult();
-
 		int numberUpdatedProfiles = 0;
 
-		Map<String, Set<Game>> updatedGamesMap = new HashMap<>();
-
-		for( String database: databases )
+		try( PreparedStatement deleteStatement = connection.prepareStatement( DELETE_EXTRA_DATA_STATEMENT ) )
 		{
-			boolean databaseFound = false;
-			Set<Game> updatedGames = null;
+			deleteStatement.executeUpdate();
 
-			try
-			{
-				Set<Game> games = new GetGamesAction( database ).executeNonTransactionalOperation( connection ).getResult();
-				databaseFound = true;
-				updatedGames = new HashSet<Game>();
+			insertExtraData( connection );
 
-				for( Game game: games )
-				{
-					Game newGame = gameBuilder.createGameObjectFromGameAndUpdateExtraData( game, extraDataMap );
-
-					//compare new and old to see if the extra data were updated
-					if( !newGame.isExtraDataEqual( game ) )
-					{
-						updatedGames.add( newGame );
-						numberUpdatedProfiles++;
-					}
-				}
-			}
-			catch( LauncherPersistenceException lpe )
+			try( PreparedStatement statement = connection.prepareStatement( MERGE_EXTRA_DATA_STATEMENT ) )
 			{
-				//shouldn't happen in normal circumstances - simply skip - try the next one
-				databaseFound = false;
+				numberUpdatedProfiles += statement.executeUpdate();
 			}
 
-			if( databaseFound )
+			try( PreparedStatement statement = connection.prepareStatement( CLEAR_EXTRA_DATA_STATEMENT ) )
 			{
-				updatedGamesMap.put( database, updatedGames );
+				numberUpdatedProfiles += statement.executeUpdate();
 			}
+
+			//the extra data is only needed during the update
+			deleteStatement.executeUpdate();
 		}
+		catch( SQLException se )
+		{
+			LauncherLogger.logException( this, se );
 
-		try ( PreparedStatement statement = connection.prepareStatement( UPDATE_GAME_EXTRA_FIELDS_STATEMENT ) )
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		}
+
+		return new UpdateGameExtraDataResponse( numberUpdatedProfiles );
+	}
+
+	private void insertExtraData( Connection connection ) throws SQLException
+	{
+		try( PreparedStatement statement = connection.prepareStatement( INSERT_EXTRA_DATA_STATEMENT ) )
 		{
-			for( Map.Entry<String,Set<Game>> entry: updatedGamesMap.entrySet() )
+			int batchSize = 0;
+			for( Map.Entry<String,ExtraData> entry: extraDataMap.entrySet() )
 			{
-				long databaseId = getDatabaseId( connection, entry.getKey() );
+				ExtraData extraData = entry.getValue();
 
-				for( Game game: entry.getValue() )
+				if( entry.getKey() == null || extraData == null )
 				{
-					statement.setBoolean( 1, game.isMSX() );
-					statement.setBoolean( 2, game.isMSX2() );
-					statement.setBoolean( 3, game.isMSX2Plus() );
-					statement.setBoolean( 4, game.isTurboR() );
-					statement.setBoolean( 5, game.isPSG() );
-					statement.setBoolean( 6, game.isSCC() );
-					statement.setBoolean( 7, game.isSCCI() );
-					statement.setBoolean( 8, game.isPCM() );
-					statement.setBoolean( 9, game.isMSXMUSIC() );
-					statement.setBoolean( 10, game.isMSXAUDIO() );
-					statement.setBoolean( 11, game.isMoonsound() );
-					statement.setBoolean( 12, game.isMIDI() );
-					statement.setInt( 13, getGenreEnumValue( game.getGenre1() ) );
-					statement.setInt( 14, getGenreEnumValue( game.getGenre2() ) );
-					statement.setInt( 15,  game.getMsxGenID() );
-					statement.setString( 16 , game.getScreenshotSuffix() );
-					statement.setString( 17, game.getName() );
-					statement.setLong( 18, databaseId );
-
-					statement.addBatch();
+					continue;
+				}
+
+				statement.setString( 1, entry.getKey() );
+				statement.setBoolean( 2, extraData.isMSX() );
+				statement.setBoolean( 3, extraData.isMSX2() );
+				statement.setBoolean( 4, extraData.isMSX2Plus() );
+				statement.setBoolean( 5, extraData.isTurboR() );
+				statement.setBoolean( 6, extraData.isPSG() );
+				statement.setBoolean( 7, extraData.isSCC() );
+				statement.setBoolean( 8, extraData.isSCCI() );
+				statement.setBoolean( 9, extraData.isPCM() );
+				statement.setBoolean( 10, extraData.isMSXMUSIC() );
+				statement.setBoolean( 11, extraData.isMSXAUDIO() );
+				statement.setBoolean( 12, extraData.isMoonsound() );
+				statement.setBoolean( 13, extraData.isMIDI() );
+				//unknown genre values are saved as the default genre, like when games are created
+				statement.setInt( 14, getGenreEnumValue( Genre.fromValue( extraData.getGenre1() ) ) );
+				statement.setInt( 15, getGenreEnumValue( Genre.fromValue( extraData.getGenre2() ) ) );
+				statement.setInt( 16, extraData.getMSXGenerationsID() );
+				statement.setString( 17, extraData.getSuffix() );
+
+				statement.addBatch();
+
+				if( ++batchSize == MAXIMUM_BATCH_SIZE )
+				{
+					statement.executeBatch();
+					batchSize = 0;
 				}
 			}
 
-			statement.executeBatch();
+			if( batchSize > 0 )
+			{
+				statement.executeBatch();
+			}
 		}
-		catch( SQLException se )
+	}
+
+	//null columns in the game table are read as false or 0
+	private static String getChangedCondition()
+	{
+		StringBuilder condition = new StringBuilder();
+
+		for( String column: FLAG_COLUMNS )
 		{
-			LauncherLogger.logException( this, se );
+			condition.append( "COALESCE(g." ).append( column ).append( ", false) <> e." ).append( column ).append( " OR " );
+		}
+		for( String column: NUMBER_COLUMNS )
+		{
+			condition.append( "COALESCE(g." ).append( column ).append( ", 0) <> e." ).append( column ).append( " OR " );
+		}
 
-			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		return condition.append( "(CASE WHEN g." ).append( SUFFIX_COLUMN ).append( " IS NULL THEN e." ).append( SUFFIX_COLUMN ).append( " IS NOT NULL" )
+				.append( " ELSE e." ).append( SUFFIX_COLUMN ).append( " IS NULL OR g." ).append( SUFFIX_COLUMN ).append( " <> e." ).append( SUFFIX_COLUMN )
+				.append( " END)" ).toString();
+	}
+
+	private static String getSetClause()
+	{
+		StringBuilder clause = new StringBuilder();
+
+		for( String column: FLAG_COLUMNS )
+		{
+			clause.append( column ).append( " = e." ).append( column ).append( ", " );
+		}
+		for( String column: NUMBER_COLUMNS )
+		{
+			clause.append( column ).append( " = e." ).append( column ).append( ", " );
 		}
 
-		return new UpdateGameExtraDataResponse( numberUpdatedProfiles );
+		return clause.append( SUFFIX_COLUMN ).append( " = e." ).append( SUFFIX_COLUMN ).toString();
+	}
+
+	private static String getNonDefaultCondition()
+	{
+		StringBuilder condition = new StringBuilder();
+
+		for( String column: FLAG_COLUMNS )
+		{
+			condition.append( column ).append( " OR " );
+		}
+		for( String column: NUMBER_COLUMNS )
+		{
+			condition.append( column ).append( " <> 0 OR " );
+		}
+
+		return condition.append( SUFFIX_COLUMN ).append( " IS NOT NULL" ).toString();
+	}
+
+	private static String getClearClause()
+	{
+		StringBuilder clause = new StringBuilder();
+
+		for( String column: FLAG_COLUMNS )
+		{
+			clause.append( column ).append( " = false, " );
+		}
+		for( String column: NUMBER_COLUMNS )
+		{
+			clause.append( column ).append( " = 0, " );
+		}
+
+		return clause.append( SUFFIX_COLUMN ).append( " = NULL" ).toString();
 	}
 }
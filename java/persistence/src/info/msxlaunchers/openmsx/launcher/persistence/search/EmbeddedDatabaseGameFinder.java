@@ -26,7 +26,8 @@ import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 
 /**
- * Implementation of the <code>GameFinder</code> interface that searches an embedded database.
+ * Implementation of the <code>GameFinder</code> interface that searches an embedded database. The games are read once
+ * into an in-memory index that is kept up to date as games are modified
  * 
  * @since v1.6
  * @author Sam Elsharif
@@ -52,7 +53,7 @@ final class EmbeddedDatabaseGameFinder implements GameFinder
 		{
 			if( !Utils.isEmpty( string ) )
 			{
-				return new GameFinderAction( string, maximumMatches ).execute( databaseFullPath ).getResult();
+				return GameSearchIndexRegistry.get( databaseFullPath ).find( string, maximumMatches );
 			}
 		}
 		catch( LauncherPersistenceException lpe )
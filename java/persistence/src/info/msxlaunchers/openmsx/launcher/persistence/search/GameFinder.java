@@ -29,7 +29,8 @@ import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 public interface GameFinder
 {
 	/**
-	 * Returns a Set of matches for the entered string, up to a maximum, or an empty Set if no matches
+	 * Returns a Set of matches for the entered string, up to a maximum, or an empty Set if no matches. The Set iterates
+	 * over the best matches first, and may include names that match the string with a typo
 	 * 
 	 * @param string String to search (in any field in the database). If null or empty, then return empty set
 	 * @param maximumMatches Maximum number of matches to return
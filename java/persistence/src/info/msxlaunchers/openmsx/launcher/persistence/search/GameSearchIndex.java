@@ -0,0 +1,893 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.search;
+
+import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory index of the games in all databases. Game names and SHA1 codes are kept sorted so that a
+ * prefix match is a binary search, and game names are indexed by their bigrams and trigrams so that a partial match
+ * only checks the games that contain the rarest one of the search string. Matches are ranked: exact name, then name prefix or SHA1 prefix,
+ * then word prefix, then any partial match, and finally names that contain the search string with one or two typos.
+ * Games of the same rank are ordered by shorter name then alphabetically, which is also the order the games are kept
+ * in, so a search can stop as soon as it has found enough of the best matches.
+ * Games added and removed after the index is built are kept aside and applied to the matches, until there are
+ * enough of them to build the index again
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class GameSearchIndex
+{
+	private static final int RANK_EXACT = 0;
+	private static final int RANK_PREFIX = 1;
+	private static final int RANK_WORD_PREFIX = 2;
+	private static final int RANK_PARTIAL = 3;
+	private static final int RANK_ONE_TYPO = 4;
+	private static final int RANK_TWO_TYPOS = 5;
+
+	//a search string must be at least this long to match names with one typo, and twice as long for two typos
+	private static final int MINIMUM_LENGTH_FOR_TYPO = 5;
+
+	//added games are checked one by one, so the index is built again once there are more changes than this or than
+	//an eighth of the indexed games
+	private static final int MINIMUM_CHANGES_TO_REBUILD = 256;
+
+	private final DatabaseItem[] items;
+	private final String[] names;
+	private final String[] sortedNames;
+	private final int[] sortedNameEntries;
+	private final String[] sortedSha1Codes;
+	private final int[] sha1CodeEntries;
+	private final String[] sha1Codes;
+
+	//games removed from and added to the index since it was built. An added game also hides the indexed one with the
+	//same game and database names
+	private final Set<DatabaseItem> removedItems;
+	private final Map<DatabaseItem,String> addedItems;
+
+	//open addressing table of the bigrams and trigrams, and the games that contain each of them
+	private long[] gramKeys;
+	private int[] gramSlots;
+	private int gramsSize;
+	private int[] gramEntriesOffsets;
+	private int[] gramEntries;
+
+	/**
+	 * Builds index for the given games
+	 * 
+	 * @param items Game and database names of all games
+	 * @param sha1Codes SHA1 codes of the games in the same order as the items. A code can be null
+	 */
+	GameSearchIndex( List<DatabaseItem> items, List<String> sha1Codes )
+	{
+		int size = items.size();
+
+		String[] normalizedNames = new String[size];
+		Integer[] order = new Integer[size];
+		for( int index = 0; index < size; index++ )
+		{
+			normalizedNames[index] = normalize( items.get( index ).getGameName() );
+			order[index] = index;
+		}
+		Arrays.sort( order, ( index1, index2 ) -> compareNames( normalizedNames[index1], normalizedNames[index2] ) );
+
+		this.items = new DatabaseItem[size];
+		this.names = new String[size];
+		String[] sha1CodesInOrder = new String[size];
+		int sha1CodesSize = 0;
+		for( int index = 0; index < size; index++ )
+		{
+			this.items[index] = items.get( order[index] );
+			this.names[index] = normalizedNames[order[index]];
+
+			String sha1Code = sha1Codes.get( order[index] );
+			if( sha1Code != null )
+			{
+				sha1CodesInOrder[index] = sha1Code.toLowerCase( Locale.ROOT );
+				sha1CodesSize++;
+			}
+		}
+
+		buildGramEntries();
+
+		Integer[] nameOrder = new Integer[size];
+		for( int index = 0; index < size; index++ )
+		{
+			nameOrder[index] = index;
+		}
+		Arrays.sort( nameOrder, ( index1, index2 ) -> names[index1].compareTo( names[index2] ) );
+
+		this.sortedNames = new String[size];
+		this.sortedNameEntries = new int[size];
+		for( int index = 0; index < size; index++ )
+		{
+			sortedNames[index] = names[nameOrder[index]];
+			sortedNameEntries[index] = nameOrder[index];
+		}
+
+		Integer[] sha1Order = new Integer[sha1CodesSize];
+		for( int index = 0, sha1Index = 0; index < size; index++ )
+		{
+			if( sha1CodesInOrder[index] != null )
+			{
+				sha1Order[sha1Index++] = index;
+			}
+		}
+		Arrays.sort( sha1Order, ( index1, index2 ) -> sha1CodesInOrder[index1].compareTo( sha1CodesInOrder[index2] ) );
+
+		this.sortedSha1Codes = new String[sha1CodesSize];
+		this.sha1CodeEntries = new int[sha1CodesSize];
+		for( int index = 0; index < sha1CodesSize; index++ )
+		{
+			sortedSha1Codes[index] = sha1CodesInOrder[sha1Order[index]];
+			sha1CodeEntries[index] = sha1Order[index];
+		}
+		this.sha1Codes = sha1CodesInOrder;
+
+		this.removedItems = Collections.emptySet();
+		this.addedItems = Collections.emptyMap();
+	}
+
+	private GameSearchIndex( GameSearchIndex index, Set<DatabaseItem> removedItems, Map<DatabaseItem,String> addedItems )
+	{
+		this.items = index.items;
+		this.names = index.names;
+		this.sortedNames = index.sortedNames;
+		this.sortedNameEntries = index.sortedNameEntries;
+		this.sortedSha1Codes = index.sortedSha1Codes;
+		this.sha1CodeEntries = index.sha1CodeEntries;
+		this.sha1Codes = index.sha1Codes;
+		this.gramKeys = index.gramKeys;
+		this.gramSlots = index.gramSlots;
+		this.gramsSize = index.gramsSize;
+		this.gramEntriesOffsets = index.gramEntriesOffsets;
+		this.gramEntries = index.gramEntries;
+
+		this.removedItems = removedItems;
+		this.addedItems = addedItems;
+	}
+
+	/**
+	 * Returns an index with the given changes. This index is not modified, and its arrays are shared with the returned
+	 * one unless there are enough changes to build them again
+	 * 
+	 * @param removedItems Games to remove
+	 * @param addedItems Games to add and their SHA1 codes. A code can be null. An added game replaces the one with
+	 * the same game and database names
+	 * @return Index of the games of this one with the changes
+	 */
+	GameSearchIndex update( Collection<DatabaseItem> removedItems, Map<DatabaseItem,String> addedItems )
+	{
+		Set<DatabaseItem> updatedRemovedItems = new HashSet<>( this.removedItems );
+		Map<DatabaseItem,String> updatedAddedItems = new HashMap<>( this.addedItems );
+
+		for( DatabaseItem item: removedItems )
+		{
+			updatedRemovedItems.add( item );
+			updatedAddedItems.remove( item );
+		}
+
+		for( Map.Entry<DatabaseItem,String> addedItem: addedItems.entrySet() )
+		{
+			updatedRemovedItems.add( addedItem.getKey() );
+			updatedAddedItems.put( addedItem.getKey(), addedItem.getValue() );
+		}
+
+		if( updatedRemovedItems.size() + updatedAddedItems.size() > Math.max( MINIMUM_CHANGES_TO_REBUILD, items.length / 8 ) )
+		{
+			List<DatabaseItem> currentItems = new ArrayList<>( items.length + updatedAddedItems.size() );
+			List<String> currentSha1Codes = new ArrayList<>( items.length + updatedAddedItems.size() );
+			for( int index = 0; index < items.length; index++ )
+			{
+				if( !updatedRemovedItems.contains( items[index] ) )
+				{
+					currentItems.add( items[index] );
+					currentSha1Codes.add( sha1Codes[index] );
+				}
+			}
+			for( Map.Entry<DatabaseItem,String> addedItem: updatedAddedItems.entrySet() )
+			{
+				currentItems.add( addedItem.getKey() );
+				currentSha1Codes.add( addedItem.getValue() );
+			}
+
+			return new GameSearchIndex( currentItems, currentSha1Codes );
+		}
+
+		return new GameSearchIndex( this, updatedRemovedItems, updatedAddedItems );
+	}
+
+	/**
+	 * Returns an index without the games of the given database
+	 * 
+	 * @param database Name of the database
+	 * @return Index of the games of this one that are not in the database
+	 */
+	GameSearchIndex removeDatabase( String database )
+	{
+		List<DatabaseItem> removedItems = new ArrayList<>();
+
+		for( DatabaseItem item: items )
+		{
+			if( item.getDatabase().equals( database ) )
+			{
+				removedItems.add( item );
+			}
+		}
+		for( DatabaseItem item: addedItems.keySet() )
+		{
+			if( item.getDatabase().equals( database ) )
+			{
+				removedItems.add( item );
+			}
+		}
+
+		return update( removedItems, Collections.emptyMap() );
+	}
+
+	/**
+	 * Returns number of indexed games
+	 * 
+	 * @return Number of indexed games
+	 */
+	int size()
+	{
+		int size = addedItems.size();
+
+		for( DatabaseItem item: items )
+		{
+			if( !removedItems.contains( item ) )
+			{
+				size++;
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Returns the best matches for the given string, ordered from best to worst
+	 * 
+	 * @param string String to search in game names and SHA1 codes. Cannot be null or empty
+	 * @param maximumMatches Maximum number of matches to return
+	 * @return Unmodifiable Set of matches whose iteration order is by relevance
+	 */
+	Set<DatabaseItem> find( String string, int maximumMatches )
+	{
+		if( maximumMatches <= 0 )
+		{
+			return Collections.emptySet();
+		}
+
+		String query = normalize( string );
+
+		if( removedItems.isEmpty() && addedItems.isEmpty() )
+		{
+			return findIndexedMatches( query, maximumMatches ).toSet();
+		}
+
+		//removed games can take the place of other matches, so look for as many more
+		List<Match> currentMatches = new ArrayList<>();
+		findIndexedMatches( query, maximumMatches + removedItems.size() ).addCurrentMatches( currentMatches );
+
+		for( Map.Entry<DatabaseItem,String> addedItem: addedItems.entrySet() )
+		{
+			String name = normalize( addedItem.getKey().getGameName() );
+			int rank = getRank( query, name, addedItem.getValue() );
+
+			if( rank >= 0 )
+			{
+				currentMatches.add( new Match( addedItem.getKey(), name, rank ) );
+			}
+		}
+
+		//the sort is stable, so indexed matches keep their order
+		currentMatches.sort( Comparator.<Match>comparingInt( match -> match.rank ).thenComparing( ( match1, match2 ) -> compareNames( match1.name, match2.name ) ) );
+
+		Set<DatabaseItem> set = new LinkedHashSet<>();
+		for( int index = 0; index < currentMatches.size() && set.size() < maximumMatches; index++ )
+		{
+			set.add( currentMatches.get( index ).item );
+		}
+
+		return Collections.unmodifiableSet( set );
+	}
+
+	private Matches findIndexedMatches( String query, int maximumMatches )
+	{
+		Matches matches = new Matches( maximumMatches );
+
+		findPrefixMatches( query, matches );
+		findSha1Matches( query, matches );
+
+		if( !matches.isFull( RANK_PREFIX ) )
+		{
+			findPartialMatches( query, matches );
+		}
+
+		if( matches.size() < maximumMatches && query.length() >= MINIMUM_LENGTH_FOR_TYPO )
+		{
+			findTypoMatches( query, matches );
+		}
+
+		return matches;
+	}
+
+	/*
+	 * Returns the rank of a game that was added after the index was built, or -1 if it doesn't match. This gives the
+	 * same rank as the searches of the indexed games
+	 */
+	private static int getRank( String query, String name, String sha1Code )
+	{
+		if( name.startsWith( query ) )
+		{
+			return name.length() == query.length() ? RANK_EXACT : RANK_PREFIX;
+		}
+
+		if( sha1Code != null && sha1Code.toLowerCase( Locale.ROOT ).startsWith( query ) )
+		{
+			return RANK_PREFIX;
+		}
+
+		int position = name.indexOf( query );
+		if( position > 0 )
+		{
+			return Character.isLetterOrDigit( name.charAt( position - 1 ) ) ? RANK_PARTIAL : RANK_WORD_PREFIX;
+		}
+
+		if( query.length() >= MINIMUM_LENGTH_FOR_TYPO )
+		{
+			int maximumTypos = getMaximumTypos( query );
+			long[] trigrams = getDistinctGrams( query, 3 );
+
+			if( getSharedGramsCount( trigrams, getDistinctGrams( name, 3 ) ) >= getMinimumSharedTrigrams( trigrams, maximumTypos ) )
+			{
+				int typos = getTypos( query, name, maximumTypos );
+
+				if( typos <= maximumTypos )
+				{
+					return typos == 1 ? RANK_ONE_TYPO : RANK_TWO_TYPOS;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	private void findPrefixMatches( String query, Matches matches )
+	{
+		int start = getInsertionPoint( sortedNames, query );
+
+		//no name contains the last character, so its insertion point is right after the names that start with the query
+		int end = getInsertionPoint( sortedNames, query + Character.MAX_VALUE );
+
+		for( ; start < end && sortedNames[start].length() == query.length(); start++ )
+		{
+			matches.add( sortedNameEntries[start], RANK_EXACT );
+		}
+
+		for( ; start < end; start++ )
+		{
+			matches.add( sortedNameEntries[start], RANK_PREFIX );
+		}
+	}
+
+	/*
+	 * Finds names that contain the query after their start. Names are checked in order, so this stops once there are
+	 * enough matches that are better than a partial match
+	 */
+	private void findPartialMatches( String query, Matches matches )
+	{
+		if( query.length() < 2 )
+		{
+			for( int index = 0; index < names.length && !matches.isFull( RANK_WORD_PREFIX ); index++ )
+			{
+				addIfPartialMatch( index, query, matches );
+			}
+		}
+		else
+		{
+			//every name that contains the query contains all its bigrams and trigrams, so only check those with the rarest one
+			int rarestGram = -1;
+			for( long gram: getGrams( query ) )
+			{
+				int slot = getGramSlot( gram );
+
+				if( slot < 0 )
+				{
+					return;
+				}
+				if( rarestGram < 0 || getGramEntriesSize( slot ) < getGramEntriesSize( rarestGram ) )
+				{
+					rarestGram = slot;
+				}
+			}
+
+			for( int offset = gramEntriesOffsets[rarestGram]; offset < gramEntriesOffsets[rarestGram + 1] && !matches.isFull( RANK_WORD_PREFIX ); offset++ )
+			{
+				addIfPartialMatch( gramEntries[offset], query, matches );
+			}
+		}
+	}
+
+	private void addIfPartialMatch( int index, String query, Matches matches )
+	{
+		String name = names[index];
+		int position = name.indexOf( query );
+
+		//prefix matches were already added
+		if( position > 0 )
+		{
+			matches.add( index, Character.isLetterOrDigit( name.charAt( position - 1 ) ) ? RANK_PARTIAL : RANK_WORD_PREFIX );
+		}
+	}
+
+	private void findSha1Matches( String query, Matches matches )
+	{
+		int end = getInsertionPoint( sortedSha1Codes, query + Character.MAX_VALUE );
+
+		for( int position = getInsertionPoint( sortedSha1Codes, query ); position < end; position++ )
+		{
+			matches.add( sha1CodeEntries[position], RANK_PREFIX );
+		}
+	}
+
+	private void findTypoMatches( String query, Matches matches )
+	{
+		int maximumTypos = getMaximumTypos( query );
+
+		long[] trigrams = getDistinctGrams( query, 3 );
+
+		int minimumSharedTrigrams = getMinimumSharedTrigrams( trigrams, maximumTypos );
+
+		byte[] sharedTrigrams = new byte[names.length];
+		int[] candidates = new int[16];
+		int candidatesSize = 0;
+		for( long trigram: trigrams )
+		{
+			int slot = getGramSlot( trigram );
+
+			for( int offset = slot < 0 ? 0 : gramEntriesOffsets[slot]; slot >= 0 && offset < gramEntriesOffsets[slot + 1]; offset++ )
+			{
+				int index = gramEntries[offset];
+
+				if( sharedTrigrams[index] < minimumSharedTrigrams && ++sharedTrigrams[index] == minimumSharedTrigrams )
+				{
+					if( candidatesSize == candidates.length )
+					{
+						candidates = Arrays.copyOf( candidates, candidatesSize * 2 );
+					}
+					candidates[candidatesSize++] = index;
+				}
+			}
+		}
+
+		//check the candidates in order so that this can stop once there are enough matches
+		Arrays.sort( candidates, 0, candidatesSize );
+
+		for( int position = 0; position < candidatesSize && !matches.isFull( RANK_ONE_TYPO ); position++ )
+		{
+			int index = candidates[position];
+
+			if( !names[index].contains( query ) )
+			{
+				int typos = getTypos( query, names[index], maximumTypos );
+
+				if( typos <= maximumTypos )
+				{
+					matches.add( index, typos == 1 ? RANK_ONE_TYPO : RANK_TWO_TYPOS );
+				}
+			}
+		}
+	}
+
+	private static int getMaximumTypos( String query )
+	{
+		return query.length() < 2 * MINIMUM_LENGTH_FOR_TYPO ? 1 : 2;
+	}
+
+	private static int getMinimumSharedTrigrams( long[] trigrams, int maximumTypos )
+	{
+		//each typo changes at most three trigrams, so a name that matches must share the rest of them with the query
+		return Math.min( Byte.MAX_VALUE, Math.max( 1, trigrams.length - 3 * maximumTypos ) );
+	}
+
+	/*
+	 * Returns the number of grams in both of the given sorted arrays of distinct grams
+	 */
+	private static int getSharedGramsCount( long[] grams1, long[] grams2 )
+	{
+		int count = 0;
+
+		for( int index1 = 0, index2 = 0; index1 < grams1.length && index2 < grams2.length; )
+		{
+			if( grams1[index1] == grams2[index2] )
+			{
+				count++;
+				index1++;
+				index2++;
+			}
+			else if( grams1[index1] < grams2[index2] )
+			{
+				index1++;
+			}
+			else
+			{
+				index2++;
+			}
+		}
+
+		return count;
+	}
+
+	/*
+	 * Returns the smallest edit distance between the query and any substring of the name, or maximumTypos + 1
+	 * if it's more than maximumTypos
+	 */
+	private static int getTypos( String query, String name, int maximumTypos )
+	{
+		int length = query.length();
+		int[] previous = new int[length + 1];
+		int[] current = new int[length + 1];
+
+		for( int index = 0; index <= length; index++ )
+		{
+			previous[index] = index;
+		}
+
+		int typos = previous[length];
+		for( int nameIndex = 0; nameIndex < name.length(); nameIndex++ )
+		{
+			//a match can start anywhere in the name
+			current[0] = 0;
+			char nameChar = name.charAt( nameIndex );
+
+			for( int index = 1; index <= length; index++ )
+			{
+				int substitution = previous[index - 1] + (query.charAt( index - 1 ) == nameChar ? 0 : 1);
+				current[index] = Math.min( substitution, Math.min( previous[index], current[index - 1] ) + 1 );
+			}
+
+			typos = Math.min( typos, current[length] );
+
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+
+		return Math.min( typos, maximumTypos + 1 );
+	}
+
+	private void buildGramEntries()
+	{
+		gramKeys = new long[1024];
+		gramSlots = new int[1024];
+		Arrays.fill( gramSlots, -1 );
+		gramsSize = 0;
+
+		int[][] nameGramSlots = new int[names.length][];
+		int[] sizes = new int[1024];
+		int totalSize = 0;
+
+		for( int index = 0; index < names.length; index++ )
+		{
+			long[] grams = getGrams( names[index] );
+
+			nameGramSlots[index] = new int[grams.length];
+			for( int gramIndex = 0; gramIndex < grams.length; gramIndex++ )
+			{
+				int slot = addGram( grams[gramIndex] );
+
+				if( slot == sizes.length )
+				{
+					sizes = Arrays.copyOf( sizes, sizes.length * 2 );
+				}
+				sizes[slot]++;
+				nameGramSlots[index][gramIndex] = slot;
+			}
+			totalSize += grams.length;
+		}
+
+		gramEntriesOffsets = new int[gramsSize + 1];
+		for( int slot = 0; slot < gramsSize; slot++ )
+		{
+			gramEntriesOffsets[slot + 1] = gramEntriesOffsets[slot] + sizes[slot];
+		}
+
+		//entries are added in order, so the entries of every gram are sorted
+		gramEntries = new int[totalSize];
+		int[] positions = Arrays.copyOf( gramEntriesOffsets, gramsSize );
+		for( int index = 0; index < names.length; index++ )
+		{
+			for( int slot: nameGramSlots[index] )
+			{
+				gramEntries[positions[slot]++] = index;
+			}
+		}
+	}
+
+	/*
+	 * Adds the given gram to the table if it's not there and returns its slot. Slots are numbered in order of addition
+	 */
+	private int addGram( long gram )
+	{
+		int position = getGramPosition( gram );
+
+		if( gramSlots[position] < 0 )
+		{
+			if( 2 * (gramsSize + 1) > gramKeys.length )
+			{
+				long[] oldKeys = gramKeys;
+				int[] oldSlots = gramSlots;
+
+				gramKeys = new long[oldKeys.length * 2];
+				gramSlots = new int[oldSlots.length * 2];
+				Arrays.fill( gramSlots, -1 );
+				for( int index = 0; index < oldKeys.length; index++ )
+				{
+					if( oldSlots[index] >= 0 )
+					{
+						int newPosition = getGramPosition( oldKeys[index] );
+						gramKeys[newPosition] = oldKeys[index];
+						gramSlots[newPosition] = oldSlots[index];
+					}
+				}
+
+				position = getGramPosition( gram );
+			}
+
+			gramKeys[position] = gram;
+			gramSlots[position] = gramsSize++;
+		}
+
+		return gramSlots[position];
+	}
+
+	/*
+	 * Returns slot of the given gram or -1 if no name contains it
+	 */
+	private int getGramSlot( long gram )
+	{
+		return gramSlots[getGramPosition( gram )];
+	}
+
+	private int getGramEntriesSize( int slot )
+	{
+		return gramEntriesOffsets[slot + 1] - gramEntriesOffsets[slot];
+	}
+
+	private int getGramPosition( long gram )
+	{
+		int mask = gramKeys.length - 1;
+		long hash = gram * 0x9E3779B97F4A7C15L;
+		int position = (int)(hash ^ (hash >>> 32)) & mask;
+
+		while( gramSlots[position] >= 0 && gramKeys[position] != gram )
+		{
+			position = (position + 1) & mask;
+		}
+
+		return position;
+	}
+
+	/*
+	 * Returns the distinct bigrams and trigrams of the given string
+	 */
+	private static long[] getGrams( String string )
+	{
+		long[] bigrams = getDistinctGrams( string, 2 );
+		long[] trigrams = getDistinctGrams( string, 3 );
+
+		long[] grams = Arrays.copyOf( bigrams, bigrams.length + trigrams.length );
+		System.arraycopy( trigrams, 0, grams, bigrams.length, trigrams.length );
+
+		return grams;
+	}
+
+	private static long[] getDistinctGrams( String string, int length )
+	{
+		if( string.length() < length )
+		{
+			return new long[0];
+		}
+
+		long[] grams = new long[string.length() - length + 1];
+		for( int index = 0; index < grams.length; index++ )
+		{
+			//the length is kept in the top bits so that a bigram never equals a trigram
+			long gram = length;
+			for( int offset = 0; offset < length; offset++ )
+			{
+				gram = (gram << 16) | string.charAt( index + offset );
+			}
+			grams[index] = gram;
+		}
+		Arrays.sort( grams );
+
+		int size = 0;
+		for( int index = 0; index < grams.length; index++ )
+		{
+			if( index == 0 || grams[index] != grams[index - 1] )
+			{
+				grams[size++] = grams[index];
+			}
+		}
+
+		return Arrays.copyOf( grams, size );
+	}
+
+	private static int getInsertionPoint( String[] sortedStrings, String string )
+	{
+		int position = Arrays.binarySearch( sortedStrings, string );
+
+		return position < 0 ? -position - 1 : position;
+	}
+
+	private static int compareNames( String name1, String name2 )
+	{
+		int result = Integer.compare( name1.length(), name2.length() );
+
+		return result == 0 ? name1.compareTo( name2 ) : result;
+	}
+
+	private static String normalize( String string )
+	{
+		return string.toLowerCase( Locale.ROOT );
+	}
+
+	/*
+	 * Keeps the best matches of each rank. Since a game's index is its order within the same rank, each rank only
+	 * needs the lowest indexes
+	 */
+	private final class Matches
+	{
+		private final int maximumMatches;
+		private final int[][] rankIndexes = new int[RANK_TWO_TYPOS + 1][];
+		private final int[] rankSizes = new int[RANK_TWO_TYPOS + 1];
+
+		Matches( int maximumMatches )
+		{
+			this.maximumMatches = maximumMatches;
+		}
+
+		void add( int index, int rank )
+		{
+			if( rankIndexes[rank] == null )
+			{
+				rankIndexes[rank] = new int[maximumMatches];
+			}
+
+			int[] indexes = rankIndexes[rank];
+			int size = rankSizes[rank];
+
+			if( size == maximumMatches && index > indexes[size - 1] )
+			{
+				return;
+			}
+
+			//a game that matches in more than one way is kept with its best rank only
+			for( int betterRank = 0; betterRank < rank; betterRank++ )
+			{
+				if( rankSizes[betterRank] > 0 && Arrays.binarySearch( rankIndexes[betterRank], 0, rankSizes[betterRank], index ) >= 0 )
+				{
+					return;
+				}
+			}
+
+			//keep the indexes sorted, and drop the last one if there are too many
+			int position = size;
+			while( position > 0 && indexes[position - 1] > index )
+			{
+				position--;
+			}
+
+			if( position < maximumMatches && (position == 0 || indexes[position - 1] != index) )
+			{
+				System.arraycopy( indexes, position, indexes, position + 1, Math.min( size, maximumMatches - 1 ) - position );
+				indexes[position] = index;
+				rankSizes[rank] = Math.min( size + 1, maximumMatches );
+			}
+		}
+
+		/*
+		 * Returns true if there are enough matches of the given rank or better
+		 */
+		boolean isFull( int rank )
+		{
+			int size = 0;
+			for( int index = 0; index <= rank; index++ )
+			{
+				size += rankSizes[index];
+			}
+
+			return size >= maximumMatches;
+		}
+
+		int size()
+		{
+			int size = 0;
+			for( int rankSize: rankSizes )
+			{
+				size += rankSize;
+			}
+
+			return size;
+		}
+
+		/*
+		 * Adds the matches whose games were not removed since the index was built to the given list, by rank and order
+		 */
+		void addCurrentMatches( List<Match> list )
+		{
+			for( int rank = 0; rank < rankIndexes.length; rank++ )
+			{
+				for( int position = 0; position < rankSizes[rank]; position++ )
+				{
+					int index = rankIndexes[rank][position];
+
+					if( !removedItems.contains( items[index] ) )
+					{
+						list.add( new Match( items[index], names[index], rank ) );
+					}
+				}
+			}
+		}
+
+		Set<DatabaseItem> toSet()
+		{
+			Set<DatabaseItem> set = new LinkedHashSet<>();
+
+			for( int rank = 0; rank < rankIndexes.length && set.size() < maximumMatches; rank++ )
+			{
+				for( int position = 0; position < rankSizes[rank] && set.size() < maximumMatches; position++ )
+				{
+					set.add( items[rankIndexes[rank][position]] );
+				}
+			}
+
+			return Collections.unmodifiableSet( set );
+		}
+	}
+
+	private static final class Match
+	{
+		private final DatabaseItem item;
+		private final String name;
+		private final int rank;
+
+		Match( DatabaseItem item, String name, int rank )
+		{
+			this.item = item;
+			this.name = name;
+			this.rank = rank;
+		}
+	}
+}
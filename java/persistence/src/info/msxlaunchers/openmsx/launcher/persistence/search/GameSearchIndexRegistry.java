@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.persistence.search;
+
+import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
+import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the search index of each embedded database between searches. An index is built in the background from the
+ * games in the database, then games that are saved, updated or deleted are applied to it in the same order as they
+ * were made, so a search never reads all games again unless the index was invalidated
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+public final class GameSearchIndexRegistry
+{
+	//indexes are built and changed on this thread only
+	private static final ExecutorService indexThread = Executors.newSingleThreadExecutor( runnable -> {
+		Thread thread = new Thread( runnable, "Game Search Index" );
+		thread.setDaemon( true );
+		return thread;
+	} );
+
+	private static final Map<String,CompletableFuture<GameSearchIndex>> indexes = new HashMap<>();
+	private static final Map<String,Long> generations = new HashMap<>();
+
+	private GameSearchIndexRegistry() {}
+
+	/**
+	 * Starts building the search index of the given embedded database in the background, unless it is already built or
+	 * being built. This is called once the database is initialized so that the first search doesn't wait for it
+	 * 
+	 * @param databaseFullPath Full path to the embedded application database
+	 */
+	public static synchronized void build( String databaseFullPath )
+	{
+		if( !indexes.containsKey( databaseFullPath ) )
+		{
+			rebuild( databaseFullPath );
+		}
+	}
+
+	/**
+	 * Discards the search index of the given embedded database and builds it again in the background. This must be
+	 * called after changes that cannot be applied to the index, such as renaming a database or restoring a backup
+	 * 
+	 * @param databaseFullPath Full path to the embedded application database
+	 */
+	public static synchronized void invalidate( String databaseFullPath )
+	{
+		generations.merge( databaseFullPath, 1L, Long::sum );
+		rebuild( databaseFullPath );
+	}
+
+	/**
+	 * Applies the given saved, updated or deleted games of a database to its search index. This must be called after
+	 * the changes are committed
+	 * 
+	 * @param databaseFullPath Full path to the embedded application database
+	 * @param database Name of the database the games are in
+	 * @param removedGames Games that were deleted, or the old versions of updated games
+	 * @param addedGames Games that were saved, or the new versions of updated games
+	 */
+	public static synchronized void update( String databaseFullPath, String database, Collection<Game> removedGames, Collection<Game> addedGames )
+	{
+		List<DatabaseItem> removedItems = new ArrayList<>( removedGames.size() );
+		for( Game game: removedGames )
+		{
+			removedItems.add( new DatabaseItem( game.getName(), database ) );
+		}
+
+		Map<DatabaseItem,String> addedItems = new HashMap<>();
+		for( Game game: addedGames )
+		{
+			addedItems.put( new DatabaseItem( game.getName(), database ), game.getSha1Code() );
+		}
+
+		change( databaseFullPath, index -> index.update( removedItems, addedItems ) );
+	}
+
+	/**
+	 * Removes the games of the given deleted database from the search index
+	 * 
+	 * @param databaseFullPath Full path to the embedded application database
+	 * @param database Name of the deleted database
+	 */
+	public static synchronized void removeDatabase( String databaseFullPath, String database )
+	{
+		change( databaseFullPath, index -> index.removeDatabase( database ) );
+	}
+
+	/*
+	 * Returns the search index of the given embedded database, waiting for it if it's being built or changed
+	 */
+	static GameSearchIndex get( String databaseFullPath ) throws LauncherPersistenceException
+	{
+		CompletableFuture<GameSearchIndex> index;
+		synchronized( GameSearchIndexRegistry.class )
+		{
+			build( databaseFullPath );
+			index = indexes.get( databaseFullPath );
+		}
+
+		try
+		{
+			return index.join();
+		}
+		catch( CompletionException ce )
+		{
+			//don't keep an index that could not be read, so that the next search tries again
+			synchronized( GameSearchIndexRegistry.class )
+			{
+				indexes.remove( databaseFullPath, index );
+			}
+
+			if( ce.getCause() instanceof LauncherPersistenceException )
+			{
+				throw (LauncherPersistenceException)ce.getCause();
+			}
+			throw ce;
+		}
+	}
+
+	static synchronized long getGeneration( String databaseFullPath )
+	{
+		return generations.getOrDefault( databaseFullPath, 0L );
+	}
+
+	/*
+	 * Queues the given change after the build and the earlier changes of the index. A change made before the index is
+	 * built is already in the games the build reads
+	 */
+	private static void change( String databaseFullPath, UnaryOperator<GameSearchIndex> change )
+	{
+		CompletableFuture<GameSearchIndex> index = indexes.get( databaseFullPath );
+
+		if( index != null )
+		{
+			indexes.put( databaseFullPath, index.thenApplyAsync( change, indexThread ) );
+		}
+	}
+
+	private static void rebuild( String databaseFullPath )
+	{
+		indexes.put( databaseFullPath, CompletableFuture.supplyAsync( () -> {
+			try
+			{
+				return new GetGameSearchIndexAction().execute( databaseFullPath ).getResult();
+			}
+			catch( LauncherPersistenceException lpe )
+			{
+				throw new CompletionException( lpe );
+			}
+		}, indexThread ) );
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 Sam Elsharif
+ * Copyright 2020 Sam Elsharif
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,66 +16,59 @@
 package info.msxlaunchers.openmsx.launcher.persistence.search;
 
 import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
+import info.msxlaunchers.openmsx.launcher.log.LauncherLogger;
 import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.NonTransactionalDatabaseOperation;
+import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceExceptionIssue;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Class to find games in the database given a string. The search is for partial match and in all
- * applicable fields
+ * Class to read the names and SHA1 codes of the games in all databases and build a search index of them
  * 
- * @since v1.6
+ * @since v1.14
  * @author Sam Elsharif
  *
  */
-final class GameFinderAction extends NonTransactionalDatabaseOperation<Set<DatabaseItem>>
+final class GetGameSearchIndexAction extends NonTransactionalDatabaseOperation<GameSearchIndex>
 {
-	private static final String GET_MATCHES_STATEMENT = "SELECT game.name AS gameName,"
-			+ " database.name AS database FROM database JOIN game" +
-			" ON database.id=game.IDDB AND (UPPER(game.name) like UPPER(?) OR game.sha1 like ?)";
-	private final String string;
-	private final int maximumMatches;
-	GameFinderAction( String string, int maximumMatches )
-	{
-		this.string = string;
-		this.maximumMatches = maximumMatches;
-	}
+	private static final String GET_ALL_GAMES_STATEMENT = "SELECT game.name AS gameName, game.sha1 AS sha1,"
+			+ " database.name AS database FROM database JOIN game ON database.id=game.IDDB";
 
 	/* (non-Javadoc)
 	 * @see info.msxlaunchers.openmsx.launcher.persistence.game.NonTransactionalDatabaseOperation#executeNonTransactionalOperation(java.sql.Connection)
 	 */
 	@Override
-	public DatabaseResponse<Set<DatabaseItem>> executeNonTransactionalOperation( Connection connection) throws LauncherPersistenceException
+	public DatabaseResponse<GameSearchIndex> executeNonTransactionalOperation( Connection connection ) throws LauncherPersistenceException
 	{
-		Set<DatabaseItem> matches = new HashSet<DatabaseItem>();
+		List<DatabaseItem> items = new ArrayList<>();
+		List<String> sha1Codes = new ArrayList<>();
 
-		try( PreparedStatement statement = connection.prepareStatement( GET_MATCHES_STATEMENT ) )
+		try( PreparedStatement statement = connection.prepareStatement( GET_ALL_GAMES_STATEMENT ) )
 		{
-			statement.setString( 1, "%" + string + "%" );
-			statement.setString( 2, string.toLowerCase() + "%" );
-			statement.setMaxRows( maximumMatches );
-
 			try( ResultSet result = statement.executeQuery() )
 			{
 				while( result.next() )
 				{
-					matches.add( new DatabaseItem( result.getString( "gameName" ), result.getString( "database" ) ) );
+					items.add( new DatabaseItem( result.getString( "gameName" ), result.getString( "database" ) ) );
+					sha1Codes.add( result.getString( "sha1" ) );
 				}
 			}
 		}
 		catch( SQLException se )
 		{
-			//ignore - method will return an empty Set
+			//don't return an index of the games read so far as it would be kept until the games are modified
+			LauncherLogger.logException( this, se );
+			throwEncapsulatingException( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
 		}
 
-		return new GameFinderResponse( Collections.unmodifiableSet( matches ) );
+		return new GetGameSearchIndexResponse( new GameSearchIndex( items, sha1Codes ) );
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 Sam Elsharif
+ * Copyright 2020 Sam Elsharif
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,33 +15,30 @@
  */
 package info.msxlaunchers.openmsx.launcher.persistence.search;
 
-import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse;
 
-import java.util.Set;
-
 /**
- * Class to contain result of <code>GameFinderAction</code> operation
+ * Class to contain result of <code>GetGameSearchIndexAction</code> operation
  * 
- * @since v1.6
+ * @since v1.14
  * @author Sam Elsharif
  *
  */
-final class GameFinderResponse implements DatabaseResponse<Set<DatabaseItem>>
+final class GetGameSearchIndexResponse implements DatabaseResponse<GameSearchIndex>
 {
-	private final Set<DatabaseItem> foundItems;
+	private final GameSearchIndex index;
 
-	GameFinderResponse( Set<DatabaseItem> foundItems )
+	GetGameSearchIndexResponse( GameSearchIndex index )
 	{
-		this.foundItems = foundItems;
+		this.index = index;
 	}
 
 	/* (non-Javadoc)
 	 * @see info.msxlaunchers.openmsx.launcher.persistence.DatabaseResponse#getResult()
 	 */
 	@Override
-	public Set<DatabaseItem> getResult()
+	public GameSearchIndex getResult()
 	{
-		return foundItems;
+		return index;
 	}
 }
@@ -0,0 +1,116 @@
+package info.msxlaunchers.openmsx.launcher.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class DatabaseConnectionPoolTest extends DatabaseTest
+{
+	private static final String SQL = "SELECT ID FROM database WHERE name=?";
+
+	@After
+	public void closeConnections()
+	{
+		DatabaseConnectionPool.closeAll();
+	}
+
+	@Test
+	public void test_GivenReleasedConnection_WhenGetConnection_ThenReuseIt() throws SQLException
+	{
+		Connection connection = DatabaseConnectionPool.getConnection( dbLocation );
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection );
+
+		assertSame( connection, DatabaseConnectionPool.getConnection( dbLocation ) );
+	}
+
+	@Test
+	public void test_GivenConnectionInUse_WhenGetConnection_ThenReturnAnotherConnection() throws SQLException
+	{
+		Connection connection1 = DatabaseConnectionPool.getConnection( dbLocation );
+		Connection connection2 = DatabaseConnectionPool.getConnection( dbLocation );
+
+		assertNotSame( connection1, connection2 );
+
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection1 );
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection2 );
+	}
+
+	@Test
+	public void test_GivenClosedStatement_WhenPrepareSameSQL_ThenReuseStatementWithClearedParameters() throws SQLException
+	{
+		Connection connection = DatabaseConnectionPool.getConnection( dbLocation );
+
+		PreparedStatement statement1 = connection.prepareStatement( SQL );
+		statement1.setString( 1, "name" );
+		statement1.setMaxRows( 1 );
+		statement1.close();
+
+		PreparedStatement statement2 = connection.prepareStatement( SQL );
+
+		assertSame( statement1, statement2 );
+		assertFalse( statement2.isClosed() );
+		assertEquals( 0, statement2.getMaxRows() );
+
+		statement2.close();
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection );
+	}
+
+	@Test
+	public void test_GivenOpenStatement_WhenPrepareSameSQL_ThenReturnDifferentStatement() throws SQLException
+	{
+		Connection connection = DatabaseConnectionPool.getConnection( dbLocation );
+
+		try( PreparedStatement statement1 = connection.prepareStatement( SQL );
+				PreparedStatement statement2 = connection.prepareStatement( SQL ) )
+		{
+			assertNotSame( statement1, statement2 );
+		}
+
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection );
+	}
+
+	@Test
+	public void test_GivenConnectionInTransaction_WhenReleased_ThenRollBackAndRestoreAutoCommit() throws SQLException
+	{
+		Connection connection = DatabaseConnectionPool.getConnection( dbLocation );
+		connection.setAutoCommit( false );
+
+		try( PreparedStatement statement = connection.prepareStatement( "INSERT INTO database (name) VALUES (?)" ) )
+		{
+			statement.setString( 1, "uncommitted" );
+			statement.executeUpdate();
+		}
+
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection );
+
+		connection = DatabaseConnectionPool.getConnection( dbLocation );
+		assertTrue( connection.getAutoCommit() );
+		DatabaseConnectionPool.releaseConnection( dbLocation, connection );
+
+		assertFalse( launcherPersistence.getGamePersister().getDatabases().contains( "uncommitted" ) );
+	}
+
+	@Test
+	public void test_GivenDatabaseIds_WhenCleared_ThenForgetThem()
+	{
+		DatabaseConnectionPool.putDatabaseId( dbLocation, "database", 5 );
+		assertEquals( Long.valueOf( 5 ), DatabaseConnectionPool.getDatabaseId( dbLocation, "database" ) );
+
+		DatabaseConnectionPool.removeDatabaseId( dbLocation, "database" );
+		assertNull( DatabaseConnectionPool.getDatabaseId( dbLocation, "database" ) );
+
+		DatabaseConnectionPool.putDatabaseId( dbLocation, "database", 5 );
+		DatabaseConnectionPool.clearDatabaseIds( dbLocation );
+		assertNull( DatabaseConnectionPool.getDatabaseId( dbLocation, "database" ) );
+	}
+}
@@ -1,5 +1,7 @@
 package info.msxlaunchers.openmsx.launcher.persistence;
 
+import info.msxlaunchers.openmsx.launcher.builder.GameBuilderModule;
+
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -31,7 +33,8 @@ abstract public class DatabaseTest
 
 		Injector injector = Guice.createInjector(
 				new BasicTestModule( tmpFolder.getRoot().toString() ),
-	    		new LauncherPersistenceModule()
+	    		new LauncherPersistenceModule(),
+	    		new GameBuilderModule()
 				);
 
 		launcherPersistence = injector.getInstance( LauncherPersistence.class );
@@ -47,6 +50,15 @@ abstract public class DatabaseTest
 			{
 				statement.executeUpdate();
 			}
+
+			//the backup entries were deleted by cascade but the backed up games are shared by backups and not deleted by cascade
+			try( PreparedStatement statement = connection.prepareStatement( "DELETE FROM game_backup_row" ) )
+			{
+				statement.executeUpdate();
+			}
 		}
+
+		//the database IDs were deleted behind the persistence actions' back
+		DatabaseConnectionPool.clearDatabaseIds( dbLocation );
 	}
 }
@@ -1,5 +1,7 @@
 package info.msxlaunchers.openmsx.launcher.persistence;
 
+import info.msxlaunchers.openmsx.launcher.builder.GameBuilderModule;
+
 import org.junit.Test;
 
 import com.google.inject.Guice;
@@ -14,7 +16,8 @@ public class GamePersisterModuleTest
 	{
 		Injector injector = Guice.createInjector(
 				new BasicTestModule( "folder" ),
-	    		new LauncherPersistenceModule()
+	    		new LauncherPersistenceModule(),
+	    		new GameBuilderModule()
 				);
 
 		LauncherPersistence instance1 = injector.getInstance( LauncherPersistence.class );
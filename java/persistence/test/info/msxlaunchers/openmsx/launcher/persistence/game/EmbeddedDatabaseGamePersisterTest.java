@@ -1,30 +1,47 @@
 package info.msxlaunchers.openmsx.launcher.persistence.game;
 
 import info.msxlaunchers.openmsx.common.ActionDecider;
-import info.msxlaunchers.openmsx.launcher.builder.GameBuilder;
 import info.msxlaunchers.openmsx.launcher.data.backup.DatabaseBackup;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
+import info.msxlaunchers.openmsx.launcher.data.filter.CompiledFilter;
+import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterFactory;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterParameter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterType;
+import info.msxlaunchers.openmsx.launcher.data.filter.Value1Field;
 import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.GameSummary;
 import info.msxlaunchers.openmsx.launcher.data.game.RelatedGame;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.FDDMode;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.Genre;
 import info.msxlaunchers.openmsx.launcher.data.game.constants.InputDevice;
 import info.msxlaunchers.openmsx.launcher.persistence.DatabaseTest;
+import info.msxlaunchers.openmsx.launcher.persistence.GameBackupRowWriter;
+import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.junit.Test;
@@ -32,11 +49,13 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -45,7 +64,6 @@ import static org.mockito.Mockito.when;
 @RunWith( MockitoJUnitRunner.class )
 public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 {
-	@Mock GameBuilder gameBuilder;
 	@Mock ActionDecider actionDecider;
 
 	private static final String database1 = "database1";
@@ -54,7 +72,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void whenCreateDatabaseIsCalledWithNull_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		try
 		{
@@ -70,7 +88,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void whenCreateDatabaseIsCalledWithEmpty_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		try
 		{
@@ -86,7 +104,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenCreateDatabase_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 	}
@@ -94,7 +112,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void whenCreateDatabaseIsCalledWithExistingDatabase_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -112,7 +130,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void whenCreateDatabaseIsCalledWithInvalidDatabase_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		//an invalid database is one that has more than 64 characters in its name
 		try
@@ -146,7 +164,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenGetDatabases_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Set<String> databases = persister.getDatabases();
 
@@ -169,7 +187,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	{
 		Game game = Game.name( "name" ).machine( "machine" ).romA( "romA" ).build();
 
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		persister.saveGame( game, database1 );
@@ -189,7 +207,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	{
 		Game game = Game.machine( "machine" ).romA( "romA" ).build();
 
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		try
@@ -208,7 +226,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	{
 		Game game = Game.name( "name" ).machine( "machine" ).build();
 
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		try
@@ -240,7 +258,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 
 		Game game2 = Game.name( "name2" ).machine( "machine2" ).diskA( "diskA2" ).build();
 
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		persister.saveGame( game1, database1 );
@@ -297,7 +315,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		//screen suffix must be at most 10 
 		Game game = Game.name( "name" ).machine( "machine" ).romA( "romA" ).screenshotSuffix( "qwertyuiopa" ).build();
 
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -315,7 +333,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenDeleteDatabase_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -333,7 +351,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenNonExistingDatabase_whenDeleteDatabase_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		try
 		{
@@ -346,10 +364,70 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		}
 	}
 
+	@Test
+	public void givenUnmodifiedDatabase_whenGetGamesTwice_thenReturnSameCachedSet() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+		persister.saveGame( Game.name( "game1" ).machine( "machine" ).romA( "romA" ).build(), database1 );
+
+		Set<Game> games = persister.getGames( database1 );
+
+		assertSame( games, persister.getGames( database1 ) );
+	}
+
+	@Test
+	public void givenCachedGames_whenGamesAreSavedUpdatedMovedAndDeleted_thenGetGamesReturnsCurrentGames() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+		Game game1 = Game.name( "game1" ).machine( "machine" ).romA( "romA" ).build();
+		Game game2 = Game.name( "game2" ).machine( "machine" ).romA( "romA" ).build();
+		Game game2Updated = Game.name( "game2 updated" ).machine( "machine" ).romA( "romA" ).build();
+
+		persister.createDatabase( database1 );
+		persister.createDatabase( "database2" );
+		assertEquals( 0, persister.getGames( database1 ).size() );
+		assertEquals( 0, persister.getGames( "database2" ).size() );
+
+		persister.saveGames( new HashSet<>( Arrays.asList( game1, game2 ) ), database1 );
+		assertEquals( 2, persister.getGames( database1 ).size() );
+
+		persister.updateGame( game2, game2Updated, database1 );
+		assertTrue( persister.getGames( database1 ).stream().anyMatch( game -> game.getName().equals( "game2 updated" ) ) );
+
+		persister.moveGames( Collections.singleton( game1 ), database1, "database2", actionDecider );
+		assertEquals( 1, persister.getGames( database1 ).size() );
+		assertEquals( 1, persister.getGames( "database2" ).size() );
+
+		persister.updateMachine( "new machine", null, "database2", false );
+		assertEquals( "new machine", persister.getGames( "database2" ).iterator().next().getMachine() );
+
+		persister.deleteGames( persister.getGames( database1 ), database1 );
+		assertEquals( 0, persister.getGames( database1 ).size() );
+	}
+
+	@Test
+	public void givenRenamedDatabase_whenDatabaseWithOldNameIsCreatedAndGamesSaved_thenGamesAreInNewDatabase() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+		persister.saveGames( Collections.singleton( Game.name( "game1" ).machine( "machine" ).romA( "romA" ).build() ), database1 );
+		persister.renameDatabase( database1, "database2" );
+		persister.createDatabase( database1 );
+		persister.saveGames( Collections.singleton( Game.name( "game2" ).machine( "machine" ).romA( "romA" ).build() ), database1 );
+
+		Set<Game> games = persister.getGames( database1 );
+		assertEquals( 1, games.size() );
+		assertEquals( "game2", games.iterator().next().getName() );
+		assertEquals( 1, persister.getGames( "database2" ).size() );
+	}
+
 	@Test
 	public void whenRenameDatabase_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		persister.renameDatabase( database1, "database2" );
@@ -363,7 +441,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenNonExistingDatabase_whenRenameDatabase_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		try
 		{
@@ -379,7 +457,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenAlreadyExistingDatabase_whenRenameDatabase_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		persister.createDatabase( database2 );
@@ -398,7 +476,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenRecreateDatabase_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -416,7 +494,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenGetGames_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -442,7 +520,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = UnsupportedOperationException.class )
 	public void whenModifyReturnValueOfGetGames_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -462,10 +540,172 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		gamesFromDB.add( Game.name( "name4" ).machine( "machine" ).romA( "romA" ).build() );
 	}
 
+	@Test
+	public void whenGetGameCount_thenGamesAreCountedWithoutReadingThem() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Set<Game> games = new HashSet<>();
+		games.add( Game.name( "name1" ).machine( "machine" ).romA( "romA" ).build() );
+		games.add( Game.name( "name2" ).machine( "machine" ).diskA( "diskA" ).build() );
+		games.add( Game.name( "name3" ).machine( "machine" ).tape( "tape" ).build() );
+
+		persister.saveGames( games, database1 );
+
+		//use a new persister to count the games in the database rather than the cached games
+		assertEquals( 3, new EmbeddedDatabaseGamePersister( dbLocation ).getGameCount( database1 ) );
+		assertEquals( 0, persister.getGameCount( "non-existent" ) );
+	}
+
+	@Test
+	public void whenGetGameSummaries_thenSummariesMatchGames() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Set<Game> games = new HashSet<>();
+		games.add( Game.name( "name1" ).machine( "machine" ).romA( "romA" ).diskA( "diskA" ).sha1Code( "sha1" ).size( 131072 ).build() );
+		games.add( Game.name( "name2" ).machine( "machine" ).diskA( "diskA" ).size( 737280 ).build() );
+		games.add( Game.name( "name3" ).machine( "machine" ).tape( "tape" ).harddisk( "harddisk" ).build() );
+		games.add( Game.name( "name4" ).machine( "machine" ).harddisk( "harddisk" ).build() );
+		games.add( Game.name( "name5" ).machine( "machine" ).laserdisc( "laserdisc" ).build() );
+		games.add( Game.name( "name6" ).machine( "machine" ).romA( "romA" ).msxGenID( 123 ).screenshotSuffix( "-en" ).build() );
+
+		persister.saveGames( games, database1 );
+
+		//use a new persister to read the summaries from the database rather than from the cached games
+		Set<GameSummary> summaries = new EmbeddedDatabaseGamePersister( dbLocation ).getGameSummaries( database1 );
+		Set<GameSummary> cachedSummaries = persister.getGameSummaries( database1 );
+
+		assertEquals( games.size(), summaries.size() );
+
+		for( Game game: persister.getGames( database1 ) )
+		{
+			GameSummary expected = GameSummary.of( game );
+			GameSummary summary = summaries.stream().filter( s -> s.equals( expected ) ).findFirst().get();
+			GameSummary cachedSummary = cachedSummaries.stream().filter( s -> s.equals( expected ) ).findFirst().get();
+
+			for( GameSummary actual: Arrays.asList( summary, cachedSummary ) )
+			{
+				assertEquals( expected.getSha1Code(), actual.getSha1Code() );
+				assertEquals( expected.getSize(), actual.getSize() );
+				assertEquals( expected.getMedium(), actual.getMedium() );
+				assertEquals( expected.getMsxGenID(), actual.getMsxGenID() );
+				assertEquals( expected.getScreenshotSuffix(), actual.getScreenshotSuffix() );
+			}
+		}
+	}
+
+	@Test( expected = UnsupportedOperationException.class )
+	public void whenModifyReturnValueOfGetGameSummaries_thenThrowException() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		persister.getGameSummaries( database1 ).add( new GameSummary( "name", null, 0, null, 0, null ) );
+	}
+
+	@Test
+	public void givenNonExistingDatabase_whenGetGameSummaries_thenReturnEmptySet() throws GamePersistenceException
+	{
+		assertTrue( new EmbeddedDatabaseGamePersister( dbLocation ).getGameSummaries( database1 ).isEmpty() );
+	}
+
+	@Test
+	public void whenGetGamesWithFilters_thenReturnGamesThatPassDatabaseFilters() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Set<Game> games = new HashSet<>();
+		games.add( Game.name( "name1" ).machine( "machine" ).romA( "romA" ).diskA( "diskA" ).size( 131072 ).isMSX( true ).isSCC( true ).genre1( Genre.ACTION ).build() );
+		games.add( Game.name( "name2" ).machine( "machine" ).diskA( "diskA" ).size( 737280 ).isMSX2( true ).isMSXMUSIC( true ).genre2( Genre.ACTION ).build() );
+		games.add( Game.name( "name3" ).machine( "machine" ).romA( "romA" ).tape( "tape" ).isMSX( true ).isMSX2( true ).genre1( Genre.PUZZLE ).build() );
+		games.add( Game.name( "name4" ).machine( "machine" ).harddisk( "harddisk" ).size( 32768 ).isTurboR( true ).connectGFX9000( true ).build() );
+		games.add( Game.name( "name5" ).machine( "machine" ).laserdisc( "laserdisc" ).isPSG( true ).genre1( Genre.RPG ).genre2( Genre.PUZZLE ).build() );
+		games.add( Game.name( "name6" ).machine( "machine" ).tclScript( "script" ).size( 16384 ).isMSX2Plus( true ).connectGFX9000( true ).build() );
+
+		persister.saveGames( games, database1 );
+
+		List<Set<Filter>> filterSets = Arrays.asList(
+				getFilters( FilterFactory.createFilter( FilterType.SIZE, "32768", null, FilterParameter.EQUAL_OR_LESS ) ),
+				getFilters( FilterFactory.createFilter( FilterType.SIZE, "16384", "131072", FilterParameter.BETWEEN_INCLUSIVE ),
+						FilterFactory.createFilter( FilterType.SIZE, "737280", null, FilterParameter.EQUAL ) ),
+				getFilters( FilterFactory.createFilter( FilterType.GENERATION, "MSX", null, null ),
+						FilterFactory.createFilter( FilterType.GENERATION, "MSX2", null, null ),
+						FilterFactory.createFilter( FilterType.SOUND, "SCC", null, null ) ),
+				getFilters( FilterFactory.createFilter( FilterType.GENRE, "ACTION", null, null ),
+						FilterFactory.createFilter( FilterType.GENRE, "PUZZLE", null, null ) ),
+				getFilters( FilterFactory.createFilter( FilterType.GENRE, "UNKNOWN", null, null ),
+						FilterFactory.createFilter( FilterType.VIDEO_SOURCE, "MSX", null, null ) ),
+				getFilters( FilterFactory.createFilter( FilterType.VIDEO_SOURCE, "GFX9000", null, null ),
+						FilterFactory.createFilter( FilterType.COMPANY, "Konami", null, null ) ),
+				getFilters( FilterFactory.createFilter( FilterType.MEDIUM, "DISK", null, null ) ),
+				getFilters( FilterFactory.createFilter( FilterType.MEDIUM, "TAPE", null, null ),
+						FilterFactory.createFilter( FilterType.MEDIUM, "HARDDISK", null, null ) ),
+				getFilters( FilterFactory.createFilter( FilterType.MEDIUM, "LASERDISC", null, null ),
+						FilterFactory.createFilter( FilterType.MEDIUM, "SCRIPT", null, null ),
+						FilterFactory.createFilter( FilterType.YEAR, "1985", null, FilterParameter.EQUAL ) ) );
+
+		for( Set<Filter> filters: filterSets )
+		{
+			//company, year and unknown genre filters are left to the caller
+			Set<Filter> databaseFilters = filters.stream().filter( filter -> FilterFactory.getFilterType( filter ) != FilterType.COMPANY &&
+					FilterFactory.getFilterType( filter ) != FilterType.YEAR &&
+					!"UNKNOWN".equals( FilterFactory.getAnnotatedFieldValue( filter, Value1Field.class ) ) ).collect( Collectors.toSet() );
+			Set<String> expected = getNames( CompiledFilter.compile( databaseFilters ).apply( games, game -> null ) );
+
+			//a new persister reads the games from the database rather than from the cached games
+			assertEquals( expected, getNames( new EmbeddedDatabaseGamePersister( dbLocation ).getGames( database1, filters ) ) );
+			assertEquals( expected, getNames( persister.getGames( database1, filters ) ) );
+		}
+	}
+
+	private static Set<Filter> getFilters( Filter... filters )
+	{
+		return new HashSet<>( Arrays.asList( filters ) );
+	}
+
+	private static Set<String> getNames( Set<Game> games )
+	{
+		return games.stream().map( Game::getName ).collect( Collectors.toSet() );
+	}
+
+	@Test
+	public void whenGetGame_thenReturnFullGameOrNull() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Game game = Game.name( "name1" ).machine( "machine" ).romA( "romA" ).info( "info" ).genre1( Genre.ACTION ).build();
+		persister.saveGame( game, database1 );
+
+		//uncached database
+		EmbeddedDatabaseGamePersister newPersister = new EmbeddedDatabaseGamePersister( dbLocation );
+		Game gameFromDB = newPersister.getGame( "name1", database1 );
+
+		assertEquals( game, gameFromDB );
+		assertEquals( "info", gameFromDB.getInfo() );
+		assertEquals( "romA", gameFromDB.getRomA() );
+		assertEquals( Genre.ACTION, gameFromDB.getGenre1() );
+		assertNull( newPersister.getGame( "name2", database1 ) );
+
+		//cached database
+		persister.getGames( database1 );
+		assertEquals( "info", persister.getGame( "name1", database1 ).getInfo() );
+		assertNull( persister.getGame( "name2", database1 ) );
+	}
+
 	@Test
 	public void whenDeleteGames_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -491,10 +731,84 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		assertEquals( 0, gamesFromDB.size() );
 	}
 
+	@Test
+	public void givenMoreGamesThanBatchSize_whenSaveGamesAndDeleteGames_thenAllGamesAreSavedAndDeleted() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Set<Game> games = IntStream.range( 0, 1200 )
+				.mapToObj( index -> Game.name( "name" + index ).machine( "machine" ).romA( "romA" ).build() )
+				.collect( Collectors.toSet() );
+
+		persister.saveGames( games, database1 );
+
+		assertEquals( 1200, persister.getGames( database1 ).size() );
+
+		persister.deleteGames( games, database1 );
+
+		assertEquals( 0, persister.getGames( database1 ).size() );
+	}
+
+	@Test
+	public void givenDuplicateGame_whenSaveGames_thenNoGameIsSavedAndDuplicateIsReported() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+		persister.saveGame( Game.name( "name1" ).machine( "machine" ).romA( "romA" ).build(), database1 );
+
+		List<Game> games = Arrays.asList( Game.name( "name0" ).machine( "machine" ).romA( "romA" ).build(),
+				Game.name( "name1" ).machine( "machine" ).romA( "romA" ).build(),
+				Game.name( "name2" ).machine( "machine" ).romA( "romA" ).build() );
+
+		try
+		{
+			persister.saveGames( new LinkedHashSet<>( games ), database1 );
+			fail();
+		}
+		catch( GamePersistenceException gpe )
+		{
+			assertEquals( GamePersistenceExceptionIssue.GAME_ALREADY_EXISTS, gpe.getIssue() );
+			assertEquals( "name1", gpe.getaffectedObject() );
+		}
+
+		assertEquals( 1, persister.getGames( database1 ).size() );
+	}
+
+	@Test
+	public void whenWriteGamesWithGameWriter_thenChunksAreCommittedAndDuplicatesAreSkipped() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+		persister.saveGame( Game.name( "name1" ).machine( "machine" ).romA( "romA" ).build(), database1 );
+
+		List<Integer> progress = new ArrayList<>();
+		GameWriter gameWriter = persister.openGameWriter( database1, 2, progress::add );
+
+		for( int index = 0; index < 4; index++ )
+		{
+			gameWriter.write( Game.name( "name" + index ).machine( "machine" ).romA( "romA" ).build() );
+		}
+
+		//the first two chunks are committed before the writer is closed
+		assertEquals( 4, persister.getGames( database1 ).size() );
+
+		gameWriter.write( Game.name( "name4" ).machine( "machine" ).romA( "romA" ).build() );
+		gameWriter.close();
+
+		assertEquals( 5, persister.getGames( database1 ).size() );
+		assertEquals( 4, gameWriter.getWrittenGamesCount() );
+		assertEquals( Collections.singleton( "name1" ), gameWriter.getDuplicateGames() );
+		assertEquals( Arrays.asList( 1, 3, 4 ), progress );
+	}
+
 	@Test
 	public void givenNewGameWithDifferentName_whenUpdateGame_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -580,7 +894,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenNewGameWithSameName_whenUpdateGame_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -666,7 +980,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenNewGameWithoutName_whenUpdateGame_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -687,7 +1001,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenNewGameWithoutMedia_whenUpdateGame_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -708,7 +1022,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenNonexistingNewGame_whenUpdateGame_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -729,7 +1043,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void givenAlreadyExistingNewGame_whenUpdateGame_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -754,7 +1068,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenUpdateGameExtraDataInDatabases_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		String database1 = "Games 1";
 		String database2 = "Games 2";
@@ -764,28 +1078,23 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		persister.createDatabase( database2 );
 
 		//add games to one of the databases
-		Game game1 = Game.name( "game1" ).romA( "romA" ).machine( "machine" ).build();
-		Game game2 = Game.name( "game2" ).diskA( "diskA" ).machine( "machine" ).build();
-		Game game3 = Game.name( "game3" ).tape( "tape" ).machine( "machine" ).build();
+		Game game1 = Game.name( "game1" ).romA( "romA" ).machine( "machine" ).sha1Code( "sha1-1" ).build();
+		Game game2 = Game.name( "game2" ).diskA( "diskA" ).machine( "machine" ).sha1Code( "sha1-2" ).build();
+		Game game3 = Game.name( "game3" ).tape( "tape" ).machine( "machine" ).sha1Code( "sha1-3" ).build();
+		Game game4 = Game.name( "game4" ).tape( "tape" ).machine( "machine" ).build();
 
 		persister.saveGame( game1, database1 );
 		persister.saveGame( game2, database1 );
 		persister.saveGame( game3, database2 );
+		persister.saveGame( game4, database2 );
+		Game savedGame4 = persister.getGame( "game4", database2 );
 
 		//call the method under test
-		Map<String,ExtraData> extraDataMap = Collections.emptyMap();
-
-		Game newGame1 = Game.name( "game1" ).romA( "romA" ).machine( "machine" )
-				.isMSX( true ).isMSX2( true ).isMSX2Plus( true ).isTurboR( true ).build();
-		Game newGame2 = Game.name( "game2" ).diskA( "diskA" ).machine( "machine" )
-				.isPSG( true ).isSCC( true ).isSCCI( true ).isPCM( true )
-				.isMSXMUSIC( true ).isMSXAUDIO( true ).isMoonsound( true ).isMIDI( true ).build();
-		Game newGame3 = Game.name( "game3" ).tape( "tape" ).machine( "machine" )
-				.genre1( Genre.COMMUNICATION ).genre2( Genre.MISCELLANEOUS ).screenshotSuffix( "new" ).build();
-
-		when( gameBuilder.createGameObjectFromGameAndUpdateExtraData( game1, extraDataMap ) ).thenReturn( newGame1 );
-		when( gameBuilder.createGameObjectFromGameAndUpdateExtraData( game2, extraDataMap ) ).thenReturn( newGame2 );
-		when( gameBuilder.createGameObjectFromGameAndUpdateExtraData( game3, extraDataMap ) ).thenReturn( newGame3 );
+		Map<String,ExtraData> extraDataMap = new HashMap<>();
+		extraDataMap.put( "sha1-1", new ExtraData( 100, 0b00001111, 0, 0, 0, null ) );
+		extraDataMap.put( "sha1-2", new ExtraData( 200, 0, 0b11111111, 0, 0, null ) );
+		extraDataMap.put( "sha1-3", new ExtraData( 300, 0, 0, Genre.COMMUNICATION.getValue(), Genre.MISCELLANEOUS.getValue(), "new" ) );
+		extraDataMap.put( "sha1-unused", new ExtraData( 400, 0b00000001, 0, 0, 0, null ) );
 
 		int numberUpdatedProfiles = persister.updateGameExtraDataInDatabases( extraDataMap );
 		assertEquals( 3, numberUpdatedProfiles );
@@ -801,6 +1110,8 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 				assertTrue( game.isMSX2() );
 				assertTrue( game.isMSX2Plus() );
 				assertTrue( game.isTurboR() );
+				assertFalse( game.isPSG() );
+				assertEquals( 100, game.getMsxGenID() );
 			}
 			else if( game.getName().equals( "game2" ) )
 			{
@@ -812,23 +1123,59 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 				assertTrue( game.isMSXAUDIO() );
 				assertTrue( game.isMoonsound() );
 				assertTrue( game.isMIDI() );
+				assertFalse( game.isMSX() );
+				assertEquals( 200, game.getMsxGenID() );
 			}
 		}
 
-		Set<Game> games2 = persister.getGames( database2 );
-		assertEquals( 1, games2.size() );
-		Game game = games2.iterator().next();
+		Game game = persister.getGame( "game3", database2 );
 		assertEquals( Genre.COMMUNICATION, game.getGenre1() );
 		assertEquals( Genre.MISCELLANEOUS, game.getGenre2() );
 		assertEquals( "new", game.getScreenshotSuffix() );
+		assertEquals( 300, game.getMsxGenID() );
 
-		verify( gameBuilder, times( 3 ) ).createGameObjectFromGameAndUpdateExtraData( any( Game.class ), eq( extraDataMap ) );
+		assertTrue( savedGame4.isExtraDataEqual( persister.getGame( "game4", database2 ) ) );
+	}
+
+	@Test
+	public void givenUpdatedGameExtraData_whenUpdateGameExtraDataInDatabases_thenOnlyChangedGamesAreUpdated() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Game game1 = Game.name( "game1" ).romA( "romA" ).machine( "machine" ).sha1Code( "sha1-1" ).build();
+		Game game2 = Game.name( "game2" ).diskA( "diskA" ).machine( "machine" ).sha1Code( "sha1-2" ).build();
+
+		persister.saveGame( game1, database1 );
+		persister.saveGame( game2, database1 );
+		Game savedGame2 = persister.getGame( "game2", database1 );
+
+		Map<String,ExtraData> extraDataMap = new HashMap<>();
+		extraDataMap.put( "sha1-1", new ExtraData( 100, 0b00000010, 0, 0, 0, "a" ) );
+		extraDataMap.put( "sha1-2", new ExtraData( 200, 0b00000010, 0, 0, 0, null ) );
+
+		assertEquals( 2, persister.updateGameExtraDataInDatabases( extraDataMap ) );
+
+		//nothing changed
+		assertEquals( 0, persister.updateGameExtraDataInDatabases( extraDataMap ) );
+
+		//only the screenshot suffix of one game changed
+		extraDataMap.put( "sha1-1", new ExtraData( 100, 0b00000010, 0, 0, 0, "b" ) );
+		assertEquals( 1, persister.updateGameExtraDataInDatabases( extraDataMap ) );
+		assertEquals( "b", persister.getGame( "game1", database1 ).getScreenshotSuffix() );
+
+		//games that are no longer in the extra data get the default values
+		extraDataMap.remove( "sha1-2" );
+		assertEquals( 1, persister.updateGameExtraDataInDatabases( extraDataMap ) );
+		assertTrue( savedGame2.isExtraDataEqual( persister.getGame( "game2", database1 ) ) );
+		assertTrue( persister.getGame( "game1", database1 ).isMSX2() );
 	}
 
 	@Test
 	public void givenDuplicateGameInDestinationAndYesAllIsTrue_whenMoveGames_thenActionDeciderPromptForActionIsCalled() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game = Game.name( "testName1" )
 				.romA( "testRomA1" )
@@ -856,7 +1203,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenDuplicateGameInDestinationAndYesAllIsFalse_whenMoveGames_thenActionDeciderPromptForActionIsNeverCalled() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game = Game.name( "testName1" )
 				.romA( "testRomA1" )
@@ -883,7 +1230,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenDuplicateGameInDestinationAndNoIsTrueAndNoAllFalse_whenMoveGames_thenActionDeciderPromptForActionIsCalled() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game = Game.name( "testName1" )
 				.romA( "testRomA1" )
@@ -911,7 +1258,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenDuplicateGameInDestinationAndNoAllTrue_whenMoveGames_thenActionDeciderPromptForActionIsNeverCalled() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game = Game.name( "testName1" )
 				.romA( "testRomA1" )
@@ -938,7 +1285,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenDuplicateGameInDestinationAndYesTrue_whenMoveGames_thenGameIsOverriddenInDestination() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game1a = Game.name( "testName1" )
 				.romA( "testRomA1a" )
@@ -1008,7 +1355,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenDuplicateGameInDestinationAndNoTrue_whenMoveGames_thenGameIsNotOverriddenInDestination() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game1a = Game.name( "testName1" )
 				.romA( "testRomA1a" )
@@ -1067,7 +1414,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenDuplicateGameInDestinationAndCancelTrue_whenMoveGames_thenGamesAreNotMoved() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game1a = Game.name( "testName1" )
 				.romA( "testRomA1a" )
@@ -1129,7 +1476,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = RuntimeException.class )
 	public void givenDuplicateGameInDestinationAndNoAction_whenMoveGames_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game1a = Game.name( "testName1" )
 				.romA( "testRomA1a" )
@@ -1161,7 +1508,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenNoDuplicateGamesInDestination_whenMoveGames_thenAllGamesAreMoved() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Game game1a = Game.name( "testName1a" )
 				.romA( "testRomA1a" )
@@ -1225,7 +1572,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenBackupDatabase_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 		persister.createDatabase( database2 );
@@ -1237,7 +1584,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenGetDatabaseBackups_thenSuccess() throws GamePersistenceException, InterruptedException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -1259,7 +1606,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void givenNonExistentDatabase_whenGetDatabaseBackups_thenReturnEmptySet() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Set<DatabaseBackup> backups = persister.getBackups( "non_existent_database" );
 
@@ -1269,7 +1616,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = UnsupportedOperationException.class )
 	public void whenGetDatabaseBackups_thenSetCannotBeModified() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		Set<DatabaseBackup> backups = persister.getBackups( "non_existent_database" );
 
@@ -1277,13 +1624,13 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	}
 
 	/*
-	 * this will test the ON DELETE CASCADE between the database_backup and game_backup tables. If a backup database is deleted then all backed up
-	 * games in the game_backup will be deleted by cascade.
+	 * this will test the ON DELETE CASCADE between the database_backup and game_backup_entry tables. If a backup database is deleted then all its
+	 * entries will be deleted by cascade, and the backed up games in game_backup_row that no other backup refers to will be deleted.
 	 */
 	@Test
 	public void whenDeleteDatabaseBackup_thenBackupIsDeleted() throws SQLException, GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -1302,7 +1649,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		try( Connection connection = DriverManager.getConnection( dbURL ) )
 		{
 			//check that the database and games have been backed up
-			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup" ) )
+			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup_row" ) )
 			{
 				try( ResultSet result = statement.executeQuery() )
 				{
@@ -1332,7 +1679,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		try( Connection connection = DriverManager.getConnection( dbURL ) )
 		{
 			//check that the database and games have been backed up
-			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup" ) )
+			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup_row" ) )
 			{
 				try( ResultSet result = statement.executeQuery() )
 				{
@@ -1355,7 +1702,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenDeleteGamesDatabase_thenBackedUpDatabaseAndGamesAreDeleted() throws SQLException, GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -1388,7 +1735,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 			//there should be one backed up database
 			assertEquals( 1, count );
 
-			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup" ) )
+			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup_row" ) )
 			{
 				try( ResultSet result = statement.executeQuery() )
 				{
@@ -1423,7 +1770,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 			//there should be no backed up database
 			assertEquals( 0, count );
 
-			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup" ) )
+			try( PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) as rowCount FROM game_backup_row" ) )
 			{
 				try( ResultSet result = statement.executeQuery() )
 				{
@@ -1439,10 +1786,101 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 		}
 	}
 
+	@Test
+	public void givenUnchangedGames_whenBackupDatabaseAgain_thenBackedUpGamesAreStoredOnce() throws SQLException, GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Game game1 = Game.name( "testName1" ).romA( "testRomA1" ).machine( "testMachine1" ).build();
+		Game game2 = Game.name( "testName2" ).romA( "testRomA2" ).machine( "testMachine2" ).build();
+
+		persister.saveGames( Stream.of( game1, game2 ).collect( Collectors.toSet() ), database1 );
+
+		persister.backupDatabase( database1 );
+		persister.backupDatabase( database1 );
+
+		assertEquals( 2, getRowCount( "game_backup_row" ) );
+		assertEquals( 4, getRowCount( "game_backup_entry" ) );
+
+		//only the changed game is stored again
+		persister.updateGame( game1, Game.name( "testName1" ).romA( "testRomA1" ).machine( "newMachine1" ).build(), database1 );
+		persister.backupDatabase( database1 );
+
+		assertEquals( 3, getRowCount( "game_backup_row" ) );
+		assertEquals( 6, getRowCount( "game_backup_entry" ) );
+
+		for( DatabaseBackup backup: persister.getBackups( database1 ) )
+		{
+			persister.deleteBackup( backup );
+		}
+
+		assertEquals( 0, getRowCount( "game_backup_row" ) );
+		assertEquals( 0, getRowCount( "game_backup_entry" ) );
+	}
+
+	@Test
+	public void givenLegacyGameBackupTable_whenInitialize_thenBackupsAreMovedToDeduplicatedTables() throws SQLException, GamePersistenceException, LauncherPersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Game game1 = Game.name( "testName1" ).romA( "testRomA1" ).machine( "testMachine1" ).sha1Code( "sha1" ).size( 1000 ).build();
+		Game game2 = Game.name( "testName2" ).diskA( "testDiskA2" ).machine( "testMachine2" ).genre1( Genre.MAZE ).build();
+
+		persister.saveGames( Stream.of( game1, game2 ).collect( Collectors.toSet() ), database1 );
+		persister.backupDatabase( database1 );
+
+		//turn the backup into one made by an older version
+		try( Connection connection = DriverManager.getConnection( dbURL ); Statement statement = connection.createStatement() )
+		{
+			statement.execute( "CREATE TABLE game_backup AS SELECT * FROM game WITH NO DATA" );
+			statement.execute( "INSERT INTO game_backup (ID, " + GameBackupRowWriter.GAME_COLUMNS + ", IDDB) SELECT ID, " +
+					GameBackupRowWriter.GAME_COLUMNS + ", (SELECT MAX(ID) FROM database_backup) FROM game" );
+			statement.execute( "DROP TABLE game_backup_entry" );
+			statement.execute( "DROP TABLE game_backup_row" );
+		}
+
+		launcherPersistence.initialize();
+
+		assertEquals( 2, getRowCount( "game_backup_row" ) );
+		assertEquals( 2, getRowCount( "game_backup_entry" ) );
+
+		persister.deleteGame( game1, database1 );
+		persister.restoreBackup( persister.getBackups( database1 ).iterator().next() );
+
+		Set<Game> restoredGames = persister.getGames( database1 );
+		assertEquals( 2, restoredGames.size() );
+		assertTrue( restoredGames.contains( game1 ) );
+		assertTrue( restoredGames.contains( game2 ) );
+		assertEquals( 0, getRowCount( "game_backup_row" ) );
+	}
+
+	@Test
+	public void givenExtraDataTableWithoutGameSha1Index_whenInitialize_thenIndexIsCreated() throws SQLException, LauncherPersistenceException
+	{
+		try( Connection connection = DriverManager.getConnection( dbURL ); Statement statement = connection.createStatement() )
+		{
+			statement.execute( "DROP INDEX GAME_SHA1_IDX" );
+		}
+
+		launcherPersistence.initialize();
+
+		try( Connection connection = DriverManager.getConnection( dbURL );
+				PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) FROM SYS.SYSCONGLOMERATES WHERE CONGLOMERATENAME='GAME_SHA1_IDX'" );
+				ResultSet result = statement.executeQuery() )
+		{
+			result.next();
+			assertEquals( 1, result.getInt( 1 ) );
+		}
+	}
+
 	@Test
 	public void givenExistingBackup_whenRestoreDatabaseBackup_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -1541,7 +1979,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void whenRestoreNonExistentDatabaseBackup_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		try
 		{
@@ -1557,7 +1995,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = GamePersistenceException.class )
 	public void whenBackupDatabaseMoreThanLimit_thenThrowException() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -1718,7 +2156,7 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test
 	public void whenGetRelatedGamesWithLauncherLinks_thenSuccess() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		persister.createDatabase( database1 );
 
@@ -1750,13 +2188,212 @@ public class EmbeddedDatabaseGamePersisterTest extends DatabaseTest
 	@Test( expected = UnsupportedOperationException.class )
 	public void whenGetRelatedGamesWithLauncherLinks_thenListCannotBeModified() throws GamePersistenceException
 	{
-		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation, gameBuilder );
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
 
 		List<RelatedGame> updatedRelatedGames = persister.getRelatedGamesWithLauncherLinks( Collections.emptyList() );
 
 		updatedRelatedGames.add( new RelatedGame( "gameName", "company", "1985", 1 ) );
 	}
 
+	@Test
+	public void whenGetDatabaseItemsByMsxGenIds_thenOnlyMatchedIdsAreReturned() throws GamePersistenceException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+		persister.createDatabase( database2 );
+
+		persister.saveGames( Stream.of( Game.name( "name1" ).machine( "machine" ).romA( "rom1" ).msxGenID( 11 ).build(),
+				Game.name( "name2" ).machine( "machine" ).romA( "rom2" ).msxGenID( 22 ).build() ).collect( Collectors.toSet() ), database1 );
+		persister.saveGames( Collections.singleton( Game.name( "name3" ).machine( "machine" ).romA( "rom3" ).msxGenID( 1100 ).build() ), database2 );
+
+		//more IDs than a single query takes
+		List<Integer> msxGenIds = IntStream.rangeClosed( 1, 1200 ).boxed().collect( Collectors.toList() );
+
+		Map<Integer,DatabaseItem> databaseItems = persister.getDatabaseItemsByMsxGenIds( msxGenIds );
+
+		assertEquals( 3, databaseItems.size() );
+		assertEquals( new DatabaseItem( "name1", database1 ), databaseItems.get( 11 ) );
+		assertEquals( new DatabaseItem( "name2", database1 ), databaseItems.get( 22 ) );
+		assertEquals( new DatabaseItem( "name3", database2 ), databaseItems.get( 1100 ) );
+		assertTrue( persister.getDatabaseItemsByMsxGenIds( Collections.emptyList() ).isEmpty() );
+	}
+
+	@Test
+	public void whenExportAndImportDatabase_thenAllGamesAndFieldsAreImported() throws GamePersistenceException, IOException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		Game game1 = Game.name( "testName1" ).machine( "testMachine1" ).info( "testInfo1" )
+				.romA( "testRomA1" ).romB( "testRomB1" ).extensionRom( "testExtensionRom1" )
+				.diskA( "testDiskA1" ).diskB( "testDiskB1" ).tape( "testTape" ).harddisk( "testHarddisk" )
+				.tclScript( "testTclScript" ).laserdisc( "testLaserdisc" )
+				.isMSX( true ).isMSX2( true ).isMSX2Plus( true ).isTurboR( true )
+				.isPSG( true ).isSCC( true ).isSCCI( true ).isPCM( true ).isMSXMUSIC( true ).isMSXAUDIO( true ).isMoonsound( true ).isMIDI( true )
+				.genre1( Genre.ADVENTURE_POINT_AND_CLICK ).genre2( Genre.BOARD_GAMES )
+				.msxGenID( 4567 ).sha1Code( "testSha1Code" ).size( 102030 ).screenshotSuffix( "tx" )
+				.fddMode( FDDMode.ENABLE_BOTH ).tclScriptOverride( true )
+				.inputDevice( InputDevice.JOYSTICK_KEYBOARD ).connectGFX9000( true )
+				.build();
+
+		Set<Game> games = IntStream.range( 0, 1200 )
+				.mapToObj( i -> Game.name( "game" + i ).machine( "machine" ).romA( "rom" + i ).sha1Code( "sha1" + i ).size( i ).build() )
+				.collect( Collectors.toSet() );
+		games.add( game1 );
+
+		persister.saveGames( games, database1 );
+
+		File exportFile = tmpFolder.newFile();
+
+		assertEquals( 1201, persister.exportDatabase( database1, exportFile ) );
+		assertEquals( 1201, persister.importDatabase( database2, exportFile ) );
+
+		Set<Game> importedGames = persister.getGames( database2 );
+		assertEquals( persister.getGames( database1 ), importedGames );
+
+		Game importedGame1 = importedGames.stream().filter( g -> g.getName().equals( "testName1" ) ).findFirst().get();
+		assertEquals( "testInfo1", importedGame1.getInfo() );
+		assertEquals( "testExtensionRom1", importedGame1.getExtensionRom() );
+		assertEquals( "testLaserdisc", importedGame1.getLaserdisc() );
+		assertTrue( importedGame1.isMoonsound() );
+		assertEquals( Genre.BOARD_GAMES, importedGame1.getGenre2() );
+		assertEquals( 4567, importedGame1.getMsxGenID() );
+		assertEquals( "testSha1Code", importedGame1.getSha1Code() );
+		assertEquals( 102030, importedGame1.getSize() );
+		assertEquals( "tx", importedGame1.getScreenshotSuffix() );
+		assertEquals( FDDMode.ENABLE_BOTH, importedGame1.getFDDMode() );
+		assertEquals( InputDevice.JOYSTICK_KEYBOARD, importedGame1.getInputDevice() );
+		assertTrue( importedGame1.isConnectGFX9000() );
+	}
+
+	@Test
+	public void givenExistingDatabase_whenImportDatabase_thenThrowException() throws GamePersistenceException, IOException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		File exportFile = tmpFolder.newFile();
+		persister.exportDatabase( database1, exportFile );
+
+		try
+		{
+			persister.importDatabase( database1, exportFile );
+			fail();
+		}
+		catch( GamePersistenceException gpe )
+		{
+			assertEquals( GamePersistenceExceptionIssue.DATABASE_ALREADY_EXISTS, gpe.getIssue() );
+		}
+	}
+
+	@Test
+	public void givenInvalidFile_whenImportDatabase_thenDatabaseIsNotCreated() throws GamePersistenceException, IOException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		File invalidFile = tmpFolder.newFile();
+		Files.write( invalidFile.toPath(), "name1|romA".getBytes( StandardCharsets.UTF_8 ) );
+
+		try
+		{
+			persister.importDatabase( database1, invalidFile );
+			fail();
+		}
+		catch( GamePersistenceException gpe )
+		{
+			assertEquals( GamePersistenceExceptionIssue.IO, gpe.getIssue() );
+		}
+
+		assertFalse( persister.getDatabases().contains( database1 ) );
+	}
+
+	@Test
+	public void givenExistingFile_whenExportDatabase_thenFileIsReplaced() throws GamePersistenceException, IOException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+		persister.saveGame( Game.name( "name1" ).machine( "machine" ).romA( "romA" ).sha1Code( "sha1" ).size( 1 ).build(), database1 );
+
+		File exportFolder = tmpFolder.newFolder();
+		File exportFile = new File( exportFolder, "export" );
+		Files.write( exportFile.toPath(), "old content".getBytes( StandardCharsets.UTF_8 ) );
+
+		assertEquals( 1, persister.exportDatabase( database1, exportFile ) );
+
+		assertEquals( 1, persister.importDatabase( database2, exportFile ) );
+		assertArrayEquals( new String[] { "export" }, exportFolder.list() );
+	}
+
+	@Test
+	public void givenExistingFile_whenExportDatabaseFails_thenFileIsKept() throws GamePersistenceException, IOException
+	{
+		EmbeddedDatabaseGamePersister persister = new EmbeddedDatabaseGamePersister( dbLocation );
+
+		persister.createDatabase( database1 );
+
+		File exportFolder = tmpFolder.newFolder();
+		File exportFile = new File( exportFolder, "export" );
+		byte[] content = "old content".getBytes( StandardCharsets.UTF_8 );
+		Files.write( exportFile.toPath(), content );
+
+		//the temporary file cannot be created where a folder with its name exists
+		assertTrue( new File( exportFolder, "export.tmp" ).mkdir() );
+
+		try
+		{
+			persister.exportDatabase( database1, exportFile );
+			fail();
+		}
+		catch( GamePersistenceException gpe )
+		{
+			assertEquals( GamePersistenceExceptionIssue.IO, gpe.getIssue() );
+		}
+
+		assertArrayEquals( content, Files.readAllBytes( exportFile.toPath() ) );
+	}
+
+	@Test
+	public void givenExistingFile_whenExportUnknownDatabase_thenFileIsKept() throws IOException
+	{
+		File exportFile = tmpFolder.newFile();
+		byte[] content = "old content".getBytes( StandardCharsets.UTF_8 );
+		Files.write( exportFile.toPath(), content );
+
+		try
+		{
+			new EmbeddedDatabaseGamePersister( dbLocation ).exportDatabase( "unknown", exportFile );
+			fail();
+		}
+		catch( GamePersistenceException gpe )
+		{
+			assertEquals( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, gpe.getIssue() );
+		}
+
+		assertArrayEquals( content, Files.readAllBytes( exportFile.toPath() ) );
+	}
+
+	@Test( expected = GamePersistenceException.class )
+	public void givenUnknownDatabase_whenExportDatabase_thenThrowException() throws GamePersistenceException, IOException
+	{
+		new EmbeddedDatabaseGamePersister( dbLocation ).exportDatabase( "unknown", tmpFolder.newFile() );
+	}
+
+	private int getRowCount( String table ) throws SQLException
+	{
+		try( Connection connection = DriverManager.getConnection( dbURL );
+				PreparedStatement statement = connection.prepareStatement( "SELECT COUNT(*) FROM " + table );
+				ResultSet result = statement.executeQuery() )
+		{
+			result.next();
+
+			return result.getInt( 1 );
+		}
+	}
+
 	private void initializeDatabasesForMachineUpdateTests() throws GamePersistenceException
 	{
 		Game game1 = Game.name( "name1" ).machine( "machine" ).romA( "romA" ).build();
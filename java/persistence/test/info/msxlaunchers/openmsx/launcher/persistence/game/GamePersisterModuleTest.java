@@ -1,5 +1,6 @@
 package info.msxlaunchers.openmsx.launcher.persistence.game;
 
+import info.msxlaunchers.openmsx.launcher.builder.GameBuilderModule;
 import info.msxlaunchers.openmsx.launcher.extra.ExtraDataModule;
 
 import org.junit.Test;
@@ -16,7 +17,7 @@ public class GamePersisterModuleTest
 	@Test
 	public void test_WhenRequestingInstances_ThenAllInstancesAreTheSame()
 	{
-		Injector injector = Guice.createInjector( new ConstantsModule(), new ExtraDataModule(), new GamePersisterModule() );
+		Injector injector = Guice.createInjector( new ConstantsModule(), new ExtraDataModule(), new GameBuilderModule(), new GamePersisterModule() );
 
 		GamePersister instance1 = injector.getInstance( GamePersister.class );
 		GamePersister instance2 = injector.getInstance( GamePersister.class );
@@ -31,6 +32,7 @@ public class GamePersisterModuleTest
 		{
 			bind( String.class ).annotatedWith( Names.named( "EmbeddedDatabaseFullPath" ) ).toInstance( "embeddedDatabaseFullPath" );
 			bind( String.class ).annotatedWith( Names.named( "LauncherDataDirectory" ) ).toInstance( "launcherDataDirectory" );
+			bind( String.class ).annotatedWith( Names.named( "UserDataDirectory" ) ).toInstance( "userDataDirectory" );
 			bind( String.class ).annotatedWith( Names.named( "GenerationMSXURL" ) ).toInstance( "generationMSXURL" );
 		}
 	}
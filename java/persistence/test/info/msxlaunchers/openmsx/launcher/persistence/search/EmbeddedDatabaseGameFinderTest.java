@@ -1,12 +1,15 @@
 package info.msxlaunchers.openmsx.launcher.persistence.search;
 
+import info.msxlaunchers.openmsx.launcher.builder.GameBuilderModule;
 import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
 import info.msxlaunchers.openmsx.launcher.persistence.BasicTestModule;
+import info.msxlaunchers.openmsx.launcher.persistence.DatabaseConnectionPool;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistence;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceException;
 import info.msxlaunchers.openmsx.launcher.persistence.LauncherPersistenceModule;
 import info.msxlaunchers.openmsx.launcher.persistence.game.GamePersistenceException;
+import info.msxlaunchers.openmsx.launcher.persistence.game.GameWriter;
 
 import java.io.File;
 import java.sql.Connection;
@@ -51,7 +54,8 @@ public class EmbeddedDatabaseGameFinderTest
 
 		Injector injector = Guice.createInjector(
 				new BasicTestModule( tmpFolder.getRoot().toString() ),
-	    		new LauncherPersistenceModule()
+	    		new LauncherPersistenceModule(),
+	    		new GameBuilderModule()
 				);
 
 		launcherPersistence = injector.getInstance( LauncherPersistence.class );
@@ -68,6 +72,59 @@ public class EmbeddedDatabaseGameFinderTest
 				statement.executeUpdate();
 			}
 		}
+
+		//the database IDs and games were deleted behind the persistence actions' back
+		DatabaseConnectionPool.clearDatabaseIds( dbLocation );
+		GameSearchIndexRegistry.invalidate( dbLocation );
+	}
+
+	@Test
+	public void givenGameWriter_whenChunksAreCommitted_thenSavedGamesAreSearchableWithoutRebuildingIndex() throws GamePersistenceException
+	{
+		launcherPersistence.getGamePersister().createDatabase( database1 );
+		launcherPersistence.getGamePersister().saveGame( Game.name( "racing" ).machine( "machine" ).romA( "romA" ).build(), database1 );
+
+		long generation = GameSearchIndexRegistry.getGeneration( dbLocation );
+
+		try( GameWriter gameWriter = launcherPersistence.getGamePersister().openGameWriter( database1, 1, null ) )
+		{
+			gameWriter.write( Game.name( "fighting" ).machine( "machine" ).romA( "romB" ).build() );
+
+			//the first chunk was committed
+			assertEquals( 1, launcherPersistence.getGameFinder().find( "fight", 5 ).size() );
+
+			//skipped as the name is taken
+			gameWriter.write( Game.name( "racing" ).machine( "machine" ).romA( "romC" ).build() );
+			gameWriter.write( Game.name( "fighting 2" ).machine( "machine" ).romA( "romD" ).build() );
+		}
+
+		assertEquals( generation, GameSearchIndexRegistry.getGeneration( dbLocation ) );
+		assertEquals( 2, launcherPersistence.getGameFinder().find( "fight", 5 ).size() );
+		assertEquals( 1, launcherPersistence.getGameFinder().find( "racing", 5 ).size() );
+	}
+
+	@Test
+	public void givenSearchedDatabase_whenGamesAreUpdatedAndDeleted_thenIndexIsNotRebuilt() throws GamePersistenceException
+	{
+		Game game1 = Game.name( "Knightmare" ).machine( "machine" ).romA( "romA" ).build();
+		Game game2 = Game.name( "Knightmare III" ).machine( "machine" ).romA( "romA" ).sha1Code( "3b6ebd" ).build();
+
+		launcherPersistence.getGamePersister().createDatabase( database1 );
+		launcherPersistence.getGamePersister().saveGame( game1, database1 );
+		assertEquals( 1, launcherPersistence.getGameFinder().find( "knight", 5 ).size() );
+
+		long generation = GameSearchIndexRegistry.getGeneration( dbLocation );
+
+		launcherPersistence.getGamePersister().updateGame( game1, game2, database1 );
+		Set<DatabaseItem> matches = launcherPersistence.getGameFinder().find( "knight", 5 );
+		assertEquals( 1, matches.size() );
+		assertTrue( matches.contains( new DatabaseItem( "Knightmare III", database1 ) ) );
+		assertEquals( 1, launcherPersistence.getGameFinder().find( "3b6e", 5 ).size() );
+
+		launcherPersistence.getGamePersister().deleteGame( game2, database1 );
+		assertEquals( 0, launcherPersistence.getGameFinder().find( "knight", 5 ).size() );
+
+		assertEquals( generation, GameSearchIndexRegistry.getGeneration( dbLocation ) );
 	}
 
 	@Test
@@ -122,6 +179,32 @@ public class EmbeddedDatabaseGameFinderTest
 		assertEquals( 0, matches.size() );
 	}
 
+	@Test
+	public void givenSearchedDatabase_whenGamesAreSavedRenamedAndDeleted_thenSearchReturnsCurrentGames() throws GamePersistenceException
+	{
+		Game game1 = Game.name( "Knightmare" ).machine( "machine" ).romA( "romA" ).build();
+		Game game2 = Game.name( "Knightmare II" ).machine( "machine" ).romA( "romB" ).build();
+
+		launcherPersistence.getGamePersister().createDatabase( database1 );
+		launcherPersistence.getGamePersister().saveGame( game1, database1 );
+
+		assertEquals( 1, launcherPersistence.getGameFinder().find( "knight", 5 ).size() );
+
+		launcherPersistence.getGamePersister().saveGame( game2, database1 );
+		assertEquals( 2, launcherPersistence.getGameFinder().find( "knight", 5 ).size() );
+
+		launcherPersistence.getGamePersister().renameDatabase( database1, database2 );
+		Set<DatabaseItem> matches = launcherPersistence.getGameFinder().find( "knight", 5 );
+		assertTrue( matches.contains( new DatabaseItem( "Knightmare", database2 ) ) );
+		assertTrue( matches.contains( new DatabaseItem( "Knightmare II", database2 ) ) );
+
+		launcherPersistence.getGamePersister().deleteGame( game1, database2 );
+		assertEquals( 1, launcherPersistence.getGameFinder().find( "knight", 5 ).size() );
+
+		launcherPersistence.getGamePersister().deleteDatabase( database2 );
+		assertEquals( 0, launcherPersistence.getGameFinder().find( "knight", 5 ).size() );
+	}
+
 	@Test
 	public void givenEmptyString_whenSearchDatabase_thenReturnEmptySet()
 	{
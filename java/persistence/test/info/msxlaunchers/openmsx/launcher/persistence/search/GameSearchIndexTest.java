@@ -0,0 +1,205 @@
+package info.msxlaunchers.openmsx.launcher.persistence.search;
+
+import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameSearchIndexTest
+{
+	private final List<DatabaseItem> items = new ArrayList<>();
+	private final List<String> sha1Codes = new ArrayList<>();
+
+	private void add( String gameName, String database, String sha1Code )
+	{
+		items.add( new DatabaseItem( gameName, database ) );
+		sha1Codes.add( sha1Code );
+	}
+
+	@Test
+	public void givenGames_whenFind_thenMatchesAreRanked()
+	{
+		add( "Space Manbow Deluxe", "database1", null );
+		add( "Manbow", "database1", null );
+		add( "Space Manbow", "database2", null );
+		add( "Manbow 2", "database1", null );
+		add( "Super Cobra", "database2", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes );
+
+		assertEquals( 5, index.size() );
+		assertEquals( Arrays.asList( new DatabaseItem( "Manbow", "database1" ),
+				new DatabaseItem( "Manbow 2", "database1" ),
+				new DatabaseItem( "Space Manbow", "database2" ),
+				new DatabaseItem( "Space Manbow Deluxe", "database1" ) ),
+				new ArrayList<>( index.find( "MANBOW", 10 ) ) );
+	}
+
+	@Test
+	public void givenMoreMatchesThanMaximum_whenFind_thenBestMatchesAreReturned()
+	{
+		add( "Zanac Ex", "database1", null );
+		add( "Zanac", "database1", null );
+		add( "Super Zanac", "database1", null );
+
+		Iterator<DatabaseItem> matches = new GameSearchIndex( items, sha1Codes ).find( "zanac", 2 ).iterator();
+
+		assertEquals( "Zanac", matches.next().getGameName() );
+		assertEquals( "Zanac Ex", matches.next().getGameName() );
+		assertTrue( !matches.hasNext() );
+	}
+
+	@Test
+	public void givenShortString_whenFind_thenPartialMatchesAreReturned()
+	{
+		add( "Xak", "database1", null );
+		add( "Nemesis", "database1", null );
+		add( "Penguin Adventure", "database2", null );
+
+		Set<DatabaseItem> matches = new GameSearchIndex( items, sha1Codes ).find( "e", 10 );
+
+		assertEquals( 2, matches.size() );
+		assertEquals( "Nemesis", matches.iterator().next().getGameName() );
+	}
+
+	@Test
+	public void givenSha1Prefix_whenFind_thenGamesWithSha1CodeAreReturned()
+	{
+		add( "Arcade", "database1", "A1E4FB56433309ED" );
+		add( "Racing", "database1", "a1e4cc00000000" );
+		add( "Sports", "database2", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes );
+
+		assertEquals( 2, index.find( "a1e4", 10 ).size() );
+
+		Set<DatabaseItem> matches = index.find( "a1e4fb", 10 );
+		assertEquals( 1, matches.size() );
+		assertTrue( matches.contains( new DatabaseItem( "Arcade", "database1" ) ) );
+	}
+
+	@Test
+	public void givenStringWithTypo_whenFind_thenCloseMatchesAreReturnedAfterPartialMatches()
+	{
+		add( "Metal Gear 2: Solid Snake", "database1", null );
+		add( "Metal Gear", "database2", null );
+		add( "Gradius", "database2", null );
+		add( "Metalion", "database1", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes );
+
+		assertEquals( Arrays.asList( new DatabaseItem( "Metal Gear", "database2" ),
+				new DatabaseItem( "Metal Gear 2: Solid Snake", "database1" ) ),
+				new ArrayList<>( index.find( "metl gear", 10 ) ) );
+
+		assertEquals( Arrays.asList( new DatabaseItem( "Gradius", "database2" ) ), new ArrayList<>( index.find( "gradious", 10 ) ) );
+
+		//two typos are only allowed in long strings
+		assertTrue( index.find( "grdious", 10 ).isEmpty() );
+		assertEquals( 1, index.find( "solod snaky", 10 ).size() );
+	}
+
+	@Test
+	public void givenNoMatches_whenFind_thenReturnEmptySet()
+	{
+		add( "Knightmare", "database1", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes );
+
+		assertTrue( index.find( "nothing", 10 ).isEmpty() );
+		assertTrue( index.find( "knight", 0 ).isEmpty() );
+	}
+
+	@Test( expected = UnsupportedOperationException.class )
+	public void whenAddToSetReturnedFromFind_thenThrowException()
+	{
+		add( "Knightmare", "database1", null );
+
+		new GameSearchIndex( items, sha1Codes ).find( "knight", 10 ).add( new DatabaseItem( "gameName", "database1" ) );
+	}
+
+	@Test
+	public void givenChangedIndex_whenFind_thenMatchesAreSameAsIndexOfCurrentGames()
+	{
+		add( "Space Manbow", "database1", null );
+		add( "Manbow", "database1", null );
+		add( "Manbow 2", "database2", "a1e4fb" );
+		add( "Super Cobra", "database2", null );
+		add( "Salamander", "database1", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes ).update(
+				Arrays.asList( new DatabaseItem( "Manbow", "database1" ), new DatabaseItem( "Salamander", "database1" ) ),
+				Collections.singletonMap( new DatabaseItem( "Manbow Deluxe", "database2" ), "a1e4aa" ) );
+
+		items.clear();
+		sha1Codes.clear();
+		add( "Space Manbow", "database1", null );
+		add( "Manbow 2", "database2", "a1e4fb" );
+		add( "Super Cobra", "database2", null );
+		add( "Manbow Deluxe", "database2", "a1e4aa" );
+		GameSearchIndex currentIndex = new GameSearchIndex( items, sha1Codes );
+
+		assertEquals( 4, index.size() );
+		for( String string: new String[] { "manbow", "man", "bow", "a1e4", "manbaw", "salamander", "cobra" } )
+		{
+			for( int maximumMatches = 1; maximumMatches <= 5; maximumMatches++ )
+			{
+				assertEquals( new ArrayList<>( currentIndex.find( string, maximumMatches ) ), new ArrayList<>( index.find( string, maximumMatches ) ) );
+			}
+		}
+	}
+
+	@Test
+	public void givenGameAddedAgain_whenFind_thenGameIsFoundOnce()
+	{
+		add( "Manbow", "database1", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes ).update( Collections.emptySet(),
+				Collections.singletonMap( new DatabaseItem( "Manbow", "database1" ), null ) );
+
+		assertEquals( 1, index.size() );
+		assertEquals( Collections.singletonList( new DatabaseItem( "Manbow", "database1" ) ), new ArrayList<>( index.find( "manbow", 5 ) ) );
+	}
+
+	@Test
+	public void givenRemovedDatabase_whenFind_thenItsGamesAreNotFound()
+	{
+		add( "Manbow", "database1", null );
+		add( "Manbow 2", "database2", null );
+
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes )
+				.update( Collections.emptySet(), Collections.singletonMap( new DatabaseItem( "Manbow 3", "database2" ), null ) )
+				.removeDatabase( "database2" );
+
+		assertEquals( 1, index.size() );
+		assertEquals( Collections.singletonList( new DatabaseItem( "Manbow", "database1" ) ), new ArrayList<>( index.find( "manbow", 5 ) ) );
+	}
+
+	@Test
+	public void givenManyChanges_whenUpdate_thenIndexIsBuiltAgain()
+	{
+		GameSearchIndex index = new GameSearchIndex( items, sha1Codes );
+
+		Map<DatabaseItem,String> addedItems = new HashMap<>();
+		for( int count = 0; count < 300; count++ )
+		{
+			addedItems.put( new DatabaseItem( "Game " + count, "database1" ), null );
+		}
+		index = index.update( Collections.emptySet(), addedItems );
+
+		assertEquals( 300, index.size() );
+		assertEquals( Collections.singletonList( new DatabaseItem( "Game 299", "database1" ) ), new ArrayList<>( index.find( "game 299", 1 ) ) );
+		assertEquals( 300, index.update( Collections.emptySet(), Collections.emptyMap() ).size() );
+	}
+}
@@ -16,14 +16,20 @@
 package info.msxlaunchers.openmsx.launcher.related;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -104,6 +110,13 @@ final class RelatedGamesImpl implements RelatedGames
 		clusters.stream().forEach( cluster -> idToCluster.putAll( cluster.stream().collect( Collectors.toMap( Function.identity(), c -> cluster ) ) ) );
 	}
 
+	//highest score first - equal scores are ordered by name to keep the results stable
+	private static final Comparator<SimilarGame> SIMILAR_GAME_ORDER = Comparator.comparingInt( SimilarGame::getScore ).reversed()
+			.thenComparing( g -> g.relatedGame.getGameName() );
+
+	//the index is built once for a repository and extra data snapshot and reused by all instances
+	private static volatile RelatedGamesIndex cachedIndex = null;
+
 	private final ExtraDataGetter extraDataGetter;
 	private final Map<String,RepositoryGame> repositoryInfoMap;
 
@@ -132,112 +145,236 @@ final class RelatedGamesImpl implements RelatedGames
 			throw ioe;
 		}
 
-		Set<SimilarGame> similarGames = new HashSet<>();
+		return getIndex( extraDataMap ).findRelated( game );
+	}
 
-		RepositoryGame repositoryGame = repositoryInfoMap.get( game.getSha1Code() );
+	private RelatedGamesIndex getIndex( Map<String,ExtraData> extraDataMap )
+	{
+		RelatedGamesIndex index = cachedIndex;
 
-		String companyOfSelectedGame;
-		Set<String> gameNameParts;
-		if( repositoryGame == null )
+		if( index == null || !index.isFor( repositoryInfoMap, extraDataMap ) )
 		{
-			companyOfSelectedGame = "";
-			gameNameParts = getNormalizedStrings( game.getName() );
+			index = new RelatedGamesIndex( repositoryInfoMap, extraDataMap );
+			cachedIndex = index;
 		}
-		else
+
+		return index;
+	}
+
+	private static final class RelatedGamesIndex
+	{
+		private final Map<String,RepositoryGame> repositoryInfoMap;
+		private final Map<String,ExtraData> extraDataMap;
+
+		//per indexed repository game
+		private final List<RelatedGame> relatedGames = new ArrayList<>();
+		private final List<Integer> titlePartsCounts = new ArrayList<>();
+		private final List<Genre> genres1 = new ArrayList<>();
+		private final List<Genre> genres2 = new ArrayList<>();
+
+		//postings: signal -> positions of the indexed repository games that have it
+		private final Map<String,List<Integer>> titlePartPostings = new HashMap<>();
+		private final Map<Genre,List<Integer>> genrePostings = new EnumMap<>( Genre.class );
+		private final Map<String,List<Integer>> companyPostings = new HashMap<>();
+		private final Map<Integer,List<Integer>> clusterIdPostings = new HashMap<>();
+
+		private final Map<List<Object>,List<RelatedGame>> cachedResults = new ConcurrentHashMap<>();
+
+		RelatedGamesIndex( Map<String,RepositoryGame> repositoryInfoMap, Map<String,ExtraData> extraDataMap )
 		{
-			companyOfSelectedGame = repositoryGame.getCompany();
-			gameNameParts = getNormalizedStrings( repositoryGame.getTitle() );
+			this.repositoryInfoMap = repositoryInfoMap;
+			this.extraDataMap = extraDataMap;
+
+			for( Map.Entry<String,RepositoryGame> entry: repositoryInfoMap.entrySet() )
+			{
+				RepositoryGame repositoryGame = entry.getValue();
+				ExtraData extraData = extraDataMap.get( entry.getKey() );
+
+				//limit the results to MSX system only (i.e. exclude others such as ColecoVision)
+				if( "MSX".equals( repositoryGame.getSystem() ) && extraData != null )
+				{
+					addToIndex( repositoryGame, extraData );
+				}
+			}
 		}
 
-		Set<Integer> clusterForGivenGame = idToCluster.get( game.getMsxGenID() );
+		boolean isFor( Map<String,RepositoryGame> repositoryInfoMap, Map<String,ExtraData> extraDataMap )
+		{
+			return this.repositoryInfoMap == repositoryInfoMap && this.extraDataMap == extraDataMap;
+		}
+
+		List<RelatedGame> findRelated( Game game )
+		{
+			List<Object> key = Arrays.asList( game.getSha1Code(), game.getName(), game.getGenre1(), game.getGenre2(), game.getMsxGenID() );
 
-		for( Map.Entry<String,RepositoryGame> entry: repositoryInfoMap.entrySet() )
+			return cachedResults.computeIfAbsent( key, k -> getRelatedGames( game ) );
+		}
+
+		private void addToIndex( RepositoryGame repositoryGame, ExtraData extraData )
 		{
-			//limit the results to MSX system only (i.e. exclude others such as ColecoVision)
-			if( "MSX".equals( entry.getValue().getSystem() ) )
+			Integer position = relatedGames.size();
+			Set<String> titleParts = getNormalizedStrings( repositoryGame.getTitle() );
+			Genre genre1 = Genre.fromValue( extraData.getGenre1() );
+			Genre genre2 = Genre.fromValue( extraData.getGenre2() );
+
+			relatedGames.add( new RelatedGame( repositoryGame.getTitle(), repositoryGame.getCompany(), repositoryGame.getYear(),
+					extraData.getMSXGenerationsID() ) );
+			titlePartsCounts.add( titleParts.size() );
+			genres1.add( genre1 );
+			genres2.add( genre2 );
+
+			titleParts.forEach( part -> addPosting( titlePartPostings, part, position ) );
+			if( !genre1.equals( Genre.UNKNOWN ) )
 			{
-				String companyOfRepositoryGame = entry.getValue().getCompany();
-				String repositoryTitle = entry.getValue().getTitle();
+				addPosting( genrePostings, genre1, position );
+			}
+			if( !genre2.equals( Genre.UNKNOWN ) && !genre2.equals( genre1 ) )
+			{
+				addPosting( genrePostings, genre2, position );
+			}
+			if( !repositoryGame.getCompany().isEmpty() )
+			{
+				addPosting( companyPostings, repositoryGame.getCompany(), position );
+			}
+			if( idToCluster.containsKey( extraData.getMSXGenerationsID() ) )
+			{
+				addPosting( clusterIdPostings, extraData.getMSXGenerationsID(), position );
+			}
+		}
 
-				int score = 0;
-				String sha1CodeOfRepositoryGame = entry.getKey();
-				ExtraData extraData = extraDataMap.get( sha1CodeOfRepositoryGame );
+		private <K> void addPosting( Map<K,List<Integer>> postings, K key, Integer position )
+		{
+			postings.computeIfAbsent( key, k -> new ArrayList<>() ).add( position );
+		}
+
+		private List<RelatedGame> getRelatedGames( Game game )
+		{
+			RepositoryGame repositoryGame = repositoryInfoMap.get( game.getSha1Code() );
 
-				if( extraData != null && extraData.getMSXGenerationsID() != game.getMsxGenID() )
+			String companyOfSelectedGame;
+			Set<String> gameNameParts;
+			if( repositoryGame == null )
+			{
+				companyOfSelectedGame = "";
+				gameNameParts = getNormalizedStrings( game.getName() );
+			}
+			else
+			{
+				companyOfSelectedGame = repositoryGame.getCompany();
+				gameNameParts = getNormalizedStrings( repositoryGame.getTitle() );
+			}
+
+			Set<Integer> clusterForGivenGame = idToCluster.get( game.getMsxGenID() );
+
+			//only games that share at least one signal with the selected game can have a score above zero
+			BitSet candidates = new BitSet( relatedGames.size() );
+			int[] nameMatches = new int[relatedGames.size()];
+
+			for( String part: gameNameParts )
+			{
+				for( int position: titlePartPostings.getOrDefault( part, Collections.emptyList() ) )
 				{
-					score += getNameScore( repositoryTitle, gameNameParts );
-					score += getGenreScore( extraData, game );
-					score += getCompanyScore( companyOfRepositoryGame, companyOfSelectedGame );
-					score += getClusterScore( clusterForGivenGame, extraData.getMSXGenerationsID() );
+					nameMatches[position]++;
+					candidates.set( position );
+				}
+			}
+			if( !game.getGenre1().equals( Genre.UNKNOWN ) )
+			{
+				addCandidates( candidates, genrePostings.get( game.getGenre1() ) );
+			}
+			if( !game.getGenre2().equals( Genre.UNKNOWN ) )
+			{
+				addCandidates( candidates, genrePostings.get( game.getGenre2() ) );
+			}
+			if( !companyOfSelectedGame.isEmpty() )
+			{
+				addCandidates( candidates, companyPostings.get( companyOfSelectedGame ) );
+			}
+			if( clusterForGivenGame != null )
+			{
+				clusterForGivenGame.forEach( id -> addCandidates( candidates, clusterIdPostings.get( id ) ) );
+			}
+
+			//keep the best scoring entry per game, as the repository can have several dumps of the same game
+			Map<Integer,SimilarGame> similarGames = new HashMap<>();
+			for( int position = candidates.nextSetBit( 0 ); position >= 0; position = candidates.nextSetBit( position + 1 ) )
+			{
+				RelatedGame relatedGame = relatedGames.get( position );
+
+				if( relatedGame.getMSXGenId() != game.getMsxGenID() )
+				{
+					int score = getNameScore( nameMatches[position], titlePartsCounts.get( position ), gameNameParts.size() );
+					score += getGenreScore( genres1.get( position ), genres2.get( position ), game );
+					score += getCompanyScore( relatedGame.getCompany(), companyOfSelectedGame );
+					score += getClusterScore( clusterForGivenGame, relatedGame.getMSXGenId() );
 
 					if( score > 0 )
 					{
-						SimilarGame similarGame = new SimilarGame( new RelatedGame( repositoryTitle, entry.getValue().getCompany(), entry.getValue().getYear(),
-								extraData.getMSXGenerationsID()), score );
-						if( !similarGames.contains( similarGame ) )
-						{
-							similarGames.add( similarGame );
-						}
+						similarGames.merge( relatedGame.getMSXGenId(), new SimilarGame( relatedGame, score ),
+								(g1, g2) -> SIMILAR_GAME_ORDER.compare( g1, g2 ) <= 0 ? g1 : g2 );
 					}
 				}
 			}
-		}
 
-		//order by score and get top 15
-		return similarGames.stream()
-				.sorted( Comparator.comparingInt( SimilarGame::getScore ).reversed() )
-				.map( g -> g.relatedGame )
-				.limit( MAX_SIZE_RESULTS )
-				.collect( Collectors.collectingAndThen( Collectors.toList(), Collections::unmodifiableList ) );
-	}
+			//order by score and get top 15 - the head of the queue is the worst of the kept games
+			PriorityQueue<SimilarGame> topGames = new PriorityQueue<>( MAX_SIZE_RESULTS + 1, SIMILAR_GAME_ORDER.reversed() );
+			for( SimilarGame similarGame: similarGames.values() )
+			{
+				topGames.offer( similarGame );
+				if( topGames.size() > MAX_SIZE_RESULTS )
+				{
+					topGames.poll();
+				}
+			}
 
-	private int getNameScore( String repositoryTitle, Set<String> gameNameParts )
-	{
-		Set<String> repositoryTitleParts = getNormalizedStrings( repositoryTitle );
-		int score = 0;
+			return topGames.stream()
+					.sorted( SIMILAR_GAME_ORDER )
+					.map( g -> g.relatedGame )
+					.collect( Collectors.collectingAndThen( Collectors.toList(), Collections::unmodifiableList ) );
+		}
 
-		int matches = 0;
-		for( String part: gameNameParts )
+		private void addCandidates( BitSet candidates, Collection<Integer> positions )
 		{
-			if( repositoryTitleParts.contains( part ) )
+			if( positions != null )
 			{
-				if( repositoryTitleParts.size() == 1 || gameNameParts.size() == 1 )
-				{
-					score += NAME_MATCH_ONE_WORD_GAME_SCORE;
-				}
-				else
-				{
-					matches++;
-					score += (matches == 1) ? NAME_MATCH_ONE_IN_MANY_WORDS_SCORE : NAME_MATCH_TWO_OR_MORE_IN_MANY_WORDS_SCORE;
-				}
+				positions.forEach( candidates::set );
 			}
 		}
+	}
 
-		return score;
+	private static int getNameScore( int matches, int repositoryTitlePartsCount, int gameNamePartsCount )
+	{
+		if( matches == 0 )
+		{
+			return 0;
+		}
+		else if( repositoryTitlePartsCount == 1 || gameNamePartsCount == 1 )
+		{
+			return matches * NAME_MATCH_ONE_WORD_GAME_SCORE;
+		}
+		else
+		{
+			return NAME_MATCH_ONE_IN_MANY_WORDS_SCORE + (matches - 1) * NAME_MATCH_TWO_OR_MORE_IN_MANY_WORDS_SCORE;
+		}
 	}
 
-	private int getGenreScore( ExtraData extraData, Game game )
+	private static int getGenreScore( Genre genre1OfRepositoryGame, Genre genre2OfRepositoryGame, Game game )
 	{
-		int score = 0;
+		Genre selectedGameGenre1 = game.getGenre1();
+		Genre selectedGameGenre2 = game.getGenre2();
 
-		if( extraData != null )
+		if( (!selectedGameGenre1.equals( Genre.UNKNOWN ) && (selectedGameGenre1.equals( genre1OfRepositoryGame ) || selectedGameGenre1.equals( genre2OfRepositoryGame ))) ||
+				(!selectedGameGenre2.equals( Genre.UNKNOWN ) && (selectedGameGenre2.equals( genre1OfRepositoryGame ) || selectedGameGenre2.equals( genre2OfRepositoryGame ))) )
 		{
-			Genre selectedGameGenre1 = game.getGenre1();
-			Genre selectedGameGenre2 = game.getGenre2();
-			Genre genre1OfRepositoryGame = Genre.fromValue( extraData.getGenre1() );
-			Genre genre2OfRepositoryGame = Genre.fromValue( extraData.getGenre2() );
-
-			if( (!selectedGameGenre1.equals( Genre.UNKNOWN ) && (selectedGameGenre1.equals( genre1OfRepositoryGame ) || selectedGameGenre1.equals( genre2OfRepositoryGame ))) ||
-					(!selectedGameGenre2.equals( Genre.UNKNOWN ) && (selectedGameGenre2.equals( genre1OfRepositoryGame ) || selectedGameGenre2.equals( genre2OfRepositoryGame ))) )
-			{
-				score = GENRE_MATCH_SCORE;
-			}
+			return GENRE_MATCH_SCORE;
+		}
+		else
+		{
+			return 0;
 		}
-
-		return score;
 	}
 
-	private int getCompanyScore( String companyOfRepositoryGame, String companyOfSelectedGame )
+	private static int getCompanyScore( String companyOfRepositoryGame, String companyOfSelectedGame )
 	{
 		if( !companyOfRepositoryGame.isEmpty() && companyOfRepositoryGame.equals( companyOfSelectedGame ) )
 		{
@@ -249,7 +386,7 @@ final class RelatedGamesImpl implements RelatedGames
 		}
 	}
 
-	private int getClusterScore( Set<Integer> clusterForGivenGame, int extraDataGenMSXId )
+	private static int getClusterScore( Set<Integer> clusterForGivenGame, int extraDataGenMSXId )
 	{
 		if( clusterForGivenGame != null && clusterForGivenGame.contains( extraDataGenMSXId ) )
 		{
@@ -261,7 +398,7 @@ final class RelatedGamesImpl implements RelatedGames
 		}
 	}
 
-	private class SimilarGame
+	private static final class SimilarGame
 	{
 		private final RelatedGame relatedGame;
 		private final int score;
@@ -273,28 +410,9 @@ final class RelatedGamesImpl implements RelatedGames
 		}
 
 		int getScore() { return score; }
-
-		@Override
-		public boolean equals( Object other )
-		{
-			if( other == null || !(other instanceof SimilarGame) )
-			{
-				return false;
-			}
-			else
-			{
-				return relatedGame.equals( ((SimilarGame)other).relatedGame );
-			}
-		}
-
-		@Override
-		public int hashCode()
-		{
-			return relatedGame.hashCode();
-		}
 	}
 
-	private Set<String> getNormalizedStrings( String string )
+	private static Set<String> getNormalizedStrings( String string )
 	{
 		String[] parts = string.split( " " );
 
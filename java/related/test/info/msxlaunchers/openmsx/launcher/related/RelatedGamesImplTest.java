@@ -77,6 +77,74 @@ public class RelatedGamesImplTest
 		relatedGames.add( new RelatedGame( "gameName", "company", "1990", 100 ) );
 	}
 
+	@Test
+	public void givenMoreRelatedGamesThanMaximum_whenFindRelated_thenReturnTopGamesOrderedByScoreAndName() throws IOException
+	{
+		Map<String,ExtraData> extraDataMap = new HashMap<>();
+		Map<String,RepositoryGame> repositoryInfoMap = new HashMap<>();
+		for( int index = 0; index < 20; index++ )
+		{
+			extraDataMap.put( "hash" + index, new ExtraData( 100 + index, 2, 3, Genre.PUZZLE.getValue(), 0, "" ) );
+			repositoryInfoMap.put( "hash" + index, RepositoryGame.title( "Puzzle " + (char)('T' - index) ).company( "" ).system( "MSX" ).year( "1990" ).country( "AA" ).build() );
+		}
+		extraDataMap.put( "other", new ExtraData( 200, 2, 3, Genre.PUZZLE.getValue(), 0, "" ) );
+		repositoryInfoMap.put( "other", RepositoryGame.title( "Quiz" ).company( "" ).system( "MSX" ).year( "1990" ).country( "AA" ).build() );
+		extraDataMap.put( "coleco", new ExtraData( 300, 2, 3, Genre.PUZZLE.getValue(), 0, "" ) );
+		repositoryInfoMap.put( "coleco", RepositoryGame.title( "Puzzle Coleco" ).company( "" ).system( "ColecoVision" ).year( "1990" ).country( "AA" ).build() );
+
+		Mockito.when( extraDataGetter.getExtraData() ).thenReturn( extraDataMap );
+
+		//"i" is not part of the normalized title, so "Puzzle I" is a one word title with a higher score
+		List<RelatedGame> relatedGames = new RelatedGamesImpl( extraDataGetter, repositoryInfoMap )
+				.findRelated( Game.name( "Puzzle Party" ).sha1Code( "unknown" ).genre1( Genre.PUZZLE ).genre2( Genre.UNKNOWN ).msxGenID( 1 ).build() );
+
+		Assert.assertEquals( Arrays.asList( "Puzzle I", "Puzzle A", "Puzzle B", "Puzzle C", "Puzzle D", "Puzzle E", "Puzzle F", "Puzzle G",
+				"Puzzle H", "Puzzle J", "Puzzle K", "Puzzle L", "Puzzle M", "Puzzle N", "Puzzle O" ), getMatchedGameNames( relatedGames ) );
+	}
+
+	@Test
+	public void givenSameRepositoryAndExtraData_whenFindRelatedAgain_thenReturnCachedResult() throws IOException
+	{
+		Map<String,ExtraData> extraDataMap = new HashMap<>();
+		extraDataMap.put( "hash1", new ExtraData( 11, 2, 3, Genre.SHOOT_EM_UP_ALL.getValue(), 0, "" ) );
+		extraDataMap.put( "hash2", new ExtraData( 22, 2, 3, Genre.SHOOT_EM_UP_ALL.getValue(), 0, "" ) );
+
+		Map<String,RepositoryGame> repositoryInfoMap = new HashMap<>();
+		repositoryInfoMap.put( "hash1", RepositoryGame.title( "Gradius" ).company( "kona" ).system( "MSX" ).year( "1990" ).country( "AA" ).build() );
+		repositoryInfoMap.put( "hash2", RepositoryGame.title( "Manbow" ).company( "kona" ).system( "MSX" ).year( "1980" ).country( "BB" ).build() );
+
+		Mockito.when( extraDataGetter.getExtraData() ).thenReturn( extraDataMap );
+
+		Game game = Game.name( "Name is irrelevant" ).sha1Code( "hash1" ).genre1( Genre.SHOOT_EM_UP_ALL ).genre2( Genre.UNKNOWN ).msxGenID( 11 ).build();
+		List<RelatedGame> relatedGames = new RelatedGamesImpl( extraDataGetter, repositoryInfoMap ).findRelated( game );
+
+		Assert.assertEquals( Arrays.asList( "Manbow" ), getMatchedGameNames( relatedGames ) );
+		Assert.assertSame( relatedGames, new RelatedGamesImpl( extraDataGetter, repositoryInfoMap ).findRelated( game ) );
+	}
+
+	@Test
+	public void givenChangedExtraData_whenFindRelatedAgain_thenReturnUpdatedResult() throws IOException
+	{
+		Map<String,ExtraData> extraDataMap = new HashMap<>();
+		extraDataMap.put( "hash1", new ExtraData( 11, 2, 3, Genre.SHOOT_EM_UP_ALL.getValue(), 0, "" ) );
+		extraDataMap.put( "hash2", new ExtraData( 22, 2, 3, Genre.MAZE.getValue(), 0, "" ) );
+
+		Map<String,ExtraData> updatedExtraDataMap = new HashMap<>( extraDataMap );
+		updatedExtraDataMap.put( "hash2", new ExtraData( 22, 2, 3, Genre.SHOOT_EM_UP_ALL.getValue(), 0, "" ) );
+
+		Map<String,RepositoryGame> repositoryInfoMap = new HashMap<>();
+		repositoryInfoMap.put( "hash1", RepositoryGame.title( "Gradius" ).company( "kona" ).system( "MSX" ).year( "1990" ).country( "AA" ).build() );
+		repositoryInfoMap.put( "hash2", RepositoryGame.title( "Pac-Man" ).company( "namco" ).system( "MSX" ).year( "1984" ).country( "BB" ).build() );
+
+		Mockito.when( extraDataGetter.getExtraData() ).thenReturn( extraDataMap, updatedExtraDataMap );
+
+		Game game = Game.name( "Name is irrelevant" ).sha1Code( "hash1" ).genre1( Genre.SHOOT_EM_UP_ALL ).genre2( Genre.UNKNOWN ).msxGenID( 11 ).build();
+		RelatedGamesImpl relatedGamesImpl = new RelatedGamesImpl( extraDataGetter, repositoryInfoMap );
+
+		Assert.assertTrue( relatedGamesImpl.findRelated( game ).isEmpty() );
+		Assert.assertEquals( Arrays.asList( "Pac-Man" ), getMatchedGameNames( relatedGamesImpl.findRelated( game ) ) );
+	}
+
 	private List<String> getMatchedGameNames( List<RelatedGame> relatedGames )
 	{
 		return relatedGames.stream().map( RelatedGame::getGameName ).collect( Collectors.toList() );
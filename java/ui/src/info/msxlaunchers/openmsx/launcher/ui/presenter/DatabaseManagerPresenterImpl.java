@@ -172,7 +172,7 @@ final class DatabaseManagerPresenterImpl implements DatabaseManagerPresenter
 		int gamesTotal = 0;
 		try
 		{
-			gamesTotal = launcherPersistence.getGamePersister().getGames( database ).size();
+			gamesTotal = launcherPersistence.getGamePersister().getGameCount( database );
 		}
 		catch( GamePersistenceException gpe )
 		{
@@ -210,7 +210,7 @@ final class DatabaseManagerPresenterImpl implements DatabaseManagerPresenter
 		{
 			try
 			{
-				totalGames += persister.getGames( database ).size();
+				totalGames += persister.getGameCount( database );
 				totalBackups += persister.getBackups( database ).size();
 			}
 			catch( GamePersistenceException gpe )
@@ -252,7 +252,7 @@ final class DatabaseManagerPresenterImpl implements DatabaseManagerPresenter
 		int total = 0;
 		try
 		{
-			total = launcherPersistence.getGamePersister().getGames( database ).size();
+			total = launcherPersistence.getGamePersister().getGameCount( database );
 		}
 		catch( GamePersistenceException e )
 		{
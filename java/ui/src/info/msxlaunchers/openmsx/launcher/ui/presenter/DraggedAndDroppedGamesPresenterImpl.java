@@ -124,6 +124,11 @@ final class DraggedAndDroppedGamesPresenterImpl implements DraggedAndDroppedGame
 			{
 				throw new LauncherException( LauncherExceptionCode.ERR_DATABASE_NOT_FOUND, currentDatabase );
 			}
+			else if( gpe.getIssue().equals( GamePersistenceExceptionIssue.IO ) )
+			{
+				//saving the found games failed
+				throw new LauncherException( LauncherExceptionCode.ERR_IO );
+			}
 		}
 		catch( IOException e )
 		{
@@ -65,6 +65,15 @@ public interface MainPresenter
 	 */
 	void onSelectGames( Set<String> gameNames );
 
+	/**
+	 * Returns full paths to the two screenshots of a game in the current database. The files may not exist
+	 * 
+	 * @param gameName Name of game
+	 * @return Array containing paths to screenshot1 and screenshot2, or null if the game has no screenshots
+	 * @since v1.14
+	 */
+	String[] getGameScreenshotPaths( String gameName );
+
 	/**
 	 * Resets all buttons to initial state
 	 */
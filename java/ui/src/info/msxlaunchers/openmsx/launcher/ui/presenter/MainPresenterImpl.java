@@ -21,8 +21,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Map;
@@ -43,11 +43,13 @@ import info.msxlaunchers.openmsx.common.Utils;
 import info.msxlaunchers.openmsx.common.version.VersionUtils;
 import info.msxlaunchers.openmsx.game.repository.RepositoryData;
 import info.msxlaunchers.openmsx.launcher.data.extra.ExtraData;
+import info.msxlaunchers.openmsx.launcher.data.filter.CompiledFilter;
 import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
 import info.msxlaunchers.openmsx.launcher.data.filter.FilterFactory;
+import info.msxlaunchers.openmsx.launcher.data.filter.GameAttributeIndex;
 import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
-import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.data.game.GameSummary;
 import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
 import info.msxlaunchers.openmsx.launcher.data.settings.Settings;
 import info.msxlaunchers.openmsx.launcher.data.settings.constants.Language;
@@ -104,6 +106,7 @@ final class MainPresenterImpl implements MainPresenter
 
 	private static final String DEFAULT_SYSTEM_LANGUAGE = "SYSTEM_DEFAULT";
 	private static final int MAX_SEARCH_MATCHES = 10;
+	private static final int MAXIMUM_LOADED_GAMES = 16;
 
 	//the following fields represent the model
 	private Settings settings;
@@ -115,12 +118,24 @@ final class MainPresenterImpl implements MainPresenter
 
 	private Set<String> databases = null;
 	private String currentDatabase = null;;
-	private Map<String,Game> gamesMap = null;
-	private String openMSXMachinesFullPath = null;
-	private Map<String,RepositoryGame> repositoryInfoMap;
+	private Map<String,GameSummary> gamesMap = null;
+	//the list only holds game summaries. Full games are read when needed for the selected game and its neighbours in the list
+	private final Map<String,Game> loadedGames = new LinkedHashMap<String,Game>( 16, 0.75f, true )
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<String,Game> eldest )
+		{
+			return size() > MAXIMUM_LOADED_GAMES;
+		}
+	};
 
 	private Set<Filter> currentFilter = null;
 	private String currentFilterName = null;
+	private String unfilteredDatabase = null;
+	private GameAttributeIndex gameIndex = null;
+	private Map<String,RepositoryGame> gameIndexRepositoryInfoMap = null;
 	private boolean untitledFilter = false;
 	private boolean filterEditMode = false;
 
@@ -239,9 +254,6 @@ final class MainPresenterImpl implements MainPresenter
 		{
 			this.feedServicePresenter.startService();
 		}
-
-		openMSXMachinesFullPath = settings.getOpenMSXMachinesFullPath();
-		initializeRepositoryInfoMap();
 	}
 
 	/* (non-Javadoc)
@@ -273,13 +285,6 @@ final class MainPresenterImpl implements MainPresenter
 		Settings oldSettings = this.settings;
 		this.settings = newSettings;
 
-		//check if the openMSX path changed so we reload the Repository Info Map
-		if( !Utils.equalStrings( this.openMSXMachinesFullPath, settings.getOpenMSXMachinesFullPath() ) )
-		{
-			this.openMSXMachinesFullPath = settings.getOpenMSXMachinesFullPath();
-			initializeRepositoryInfoMap();
-		}
-
 		//only do the following if the a new language was selected
 		Language oldLanguage = oldSettings.getLanguage();
 		Language newLanguage = settings.getLanguage();
@@ -342,7 +347,7 @@ final class MainPresenterImpl implements MainPresenter
 	{
 		try
 		{
-			emulatorStarter.start( settings, gamesMap.get( gameName ) );
+			emulatorStarter.start( settings, getGame( gameName ) );
 
 			LauncherLogger.logMessage( LogEvent.LAUNCH, gameName + "[" + currentDatabase + "]" );
 		}
@@ -376,7 +381,7 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onRequestEditGameScreen( String gameName ) throws LauncherException
 	{
-		Game game = gamesMap.get( gameName );
+		Game game = getGame( gameName );
 
 		profileEditingPresenterFactory.create( settings, currentDatabase, game ).onRequestEditGameScreen( currentLanguage, Language.isRightToLeft( currentLanguage ) );
 	}
@@ -387,8 +392,12 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onAcceptAddGameSaveAction( Game game ) throws LauncherException
 	{
-		gamesMap.put( game.getName(), game );
-		view.fillGameList( currentDatabase, getSortedGameList(), game.getName() );
+		GameSummary gameSummary = GameSummary.of( game );
+
+		gamesMap.put( game.getName(), gameSummary );
+		loadedGames.put( game.getName(), game );
+		view.updateGameList( Collections.emptySet(), Collections.singleton( getGameLabel( gameSummary, getRepositoryInfoMap() ) ), game.getName() );
+		view.updateGameCount( gamesMap.size() );
 	}
 
 	/* (non-Javadoc)
@@ -397,9 +406,17 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onAcceptEditGameSaveAction( String oldName, Game game ) throws LauncherException
 	{
+		GameSummary gameSummary = GameSummary.of( game );
+
 		gamesMap.remove( oldName );
-		gamesMap.put( game.getName(),  game );
-		view.fillGameList( currentDatabase, getSortedGameList(), game.getName() );
+		gamesMap.put( game.getName(), gameSummary );
+		loadedGames.remove( oldName );
+		loadedGames.put( game.getName(), game );
+
+		//a game that kept its name is replaced in the list rather than removed
+		Set<String> removedGames = oldName.equals( game.getName() ) ? Collections.emptySet() : Collections.singleton( oldName );
+		view.updateGameList( removedGames, Collections.singleton( getGameLabel( gameSummary, getRepositoryInfoMap() ) ), game.getName() );
+		view.updateGameCount( gamesMap.size() );
 	}
 
 	/* (non-Javadoc)
@@ -408,11 +425,12 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onRequestRemoveGamesAction( Set<String> gameNames ) throws LauncherException
 	{
-		//create a Game set from the game names
+		//create a Game set from the game names. Games are deleted by name so they don't need to be read first
 		Set<Game> games = new HashSet<>();
 
 		gameNames.forEach( gameName -> {
-			games.add( gamesMap.get( gameName ) );
+			Game game = loadedGames.remove( gameName );
+			games.add( game == null ? Game.name( gameName ).build() : game );
 			gamesMap.remove( gameName );
 			} );
 
@@ -461,56 +479,22 @@ final class MainPresenterImpl implements MainPresenter
 		else
 		{
 			//this is the single selection case
-			Game game = gamesMap.get( gameNames.iterator().next() );
-
-			String screenshot1 = null;
-			String screenshot2 = null;
+			String gameName = gameNames.iterator().next();
+			Game game = findGame( gameName );
 
 			if( game != null )
 			{
-				String screenshotsPath = settings.getScreenshotsFullPath();
-				if( screenshotsPath != null )
+				//the view checks whether the screenshot files exist when it loads them
+				String[] screenshots = getGameScreenshotPaths( gameName );
+				if( screenshots == null )
 				{
-					int msxGenID = game.getMsxGenID();
-					if( msxGenID > 0 )
-					{
-						StringBuilder screenshot1Filename = new StringBuilder( Utils.getString( msxGenID ) )
-															.append( SCREENSHOT1_SUFFIX );
-						String screenshotSuffix = game.getScreenshotSuffix();
-						if( screenshotSuffix != null )
-						{
-							screenshot1Filename.append( screenshotSuffix );
-						}
-						screenshot1Filename.append( SCREENSHOT_EXT );
-
-						File screenshot1File = new File( screenshotsPath, screenshot1Filename.toString() );
-						if( screenshot1File.isFile() )
-						{
-							screenshot1 = screenshot1File.toString();
-	
-							StringBuilder screenshot2Filename = new StringBuilder( Utils.getString( msxGenID ) )
-																.append( SCREENSHOT2_SUFFIX );
-							if( screenshotSuffix != null )
-							{
-								screenshot2Filename.append( screenshotSuffix );
-							}
-							screenshot2Filename.append( SCREENSHOT_EXT );
-	
-							File screenshot2File = new File( screenshotsPath, screenshot2Filename.toString() );
-							if( screenshot2File.isFile() )
-							{
-								screenshot2 = screenshot2File.toString();
-							}
-						}
-					}
-	
-					view.showGameScreenshots( screenshot1, screenshot2  );
+					view.showGameScreenshots( null, null );
 				}
 				else
 				{
-					view.showGameScreenshots( null, null  );
+					view.showGameScreenshots( screenshots[0], screenshots[1] );
 				}
-				
+
 				//enable buttons and indicators according to the selection
 				view.enableButtons( true,  true, true, true, game.getInfo() != null );
 				view.enableSoundIndicators( game.isPSG(), game.isSCC(), game.isSCCI(), game.isPCM(), game.isMSXMUSIC(), game.isMSXAUDIO(),
@@ -520,6 +504,25 @@ final class MainPresenterImpl implements MainPresenter
 		}
 	}
 
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.ui.presenter.MainPresenter#getGameScreenshotPaths(java.lang.String)
+	 */
+	@Override
+	public String[] getGameScreenshotPaths( String gameName )
+	{
+		//the summaries are in memory, so this doesn't read the game from the database
+		GameSummary game = gamesMap == null ? null : gamesMap.get( gameName );
+		String screenshotsPath = settings.getScreenshotsFullPath();
+
+		if( game == null || screenshotsPath == null || game.getMsxGenID() <= 0 )
+		{
+			return null;
+		}
+
+		return new String[] {getScreenshotPath( screenshotsPath, game, SCREENSHOT1_SUFFIX ),
+				getScreenshotPath( screenshotsPath, game, SCREENSHOT2_SUFFIX )};
+	}
+
 	/* (non-Javadoc)
 	 * @see info.msxlaunchers.openmsx.launcher.ui.presenter.MainPresenter#resetAll()
 	 */
@@ -567,7 +570,7 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onRequestGameInfo( String gameName ) throws LauncherException
 	{
-		Game game = gamesMap.get( gameName );
+		Game game = getGame( gameName );
 
 		if( game != null )
 		{
@@ -635,7 +638,14 @@ final class MainPresenterImpl implements MainPresenter
 		//create a Game set from the game names
 		Set<Game> games = new HashSet<>();
 
-		gameNames.forEach( gameName -> games.add( gamesMap.get( gameName ) ) );
+		for( String gameName: gameNames )
+		{
+			Game game = getGame( gameName );
+			if( game != null )
+			{
+				games.add( game );
+			}
+		}
 
 		Set<String> movedGameNames = new HashSet<>();
 
@@ -647,6 +657,7 @@ final class MainPresenterImpl implements MainPresenter
 			movedGames.forEach( movedGame -> {
 				movedGameNames.add( movedGame.getName() );
 				gamesMap.remove( movedGame.getName() );
+				loadedGames.remove( movedGame.getName() );
 			});
 		}
 		catch( GamePersistenceException gpe )
@@ -731,7 +742,7 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onRequestLocateFile( String gameName ) throws LauncherException
 	{
-		Game game = gamesMap.get( gameName );
+		Game game = getGame( gameName );
 
 		File file = new File(FileTypeUtils.getMainFile( game.getRomA(),
 				game.getRomB(),
@@ -781,7 +792,7 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onRequestFindRelated( String gameName ) throws LauncherException
 	{
-		relatedGamesPresenterFactory.get().onRequestRelatedGamesScreen( gamesMap.get( gameName ), repositoryInfoMap, currentLanguage, currentRightToLeft );
+		relatedGamesPresenterFactory.get().onRequestRelatedGamesScreen( getGame( gameName ), getRepositoryInfoMap(), currentLanguage, currentRightToLeft );
 	}
 
 	/* (non-Javadoc)
@@ -981,7 +992,7 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onRequestShowProperties( String gameName )
 	{
-		gamePropertiesPresenterFactory.get().onRequestGamePropertiesScreen( gamesMap.get( gameName ), currentLanguage, currentRightToLeft );
+		gamePropertiesPresenterFactory.get().onRequestGamePropertiesScreen( findGame( gameName ), currentLanguage, currentRightToLeft );
 	}
 
 	/* (non-Javadoc)
@@ -1058,6 +1069,7 @@ final class MainPresenterImpl implements MainPresenter
 		if( currentDatabase != null && currentDatabase.equals( database ) )
 		{
 			gamesMap.clear();
+			loadedGames.clear();
 			currentDatabase = null;
 		}
 		view.removeDatabase( database );
@@ -1163,9 +1175,8 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public Set<DatabaseItem> onRequestSearchMatches( String searchString )
 	{
-		Set<DatabaseItem> matches =  new TreeSet<>( new DatabaseItemComparator() );
-
-		matches.addAll( launcherPersistence.getGameFinder().find( searchString, MAX_SEARCH_MATCHES ) );
+		//keep the order of the matches as the best ones come first
+		Set<DatabaseItem> matches = new LinkedHashSet<>( launcherPersistence.getGameFinder().find( searchString, MAX_SEARCH_MATCHES ) );
 
 		return matches;
 	}
@@ -1176,8 +1187,6 @@ final class MainPresenterImpl implements MainPresenter
 	@Override
 	public void onUpdateExtraData() throws LauncherException
 	{
-		initializeRepositoryInfoMap();
-
 		onViewUpdatedDatabase( null );
 	}
 
@@ -1260,16 +1269,18 @@ final class MainPresenterImpl implements MainPresenter
 		Set<GameLabel> sortedList = new LinkedHashSet<>();
 		if( gamesMap != null )
 		{
+			Map<String,RepositoryGame> repositoryInfoMap = getRepositoryInfoMap();
+
 			gamesMap.entrySet().stream()
 					.map( Entry::getValue )
 					.sorted( (game1, game2) -> game1.getName().compareToIgnoreCase( game2.getName() ) )
-					.forEach( game -> sortedList.add( getGameLabel( game ) ) );
+					.forEach( game -> sortedList.add( getGameLabel( game, repositoryInfoMap ) ) );
 		}
 		
 		return sortedList;
 	}
 
-	private GameLabel getGameLabel( Game game )
+	private GameLabel getGameLabel( GameSummary game, Map<String,RepositoryGame> repositoryInfoMap )
 	{
 		String company = null;
 		String year = null;
@@ -1283,39 +1294,21 @@ final class MainPresenterImpl implements MainPresenter
 			}
 		}
 
-		return new GameLabel( game.getName(), company, year, game.getSize(), getGameMedium( game ) );
+		return new GameLabel( game.getName(), company, year, game.getSize(), game.getMedium() );
 	}
 
-	private static Medium getGameMedium( Game game )
+	private static String getScreenshotPath( String screenshotsPath, GameSummary game, String screenshotNumberSuffix )
 	{
-		Medium medium = null;
-		
-		if( game.isROM() )
-		{
-			medium = Medium.ROM;
-		}
-		else if( game.isDisk() )
-		{
-			medium = Medium.DISK;
-		}
-		else if( game.isHarddisk() )
-		{
-			medium = Medium.HARDDISK;
-		}
-		else if( game.isTape() )
-		{
-			medium = Medium.TAPE;
-		}
-		else if( game.isLaserdisc() )
-		{
-			medium = Medium.LASERDISC;
-		}
-		else if( game.isScript() )
+		StringBuilder screenshotFilename = new StringBuilder( Utils.getString( game.getMsxGenID() ) )
+											.append( screenshotNumberSuffix );
+		String screenshotSuffix = game.getScreenshotSuffix();
+		if( screenshotSuffix != null )
 		{
-			medium = Medium.SCRIPT;
+			screenshotFilename.append( screenshotSuffix );
 		}
+		screenshotFilename.append( SCREENSHOT_EXT );
 
-		return medium;
+		return new File( screenshotsPath, screenshotFilename.toString() ).toString();
 	}
 
 	private void populateGameList() throws LauncherException
@@ -1341,58 +1334,112 @@ final class MainPresenterImpl implements MainPresenter
 
 	private void retrieveDatabaseGames() throws GamePersistenceException
 	{
-		Set<Game> games =  launcherPersistence.getGamePersister().getGames( currentDatabase );
+		//the database may have changed since its games were last shown
+		loadedGames.clear();
 
 		if( currentFilter == null )
 		{
-			setGameMap( games );
+			//only the columns shown in the list are read
+			gamesMap = launcherPersistence.getGamePersister().getGameSummaries( currentDatabase ).stream()
+					.collect( Collectors.toMap( GameSummary::getName, gameSummary -> gameSummary ) );
+			unfilteredDatabase = currentDatabase;
+		}
+		else if( Objects.equals( currentDatabase, unfilteredDatabase ) )
+		{
+			//quick filters are toggled on the database being browsed, so resolve them against an index of all its games
+			Set<Game> games = launcherPersistence.getGamePersister().getGames( currentDatabase );
+			Map<String,RepositoryGame> repositoryInfoMap = getRepositoryInfoMap();
+
+			//the persister returns a new set when the database changes, and the repository data a new map when it is reloaded
+			if( gameIndex == null || gameIndex.getIndexedGames() != games || gameIndexRepositoryInfoMap != repositoryInfoMap )
+			{
+				gameIndex = GameAttributeIndex.build( games, game -> getRepositoryGame( repositoryInfoMap, game ) );
+				gameIndexRepositoryInfoMap = repositoryInfoMap;
+			}
+
+			setGameMap( gameIndex.apply( currentFilter ) );
 		}
 		else
 		{
-			Set<Game> filteredGames = new HashSet<>();
+			//the database only applies the filters that don't need repository data
+			Set<Game> games = launcherPersistence.getGamePersister().getGames( currentDatabase, currentFilter );
 
-			games.stream().filter( game -> !isFiltered( game ) ).forEach( filteredGames::add );
+			Map<String,RepositoryGame> repositoryInfoMap = getRepositoryInfoMap();
 
-			setGameMap( filteredGames );
+			setGameMap( CompiledFilter.compile( currentFilter ).apply( games, game -> getRepositoryGame( repositoryInfoMap, game ) ) );
 		}
 	}
 
-	private boolean isFiltered( Game game )
+	private static RepositoryGame getRepositoryGame( Map<String,RepositoryGame> repositoryInfoMap, Game game )
+	{
+		return repositoryInfoMap == null ? null : repositoryInfoMap.get( game.getSha1Code() );
+	}
+
+	private void setGameMap( Set<Game> games )
 	{
-		Map<String,Boolean> filtersByType = new HashMap<>();
+		gamesMap = games.stream().collect( Collectors.toMap( Game::getName, GameSummary::of ) );
+	}
 
-		for( Filter filter: currentFilter )
+	private Game getGame( String gameName ) throws LauncherException
+	{
+		try
 		{
-			String type = filter.getClass().getSimpleName();
-			Boolean existingFilterValue = filtersByType.get( type );
-			if( existingFilterValue == null )
+			return loadGame( gameName );
+		}
+		catch( GamePersistenceException gpe )
+		{
+			if( gpe.getIssue().equals( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND ) )
 			{
-				filtersByType.put( type, true );
-				existingFilterValue = true;
+				throw new LauncherException( LauncherExceptionCode.ERR_DATABASE_NOT_FOUND, currentDatabase );
+			}
+			else
+			{
+				throw new LauncherException( LauncherExceptionCode.ERR_IO );
 			}
-
-			filtersByType.put( type, existingFilterValue && filter.isFiltered( game, repositoryInfoMap == null ? null:repositoryInfoMap.get( game.getSha1Code() ) ) );
 		}
+	}
 
-		//check which filter types have true
-		return filtersByType.entrySet().stream().map( Entry::getValue ).anyMatch( v -> v );
+	private Game findGame( String gameName )
+	{
+		try
+		{
+			return loadGame( gameName );
+		}
+		catch( GamePersistenceException gpe )
+		{
+			//treat it as not found
+			LauncherLogger.logException( this, gpe );
+			return null;
+		}
 	}
 
-	private void setGameMap( Set<Game> games )
+	private Game loadGame( String gameName ) throws GamePersistenceException
 	{
-		gamesMap = games.stream().collect( Collectors.toMap( Game::getName, game -> game ) );
+		Game game = loadedGames.get( gameName );
+
+		if( game == null && gamesMap != null && gamesMap.containsKey( gameName ) )
+		{
+			game = launcherPersistence.getGamePersister().getGame( gameName, currentDatabase );
+
+			if( game != null )
+			{
+				loadedGames.put( gameName, game );
+			}
+		}
+
+		return game;
 	}
 
-	private void initializeRepositoryInfoMap()
+	private Map<String,RepositoryGame> getRepositoryInfoMap()
 	{
+		//read each time so that a reload of the repository files is picked up
 		try
 		{
-			repositoryInfoMap = repositoryData.getRepositoryInfo();
+			return repositoryData.getRepositoryInfo();
 		}
 		catch( IOException ioe )
 		{
-			//in this case reset it
-			repositoryInfoMap = null;
+			return null;
 		}
 	}
 
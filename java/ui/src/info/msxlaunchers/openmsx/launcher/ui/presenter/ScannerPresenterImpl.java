@@ -137,6 +137,11 @@ final class ScannerPresenterImpl implements ScannerPresenter
 			{
 				throw new LauncherException( LauncherExceptionCode.ERR_DATABASE_NOT_FOUND, database );
 			}
+			else if( gpe.getIssue().equals( GamePersistenceExceptionIssue.IO ) )
+			{
+				//saving the found games failed
+				throw new LauncherException( LauncherExceptionCode.ERR_IO );
+			}
 		}
 		catch( IOException e )
 		{
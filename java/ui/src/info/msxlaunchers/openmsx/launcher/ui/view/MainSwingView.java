@@ -111,6 +111,15 @@ class MainSwingView implements MainView
 		mainWindow.updateGameCount( games.size() );
 	}
 
+	/* (non-Javadoc)
+	 * @see info.msxlaunchers.openmsx.launcher.ui.view.MainView#updateGameList(java.util.Set, java.util.Set, java.lang.String)
+	 */
+	@Override
+	public void updateGameList( Set<String> removedGames, Set<GameLabel> addedOrChangedGames, String selectedGame )
+	{
+		mainWindow.updateGameList( removedGames, addedOrChangedGames, selectedGame );
+	}
+
 	/* (non-Javadoc)
 	 * @see info.msxlaunchers.openmsx.launcher.ui.view.MainView#updateGameCount(int)
 	 */
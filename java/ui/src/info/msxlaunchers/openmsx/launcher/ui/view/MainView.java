@@ -77,6 +77,16 @@ public interface MainView
 	 */
 	void fillGameList( String currentDatabase, Set<GameLabel> games, String selectedGame );
 
+	/**
+	 * Updates some games of the game list of the current database without refilling it
+	 * 
+	 * @param removedGames Set containing names of games to remove from the list
+	 * @param addedOrChangedGames Set containing GameLabel objects to add to the list or to replace the ones with the same name
+	 * @param selectedGame Name of game to select. If null, then the selection is cleared
+	 * @since v1.14
+	 */
+	void updateGameList( Set<String> removedGames, Set<GameLabel> addedOrChangedGames, String selectedGame );
+
 	/**
 	 * Updates the total game count on the main screen
 	 * 
@@ -112,8 +122,8 @@ public interface MainView
 	/**
 	 * Shows the given two image files
 	 * 
-	 * @param screenshot1 Full path to screenshot1 image file - could be null
-	 * @param screenshot2 Full path to screenshot2 image file - could be null
+	 * @param screenshot1 Full path to screenshot1 image file - could be null or point to a file that doesn't exist
+	 * @param screenshot2 Full path to screenshot2 image file - could be null or point to a file that doesn't exist
 	 */
 	void showGameScreenshots( String screenshot1, String screenshot2 );
 
@@ -34,6 +34,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowFocusListener;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -48,7 +49,6 @@ import javax.swing.Action;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonModel;
-import javax.swing.DefaultListModel;
 import javax.swing.GroupLayout;
 import javax.swing.GroupLayout.Alignment;
 import javax.swing.ImageIcon;
@@ -165,6 +165,7 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 
 	private JLabel screenshot1Label;
 	private JLabel screenshot2Label;
+	private final ScreenshotLoader screenshotLoader = new ScreenshotLoader();
 
 	private JPopupMenu favoritesContextMenu;
 
@@ -442,7 +443,7 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 		//disable the database selector button if there were no databases left
 		databaseSelectButton.setEnabled(!databases.isEmpty());
 
-		gameList = new JListWithImagesAndActions(new DefaultListModel<Object>());
+		gameList = new JListWithImagesAndActions();
 		//need to unregister the gameList component from the ToolTipManager to allow the Ctrl+F1 to work
 		ToolTipManager.sharedInstance().unregisterComponent(gameList);
 		gameList.registerKeyboardAction(event -> moveSelectedGames(), getCtrlXKeyStroke(), JComponent.WHEN_FOCUSED);
@@ -626,6 +627,7 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 				else if(!listSelectionEvent.getValueIsAdjusting() )
 				{
 					presenter.onSelectGames(getSelectedGames());
+					prefetchAdjacentGameScreenshots();
 				}
 	    	}
 	    };
@@ -777,24 +779,44 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 		this.currentDatabase = currentDatabase;
 		databaseLabel.setValue(currentDatabase);
 		filtersSelectButton.setEnabled(currentDatabase != null);
-		gameList.clear();
 
+		//only the games that were removed, added or changed are updated in the list
+		List<Object> elements = new ArrayList<>(games.size());
 		for(GameLabel gameLabel: games)
+		{
+			elements.add(gameList.createElement(gameLabel.getName(), gameLabel.getCommany(), gameLabel.getYear(), gameLabel.getSize(), mediaIconsMap.get(gameLabel.getMedium())));
+		}
+		gameList.setElements(elements);
+
+		selectGame(selectedGame);
+
+		//disable the database selector button if there were no databases left
+		databaseSelectButton.setEnabled(!databases.isEmpty());
+	}
+
+	public void updateGameList(Set<String> removedGames, Set<GameLabel> addedOrChangedGames, String selectedGame)
+	{
+		gameList.removeElements(removedGames.stream().mapToInt(gameList::indexOf).filter(index -> index >= 0).toArray());
+
+		for(GameLabel gameLabel: addedOrChangedGames)
 		{
 			gameList.addElement(gameLabel.getName(), gameLabel.getCommany(), gameLabel.getYear(), gameLabel.getSize(), mediaIconsMap.get(gameLabel.getMedium()));
 		}
 
+		selectGame(selectedGame);
+	}
+
+	private void selectGame(String selectedGame)
+	{
 		if(selectedGame != null)
 		{
 			gameList.setSelectedValue(selectedGame);
 		}
 		else
 		{
+			gameList.clearSelection();
 			enableButtons(false, false, currentDatabase != null, false, false);
 		}
-
-		//disable the database selector button if there were no databases left
-		databaseSelectButton.setEnabled(!databases.isEmpty());
 	}
 
 	public void updateGameCount(int total)
@@ -808,24 +830,11 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 	 */
 	public void showGameScreenshot(String screenshot1, String screenshot2)
 	{
-		if(screenshot1 == null)
-		{
-			screenshot1Label.setIcon(Icons.NO_SCREENSHOT.getImageIcon());
-			screenshot2Label.setIcon(Icons.NO_SCREENSHOT.getImageIcon());
-		}
-		else
-		{
-			screenshot1Label.setIcon(new ImageIcon(screenshot1));
-
-			if(screenshot2 == null)
-			{
-				screenshot2Label.setIcon(Icons.NO_SCREENSHOT.getImageIcon());
-			}
-			else
-			{
-				screenshot2Label.setIcon(new ImageIcon(screenshot2));
-			}
-		}
+		//the screenshots are decoded in the background, and a screenshot that doesn't exist is passed as null
+		screenshotLoader.load(screenshot1, screenshot2, (icon1, icon2) -> {
+			screenshot1Label.setIcon(icon1 == null ? Icons.NO_SCREENSHOT.getImageIcon() : icon1);
+			screenshot2Label.setIcon(icon2 == null ? Icons.NO_SCREENSHOT.getImageIcon() : icon2);
+		});
 	}
 
 	@Override
@@ -1548,13 +1557,8 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 			{
 				presenter.onRequestRemoveGamesAction(getSelectedGames());
 
-				//delete from the Jlist - start with higher indices then go down
-				//the reason for this is that deleting lower indices first will shift elements up so indices of later items will be different
-		        int[] selections = gameList.getSelectedIndices();
-		        for(int index=selections.length-1; index >= 0; index--)
-		        {
-		        	gameList.remove(selections[index]);
-		        }
+				//delete from the Jlist - consecutive selections are removed at once
+				gameList.removeElements(gameList.getSelectedIndices());
 			}
 			catch(LauncherException le)
 			{
@@ -1590,14 +1594,7 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 			//this can happen if Ctrl+X was pressed, for example, without selecting games
 			Set<String> movedGames = presenter.onRequestMoveGamesScreen(games, currentDatabase);
 	
-			int gamesTotal = gameList.getListSize();
-			for(int index = gamesTotal - 1; index > -1; index--)
-			{
-				if(movedGames.contains(gameList.getElementAt(index)))
-				{
-					gameList.remove(index);
-				}
-			}
+			gameList.removeElements(movedGames.stream().mapToInt(gameList::indexOf).filter(index -> index >= 0).toArray());
 		}
 	}
 
@@ -1832,6 +1829,27 @@ public class MainWindow extends JFrame implements ActionListener, WindowFocusLis
 		return gameName;
 	}
 
+	private void prefetchAdjacentGameScreenshots()
+	{
+		int[] selections = gameList.getSelectedIndices();
+		if(selections.length == 1)
+		{
+			//the games above and below are the likely next selections when moving with the arrow keys
+			for(int index: new int[] {selections[0] - 1, selections[0] + 1})
+			{
+				String gameName = gameList.getElementAt(index);
+				if(gameName != null)
+				{
+					String[] screenshots = presenter.getGameScreenshotPaths(gameName);
+					if(screenshots != null)
+					{
+						screenshotLoader.prefetch(screenshots);
+					}
+				}
+			}
+		}
+	}
+
 	private Set<String> getSelectedGames()
 	{
 		Set<String> gameNames = null;
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.ui.view.swing;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * Loads and decodes screenshots in the background and keeps the most recently used ones in memory.
+ * Requests are made from the event dispatch thread, and a new request cancels the ones that haven't been delivered yet
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+final class ScreenshotLoader
+{
+	private static final int THREADS = 2;
+	private static final long MAXIMUM_CACHED_BYTES = 32L * 1024 * 1024;
+
+	private final ExecutorService executor;
+	private final Map<String,ImageIcon> cachedScreenshots = new LinkedHashMap<>(16, 0.75f, true);
+	private long cachedBytes;
+
+	//only accessed from the event dispatch thread
+	private final List<Future<?>> pendingTasks = new ArrayList<>();
+	private long currentRequest;
+
+	ScreenshotLoader()
+	{
+		executor = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "Screenshot Loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/*
+	 * Loads the given screenshots and passes them to the consumer on the event dispatch thread. Screenshot2 is only
+	 * loaded if screenshot1 exists. A screenshot that's null or doesn't exist is passed as null. If both screenshots
+	 * are already in memory the consumer is called right away. The consumer is not called if another load is requested
+	 * before the screenshots are loaded
+	 */
+	void load(String screenshot1, String screenshot2, BiConsumer<ImageIcon,ImageIcon> consumer)
+	{
+		cancelPendingTasks();
+		long request = ++currentRequest;
+
+		if(screenshot1 == null)
+		{
+			consumer.accept(null, null);
+			return;
+		}
+
+		ImageIcon cachedScreenshot1 = getCachedScreenshot(screenshot1);
+		ImageIcon cachedScreenshot2 = screenshot2 == null ? null : getCachedScreenshot(screenshot2);
+		if(cachedScreenshot1 != null && (screenshot2 == null || cachedScreenshot2 != null))
+		{
+			consumer.accept(cachedScreenshot1, cachedScreenshot2);
+			return;
+		}
+
+		pendingTasks.add(executor.submit(() -> {
+			ImageIcon icon1 = read(screenshot1);
+			ImageIcon icon2 = icon1 == null || screenshot2 == null ? null : read(screenshot2);
+
+			SwingUtilities.invokeLater(() -> {
+				//ignore stale requests
+				if(request == currentRequest)
+				{
+					consumer.accept(icon1, icon2);
+				}
+			});
+		}));
+	}
+
+	/*
+	 * Loads the given screenshots into memory in the background. Null screenshots are ignored
+	 */
+	void prefetch(String... screenshots)
+	{
+		for(String screenshot: screenshots)
+		{
+			if(screenshot != null && getCachedScreenshot(screenshot) == null)
+			{
+				pendingTasks.add(executor.submit(() -> read(screenshot)));
+			}
+		}
+	}
+
+	private void cancelPendingTasks()
+	{
+		//tasks that already started are left to finish so that their screenshots are still cached
+		pendingTasks.forEach(task -> task.cancel(false));
+		pendingTasks.clear();
+	}
+
+	private ImageIcon read(String screenshot)
+	{
+		ImageIcon icon = getCachedScreenshot(screenshot);
+
+		if(icon == null)
+		{
+			File file = new File(screenshot);
+			try
+			{
+				BufferedImage image = file.isFile() ? ImageIO.read(file) : null;
+				if(image != null)
+				{
+					icon = new ImageIcon(image);
+					cacheScreenshot(screenshot, icon, 4L * image.getWidth() * image.getHeight());
+				}
+			}
+			catch(IOException ioe)
+			{
+				//ignore - no screenshot will be shown
+			}
+		}
+
+		return icon;
+	}
+
+	private synchronized ImageIcon getCachedScreenshot(String screenshot)
+	{
+		return cachedScreenshots.get(screenshot);
+	}
+
+	private synchronized void cacheScreenshot(String screenshot, ImageIcon icon, long bytes)
+	{
+		if(cachedScreenshots.put(screenshot, icon) == null)
+		{
+			cachedBytes += bytes;
+		}
+
+		//remove the least recently used screenshots, but always keep the last one
+		Iterator<ImageIcon> iterator = cachedScreenshots.values().iterator();
+		while(cachedBytes > MAXIMUM_CACHED_BYTES && cachedScreenshots.size() > 1)
+		{
+			ImageIcon eldest = iterator.next();
+			cachedBytes -= 4L * eldest.getIconWidth() * eldest.getIconHeight();
+			iterator.remove();
+		}
+	}
+}
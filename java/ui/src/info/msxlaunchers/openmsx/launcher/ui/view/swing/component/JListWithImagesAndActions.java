@@ -18,17 +18,22 @@ package info.msxlaunchers.openmsx.launcher.ui.view.swing.component;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Component;
+import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
-import javax.swing.DefaultListModel;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -54,16 +59,27 @@ public class JListWithImagesAndActions extends JList<Object>
 	public static final String INSERT_KEY_COMMAND = "insertKeyCommand";
 
 	private static final Color BACKGROUND_COLOR = new Color(250, 250, 250);
+	private static final Font NAME_FONT = new Font(null, Font.PLAIN, 14);
+	private static final Font INFO_FONT = new Font(null, Font.PLAIN, 9);
 
 	private static final int KEYBOARD_PRESS_DELAY = 800;
 	private StringBuilder pressedKeysBuffer = new StringBuilder();
 	private long pressTimeValue;
 
-	private final DefaultListModel<Object> listModel;
+	//names are sorted case insensitively and names that differ only in case are kept apart
+	private static final Comparator<String> NAME_ORDER = String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+	private final SortedListModel<Object> listModel;
 
 	ActionListener actionListener;
  
-	public JListWithImagesAndActions(DefaultListModel<Object> listModel)
+	public JListWithImagesAndActions()
+	{
+		this(new SortedListModel<>((element1, element2) -> NAME_ORDER.compare(((TextIcon)element1).name, ((TextIcon)element2).name),
+				(element1, element2) -> ((TextIcon)element1).hasSameContents((TextIcon)element2)));
+	}
+
+	private JListWithImagesAndActions(SortedListModel<Object> listModel)
 	{
 		super(listModel);
 
@@ -159,16 +175,14 @@ public class JListWithImagesAndActions extends JList<Object>
 				    pressTimeValue = currentTime;
 				    pressedKeysBuffer.append(Character.toLowerCase(ke.getKeyChar()));
 
-				    int size = getListSize();
-				    for(int index=0; index < size; index++)
+				    //names are sorted case insensitively so the first name with the typed prefix can be found by binary search
+				    String prefix = pressedKeysBuffer.toString();
+				    int index = listModel.getFirstIndex(element -> String.CASE_INSENSITIVE_ORDER.compare(((TextIcon)element).name, prefix) >= 0);
+				    String str = getElementAt(index);
+				    if(str != null && str.toLowerCase().startsWith(prefix))
 				    {
-				        String str = getElementAt(index).toLowerCase();
-				        if(str.startsWith(pressedKeysBuffer.toString()))
-				        {
-				            setSelectedIndex(index);
-				            ensureIndexIsVisible(index);
-				            break;
-				        }
+				        setSelectedIndex(index);
+				        ensureIndexIsVisible(index);
 				    }
 					ke.consume();
 				}
@@ -176,9 +190,70 @@ public class JListWithImagesAndActions extends JList<Object>
 		});
 	}
 
+	/**
+	 * Adds an element at its sorted position, or replaces the element with the same name
+	 */
 	public void addElement(String name, String company, String year, long size, ImageIcon icon)
 	{
-		listModel.addElement(new TextIcon(name, company, year, size, icon));
+		TextIcon element = new TextIcon(name, company, year, size, icon);
+
+		listModel.put(element);
+		updateFixedCellSize(Collections.singleton(element), false);
+	}
+
+	/**
+	 * Creates an element to pass to <code>setElements</code>
+	 */
+	public Object createElement(String name, String company, String year, long size, ImageIcon icon)
+	{
+		return new TextIcon(name, company, year, size, icon);
+	}
+
+	/**
+	 * Replaces the elements of the list. Only the elements that were removed, added or changed are updated
+	 * 
+	 * @param elements Elements created by <code>createElement</code>, in any order
+	 */
+	public void setElements(Collection<Object> elements)
+	{
+		listModel.setElements(elements);
+		updateFixedCellSize(elements, true);
+	}
+
+	//with fixed cell sizes Swing only renders the visible rows instead of measuring every row
+	//the size comes from rendering the row with the widest text once
+	private void updateFixedCellSize(Collection<?> elements, boolean reset)
+	{
+		if(elements.isEmpty())
+		{
+			return;
+		}
+
+		FontMetrics nameFontMetrics = getFontMetrics(NAME_FONT);
+		FontMetrics infoFontMetrics = getFontMetrics(INFO_FONT);
+		TextIcon widestElement = null;
+		int widestTextWidth = -1;
+		for(Object element: elements)
+		{
+			TextIcon textIcon = (TextIcon)element;
+			int textWidth = getTextWidth(textIcon, nameFontMetrics, infoFontMetrics);
+
+			if(textWidth > widestTextWidth)
+			{
+				widestElement = textIcon;
+				widestTextWidth = textWidth;
+			}
+		}
+
+		Dimension size = getCellRenderer().getListCellRendererComponent(this, widestElement, 0, false, false).getPreferredSize();
+
+		setFixedCellHeight(reset ? size.height : Math.max(getFixedCellHeight(), size.height));
+		setFixedCellWidth(reset ? size.width : Math.max(getFixedCellWidth(), size.width));
+	}
+
+	private static int getTextWidth(TextIcon textIcon, FontMetrics nameFontMetrics, FontMetrics infoFontMetrics)
+	{
+		return Math.max(nameFontMetrics.stringWidth(textIcon.name), infoFontMetrics.stringWidth(JListCellRenderer.getFormattedString(textIcon)));
 	}
 
 	public void clear()
@@ -189,12 +264,28 @@ public class JListWithImagesAndActions extends JList<Object>
 	@Override
 	public void remove(int index)
 	{
-		listModel.remove(index);
+		listModel.removeAll(new int[] {index});
+	}
+
+	/**
+	 * Removes the elements at the given indices, updating each range of consecutive indices at once
+	 */
+	public void removeElements(int[] indices)
+	{
+		listModel.removeAll(indices);
+	}
+
+	/**
+	 * @return Index of the element with the given name or -1 if the list doesn't contain it
+	 */
+	public int indexOf(String name)
+	{
+		return listModel.indexOf(new TextIcon(name, null, null, 0, null));
 	}
 
 	public void setSelectedValue(String name)
 	{
-		int index = listModel.indexOf(new TextIcon(name, null, null, 0, null));
+		int index = indexOf(name);
 		setSelectedIndex(index);
 		SwingUtilities.invokeLater(() -> ensureIndexIsVisible(index));
 		requestFocusInWindow();
@@ -223,7 +314,7 @@ public class JListWithImagesAndActions extends JList<Object>
 		}
 		else
 		{
-			element = ((TextIcon)listModel.elementAt(index)).name;
+			element = ((TextIcon)listModel.getElementAt(index)).name;
 		}
 
 		return element;
@@ -266,10 +357,10 @@ public class JListWithImagesAndActions extends JList<Object>
 
 		static
 		{
-			nameLabel.setFont(new Font(null, Font.PLAIN, 14));
+			nameLabel.setFont(NAME_FONT);
 			nameLabel.setBorder(LABEL_MARGIN);
 
-			infoLabel.setFont(new Font(null, Font.PLAIN, 9));
+			infoLabel.setFont(INFO_FONT);
 			infoLabel.setBorder(LABEL_MARGIN);
 			infoLabel.setForeground(infoColor);
 
@@ -310,7 +401,7 @@ public class JListWithImagesAndActions extends JList<Object>
 			return this;
 		}
 
-		private String getFormattedString(TextIcon textIcon)
+		private static String getFormattedString(TextIcon textIcon)
 		{
 			StringBuilder builder = new StringBuilder();
 
@@ -348,12 +439,10 @@ public class JListWithImagesAndActions extends JList<Object>
 			this.icon = icon;
 		}
 
-		@Override
-		public boolean equals(Object obj)
+		boolean hasSameContents(TextIcon textIcon)
 		{
-			//this is a simplified equals() method for a very specific case and that is setSelectedValue()
-			//to locate an element in the list
-			return ((TextIcon)obj).name.equals(name);
+			return name.equals(textIcon.name) && Objects.equals(company, textIcon.company) && Objects.equals(year, textIcon.year) &&
+					size == textIcon.size && icon == textIcon.icon;
 		}
 	}
 }
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2020 Sam Elsharif
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package info.msxlaunchers.openmsx.launcher.ui.view.swing.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * List model that keeps its elements sorted and applies changes as ranges instead of rebuilding the whole list.
+ * Replacing the elements fires one event per range of removed, added or changed elements
+ * 
+ * @since v1.14
+ * @author Sam Elsharif
+ *
+ */
+@SuppressWarnings("serial")
+public class SortedListModel<E> extends AbstractListModel<E>
+{
+	//replacing the elements with more changed ranges than this fires only two events instead
+	static final int MAXIMUM_INCREMENTAL_RANGES = 64;
+
+	private static final int REMOVED = 0;
+	private static final int ADDED = 1;
+	private static final int CHANGED = 2;
+
+	private final Comparator<? super E> comparator;
+	private final BiPredicate<? super E,? super E> sameContents;
+	private final List<E> elements = new ArrayList<>();
+
+	/**
+	 * @param comparator Order of the elements. Elements that compare as equal are considered to be the same element
+	 * @param sameContents Returns whether two versions of the same element look the same in the list
+	 */
+	public SortedListModel(Comparator<? super E> comparator, BiPredicate<? super E,? super E> sameContents)
+	{
+		this.comparator = comparator;
+		this.sameContents = sameContents;
+	}
+
+	@Override
+	public int getSize()
+	{
+		return elements.size();
+	}
+
+	@Override
+	public E getElementAt(int index)
+	{
+		return elements.get(index);
+	}
+
+	/**
+	 * @param element Element to look for
+	 * @return Index of the element or -1 if the list doesn't contain it
+	 */
+	public int indexOf(E element)
+	{
+		int index = Collections.binarySearch(elements, element, comparator);
+
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Returns the index of the first element that satisfies the given predicate using a binary search
+	 * 
+	 * @param predicate Predicate that is false for a leading part of the list and true for the rest of it
+	 * @return Index of the first element that satisfies the predicate or the size of the list if none does
+	 */
+	public int getFirstIndex(Predicate<? super E> predicate)
+	{
+		int low = 0;
+		int high = elements.size();
+
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+
+			if(predicate.test(elements.get(middle)))
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle + 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Adds the given element at its sorted position, or replaces the element that compares as equal to it
+	 * 
+	 * @param element Element to add or replace
+	 */
+	public void put(E element)
+	{
+		int index = Collections.binarySearch(elements, element, comparator);
+
+		if(index < 0)
+		{
+			index = -index - 1;
+			elements.add(index, element);
+			fireIntervalAdded(this, index, index);
+		}
+		else if(!sameContents.test(elements.get(index), element))
+		{
+			elements.set(index, element);
+			fireContentsChanged(this, index, index);
+		}
+	}
+
+	/**
+	 * Removes the elements at the given indices, firing one event per range of consecutive indices
+	 * 
+	 * @param indices Indices of the elements to remove, in any order
+	 */
+	public void removeAll(int[] indices)
+	{
+		int[] sortedIndices = indices.clone();
+		Arrays.sort(sortedIndices);
+
+		//start with the higher indices so that the lower ones don't shift
+		int end = sortedIndices.length - 1;
+		while(end >= 0)
+		{
+			int start = end;
+			while(start > 0 && sortedIndices[start - 1] >= sortedIndices[start] - 1)
+			{
+				start--;
+			}
+
+			elements.subList(sortedIndices[start], sortedIndices[end] + 1).clear();
+			fireIntervalRemoved(this, sortedIndices[start], sortedIndices[end]);
+
+			end = start - 1;
+		}
+	}
+
+	public void clear()
+	{
+		int size = elements.size();
+
+		if(size > 0)
+		{
+			elements.clear();
+			fireIntervalRemoved(this, 0, size - 1);
+		}
+	}
+
+	/**
+	 * Replaces the elements of the list with the given ones. Only the ranges that differ are updated
+	 * 
+	 * @param newElements New elements in any order
+	 */
+	public void setElements(Collection<? extends E> newElements)
+	{
+		List<E> sortedElements = new ArrayList<>(newElements);
+		if(!isSorted(sortedElements))
+		{
+			sortedElements.sort(comparator);
+		}
+
+		List<int[]> ranges = getChangedRanges(sortedElements);
+
+		if(ranges.size() > MAXIMUM_INCREMENTAL_RANGES)
+		{
+			clear();
+			if(!sortedElements.isEmpty())
+			{
+				elements.addAll(sortedElements);
+				fireIntervalAdded(this, 0, elements.size() - 1);
+			}
+		}
+		else
+		{
+			for(int[] range: ranges)
+			{
+				int index = range[1];
+				int count = range[2];
+
+				switch(range[0])
+				{
+					case REMOVED:
+						elements.subList(index, index + count).clear();
+						fireIntervalRemoved(this, index, index + count - 1);
+						break;
+					case ADDED:
+						elements.addAll(index, sortedElements.subList(range[3], range[3] + count));
+						fireIntervalAdded(this, index, index + count - 1);
+						break;
+					default:
+						for(int ix = 0; ix < count; ix++)
+						{
+							elements.set(index + ix, sortedElements.get(range[3] + ix));
+						}
+						fireContentsChanged(this, index, index + count - 1);
+						break;
+				}
+			}
+		}
+	}
+
+	//each range is {type, index in the list at the time it's applied, count, index in the new elements}
+	private List<int[]> getChangedRanges(List<E> sortedElements)
+	{
+		List<int[]> ranges = new ArrayList<>();
+		int oldIndex = 0;
+		int newIndex = 0;
+		int index = 0;
+
+		while((oldIndex < elements.size() || newIndex < sortedElements.size()) && ranges.size() <= MAXIMUM_INCREMENTAL_RANGES)
+		{
+			int comparison = compareAt(oldIndex, sortedElements, newIndex);
+
+			if(comparison < 0)
+			{
+				int start = oldIndex;
+				while(oldIndex < elements.size() && compareAt(oldIndex, sortedElements, newIndex) < 0)
+				{
+					oldIndex++;
+				}
+				ranges.add(new int[] {REMOVED, index, oldIndex - start, 0});
+			}
+			else if(comparison > 0)
+			{
+				int start = newIndex;
+				while(newIndex < sortedElements.size() && compareAt(oldIndex, sortedElements, newIndex) > 0)
+				{
+					newIndex++;
+				}
+				ranges.add(new int[] {ADDED, index, newIndex - start, start});
+				index += newIndex - start;
+			}
+			else if(sameContents.test(elements.get(oldIndex), sortedElements.get(newIndex)))
+			{
+				oldIndex++;
+				newIndex++;
+				index++;
+			}
+			else
+			{
+				int start = newIndex;
+				while(oldIndex < elements.size() && newIndex < sortedElements.size() && compareAt(oldIndex, sortedElements, newIndex) == 0 &&
+						!sameContents.test(elements.get(oldIndex), sortedElements.get(newIndex)))
+				{
+					oldIndex++;
+					newIndex++;
+				}
+				ranges.add(new int[] {CHANGED, index, newIndex - start, start});
+				index += newIndex - start;
+			}
+		}
+
+		return ranges;
+	}
+
+	//callers usually pass elements that are already sorted
+	private boolean isSorted(List<E> list)
+	{
+		for(int ix = 1; ix < list.size(); ix++)
+		{
+			if(comparator.compare(list.get(ix - 1), list.get(ix)) > 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	//elements past the end of either list sort last
+	private int compareAt(int oldIndex, List<E> sortedElements, int newIndex)
+	{
+		if(oldIndex == elements.size())
+		{
+			return 1;
+		}
+		else if(newIndex == sortedElements.size())
+		{
+			return -1;
+		}
+		else
+		{
+			return comparator.compare(elements.get(oldIndex), sortedElements.get(newIndex));
+		}
+	}
+}
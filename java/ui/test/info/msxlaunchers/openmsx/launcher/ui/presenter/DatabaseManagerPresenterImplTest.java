@@ -258,7 +258,7 @@ public class DatabaseManagerPresenterImplTest
 	{
 		DatabaseInfo databaseInfo = presenter.getDatabaseInfo( databases );
 
-		verify( gamePersister, times( databases.size() ) ).getGames( anyString() );
+		verify( gamePersister, times( databases.size() ) ).getGameCount( anyString() );
 		verify( gamePersister, times( databases.size() ) ).getBackups( anyString() );
 
 		assertEquals( databases.size(), databaseInfo.getTotalDatabases() );
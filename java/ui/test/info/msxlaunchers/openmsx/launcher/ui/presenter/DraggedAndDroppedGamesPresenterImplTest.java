@@ -295,6 +295,28 @@ public class DraggedAndDroppedGamesPresenterImplTest
 		}
 	}
 
+	@Test( expected = LauncherException.class )
+	public void test_givenScannerThrowsGamePersistenceExceptionIO_whenOnRequestAddDraggedAndDroppedGamesAddAction_thenThrowLauncherException() throws GamePersistenceException, IOException, LauncherException
+	{
+		DraggedAndDroppedGamesPresenter presenter = new DraggedAndDroppedGamesPresenterImpl( mainPresenter, view, currentDatabase, files, machineLister, scanner );
+
+		when( scanner.scan( any( String[].class ), anyBoolean(), anyString(), anyBoolean(), anyBoolean(), anyString(), anyBoolean(), anyBoolean(),
+				anyBoolean(), anyBoolean(), anyBoolean(), anyBoolean() ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+
+		//initialise filteredFiles array
+		presenter.onRequestAddDraggedAndDroppedGamesScreen( Language.JAPANESE, true );
+
+		try
+		{
+			presenter.onRequestAddDraggedAndDroppedGamesAddAction( false, false, "machine" );
+		}
+		catch( LauncherException le )
+		{
+			assertEquals( LauncherExceptionCode.ERR_IO, le.getCode() );
+			throw le;
+		}
+	}
+
 	@Test( expected = LauncherException.class )
 	public void test_givenScannerThrowsIOException_whenOnRequestAddDraggedAndDroppedGamesAddAction_thenThrowLauncherException() throws GamePersistenceException, IOException, LauncherException
 	{
@@ -1,6 +1,8 @@
 package info.msxlaunchers.openmsx.launcher.ui.presenter;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -15,11 +17,15 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -32,8 +38,15 @@ import com.google.inject.Provider;
 
 import info.msxlaunchers.openmsx.common.ActionDecider;
 import info.msxlaunchers.openmsx.game.repository.RepositoryData;
+import info.msxlaunchers.openmsx.launcher.data.filter.Filter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterFactory;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterParameter;
+import info.msxlaunchers.openmsx.launcher.data.filter.FilterType;
 import info.msxlaunchers.openmsx.launcher.data.game.DatabaseItem;
 import info.msxlaunchers.openmsx.launcher.data.game.Game;
+import info.msxlaunchers.openmsx.launcher.data.game.GameSummary;
+import info.msxlaunchers.openmsx.launcher.data.game.constants.Medium;
+import info.msxlaunchers.openmsx.launcher.data.repository.RepositoryGame;
 import info.msxlaunchers.openmsx.launcher.data.settings.Settings;
 import info.msxlaunchers.openmsx.launcher.data.settings.constants.Language;
 import info.msxlaunchers.openmsx.launcher.extra.ExtraDataGetter;
@@ -134,7 +147,7 @@ public class MainPresenterImplTest
 	public void testDatabaseNotFoundWhenRetrieveGamesInConstructor() throws IOException, GamePersistenceException
 	{
 		when( settingsPersister.getSettings() ).thenReturn( new Settings( null, null, null, defaultDatabase, null, false, false ) );
-		when( gamePersister.getGames( defaultDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, defaultDatabase ) );
+		when( gamePersister.getGameSummaries( defaultDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, defaultDatabase ) );
 
 		//no exception is thrown
 		new MainPresenterImpl( view, settingsPresenterFactory, profileEditingPresenterFactory, scannerPresenterFactor, filterEditingPresenterFactory, gamePropertiesPresenterFactory,
@@ -147,7 +160,7 @@ public class MainPresenterImplTest
 	public void testIOExceptionWhenRetrieveGamesInConstructor() throws IOException, GamePersistenceException
 	{
 		when( settingsPersister.getSettings() ).thenReturn( new Settings( null, null, null, defaultDatabase, null, false, false ) );
-		when( gamePersister.getGames( defaultDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		when( gamePersister.getGameSummaries( defaultDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
 
 		//no exception is thrown
 		new MainPresenterImpl( view, settingsPresenterFactory, profileEditingPresenterFactory, scannerPresenterFactor, filterEditingPresenterFactory, gamePropertiesPresenterFactory,
@@ -170,7 +183,7 @@ public class MainPresenterImplTest
 	{
 		String newDatabase = "newDatabase";
 
-		when( gamePersister.getGames( newDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+		when( gamePersister.getGameSummaries( newDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
 
 		presenter.onSelectDatabase( newDatabase );
 	}
@@ -180,7 +193,7 @@ public class MainPresenterImplTest
 	{
 		String newDatabase = "newDatabase";
 
-		when( gamePersister.getGames( newDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, newDatabase ) );
+		when( gamePersister.getGameSummaries( newDatabase ) ).thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.DATABASE_NOT_FOUND, newDatabase ) );
 
 		presenter.onSelectDatabase( newDatabase );
 	}
@@ -705,7 +718,8 @@ public class MainPresenterImplTest
 
 		presenter.onAcceptAddGameSaveAction( game );
 
-		verify( view, times(1) ).fillGameList( anyString(), anySet(), anyString() );
+		verify( view, times(1) ).updateGameList( Collections.emptySet(), Collections.singleton( new GameLabel( "name", null, null, 0, Medium.ROM ) ), "name" );
+		verify( view, times(1) ).updateGameCount( 1 );
 	}
 
 	@Test
@@ -715,7 +729,11 @@ public class MainPresenterImplTest
 
 		presenter.onAcceptEditGameSaveAction( "oldName", game );
 
-		verify( view, times(1) ).fillGameList( anyString(), anySet(), anyString() );
+		verify( view, times(1) ).updateGameList( Collections.singleton( "oldName" ), Collections.singleton( new GameLabel( "name", null, null, 0, Medium.ROM ) ), "name" );
+
+		presenter.onAcceptEditGameSaveAction( "name", game );
+
+		verify( view, times(1) ).updateGameList( Collections.emptySet(), Collections.singleton( new GameLabel( "name", null, null, 0, Medium.ROM ) ), "name" );
 	}
 
 	@Test
@@ -759,6 +777,136 @@ public class MainPresenterImplTest
 		assertEquals( matches, searchMatches );
 	}
 
+	@Test
+	public void testGetGameScreenshotPathsAndOnSelectGames() throws IOException, GamePersistenceException
+	{
+		Game game1 = Game.name( "game1" ).romA( "romA" ).msxGenID( 123 ).screenshotSuffix( "-en" ).build();
+		Game game2 = Game.name( "game2" ).romA( "romA" ).build();
+		Set<GameSummary> gameSummaries = new HashSet<>( Arrays.asList( GameSummary.of( game1 ), GameSummary.of( game2 ) ) );
+
+		when( settingsPersister.getSettings() ).thenReturn( new Settings( null, null, "screenshots", defaultDatabase, null, false, false ) );
+		when( gamePersister.getGameSummaries( defaultDatabase ) ).thenReturn( gameSummaries );
+		when( gamePersister.getGame( "game1", defaultDatabase ) ).thenReturn( game1 );
+		when( gamePersister.getGame( "game2", defaultDatabase ) ).thenReturn( game2 );
+
+		presenter = new MainPresenterImpl( view, settingsPresenterFactory, profileEditingPresenterFactory, scannerPresenterFactor, filterEditingPresenterFactory, gamePropertiesPresenterFactory,
+				blueMSXLauncherImporterPresenterFactory, databaseManagerPresenterFactory, activityViewerPresenterFactory, updateCheckerPresenterFactory, launcherPersistence, emulatorStarter,
+				extraDataGetter, extraDataDirectory, repositoryData, fileLocator, draggedAndDroppedGamesPresenterFactory, patcherPresenterFactory, machineUpdatePresenterFactory,
+				feedServicePresenter, relatedGamesPresenterFactory, lhaExtractorPresenter );
+
+		String screenshot1 = new File( "screenshots", "123a-en.png" ).toString();
+		String screenshot2 = new File( "screenshots", "123b-en.png" ).toString();
+
+		assertArrayEquals( new String[] {screenshot1, screenshot2}, presenter.getGameScreenshotPaths( "game1" ) );
+		assertNull( presenter.getGameScreenshotPaths( "game2" ) );
+		assertNull( presenter.getGameScreenshotPaths( "game3" ) );
+
+		//the paths come from the game summaries, so nothing is read from the database
+		verify( gamePersister, never() ).getGame( anyString(), anyString() );
+
+		//the screenshot files don't exist but the view is still given their paths
+		presenter.onSelectGames( Collections.singleton( "game1" ) );
+		verify( view, times( 1 ) ).showGameScreenshots( screenshot1, screenshot2 );
+
+		presenter.onSelectGames( Collections.singleton( "game2" ) );
+		verify( view, times( 1 ) ).showGameScreenshots( null, null );
+
+		//the list is built from summaries and each listed game is read once when it is first needed
+		verify( gamePersister, never() ).getGames( defaultDatabase );
+		verify( gamePersister, times( 1 ) ).getGame( "game1", defaultDatabase );
+		verify( gamePersister, times( 1 ) ).getGame( "game2", defaultDatabase );
+		verify( gamePersister, never() ).getGame( "game3", defaultDatabase );
+	}
+
+	@Test
+	public void testOnRequestLocateFileReadsListedGame() throws IOException, GamePersistenceException, LauncherException
+	{
+		Game game = Game.name( "game" ).romA( "romA" ).build();
+
+		when( gamePersister.getGameSummaries( defaultDatabase ) ).thenReturn( Collections.singleton( GameSummary.of( game ) ) );
+		when( gamePersister.getGame( "game", defaultDatabase ) ).thenReturn( game );
+
+		presenter = new MainPresenterImpl( view, settingsPresenterFactory, profileEditingPresenterFactory, scannerPresenterFactor, filterEditingPresenterFactory, gamePropertiesPresenterFactory,
+				blueMSXLauncherImporterPresenterFactory, databaseManagerPresenterFactory, activityViewerPresenterFactory, updateCheckerPresenterFactory, launcherPersistence, emulatorStarter,
+				extraDataGetter, extraDataDirectory, repositoryData, fileLocator, draggedAndDroppedGamesPresenterFactory, patcherPresenterFactory, machineUpdatePresenterFactory,
+				feedServicePresenter, relatedGamesPresenterFactory, lhaExtractorPresenter );
+
+		presenter.onRequestLocateFile( "game" );
+
+		verify( fileLocator, times( 1 ) ).locateFile( new File( "romA" ).getAbsolutePath() );
+	}
+
+	@Test
+	public void testOnSelectQuickFilterAndOnSelectDatabase() throws IOException, LauncherException, GamePersistenceException
+	{
+		String otherDatabase = "otherDatabase";
+		Filter filter = FilterFactory.createFilter( FilterType.SIZE, "16384", null, FilterParameter.EQUAL );
+		Game game1 = Game.name( "game1" ).romA( "romA" ).size( 16384 ).build();
+		Game game2 = Game.name( "game2" ).romA( "romA" ).size( 32768 ).build();
+		Set<Game> games = new HashSet<>( Arrays.asList( game1, game2 ) );
+		Set<GameLabel> filteredGameLabels = Collections.singleton( new GameLabel( "game1", null, null, 16384, Medium.ROM ) );
+
+		when( settingsPersister.getSettings() ).thenReturn( new Settings( null, null, null, defaultDatabase, null, false, false ) );
+		when( gamePersister.getGameSummaries( defaultDatabase ) ).thenReturn( games.stream().map( GameSummary::of ).collect( Collectors.toSet() ) );
+		when( gamePersister.getGames( defaultDatabase ) ).thenReturn( games );
+		//return a game that doesn't pass the filter to check that the presenter still applies it
+		when( gamePersister.getGames( otherDatabase, Collections.singleton( filter ) ) ).thenReturn( games );
+
+		presenter = new MainPresenterImpl( view, settingsPresenterFactory, profileEditingPresenterFactory, scannerPresenterFactor, filterEditingPresenterFactory, gamePropertiesPresenterFactory,
+				blueMSXLauncherImporterPresenterFactory, databaseManagerPresenterFactory, activityViewerPresenterFactory, updateCheckerPresenterFactory, launcherPersistence, emulatorStarter,
+				extraDataGetter, extraDataDirectory, repositoryData, fileLocator, draggedAndDroppedGamesPresenterFactory, patcherPresenterFactory, machineUpdatePresenterFactory,
+				feedServicePresenter, relatedGamesPresenterFactory, lhaExtractorPresenter );
+
+		//the default database is being browsed so the filter is resolved against an index of its games
+		presenter.onSelectQuickFilter( filter );
+
+		verify( gamePersister, never() ).getGames( defaultDatabase, Collections.singleton( filter ) );
+		verify( view, times( 1 ) ).fillGameList( defaultDatabase, filteredGameLabels, null );
+
+		//the games of the other database were never read so the database filters them
+		presenter.onSelectDatabase( otherDatabase );
+
+		verify( gamePersister, times( 1 ) ).getGames( otherDatabase, Collections.singleton( filter ) );
+		verify( view, times( 1 ) ).fillGameList( otherDatabase, filteredGameLabels, null );
+	}
+
+	@Test
+	public void testRepositoryDataIsReadWhenNeeded() throws IOException, LauncherException, GamePersistenceException
+	{
+		Filter filter = FilterFactory.createFilter( FilterType.COMPANY, "company2", null, null );
+		Game game = Game.name( "game" ).romA( "romA" ).sha1Code( "sha1" ).size( 16384 ).build();
+		Set<Game> games = Collections.singleton( game );
+		Map<String,RepositoryGame> repositoryInfoMap1 = Collections.singletonMap( "sha1", RepositoryGame.title( "title" ).system( "system" ).company( "company1" ).year( "1985" ).country( "country" ).build() );
+		Map<String,RepositoryGame> repositoryInfoMap2 = Collections.singletonMap( "sha1", RepositoryGame.title( "title" ).system( "system" ).company( "company2" ).year( "1986" ).country( "country" ).build() );
+		RelatedGamesPresenter relatedGamesPresenter = mock( RelatedGamesPresenter.class );
+
+		when( gamePersister.getGameSummaries( defaultDatabase ) ).thenReturn( Collections.singleton( GameSummary.of( game ) ) );
+		when( gamePersister.getGames( defaultDatabase ) ).thenReturn( games );
+		when( gamePersister.getGame( "game", defaultDatabase ) ).thenReturn( game );
+		when( relatedGamesPresenterFactory.get() ).thenReturn( relatedGamesPresenter );
+		when( repositoryData.getRepositoryInfo() ).thenReturn( repositoryInfoMap1 );
+
+		presenter = new MainPresenterImpl( view, settingsPresenterFactory, profileEditingPresenterFactory, scannerPresenterFactor, filterEditingPresenterFactory, gamePropertiesPresenterFactory,
+				blueMSXLauncherImporterPresenterFactory, databaseManagerPresenterFactory, activityViewerPresenterFactory, updateCheckerPresenterFactory, launcherPersistence, emulatorStarter,
+				extraDataGetter, extraDataDirectory, repositoryData, fileLocator, draggedAndDroppedGamesPresenterFactory, patcherPresenterFactory, machineUpdatePresenterFactory,
+				feedServicePresenter, relatedGamesPresenterFactory, lhaExtractorPresenter );
+
+		presenter.onRequestFindRelated( "game" );
+		presenter.onSelectQuickFilter( filter );
+
+		verify( view, times( 1 ) ).fillGameList( defaultDatabase, Collections.emptySet(), null );
+		verify( relatedGamesPresenter, times( 1 ) ).onRequestRelatedGamesScreen( game, repositoryInfoMap1, Language.ENGLISH, false );
+
+		//the repository files were reloaded - both the filter index and the related games use the new data
+		when( repositoryData.getRepositoryInfo() ).thenReturn( repositoryInfoMap2 );
+
+		presenter.onSelectQuickFilter( FilterFactory.createFilter( FilterType.SIZE, "16384", null, FilterParameter.EQUAL ) );
+		presenter.onRequestFindRelated( "game" );
+
+		verify( view, times( 1 ) ).fillGameList( defaultDatabase, Collections.singleton( new GameLabel( "game", "company2", "1986", 16384, Medium.ROM ) ), null );
+		verify( relatedGamesPresenter, times( 1 ) ).onRequestRelatedGamesScreen( game, repositoryInfoMap2, Language.ENGLISH, false );
+	}
+
 	private Set<DatabaseItem> getTestDatabaseItems()
 	{
 		DatabaseItem databaseItem1 = new DatabaseItem( "gameName", "database" );
@@ -250,6 +250,28 @@ public class ScannerPresenterImplTest
 		presenter.onRequestFillDatabaseAction( paths, traverseSubDirectories, database, newDatabase, append, machine, searchROM, searchDisk, searchTape, searchLaserdisc, getNameFromOpenMSXDatabase, backupDatabase );
 	}
 
+	@Test( expected = LauncherException.class )
+	public void testOnRequestFillDatabaseActionGamePersistenceIOException() throws IOException, LauncherException, GamePersistenceException
+	{
+		ScannerPresenterImpl presenter = new ScannerPresenterImpl( view, mainPresenter, scanner, machineLister );
+
+		String[] paths = new String[] { "path1", "path2" };
+		String database = "db";
+
+		when( scanner.scan( paths, true, database, false, true, "msx", true, true, false, false, false, false ) )
+			.thenThrow( new GamePersistenceException( GamePersistenceExceptionIssue.IO ) );
+
+		try
+		{
+			presenter.onRequestFillDatabaseAction( paths, true, database, false, true, "msx", true, true, false, false, false, false );
+		}
+		catch( LauncherException le )
+		{
+			assertEquals( LauncherExceptionCode.ERR_IO, le.getCode() );
+			throw le;
+		}
+	}
+
 	@Test( expected = LauncherException.class )
 	public void testOnRequestFillDatabaseActionIOException() throws IOException, LauncherException, GamePersistenceException
 	{
@@ -0,0 +1,132 @@
+package info.msxlaunchers.openmsx.launcher.ui.view.swing;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+public class ScreenshotLoaderTest
+{
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	private final ScreenshotLoader loader = new ScreenshotLoader();
+
+	@Test
+	public void givenExistingScreenshots_whenLoad_thenScreenshotsAreDecodedAndCached() throws Exception
+	{
+		String screenshot1 = createScreenshot("1a.png", 10, 20);
+		String screenshot2 = createScreenshot("1b.png", 30, 40);
+
+		ImageIcon[] icons = load(screenshot1, screenshot2);
+
+		assertEquals(10, icons[0].getIconWidth());
+		assertEquals(40, icons[1].getIconHeight());
+
+		//the second time the screenshots come from memory right away
+		ImageIcon[][] cachedIcons = new ImageIcon[1][];
+		SwingUtilities.invokeAndWait(() -> loader.load(screenshot1, screenshot2, (icon1, icon2) -> cachedIcons[0] = new ImageIcon[] {icon1, icon2}));
+
+		assertSame(icons[0], cachedIcons[0][0]);
+		assertSame(icons[1], cachedIcons[0][1]);
+	}
+
+	@Test
+	public void givenMissingScreenshot1_whenLoad_thenBothScreenshotsAreNull() throws Exception
+	{
+		String screenshot2 = createScreenshot("2b.png", 10, 10);
+
+		ImageIcon[] icons = load(new File(tmpFolder.getRoot(), "2a.png").toString(), screenshot2);
+
+		assertNull(icons[0]);
+		assertNull(icons[1]);
+	}
+
+	@Test
+	public void givenMissingScreenshot2_whenLoad_thenOnlyScreenshot2IsNull() throws Exception
+	{
+		String screenshot1 = createScreenshot("3a.png", 10, 10);
+
+		ImageIcon[] icons = load(screenshot1, new File(tmpFolder.getRoot(), "3b.png").toString());
+
+		assertNotNull(icons[0]);
+		assertNull(icons[1]);
+	}
+
+	@Test
+	public void givenPrefetchedScreenshot_whenLoad_thenScreenshotComesFromMemory() throws Exception
+	{
+		String screenshot1 = createScreenshot("4a.png", 10, 10);
+
+		ImageIcon icon = load(screenshot1, null)[0];
+		SwingUtilities.invokeAndWait(() -> loader.prefetch(screenshot1, null));
+
+		assertSame(icon, load(screenshot1, null)[0]);
+	}
+
+	@Test
+	public void givenNewerRequest_whenOlderRequestFinishes_thenOlderRequestIsNotDelivered() throws Exception
+	{
+		String screenshot1 = createScreenshot("5a.png", 10, 10);
+		AtomicBoolean staleDelivered = new AtomicBoolean();
+
+		SwingUtilities.invokeAndWait(() -> {
+			loader.load(screenshot1, null, (icon1, icon2) -> staleDelivered.set(true));
+			loader.load(null, null, (icon1, icon2) -> {});
+		});
+
+		//let the first request finish if it was already started
+		load(screenshot1, null);
+		SwingUtilities.invokeAndWait(() -> {});
+
+		assertFalse(staleDelivered.get());
+	}
+
+	@Test
+	public void givenNullScreenshot1_whenLoad_thenConsumerIsCalledRightAway() throws Exception
+	{
+		AtomicBoolean delivered = new AtomicBoolean();
+
+		SwingUtilities.invokeAndWait(() -> loader.load(null, "ignored", (icon1, icon2) -> delivered.set(icon1 == null && icon2 == null)));
+
+		assertTrue(delivered.get());
+	}
+
+	private ImageIcon[] load(String screenshot1, String screenshot2) throws Exception
+	{
+		BlockingQueue<ImageIcon[]> result = new LinkedBlockingQueue<>();
+
+		SwingUtilities.invokeAndWait(() -> loader.load(screenshot1, screenshot2, (icon1, icon2) -> result.add(new ImageIcon[] {icon1, icon2})));
+
+		ImageIcon[] icons = result.poll(10, TimeUnit.SECONDS);
+		assertNotNull(icons);
+
+		return icons;
+	}
+
+	private String createScreenshot(String name, int width, int height) throws IOException
+	{
+		File file = new File(tmpFolder.getRoot(), name);
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file);
+
+		return file.toString();
+	}
+}
@@ -0,0 +1,210 @@
+package info.msxlaunchers.openmsx.launcher.ui.view.swing.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SortedListModelTest
+{
+	//elements are "name:version" - the name is the key and the version is the contents
+	private final SortedListModel<String> model = new SortedListModel<>(Comparator.comparing(SortedListModelTest::getName), String::equals);
+	private final List<String> mirror = new ArrayList<>();
+	private int events;
+
+	@Before
+	public void setUp()
+	{
+		//replay the events on a copy of the list to check that they describe the changes
+		model.addListDataListener(new ListDataListener()
+		{
+			@Override
+			public void intervalAdded(ListDataEvent e)
+			{
+				events++;
+				for(int index = e.getIndex0(); index <= e.getIndex1(); index++)
+				{
+					mirror.add(index, model.getElementAt(index));
+				}
+			}
+
+			@Override
+			public void intervalRemoved(ListDataEvent e)
+			{
+				events++;
+				mirror.subList(e.getIndex0(), e.getIndex1() + 1).clear();
+			}
+
+			@Override
+			public void contentsChanged(ListDataEvent e)
+			{
+				events++;
+				for(int index = e.getIndex0(); index <= e.getIndex1(); index++)
+				{
+					mirror.set(index, model.getElementAt(index));
+				}
+			}
+		});
+	}
+
+	@Test
+	public void testSetElementsSortsElements()
+	{
+		model.setElements(Arrays.asList("c:1", "a:1", "b:1"));
+
+		assertEquals(Arrays.asList("a:1", "b:1", "c:1"), getElements());
+		assertEquals(getElements(), mirror);
+		assertEquals(1, events);
+	}
+
+	@Test
+	public void testSetElementsUpdatesChangedRangesOnly()
+	{
+		model.setElements(getElements(0, 100, 1));
+		events = 0;
+
+		List<String> elements = getElements(0, 100, 1);
+		elements.subList(10, 20).clear();
+		elements.set(40, "050:2");
+		elements.set(41, "051:2");
+		elements.add("100:1");
+
+		model.setElements(elements);
+
+		assertEquals(elements, getElements());
+		assertEquals(elements, mirror);
+		//one removed range, one changed range and one added range
+		assertEquals(3, events);
+	}
+
+	@Test
+	public void testSetSameElementsFiresNoEvents()
+	{
+		model.setElements(getElements(0, 100, 1));
+		events = 0;
+
+		model.setElements(getElements(0, 100, 1));
+
+		assertEquals(0, events);
+	}
+
+	@Test
+	public void testSetElementsWithManyRangesReplacesList()
+	{
+		model.setElements(getElements(0, 1000, 1));
+		events = 0;
+
+		List<String> elements = getElements(0, 1000, 1).stream().filter(element -> getName(element).endsWith("0")).collect(Collectors.toList());
+		model.setElements(elements);
+
+		assertEquals(elements, getElements());
+		assertEquals(elements, mirror);
+		assertEquals(2, events);
+	}
+
+	@Test
+	public void testSetElementsRandomly()
+	{
+		Random random = new Random(0);
+
+		for(int run = 0; run < 200; run++)
+		{
+			List<String> elements = new ArrayList<>();
+			for(int index = 0; index < 200; index++)
+			{
+				if(random.nextInt(4) > 0)
+				{
+					elements.add(String.format("%03d:%d", index, random.nextInt(SortedListModel.MAXIMUM_INCREMENTAL_RANGES) == 0 ? 2 : 1));
+				}
+			}
+			Collections.shuffle(elements, random);
+
+			model.setElements(elements);
+
+			Collections.sort(elements);
+			assertEquals(elements, getElements());
+			assertEquals(elements, mirror);
+		}
+	}
+
+	@Test
+	public void testPutAndIndexOf()
+	{
+		model.setElements(Arrays.asList("a:1", "c:1"));
+
+		model.put("b:1");
+		model.put("c:2");
+		model.put("c:2");
+
+		assertEquals(Arrays.asList("a:1", "b:1", "c:2"), getElements());
+		assertEquals(getElements(), mirror);
+		assertEquals(1, model.indexOf("b:0"));
+		assertEquals(-1, model.indexOf("d:1"));
+		//set, add, change
+		assertEquals(3, events);
+	}
+
+	@Test
+	public void testGetFirstIndex()
+	{
+		model.setElements(getElements(0, 100, 1));
+
+		assertEquals(0, model.getFirstIndex(element -> true));
+		assertEquals(42, model.getFirstIndex(element -> getName(element).compareTo("042") >= 0));
+		assertEquals(43, model.getFirstIndex(element -> getName(element).compareTo("0425") >= 0));
+		assertEquals(100, model.getFirstIndex(element -> false));
+	}
+
+	@Test
+	public void testRemoveAllFiresOneEventPerRange()
+	{
+		model.setElements(getElements(0, 10, 1));
+		events = 0;
+
+		model.removeAll(new int[] {8, 1, 2, 3, 9, 5});
+
+		assertEquals(Arrays.asList("000:1", "004:1", "006:1", "007:1"), getElements());
+		assertEquals(getElements(), mirror);
+		assertEquals(3, events);
+	}
+
+	@Test
+	public void testClear()
+	{
+		model.setElements(getElements(0, 10, 1));
+
+		model.clear();
+		model.clear();
+
+		assertEquals(0, model.getSize());
+		assertEquals(0, mirror.size());
+		assertEquals(2, events);
+	}
+
+	private List<String> getElements()
+	{
+		return IntStream.range(0, model.getSize()).mapToObj(model::getElementAt).collect(Collectors.toList());
+	}
+
+	private static List<String> getElements(int from, int to, int version)
+	{
+		return IntStream.range(from, to).mapToObj(index -> String.format("%03d:%d", index, version)).collect(Collectors.toList());
+	}
+
+	private static String getName(String element)
+	{
+		return element.substring(0, element.indexOf(':'));
+	}
+}